@@ -1,11 +1,23 @@
 package Controlador;
 
+import Diagnostico.EventoClickCasilla;
+import Diagnostico.EventoPgn;
 import Modelo.*;
-import Modelo.ReglaJuego;
-import Modelo.ValidadorMovimiento;
-import Modelo.Pieza;
 import Modelo.TableroEstado;
 import Modelo.GestorSonido;
+import Motor.AnalizadorPartida;
+import Motor.Arbitro;
+import Motor.EstadoPartida;
+import Motor.GeneradorMovimientos;
+import Motor.GestorBusqueda;
+import Motor.LimitesBusqueda;
+import Motor.Movimiento;
+import Motor.Notacion;
+import Motor.Posicion;
+import Motor.ResultadoBusqueda;
+import Servidor.ClienteRed;
+import Servidor.Mensaje;
+import Servidor.Protocolo;
 import Vista.*;
 import javax.swing.*;
 import java.awt.*;
@@ -16,15 +28,35 @@ import java.beans.PropertyChangeListener;
 import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
  * Controlador principal del juego de ajedrez que gestiona la lógica entre el modelo y la vista.
  * Implementa ActionListener para manejar eventos de la interfaz y PropertyChangeListener
  * para la comunicación entre componentes.
+ *
+ * Las reglas de la partida en curso no se aplican en el hilo de Swing: cada
+ * click se envía como comando a un único hilo de lógica, dueño de la posición,
+ * los movimientos legales y el árbitro. Los resultados vuelven a la vista con
+ * SwingUtilities.invokeLater, y al empezar o abandonar una partida se descartan
+ * los comandos y resultados pendientes de la anterior.
+ *
+ * En una partida en red los movimientos propios se proponen al servidor y
+ * sólo se aplican cuando éste los confirma; el final de la partida y el
+ * tiempo de los relojes también los decide el servidor.
+ *
+ * En el visor un grupo de hilos evalúa en segundo plano todas las posiciones
+ * de la partida, empezando por la mostrada, y la gráfica de evaluación se
+ * completa según llegan los resultados. Además el motor puede analizar a
+ * fondo la posición mostrada; cada iteración se publica en el panel de
+ * estadísticas de la vista.
  */
 public class Controlador implements ActionListener, PropertyChangeListener {
     private Modelo modelo;
@@ -32,11 +64,62 @@ public class Controlador implements ActionListener, PropertyChangeListener {
     private int movimientoActual;
     private List<TableroEstado> historicoTableros;
     private boolean modoJuego;
+
+    // Estado de la partida en curso: sólo lo toca el hilo de lógica
     private Point piezaSeleccionada;
-    private boolean turnoBlancas;
-    private boolean jaqueMateDetectado;
     private List<String> movimientosPartida;
     private boolean partidaFinalizada;
+    /** Réplica de la partida en curso con la representación del motor */
+    private Posicion posicion;
+    /** Movimientos legales de la posición actual, calculados una sola vez tras cada jugada */
+    private int[] movimientosLegales;
+    /** Para cada casilla de origen (fila * 8 + columna), máscara con sus casillas de destino legales */
+    private final long[] destinosLegales = new long[64];
+    /** Árbitro que decide el final de la partida en curso, una vez por movimiento */
+    private final Arbitro arbitro = new Arbitro();
+    /** Estado de la partida tras el último movimiento */
+    private EstadoPartida estadoPartida = EstadoPartida.EN_CURSO;
+    /** Partida en red en curso, o -1 si se juega en local */
+    private volatile long partidaRed = -1;
+    /** Bando propio en la partida en red, o -1 si se juega en local */
+    private int bandoRed = -1;
+    /** Resultado y motivo que comunicó el servidor al terminar la partida en red */
+    private String resultadoRed;
+    private String motivoRed;
+    private volatile ClienteRed clienteRed;
+    private String nombreRed;
+    private int tiempoRed;
+    private int incrementoRed;
+    /** Generación del comando que se está ejecutando en el hilo de lógica */
+    private int generacionComando;
+
+    /** Hilo único que ejecuta la lógica de la partida, en el orden de llegada de los comandos */
+    private final ExecutorService hiloLogica = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "logica-partida");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    /** Se incrementa al empezar o abandonar una partida, invalidando el trabajo pendiente */
+    private final AtomicInteger generacion = new AtomicInteger();
+    /** Motor del análisis del visor; se crea la primera vez que se usa */
+    private GestorBusqueda analizador;
+    /** true si el visor está analizando la posición mostrada; sólo se usa en el hilo de Swing */
+    private boolean analizando;
+    /** Cuenta los análisis iniciados, para descartar las iteraciones de uno anterior */
+    private int generacionAnalisis;
+    /** Variantes que muestra el análisis del visor (MultiPV) */
+    private int lineasAnalisis = 1;
+    private static final int HASH_ANALISIS = 64;
+    /** Evaluación de todas las posiciones de la partida del visor; se crea la primera vez que se usa */
+    private AnalizadorPartida analizadorPartida;
+    /** Posiciones de la partida del visor, con derechos de enroque y al paso */
+    private final List<Posicion> posicionesVisor = new ArrayList<>();
+    /** Cuenta las partidas analizadas, para descartar las evaluaciones de una anterior */
+    private int generacionPartidaVisor;
+    private static final int PROFUNDIDAD_PARTIDA = 10;
+    private static final long TIEMPO_POSICION_MS = 3000;
+    private static final Color COLOR_SELECCION = new Color(173, 216, 230);
+    private static final Color COLOR_DESTINO = new Color(144, 238, 144);
     /**
      * Ruta del directorio donde se guardan las partidas
      */
@@ -56,10 +139,9 @@ public class Controlador implements ActionListener, PropertyChangeListener {
         this.movimientoActual = 0;
         this.historicoTableros = new ArrayList<>();
         this.modoJuego = false;
-        this.turnoBlancas = true;
-        this.jaqueMateDetectado = false;
         this.partidaFinalizada = false;
         this.movimientosPartida = new ArrayList<>();
+        enviarComando(this::iniciarPosicion);
         vista.setControlador(this);
         vista.addPropertyChangeListener(this);
     }
@@ -83,20 +165,25 @@ public class Controlador implements ActionListener, PropertyChangeListener {
                 break;
             case "ANTERIOR":
                 if (!modoJuego && movimientoActual > 0) {
-                    movimientoActual--;
-                    actualizarVista();
+                    irAPly(movimientoActual - 1);
                     GestorSonido.reproducirSonidoMovimiento();
                 }
                 break;
             case "SIGUIENTE":
                 if (!modoJuego && movimientoActual < historicoTableros.size() - 1) {
-                    movimientoActual++;
-                    actualizarVista();
+                    irAPly(movimientoActual + 1);
                     GestorSonido.reproducirSonidoMovimiento();
                 }
                 break;
             case "GUARDAR_PARTIDA":
-                guardarPartida();
+                enviarComando(this::guardarPartida);
+                break;
+            case "ANALIZAR":
+                if (!modoJuego) {
+                    analizando = !analizando;
+                    vista.setAnalisisActivo(analizando);
+                    analizarPosicionVisor();
+                }
                 break;
             case "VOLVER_MENU":
                 volverAlMenu();
@@ -104,129 +191,441 @@ public class Controlador implements ActionListener, PropertyChangeListener {
         }
     }
 
+    /**
+     * Muestra en el visor la posición tras el medio movimiento indicado y
+     * pone por delante su análisis.
+     * @param ply Medios movimientos jugados (0 = posición inicial)
+     */
+    private void irAPly(int ply) {
+        movimientoActual = ply;
+        actualizarVista();
+        analizarPosicionVisor();
+        if (analizadorPartida != null) {
+            analizadorPartida.setFoco(ply);
+        }
+    }
+
+    /**
+     * Reconstruye las posiciones de la partida del visor a partir de sus
+     * movimientos en SAN, hasta el primero que no sea legal.
+     */
+    private void inicializarPosicionesVisor() {
+        posicionesVisor.clear();
+        Posicion actual = Posicion.inicial();
+        posicionesVisor.add(actual.copiar());
+        for (String san : modelo.getMovimientosPGN()) {
+            if (san == null || san.isEmpty()) {
+                continue;
+            }
+            int movimiento = Notacion.desdeSan(actual, san);
+            if (movimiento == Movimiento.NINGUNO) {
+                break;
+            }
+            actual.hacerMovimiento(movimiento);
+            posicionesVisor.add(actual.copiar());
+        }
+    }
+
+    /**
+     * Empieza a evaluar todas las posiciones de la partida del visor. Las
+     * evaluaciones llegan a la vista según se completan; las de una partida
+     * anterior que lleguen tarde se descartan.
+     */
+    private void analizarPartidaVisor() {
+        int generacionActual = ++generacionPartidaVisor;
+        vista.reiniciarEvaluaciones(posicionesVisor.size());
+        if (analizadorPartida == null) {
+            analizadorPartida = new AnalizadorPartida(Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                    HASH_ANALISIS, PROFUNDIDAD_PARTIDA, TIEMPO_POSICION_MS);
+        }
+        analizadorPartida.analizar(posicionesVisor, movimientoActual, evaluacion ->
+                SwingUtilities.invokeLater(() -> {
+                    if (generacionActual == generacionPartidaVisor) {
+                        vista.mostrarEvaluacion(evaluacion);
+                    }
+                }));
+    }
+
+    /**
+     * @return Copia de la posición que muestra el visor
+     */
+    private Posicion posicionVisor() {
+        if (movimientoActual < posicionesVisor.size()) {
+            return posicionesVisor.get(movimientoActual).copiar();
+        }
+        return Posicion.desdeEstado(historicoTableros.get(movimientoActual), movimientoActual % 2 == 0);
+    }
+
+    /**
+     * Analiza la posición que muestra el visor sin límite de tiempo, o detiene
+     * el análisis si ya no está activo. Las iteraciones de un análisis anterior
+     * que lleguen tarde se descartan.
+     */
+    private void analizarPosicionVisor() {
+        int generacionActual = ++generacionAnalisis;
+        if (!analizando || modoJuego || historicoTableros.isEmpty()) {
+            if (analizador != null) {
+                analizador.detener();
+            }
+            return;
+        }
+        if (analizador == null) {
+            analizador = new GestorBusqueda(HASH_ANALISIS);
+            analizador.setHilos(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        }
+        analizador.setLineas(lineasAnalisis);
+        Posicion analizada = posicionVisor();
+        LimitesBusqueda limites = new LimitesBusqueda();
+        limites.setInfinito(true);
+        vista.limpiarEstadisticas();
+        analizador.iniciar(analizada, limites, resultado -> {
+            List<String> variantes = new ArrayList<>();
+            for (ResultadoBusqueda linea : resultado.getLineas()) {
+                variantes.add(formatearAnalisis(analizada.copiar(), linea));
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (generacionActual == generacionAnalisis) {
+                    vista.mostrarEstadisticas(variantes, resultado.getEstadisticas());
+                }
+            });
+        }, resultado -> { });
+    }
+
+    /**
+     * @param posicion Copia de la posición analizada, que se modifica al recorrer la variante
+     * @return Evaluación desde el punto de vista de las blancas, profundidad y variante principal en SAN
+     */
+    private static String formatearAnalisis(Posicion posicion, ResultadoBusqueda resultado) {
+        int signo = posicion.getTurno() == Posicion.BLANCAS ? 1 : -1;
+        StringBuilder texto = new StringBuilder();
+        if (resultado.esMate()) {
+            int ply = resultado.getMateEnPly();
+            texto.append('#').append(signo * (ply + (ply > 0 ? 1 : -1)) / 2);
+        } else {
+            texto.append(String.format("%+.2f", signo * resultado.getPuntuacion() / 100.0));
+        }
+        texto.append(" (").append(resultado.getProfundidad()).append(")");
+        int[] variante = resultado.getVariantePrincipal();
+        for (int i = 0; i < Math.min(variante.length, 6); i++) {
+            texto.append(' ').append(Notacion.aSan(posicion, variante[i]));
+            posicion.hacerMovimiento(variante[i]);
+        }
+        return texto.toString();
+    }
+
     /**
      * Procesa los clicks realizados en las casillas del tablero durante una partida.
+     * Se ejecuta en el hilo de lógica; los cambios en la vista se publican con
+     * {@link #publicar(Runnable)}.
      * Este método maneja la lógica de: Selección de piezas según el turno actual
-     * - Validación y ejecución de movimientos
-     * - Verificación de jaque y jaque mate
-     * - Cambio de turnoo
+     * - Resaltado de la pieza seleccionada y de todos sus destinos legales
+     * - Ejecución de movimientos, consultando la máscara de destinos ya calculada
+     * - Cambio de turno
+     * Sólo se aceptan movimientos legales: los que dejarían al propio rey en
+     * jaque no aparecen en {@link #destinosLegales}.
      * @param casilla Point que contiene las coordenadas (x,y) de la casilla clickeada
      *               donde x representa la fila (0-7) e y la columna (0-7)
      */
     private void manejarClickCasilla(Point casilla) {
-        if (partidaFinalizada) {
-            return;
-        }
-
-        Pieza[][] tablero = modelo.getTablero().getTablero();
-        int fila = casilla.x;
-        int columna = casilla.y;
+        EventoClickCasilla evento = new EventoClickCasilla();
+        evento.begin();
+        long clave = posicion.getClave();
+        int movimiento = Movimiento.NINGUNO;
+        String resultado = "ignorado";
 
-        if (piezaSeleccionada == null) {
-            Pieza pieza = tablero[fila][columna];
-            if (pieza != null && ((turnoBlancas && pieza.getColor() == 'B') ||
-                    (!turnoBlancas && pieza.getColor() == 'N'))) {
-                piezaSeleccionada = casilla;
-                vista.resaltarCasilla(fila, columna, new Color(173, 216, 230));
+        int pulsada = casilla.x * 8 + casilla.y;
+        try {
+            if (partidaFinalizada || (bandoRed >= 0 && posicion.getTurno() != bandoRed)) {
+                return;
             }
-        } else {
-            int filaOrigen = piezaSeleccionada.x;
-            int columnaOrigen = piezaSeleccionada.y;
-            Pieza piezaOrigen = tablero[filaOrigen][columnaOrigen];
-
-            if (ValidadorMovimiento.esMovimientoValido(piezaOrigen, filaOrigen, columnaOrigen,
-                    fila, columna, modelo.getTablero())) {
-
-                // Verificar si se está capturando al rey
-                Pieza piezaDestino = tablero[fila][columna];
-                boolean capturaRey = piezaDestino != null &&
-                        piezaDestino.getNombre().equals("Rey");
-
-                // Realizar el movimiento
-                realizarMovimiento(filaOrigen, columnaOrigen, fila, columna);
-                registrarMovimiento(filaOrigen, columnaOrigen, fila, columna, piezaOrigen);
-
-                if (capturaRey) {
-                    partidaFinalizada = true;
-                    vista.detenerReloj();
-                    String ganador = turnoBlancas ? "Blancas" : "Negras";
-                    SwingUtilities.invokeLater(() -> {
-                        finalizarPartida(true, ganador);
-                    });
-                    return;
-                }
 
-                // Verificar jaque mate
-                Point posReyOponente = ReglaJuego.encontrarRey(!turnoBlancas, modelo.getTablero());
-                if (posReyOponente != null && ReglaJuego.estaEnJaque(posReyOponente, !turnoBlancas, modelo.getTablero())) {
-                    if (ReglaJuego.esJaqueMate(!turnoBlancas, modelo.getTablero())) {
-                        partidaFinalizada = true;
-                        jaqueMateDetectado = true;
-                        vista.detenerReloj();
-                        String ganador = turnoBlancas ? "Blancas" : "Negras";
-                        SwingUtilities.invokeLater(() -> {
-                            finalizarPartida(true, ganador);
-                        });
-                        return;
+            if (piezaSeleccionada != null) {
+                int origen = piezaSeleccionada.x * 8 + piezaSeleccionada.y;
+                piezaSeleccionada = null;
+                if ((destinosLegales[origen] & (1L << pulsada)) != 0) {
+                    movimiento = buscarMovimiento(origen, pulsada);
+                    resultado = "movimiento";
+                    if (bandoRed >= 0) {
+                        proponerMovimiento(movimiento);
+                    } else {
+                        jugarMovimiento(movimiento);
                     }
+                    return;
                 }
-
-                // Si no hay jaque mate ni captura de rey, continuar el juego
-                if (!partidaFinalizada) {
-                    turnoBlancas = !turnoBlancas;
-                    vista.cambiarTurnoReloj();
+                if (origen == pulsada || destinosLegales[pulsada] == 0) {
+                    resultado = "deseleccion";
+                    publicar(vista::quitarResaltados);
+                    return;
                 }
             }
 
-            piezaSeleccionada = null;
+            // Sólo se pueden seleccionar piezas del bando que mueve con algún movimiento legal
+            long destinos = destinosLegales[pulsada];
+            if (destinos != 0) {
+                resultado = "seleccion";
+                piezaSeleccionada = casilla;
+                publicar(() -> vista.resaltarMovimientosLegales(casilla.x, casilla.y, destinos,
+                        COLOR_SELECCION, COLOR_DESTINO));
+            }
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.clavePosicion = clave;
+                evento.casilla = Movimiento.nombreCasilla(pulsada);
+                evento.resultado = resultado;
+                evento.movimiento = movimiento != Movimiento.NINGUNO ? Movimiento.aUci(movimiento) : "";
+                evento.commit();
+            }
+        }
+    }
+
+    /**
+     * Busca el movimiento legal entre dos casillas. Las promociones se hacen a dama.
+     * @param origen casilla de origen (fila * 8 + columna)
+     * @param destino casilla de destino (fila * 8 + columna)
+     * @return Movimiento codificado, o Movimiento.NINGUNO si no hay ninguno
+     */
+    private int buscarMovimiento(int origen, int destino) {
+        for (int movimiento : movimientosLegales) {
+            if (Movimiento.origen(movimiento) == origen && Movimiento.destino(movimiento) == destino
+                    && (Movimiento.promocion(movimiento) == Posicion.VACIO
+                    || Movimiento.promocion(movimiento) == Posicion.DAMA)) {
+                return movimiento;
+            }
+        }
+        return Movimiento.NINGUNO;
+    }
+
+    /**
+     * Juega un movimiento legal: lo registra en notación SAN, lo aplica a la
+     * posición (enroques, capturas al paso y promociones incluidos), recalcula
+     * los movimientos legales del rival y publica el nuevo tablero.
+     * @param movimiento movimiento legal de la posición actual
+     */
+    private void jugarMovimiento(int movimiento) {
+        movimientosPartida.add(Notacion.aSan(posicion, movimiento, movimientosLegales));
+        posicion.hacerMovimiento(movimiento);
+        GestorSonido.reproducirSonidoMovimiento();
+        actualizarMovimientosLegales();
+
+        estadoPartida = arbitro.registrar(posicion, movimientosLegales.length);
+        partidaFinalizada = estadoPartida.esFinal();
+
+        TableroEstado tablero = posicion.aEstado();
+        EstadoPartida estado = estadoPartida;
+        int turno = posicion.getTurno();
+        boolean enRed = bandoRed >= 0;
+        publicar(() -> {
+            modelo.setTablero(tablero);
+            if (estado.esFinal() && !enRed) {
+                finalizarPartida(estado, turno);
+            } else {
+                vista.cambiarTurnoReloj();
+            }
             actualizarVista();
+        });
+    }
+
+    /**
+     * Vuelve a la posición inicial, calcula sus movimientos legales y la
+     * registra en un árbitro vacío. Se ejecuta en el hilo de lógica.
+     */
+    private void iniciarPosicion() {
+        piezaSeleccionada = null;
+        partidaFinalizada = false;
+        partidaRed = -1;
+        bandoRed = -1;
+        resultadoRed = null;
+        motivoRed = null;
+        movimientosPartida.clear();
+        posicion = Posicion.inicial();
+        actualizarMovimientosLegales();
+        arbitro.reiniciar();
+        estadoPartida = arbitro.registrar(posicion, movimientosLegales.length);
+    }
+
+    /**
+     * Genera los movimientos legales de la posición actual y los agrupa por
+     * casilla de origen, de forma que cada click se resuelve consultando un bit.
+     */
+    private void actualizarMovimientosLegales() {
+        movimientosLegales = GeneradorMovimientos.legales(posicion);
+        Arrays.fill(destinosLegales, 0L);
+        for (int movimiento : movimientosLegales) {
+            destinosLegales[Movimiento.origen(movimiento)] |= 1L << Movimiento.destino(movimiento);
         }
     }
 
     /**
-     * Registra un movimiento en notación algebraica.
-     *
-     * @param filaOrigen fila inicial de la pieza
-     * @param columnaOrigen columna inicial de la pieza
-     * @param filaDestino fila destino de la pieza
-     * @param columnaDestino columna destino de la pieza
-     * @param pieza la pieza que se mueve
+     * Conecta con un servidor de partidas y pide rival. La partida empieza
+     * cuando el servidor encuentra otro jugador con el mismo control de tiempo.
+     * La conexión se abre en el hilo de lógica para no bloquear la interfaz si
+     * el servidor tarda en responder.
+     * @param host Nombre o dirección del servidor
+     * @param puerto Puerto del servidor
+     * @param nombre Nombre con el que se presenta el jugador
+     * @param tiempoInicial Tiempo de cada jugador en milisegundos
+     * @param incremento Incremento Fischer por jugada en milisegundos
      */
-    private void registrarMovimiento(int filaOrigen, int columnaOrigen,
-                                     int filaDestino, int columnaDestino, Pieza pieza) {
-        if (movimientosPartida == null) {
-            movimientosPartida = new ArrayList<>();
+    public void jugarEnRed(String host, int puerto, String nombre, int tiempoInicial, int incremento) {
+        nombreRed = nombre;
+        tiempoRed = tiempoInicial;
+        incrementoRed = incremento;
+        enviarComando(() -> {
+            try {
+                ClienteRed cliente = new ClienteRed(host, puerto);
+                cliente.addPropertyChangeListener(this);
+                clienteRed = cliente;
+                cliente.iniciar();
+                buscarPartidaRed();
+            } catch (IOException e) {
+                publicar(() -> vista.mostrarMensaje("No se pudo conectar con el servidor: " + e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Pide rival al servidor. Se ejecuta en el hilo de lógica.
+     */
+    private void buscarPartidaRed() {
+        try {
+            clienteRed.buscarPartida(tiempoRed, incrementoRed, nombreRed);
+            publicar(() -> vista.setTitle("Chess Game - esperando rival..."));
+        } catch (IOException e) {
+            publicar(() -> vista.mostrarMensaje("Error de conexión: " + e.getMessage()));
         }
+    }
+
+    /**
+     * Empieza la partida en red que ha emparejado el servidor. Se ejecuta en el hilo de lógica.
+     */
+    private void iniciarPartidaRed(Mensaje mensaje) {
+        iniciarPosicion();
+        partidaRed = mensaje.getPartida();
+        bandoRed = mensaje.getBando();
+        String blancas = bandoRed == Posicion.BLANCAS ? nombreRed : mensaje.getTexto();
+        String negras = bandoRed == Posicion.BLANCAS ? mensaje.getTexto() : nombreRed;
+        publicar(() -> {
+            vista.setTitle("Chess Game - " + blancas + " vs " + negras);
+            modoJuego = true;
+            vista.setModoJuego(true);
+            vista.configurarRelojRed(blancas, negras, mensaje.getTiempoInicial(), mensaje.getIncremento());
+            modelo.reiniciarTablero();
+            vista.mostrarTablero();
+            vista.iniciarReloj();
+            actualizarVista();
+        });
+    }
 
-        String columnas = "abcdefgh";
-        String movimiento = "";
+    /**
+     * Envía al servidor un movimiento propio; se aplicará cuando lo confirme.
+     */
+    private void proponerMovimiento(int movimiento) {
+        publicar(vista::quitarResaltados);
+        try {
+            clienteRed.mover(partidaRed, Movimiento.origen(movimiento), Movimiento.destino(movimiento),
+                    Movimiento.promocion(movimiento));
+        } catch (IOException e) {
+            publicar(() -> vista.mostrarMensaje("Error de conexión: " + e.getMessage()));
+        }
+    }
 
-        if (!pieza.getNombre().equals("Peón")) {
-            movimiento += pieza.getNombre().substring(0, 1).toUpperCase();
+    /**
+     * Aplica un movimiento confirmado por el servidor, propio o del rival, y
+     * ajusta los relojes al tiempo oficial. Se ejecuta en el hilo de lógica.
+     */
+    private void aplicarMovimientoRed(Mensaje mensaje) {
+        if (mensaje.getPartida() != partidaRed) {
+            return;
+        }
+        short codigo = mensaje.getMovimiento();
+        for (int movimiento : movimientosLegales) {
+            if (Protocolo.empaquetar(Movimiento.origen(movimiento), Movimiento.destino(movimiento),
+                    Movimiento.promocion(movimiento)) == codigo) {
+                piezaSeleccionada = null;
+                jugarMovimiento(movimiento);
+                publicar(() -> vista.sincronizarReloj(mensaje.getRelojBlancas(), mensaje.getRelojNegras()));
+                return;
+            }
         }
+    }
 
-        movimiento += columnas.charAt(columnaOrigen);
-        movimiento += (8 - filaOrigen);
+    /**
+     * Termina la partida en red con el resultado que comunica el servidor.
+     */
+    private void terminarPartidaRed(Mensaje mensaje) {
+        if (mensaje.getPartida() != partidaRed) {
+            return;
+        }
+        partidaFinalizada = true;
+        resultadoRed = mensaje.getTexto();
+        motivoRed = mensaje.getMotivo();
+        boolean victoria = (resultadoRed.equals("1-0") && bandoRed == Posicion.BLANCAS)
+                || (resultadoRed.equals("0-1") && bandoRed == Posicion.NEGRAS);
+        String mensajeFinal;
+        if (resultadoRed.equals("1-0") || resultadoRed.equals("0-1")) {
+            mensajeFinal = "¡" + (resultadoRed.equals("1-0") ? "Blancas" : "Negras")
+                    + " han ganado la partida por " + motivoRed + "!";
+        } else {
+            mensajeFinal = "Tablas por " + motivoRed + ".";
+        }
+        publicar(() -> mostrarFinPartida(mensajeFinal, victoria));
+    }
 
-        Pieza[][] tablero = modelo.getTablero().getTablero();
-        movimiento += (tablero[filaDestino][columnaDestino] != null) ? "x" : "-";
+    /**
+     * Envía un comando al hilo de lógica. Si antes de que se ejecute empieza
+     * otra partida o se vuelve al menú, el comando se descarta.
+     * @param comando tarea que lee o modifica el estado de la partida
+     */
+    private void enviarComando(Runnable comando) {
+        int generacionEnvio = generacion.get();
+        hiloLogica.execute(() -> {
+            if (generacionEnvio == generacion.get()) {
+                generacionComando = generacionEnvio;
+                comando.run();
+            }
+        });
+    }
 
-        movimiento += columnas.charAt(columnaDestino);
-        movimiento += (8 - filaDestino);
+    /**
+     * Publica en el hilo de Swing un cambio de la vista calculado por el hilo
+     * de lógica. Se descarta si la partida que lo produjo ya no es la actual.
+     * @param actualizacion tarea que sólo toca la vista y el modelo
+     */
+    private void publicar(Runnable actualizacion) {
+        int generacionResultado = generacionComando;
+        SwingUtilities.invokeLater(() -> {
+            if (generacionResultado == generacion.get()) {
+                actualizacion.run();
+            }
+        });
+    }
 
-        movimientosPartida.add(movimiento);
+    /**
+     * Abandona el trabajo pendiente de la partida actual y deja la lógica en la
+     * posición inicial. Se llama desde el hilo de Swing.
+     */
+    private void cancelarPartidaEnCurso() {
+        generacion.incrementAndGet();
+        enviarComando(this::iniciarPosicion);
     }
 
     /**
      * Guarda el estado actual de la partida en un archivo.
      * Incluye los movimientos realizados y el resultado si la partida ha terminado.
+     * Se ejecuta en el hilo de lógica, así que la escritura no bloquea la interfaz.
      */
     private void guardarPartida() {
-        if (movimientosPartida == null || movimientosPartida.isEmpty()) {
-            vista.mostrarMensaje("No hay movimientos para guardar.");
+        if (movimientosPartida.isEmpty()) {
+            publicar(() -> vista.mostrarMensaje("No hay movimientos para guardar."));
             return;
         }
 
+        EventoPgn evento = new EventoPgn();
+        evento.begin();
+        evento.operacion = "guardar";
+        evento.movimientos = movimientosPartida.size();
+        evento.clavePosicion = posicion.getClave();
         try {
             File directorio = new File(DIRECTORIO_PARTIDAS);
             if (!directorio.exists() && !directorio.mkdirs()) {
@@ -260,16 +659,23 @@ public class Controlador implements ActionListener, PropertyChangeListener {
                     writer.println();
                 }
 
-                if (jaqueMateDetectado) {
-                    writer.println(turnoBlancas ? "0-1" : "1-0");
+                if (resultadoRed != null) {
+                    writer.println(resultadoRed + " {" + motivoRed + "}");
+                } else if (estadoPartida.esFinal()) {
+                    writer.println(estadoPartida.resultadoPgn(posicion.getTurno())
+                            + " {" + estadoPartida.getDescripcion() + "}");
                 }
             }
 
-            vista.mostrarMensaje("Partida guardada exitosamente en: " + archivo.getAbsolutePath());
+            evento.archivo = archivo.getPath();
+            evento.correcto = true;
+            publicar(() -> vista.mostrarMensaje("Partida guardada exitosamente en: " + archivo.getAbsolutePath()));
 
         } catch (IOException e) {
-            vista.mostrarMensaje("Error al guardar la partida: " + e.getMessage());
+            publicar(() -> vista.mostrarMensaje("Error al guardar la partida: " + e.getMessage()));
             e.printStackTrace();
+        } finally {
+            evento.commit();
         }
     }
 
@@ -283,6 +689,9 @@ public class Controlador implements ActionListener, PropertyChangeListener {
         try {
             cargarPartidaPGN("partida.pgn");
             inicializarHistoricoTableros();
+            vista.mostrarMovimientos(modelo.getMovimientosPGN());
+            inicializarPosicionesVisor();
+            analizarPartidaVisor();
             actualizarVista();
             vista.mostrarTablero();
         } catch (Exception ex) {
@@ -297,20 +706,11 @@ public class Controlador implements ActionListener, PropertyChangeListener {
     private void iniciarModoJuego() {
         reiniciarEstadoJuego();
         modoJuego = true;
-        turnoBlancas = true;
-        jaqueMateDetectado = false;
-        partidaFinalizada = false;
 
         if (!vista.mostrarDialogoJugadores()) {
             return;
         }
 
-        if (movimientosPartida != null) {
-            movimientosPartida.clear();
-        } else {
-            movimientosPartida = new ArrayList<>();
-        }
-
         vista.setModoJuego(true);
         modelo.reiniciarTablero();
         vista.mostrarTablero();
@@ -319,6 +719,16 @@ public class Controlador implements ActionListener, PropertyChangeListener {
     }
 
     private void volverAlMenu() {
+        abandonarPartidaRed();
+        if (analizando) {
+            analizando = false;
+            vista.setAnalisisActivo(false);
+            analizarPosicionVisor();
+        }
+        generacionPartidaVisor++;
+        if (analizadorPartida != null) {
+            analizadorPartida.detener();
+        }
         modoJuego = false;
         vista.setModoJuego(false);
         vista.detenerReloj();
@@ -349,6 +759,10 @@ public class Controlador implements ActionListener, PropertyChangeListener {
      * @param archivo ruta del archivo PGN a cargar
      */
     private void cargarPartidaPGN(String archivo) {
+        EventoPgn evento = new EventoPgn();
+        evento.begin();
+        evento.operacion = "cargar";
+        evento.archivo = archivo;
         List<String> movimientos = new ArrayList<>();
         try (Scanner scanner = new Scanner(new File(archivo))) {
             StringBuilder contenidoMovimientos = new StringBuilder();
@@ -372,22 +786,25 @@ public class Controlador implements ActionListener, PropertyChangeListener {
                     movimientos.add(movimiento);
                 }
             }
+            evento.correcto = true;
         } catch (FileNotFoundException e) {
             System.err.println("No se pudo encontrar el archivo PGN: " + e.getMessage());
         }
+        evento.movimientos = movimientos.size();
+        evento.commit();
 
         modelo.cargarMovimientosPGN(movimientos);
     }
 
     private void actualizarVista() {
         if (modoJuego) {
-            vista.actualizarTablero(modelo.getTablero().getTablero());
+            vista.actualizarTablero(modelo.getEstado());
         } else if (movimientoActual >= 0 && movimientoActual < historicoTableros.size()) {
             TableroEstado estado = historicoTableros.get(movimientoActual);
             if (estado != null) {
-                modelo.setTablero(estado.getEstado());
-                vista.actualizarTablero(estado.getEstado());
-                vista.mostrarMovimientos(modelo.getMovimientosPGN());
+                modelo.setTablero(estado);
+                vista.actualizarTablero(estado);
+                vista.resaltarMovimiento(movimientoActual);
             }
         }
     }
@@ -401,12 +818,51 @@ public class Controlador implements ActionListener, PropertyChangeListener {
     @Override
     public void propertyChange(PropertyChangeEvent evt) {
         switch (evt.getPropertyName()) {
+            case "IR_A_PLY":
+                int ply = (Integer) evt.getNewValue();
+                if (!modoJuego && ply < historicoTableros.size()) {
+                    irAPly(ply);
+                }
+                break;
+            case "LINEAS_ANALISIS":
+                lineasAnalisis = (Integer) evt.getNewValue();
+                analizarPosicionVisor();
+                break;
             case "CLICK_CASILLA":
-                if (modoJuego && !partidaFinalizada) {
+                if (modoJuego) {
                     Point casilla = (Point) evt.getNewValue();
-                    manejarClickCasilla(casilla);
+                    enviarComando(() -> manejarClickCasilla(casilla));
                 }
                 break;
+            case "TIEMPO_AGOTADO":
+                enviarComando(() -> partidaFinalizada = true);
+                break;
+            case "PARTIDA_INICIADA":
+                Mensaje inicio = (Mensaje) evt.getNewValue();
+                enviarComando(() -> iniciarPartidaRed(inicio));
+                break;
+            case "MOVIMIENTO_RED":
+                Mensaje movimiento = (Mensaje) evt.getNewValue();
+                enviarComando(() -> aplicarMovimientoRed(movimiento));
+                break;
+            case "FIN_PARTIDA_RED":
+                Mensaje fin = (Mensaje) evt.getNewValue();
+                enviarComando(() -> terminarPartidaRed(fin));
+                break;
+            case "ERROR_RED":
+                Mensaje error = (Mensaje) evt.getNewValue();
+                SwingUtilities.invokeLater(() -> vista.mostrarMensaje("El servidor rechazó la acción: "
+                        + error.getTexto()));
+                break;
+            case "DESCONECTADO":
+                clienteRed = null;
+                enviarComando(() -> {
+                    if (bandoRed >= 0 && !partidaFinalizada) {
+                        partidaFinalizada = true;
+                        publicar(() -> vista.mostrarMensaje("Se ha perdido la conexión con el servidor."));
+                    }
+                });
+                break;
             case "NUEVA_PARTIDA":
                 iniciarModoJuego();
                 break;
@@ -417,81 +873,88 @@ public class Controlador implements ActionListener, PropertyChangeListener {
     }
 
     /**
-     * Procesa el movimiento de una pieza en el tablero.
-     * Valida el movimiento y actualiza el estado del juego.
+     * Finaliza la partida actual.
+     * Muestra el resultado y opciones para nueva partida o volver al menú.
      *
-     * @param filaOrigen fila inicial de la pieza
-     * @param columnaOrigen columna inicial de la pieza
-     * @param filaDestino fila destino de la pieza
-     * @param columnaDestino columna destino de la pieza
+     * @param estado estado final de la partida, tal como lo determinó el árbitro
+     * @param turno bando al que le tocaría mover en la posición final
      */
-    private void realizarMovimiento(int filaOrigen, int columnaOrigen,
-                                    int filaDestino, int columnaDestino) {
-        Pieza[][] tablero = modelo.getTablero().getTablero();
-        Pieza pieza = tablero[filaOrigen][columnaOrigen];
-
-        tablero[filaDestino][columnaDestino] = pieza;
-        tablero[filaOrigen][columnaOrigen] = null;
-        pieza.setPosicion(String.format("%c%d", (char)('a' + columnaDestino), 8 - filaDestino));
-
-        GestorSonido.reproducirSonidoMovimiento();
+    private void finalizarPartida(EstadoPartida estado, int turno) {
+        String mensajeFinal;
+        if (estado == EstadoPartida.JAQUE_MATE) {
+            // En la posición de mate le toca mover al bando que ha perdido
+            String ganador = turno == Posicion.BLANCAS ? "Negras" : "Blancas";
+            mensajeFinal = "¡" + ganador + " han ganado la partida por jaque mate!";
+        } else {
+            mensajeFinal = "Tablas por " + estado.getDescripcion() + ".";
+        }
+        mostrarFinPartida(mensajeFinal, estado == EstadoPartida.JAQUE_MATE);
     }
 
     /**
-     * Finaliza la partida actual.
-     * Muestra el resultado y opciones para nueva partida o volver al menú.
-     *
-     * @param victoria true si la partida terminó en victoria, false en otro caso
-     * @param equipoGanador nombre del equipo ganador
+     * Detiene el reloj y ofrece una nueva partida, guardar la actual o volver al menú.
+     * @param mensajeFinal texto con el resultado
+     * @param victoria true si se debe celebrar una victoria
      */
-    private void finalizarPartida(boolean victoria, String equipoGanador) {
-        partidaFinalizada = true;
+    private void mostrarFinPartida(String mensajeFinal, boolean victoria) {
         vista.detenerReloj();
         if (victoria) {
             GestorSonido.reproducirSonidoVictoria();
-            String mensajeFinal = "¡" + equipoGanador + " han ganado la partida!";
-            SwingUtilities.invokeLater(() -> {
-                Object[] opciones = {"Nueva Partida", "Guardar Partida", "Volver al Menú"};
-                int seleccion = JOptionPane.showOptionDialog(vista,
-                        mensajeFinal,
-                        "Fin del Juego",
-                        JOptionPane.YES_NO_CANCEL_OPTION,
-                        JOptionPane.INFORMATION_MESSAGE,
-                        null,
-                        opciones,
-                        opciones[0]);
-
-                if (seleccion == JOptionPane.YES_OPTION) {
-                    reiniciarPartida();
-                } else if (seleccion == JOptionPane.NO_OPTION) {
-                    guardarPartida();
-                } else {
-                    volverAlMenu();
+        }
+        SwingUtilities.invokeLater(() -> {
+            Object[] opciones = {"Nueva Partida", "Guardar Partida", "Volver al Menú"};
+            int seleccion = JOptionPane.showOptionDialog(vista,
+                    mensajeFinal,
+                    "Fin del Juego",
+                    JOptionPane.YES_NO_CANCEL_OPTION,
+                    JOptionPane.INFORMATION_MESSAGE,
+                    null,
+                    opciones,
+                    opciones[0]);
+
+            if (seleccion == JOptionPane.YES_OPTION) {
+                reiniciarPartida();
+            } else if (seleccion == JOptionPane.NO_OPTION) {
+                enviarComando(this::guardarPartida);
+            } else {
+                volverAlMenu();
+            }
+        });
+    }
+
+    /**
+     * Si se está jugando en red, comunica al servidor el abandono de la partida.
+     * El envío va al hilo de lógica sin pasar por {@link #enviarComando}, porque
+     * la partida se cancela a continuación y el comando no debe descartarse.
+     */
+    private void abandonarPartidaRed() {
+        long partida = partidaRed;
+        ClienteRed cliente = clienteRed;
+        if (cliente != null && partida >= 0) {
+            hiloLogica.execute(() -> {
+                try {
+                    cliente.abandonar(partida);
+                } catch (IOException e) {
+                    // La conexión ya no está disponible: el servidor dará la partida por abandonada
                 }
             });
         }
     }
 
     private void reiniciarEstadoJuego() {
-        partidaFinalizada = false;
-        jaqueMateDetectado = false;
-        turnoBlancas = true;
-        piezaSeleccionada = null;
-        if (movimientosPartida != null) {
-            movimientosPartida.clear();
-        }
+        cancelarPartidaEnCurso();
         modelo.reiniciarTablero();
     }
 
     private void reiniciarPartida() {
-        partidaFinalizada = false;
-        jaqueMateDetectado = false;
-        turnoBlancas = true;
-        piezaSeleccionada = null;
-        if (movimientosPartida != null) {
-            movimientosPartida.clear();
-        }
+        cancelarPartidaEnCurso();
         modelo.reiniciarTablero();
+        if (clienteRed != null) {
+            // En red la nueva partida empieza cuando el servidor encuentra rival
+            enviarComando(this::buscarPartidaRed);
+            actualizarVista();
+            return;
+        }
         vista.iniciarReloj();
         actualizarVista();
     }
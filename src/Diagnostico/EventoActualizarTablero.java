@@ -0,0 +1,23 @@
+package Diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Actualización del tablero dibujado con una nueva posición, en el hilo de Swing.
+ */
+@Name("ajedrez.ActualizarTablero")
+@Label("Actualizar tablero")
+@Category({"Ajedrez", "Vista"})
+@Description("Cálculo de las casillas que cambian y petición de repintado")
+public class EventoActualizarTablero extends Event {
+    @Label("Hash de la posición")
+    @Description("Hash de la disposición de las piezas mostrada")
+    public long clavePosicion;
+
+    @Label("Casillas repintadas")
+    public int casillasRepintadas;
+}
@@ -0,0 +1,32 @@
+package Diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Atención de un click en una casilla del tablero en el hilo de lógica, desde
+ * que se recibe hasta que se publica la respuesta para la interfaz.
+ */
+@Name("ajedrez.ClickCasilla")
+@Label("Click en casilla")
+@Category({"Ajedrez", "Controlador"})
+@Description("Atención de un click en el tablero en el hilo de lógica de la partida")
+public class EventoClickCasilla extends Event {
+    @Label("Clave de la posición")
+    @Description("Clave Zobrist de la posición en la que se hizo el click")
+    public long clavePosicion;
+
+    @Label("Casilla")
+    public String casilla;
+
+    @Label("Resultado")
+    @Description("seleccion, movimiento, deseleccion o ignorado")
+    public String resultado;
+
+    @Label("Movimiento")
+    @Description("Movimiento jugado en notación UCI, vacío si el click no movió ninguna pieza")
+    public String movimiento;
+}
@@ -0,0 +1,33 @@
+package Diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Carga o guardado de una partida en un archivo.
+ */
+@Name("ajedrez.Pgn")
+@Label("Carga o guardado de partida")
+@Category({"Ajedrez", "E/S"})
+@Description("Lectura o escritura de una partida en formato PGN")
+public class EventoPgn extends Event {
+    @Label("Operación")
+    @Description("cargar o guardar")
+    public String operacion;
+
+    @Label("Archivo")
+    public String archivo;
+
+    @Label("Movimientos")
+    public int movimientos;
+
+    @Label("Clave de la posición")
+    @Description("Clave Zobrist de la posición final de la partida guardada, 0 al cargar")
+    public long clavePosicion;
+
+    @Label("Correcto")
+    public boolean correcto;
+}
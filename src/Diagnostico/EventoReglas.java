@@ -0,0 +1,30 @@
+package Diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Comprobación de las reglas que deciden si la partida ha terminado.
+ */
+@Name("ajedrez.ComprobacionReglas")
+@Label("Comprobación de reglas")
+@Category({"Ajedrez", "Reglas"})
+@Description("Detección de jaque mate y demás finales de partida")
+public class EventoReglas extends Event {
+    @Label("Comprobación")
+    @Description("Método que hace la comprobación")
+    public String comprobacion;
+
+    @Label("Clave de la posición")
+    @Description("Clave Zobrist, o hash de la disposición de las piezas si la posición no tiene clave")
+    public long clavePosicion;
+
+    @Label("Bando")
+    public String bando;
+
+    @Label("Resultado")
+    public String resultado;
+}
@@ -0,0 +1,23 @@
+package Diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Petición de un efecto de sonido: su arranque en el hilo de audio o su descarte.
+ */
+@Name("ajedrez.Sonido")
+@Label("Sonido")
+@Category({"Ajedrez", "Sonido"})
+@Description("Arranque de un efecto de sonido o descarte de la petición")
+public class EventoSonido extends Event {
+    @Label("Sonido")
+    public String sonido;
+
+    @Label("Reproducido")
+    @Description("false si la cola estaba llena, no había Clip libre o el sonido no se pudo cargar")
+    public boolean reproducido;
+}
@@ -1,6 +1,9 @@
 /**
  * Clase principal que inicia la aplicación de ajedrez.
  * Configura el modelo, vista y controlador siguiendo el patrón MVC.
+ *
+ * Con --servidor host:puerto se conecta a un ServidorPartidas y busca rival;
+ * opcionalmente --nombre, --tiempo (minutos) y --incremento (segundos).
  */
 import Modelo.*;
 import Controlador.*;
@@ -8,11 +11,45 @@ import Vista.Vista;
 
 public class Main {
     public static void main(String[] args) {
+        String servidor = null;
+        String nombre = System.getProperty("user.name", "Jugador");
+        int minutos = 5;
+        int incremento = 0;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--servidor":
+                    servidor = args[i + 1];
+                    break;
+                case "--nombre":
+                    nombre = args[i + 1];
+                    break;
+                case "--tiempo":
+                    minutos = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--incremento":
+                    incremento = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+            }
+        }
+
+        GestorSonido.inicializar();
+        String host = servidor;
+        String jugador = nombre;
+        int tiempoMs = minutos * 60_000;
+        int incrementoMs = incremento * 1000;
         javax.swing.SwingUtilities.invokeLater(() -> {
             Modelo modelo = new Modelo();
             Vista vista = new Vista();
             Controlador controlador = new Controlador(modelo, vista);
             vista.setVisible(true);
+            if (host != null) {
+                int separador = host.lastIndexOf(':');
+                String direccion = separador >= 0 ? host.substring(0, separador) : host;
+                int puerto = separador >= 0 ? Integer.parseInt(host.substring(separador + 1)) : 7878;
+                controlador.jugarEnRed(direccion, puerto, jugador, tiempoMs, incrementoMs);
+            }
         });
     }
-}
\ No newline at end of file
+}
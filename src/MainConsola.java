@@ -0,0 +1,676 @@
+import Modelo.ModoTiempo;
+import Motor.*;
+import Servidor.ClienteRed;
+import Servidor.Mensaje;
+import Servidor.Protocolo;
+import Servidor.RegistroSesiones;
+import Servidor.ServidorPartidas;
+import Servidor.SesionPartida;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Punto de entrada sin interfaz gráfica.
+ * Ofrece subcomandos para reproducir, verificar, analizar y convertir
+ * partidas usando sólo el núcleo del motor, sin cargar Swing ni AWT, de modo
+ * que puede ejecutarse en servidores sin pantalla.
+ */
+public class MainConsola {
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            mostrarUso();
+            System.exit(1);
+        }
+        try {
+            switch (args[0]) {
+                case "replay":
+                    requerirArgumentos(args, 2);
+                    reproducir(args[1], args.length > 2 && args[2].equals("--fen"));
+                    break;
+                case "perft":
+                    requerirArgumentos(args, 2);
+                    perft(Integer.parseInt(args[1]), args.length > 2 ? unir(args, 2) : Posicion.FEN_INICIAL);
+                    break;
+                case "analyse":
+                    requerirArgumentos(args, 2);
+                    analizar(args[1], args.length > 2 ? Integer.parseInt(args[2]) : 4);
+                    break;
+                case "convert":
+                    requerirArgumentos(args, 3);
+                    convertir(args[1], args[2]);
+                    break;
+                case "bench":
+                    bench(args.length > 1 ? Integer.parseInt(args[1]) : 6, args.length > 2 ? args[2] : "");
+                    break;
+                case "multipv":
+                    Bench.multiPv(args.length > 1 ? Long.parseLong(args[1]) : 1000,
+                            args.length > 2 ? Integer.parseInt(args[2]) : 4,
+                            args.length > 3 ? Integer.parseInt(args[3]) : 3, System.out);
+                    break;
+                case "stats":
+                    requerirArgumentos(args, 2);
+                    estadisticas(Integer.parseInt(args[1]), args.length > 2 ? Integer.parseInt(args[2]) : 1,
+                            args.length > 3 ? unir(args, 3) : Posicion.FEN_INICIAL);
+                    break;
+                case "annotate":
+                    requerirArgumentos(args, 3);
+                    anotar(args);
+                    break;
+                case "tournament":
+                    requerirArgumentos(args, 3);
+                    torneo(args);
+                    break;
+                case "sessions":
+                    requerirArgumentos(args, 2);
+                    sesiones(Integer.parseInt(args[1]),
+                            args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors());
+                    break;
+                case "server":
+                    servidor(args.length > 1 ? Integer.parseInt(args[1]) : 7878,
+                            args.length > 2 ? Integer.parseInt(args[2]) : 2);
+                    break;
+                case "netbench":
+                    requerirArgumentos(args, 2);
+                    pruebaRed(Integer.parseInt(args[1]), args.length > 2 ? Integer.parseInt(args[2]) : 2);
+                    break;
+                case "broadcast":
+                    difusion(args.length > 1 ? Integer.parseInt(args[1]) : 10_000,
+                            args.length > 2 ? Integer.parseInt(args[2]) : 100,
+                            args.length > 3 ? Integer.parseInt(args[3]) : 10);
+                    break;
+                case "uci":
+                    new Uci(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+                            System.out).ejecutar();
+                    break;
+                default:
+                    mostrarUso();
+                    System.exit(1);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static void mostrarUso() {
+        System.err.println("Uso: java MainConsola <subcomando> [argumentos]");
+        System.err.println("  replay <archivo.pgn> [--fen]         valida las partidas y muestra la posición final");
+        System.err.println("  perft <profundidad> [fen]            cuenta los nodos del árbol de movimientos");
+        System.err.println("  analyse <archivo.pgn> [profundidad]  evalúa cada posición de las partidas");
+        System.err.println("  convert <entrada.pgn> <salida>       convierte a .pgn, .epd o .uci según la extensión");
+        System.err.println("  uci                                  atiende el protocolo UCI por la entrada estándar");
+        System.err.println("  bench [profundidad] [opción=valor,...]");
+        System.err.println("                                       nodos hasta una profundidad fija en posiciones de prueba");
+        System.err.println("  multipv [ms] [variantes] [rondas]    profundidad alcanzada en las posiciones de prueba con");
+        System.err.println("                                       1 a N variantes (MultiPV) y el mismo tiempo por posición;");
+        System.err.println("                                       mediana de las rondas tras una de calentamiento");
+        System.err.println("  stats <profundidad> [hilos] [fen]    estadísticas de la búsqueda en JSON, una línea por");
+        System.err.println("                                       iteración y otra final con todos los hilos");
+        System.err.println("  annotate <entrada.pgn> <salida.pgn> [opciones]");
+        System.err.println("                                       anota las partidas con evaluaciones y marcas ?!, ?");
+        System.err.println("                                       y ??; continúa desde salida.pgn.punto si existe.");
+        System.err.println("                                       Opciones: --hilos N, --profundidad N, --tiempo ms,");
+        System.err.println("                                       --hash MB, --cpu minutos de CPU de todos los hilos");
+        System.err.println("  tournament <motorA> <motorB> [opciones]");
+        System.err.println("                                       enfrenta dos configuraciones con SPRT; cada motor se");
+        System.err.println("                                       describe como nombre:clave=valor,... (hash, nodos,");
+        System.err.println("                                       profundidad, tiempo). Opciones: --partidas N,");
+        System.err.println("                                       --aperturas libro.epd|pgn, --plies N, --hilos N,");
+        System.err.println("                                       --pgn salida.pgn, --elo0 E, --elo1 E, --alfa A, --beta B");
+        System.err.println("  sessions <partidas> [hilos]          juega a la vez partidas aleatorias con reloj en un");
+        System.err.println("                                       registro de sesiones compartido por pocos hilos");
+        System.err.println("  server [puerto] [hilos]              servidor de partidas en red (por defecto 7878)");
+        System.err.println("  netbench <partidas> [hilos]          juega partidas aleatorias contra un servidor local");
+        System.err.println("                                       a través de la interfaz de loopback");
+        System.err.println("  broadcast [espectadores] [partidas] [lentos]");
+        System.err.println("                                       difunde partidas aleatorias a muchos espectadores");
+        System.err.println("                                       locales (por defecto 10000), algunos lentos");
+    }
+
+    /**
+     * Reproduce todas las partidas de un archivo comprobando que cada
+     * movimiento es legal.
+     */
+    private static void reproducir(String archivo, boolean mostrarFen) throws IOException {
+        int numero = 0;
+        int errores = 0;
+        try (LectorPgn lector = abrir(archivo)) {
+            PartidaPgn partida;
+            while ((partida = lector.siguiente()) != null) {
+                numero++;
+                Posicion posicion = partida.posicionInicial();
+                List<String> movimientos = partida.getMovimientos();
+                int ply = 0;
+                for (; ply < movimientos.size(); ply++) {
+                    int movimiento = Notacion.desdeSan(posicion, movimientos.get(ply));
+                    if (movimiento == Movimiento.NINGUNO) {
+                        break;
+                    }
+                    posicion.hacerMovimiento(movimiento);
+                    if (mostrarFen) {
+                        System.out.println(posicion.aFen());
+                    }
+                }
+                if (ply < movimientos.size()) {
+                    errores++;
+                    System.out.println("Partida " + numero + ": movimiento ilegal en el medio movimiento "
+                            + (ply + 1) + " (" + movimientos.get(ply) + ")");
+                } else {
+                    System.out.println("Partida " + numero + ": " + movimientos.size() + " medios movimientos, "
+                            + partida.getResultado() + ", " + posicion.aFen());
+                }
+            }
+        }
+        System.out.println(numero + " partidas, " + errores + " con errores");
+    }
+
+    private static void perft(int profundidad, String fen) {
+        Posicion posicion = Posicion.desdeFen(fen);
+        long inicio = System.nanoTime();
+        long nodos = Perft.dividir(posicion, profundidad, System.out);
+        long ms = Math.max(1, (System.nanoTime() - inicio) / 1_000_000L);
+        System.out.println();
+        System.out.println("Nodos: " + nodos);
+        System.out.println("Tiempo: " + ms + " ms (" + nodos * 1000 / ms + " nodos/s)");
+    }
+
+    /**
+     * Evalúa cada posición de las partidas a una profundidad fija. Las
+     * puntuaciones se muestran desde el punto de vista de las blancas.
+     */
+    private static void analizar(String archivo, int profundidad) throws IOException {
+        try (LectorPgn lector = abrir(archivo)) {
+            PartidaPgn partida;
+            int numero = 0;
+            while ((partida = lector.siguiente()) != null) {
+                numero++;
+                System.out.println("Partida " + numero + ": " + partida.getEtiqueta("White")
+                        + " - " + partida.getEtiqueta("Black"));
+                Posicion posicion = partida.posicionInicial();
+                for (String san : partida.getMovimientos()) {
+                    int movimiento = Notacion.desdeSan(posicion, san);
+                    if (movimiento == Movimiento.NINGUNO) {
+                        System.out.println("  movimiento ilegal: " + san);
+                        break;
+                    }
+                    ResultadoBusqueda resultado = new Buscador(posicion).buscar(profundidad);
+                    String mejor = resultado.getMejorMovimiento() != Movimiento.NINGUNO
+                            ? Notacion.aSan(posicion, resultado.getMejorMovimiento()) : "-";
+                    int signo = posicion.getTurno() == Posicion.BLANCAS ? 1 : -1;
+                    System.out.printf("  %d%s %-8s eval %s  mejor %s%n", posicion.getNumeroJugada(),
+                            posicion.getTurno() == Posicion.BLANCAS ? "." : "...", san,
+                            formatearPuntuacion(resultado, signo), mejor);
+                    posicion.hacerMovimiento(movimiento);
+                }
+            }
+        }
+    }
+
+    /**
+     * Convierte las partidas de un archivo PGN. El formato de salida se
+     * elige por la extensión: .pgn (SAN normalizado), .epd (una línea por
+     * posición) o .uci (una línea de movimientos UCI por partida).
+     */
+    private static void convertir(String entrada, String salida) throws IOException {
+        String formato = salida.substring(salida.lastIndexOf('.') + 1).toLowerCase();
+        if (!formato.equals("pgn") && !formato.equals("epd") && !formato.equals("uci")) {
+            throw new IllegalArgumentException("Formato de salida no soportado: " + salida);
+        }
+        int numero = 0;
+        try (LectorPgn lector = abrir(entrada);
+             Writer escritor = new BufferedWriter(new OutputStreamWriter(
+                     new FileOutputStream(salida), StandardCharsets.UTF_8))) {
+            EscritorPgn escritorPgn = new EscritorPgn(escritor);
+            PartidaPgn partida;
+            while ((partida = lector.siguiente()) != null) {
+                numero++;
+                Posicion posicion = partida.posicionInicial();
+                PartidaPgn normalizada = new PartidaPgn();
+                normalizada.getEtiquetas().putAll(partida.getEtiquetas());
+                normalizada.setResultado(partida.getResultado());
+                StringBuilder uci = new StringBuilder();
+                int ply = 0;
+
+                if (formato.equals("epd")) {
+                    escribirEpd(escritor, posicion, numero, ply);
+                }
+                for (String san : partida.getMovimientos()) {
+                    int movimiento = Notacion.desdeSan(posicion, san);
+                    if (movimiento == Movimiento.NINGUNO) {
+                        System.err.println("Partida " + numero + ": movimiento ilegal " + san + ", se trunca");
+                        break;
+                    }
+                    normalizada.getMovimientos().add(Notacion.aSan(posicion, movimiento));
+                    uci.append(uci.length() > 0 ? " " : "").append(Movimiento.aUci(movimiento));
+                    posicion.hacerMovimiento(movimiento);
+                    ply++;
+                    if (formato.equals("epd")) {
+                        escribirEpd(escritor, posicion, numero, ply);
+                    }
+                }
+
+                if (formato.equals("pgn")) {
+                    escritorPgn.escribir(normalizada);
+                } else if (formato.equals("uci")) {
+                    escritor.write(uci + "\n");
+                }
+            }
+        }
+        System.out.println(numero + " partidas convertidas a " + salida);
+    }
+
+    /**
+     * Cuenta los nodos necesarios para llegar a una profundidad fija, con las
+     * técnicas de búsqueda indicadas (por ejemplo "Killers=false,History=false").
+     */
+    private static void bench(int profundidad, String opcionesTexto) {
+        OpcionesBusqueda opciones = new OpcionesBusqueda();
+        for (String par : opcionesTexto.split(",")) {
+            if (par.isBlank()) {
+                continue;
+            }
+            int igual = par.indexOf('=');
+            if (igual < 0 || !opciones.establecer(par.substring(0, igual).trim(), par.substring(igual + 1))) {
+                throw new IllegalArgumentException("opción de búsqueda no válida: " + par);
+            }
+        }
+        Bench.ejecutar(profundidad, opciones, System.out);
+    }
+
+    /**
+     * Busca una posición hasta una profundidad fija y muestra las estadísticas
+     * de cada iteración y las finales, ya sumados los hilos auxiliares.
+     */
+    private static void estadisticas(int profundidad, int hilos, String fen) {
+        GestorBusqueda gestor = new GestorBusqueda(64);
+        gestor.setHilos(hilos);
+        gestor.iniciar(Posicion.desdeFen(fen), LimitesBusqueda.porProfundidad(profundidad),
+                resultado -> System.out.println(resultado.getEstadisticas().aJson()),
+                resultado -> System.out.println(resultado.getEstadisticas().aJson()));
+        gestor.esperar();
+    }
+
+    /**
+     * Aloja muchas partidas simultáneas en un {@link RegistroSesiones} y las
+     * juega con movimientos aleatorios. Cada tarea del grupo de hilos juega un
+     * movimiento de una sesión y vuelve a encolarla, de modo que todas las
+     * partidas avanzan a la vez con sólo unos pocos hilos.
+     */
+    private static void sesiones(int partidas, int hilos) throws IOException {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch pendientes = new CountDownLatch(partidas);
+        AtomicLong movimientos = new AtomicLong();
+        long inicio = System.nanoTime();
+        try (RegistroSesiones registro = new RegistroSesiones()) {
+            for (int i = 0; i < partidas; i++) {
+                SesionPartida sesion = registro.crear("Blancas " + i, "Negras " + i, 300_000, 3_000, ModoTiempo.FISCHER);
+                sesion.iniciar();
+                ejecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        List<String> legales = sesion.getMovimientosLegales();
+                        if (legales.isEmpty()) {
+                            pendientes.countDown();
+                            return;
+                        }
+                        try {
+                            sesion.jugar(sesion.getTurno(),
+                                    legales.get(ThreadLocalRandom.current().nextInt(legales.size())));
+                        } catch (IllegalStateException e) {
+                            // Bandera caída entre la consulta y el movimiento
+                            pendientes.countDown();
+                            return;
+                        }
+                        movimientos.incrementAndGet();
+                        ejecutor.execute(this);
+                    }
+                });
+            }
+            pendientes.await();
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            Map<String, Integer> motivos = new TreeMap<>();
+            for (SesionPartida sesion : registro.getSesiones()) {
+                motivos.merge(sesion.getMotivo(), 1, Integer::sum);
+            }
+            System.out.printf("%d partidas, %d movimientos en %.2f s con %d hilos (%.0f movimientos/s)%n",
+                    partidas, movimientos.get(), segundos, hilos, movimientos.get() / segundos);
+            for (Map.Entry<String, Integer> entrada : motivos.entrySet()) {
+                System.out.printf("  %-30s %d%n", entrada.getKey(), entrada.getValue());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrumpido", e);
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Juega partidas aleatorias con reloj, una tras otra, y difunde cada
+     * movimiento y cada actualización del reloj a todos los espectadores. Los
+     * primeros espectadores tardan 1 ms en atender cada lote, para comprobar
+     * que no frenan la partida y que reciben las novedades agrupadas.
+     */
+    private static void difusion(int espectadores, int partidas, int lentos) throws IOException {
+        LongAdder eventosEntregados = new LongAdder();
+        LongAdder lotes = new LongAdder();
+        LongAdder lotesLentos = new LongAdder();
+        LongAdder resincronizados = new LongAdder();
+        long publicados = 0;
+        long movimientos = 0;
+        long nanosEscritor = 0;
+        long inicio = System.nanoTime();
+        try (RegistroSesiones registro = new RegistroSesiones()) {
+            for (int p = 0; p < partidas; p++) {
+                SesionPartida sesion = registro.crear("Blancas " + p, "Negras " + p, 300_000, 3_000, ModoTiempo.FISCHER);
+                CountDownLatch terminados = new CountDownLatch(espectadores);
+                for (int i = 0; i < espectadores; i++) {
+                    boolean lento = i < lentos;
+                    sesion.getDifusor().suscribir(lote -> {
+                        if (lento) {
+                            LockSupport.parkNanos(1_000_000);
+                            lotesLentos.increment();
+                        }
+                        eventosEntregados.add(lote.getEventos());
+                        lotes.increment();
+                        if (lote.isResincronizado()) {
+                            resincronizados.increment();
+                        }
+                        if (lote.getResultado() != null) {
+                            terminados.countDown();
+                        }
+                    });
+                }
+                sesion.iniciar();
+                while (!sesion.isTerminada()) {
+                    List<String> legales = sesion.getMovimientosLegales();
+                    if (legales.isEmpty()) {
+                        break;
+                    }
+                    long antes = System.nanoTime();
+                    sesion.jugar(sesion.getTurno(), legales.get(ThreadLocalRandom.current().nextInt(legales.size())));
+                    sesion.difundirReloj();
+                    nanosEscritor += System.nanoTime() - antes;
+                    movimientos++;
+                }
+                terminados.await();
+                publicados += sesion.getDifusor().getPublicados();
+                registro.eliminar(sesion.getId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrumpido", e);
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        long entregados = eventosEntregados.sum();
+        System.out.printf("%d partidas, %d movimientos, %d eventos publicados para %d espectadores (%d lentos)%n",
+                partidas, movimientos, publicados, espectadores, lentos);
+        System.out.printf("%d eventos entregados en %.2f s (%.0f eventos/s), %d lotes (%.1f eventos por lote)%n",
+                entregados, segundos, entregados / segundos, lotes.sum(), (double) entregados / lotes.sum());
+        System.out.printf("espectadores lentos: %d lotes para %d eventos; %d lotes resincronizados%n",
+                lotesLentos.sum(), (long) lentos * publicados / partidas, resincronizados.sum());
+        System.out.printf("tiempo medio de la partida por movimiento (jugar y publicar): %.1f microsegundos%n",
+                nanosEscritor / 1e3 / movimientos);
+    }
+
+    /**
+     * Atiende partidas en red hasta que se detiene el proceso.
+     */
+    private static void servidor(int puerto, int hilos) throws IOException {
+        ServidorPartidas servidor = new ServidorPartidas("0.0.0.0", puerto, hilos);
+        servidor.iniciar();
+        System.out.println("Servidor de partidas escuchando en el puerto " + servidor.getPuerto()
+                + " con " + hilos + " hilos de E/S");
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            servidor.close();
+        }
+    }
+
+    /**
+     * Arranca un servidor en un puerto libre de la interfaz de loopback y lo
+     * somete a varias partidas simultáneas de jugadores aleatorios, cada uno
+     * con su propia conexión. Comprueba de extremo a extremo el protocolo, el
+     * emparejamiento, la validación de movimientos y el final de las partidas.
+     */
+    private static void pruebaRed(int partidas, int hilos) throws IOException {
+        CountDownLatch pendientes = new CountDownLatch(partidas);
+        Map<String, Integer> motivos = new ConcurrentHashMap<>();
+        AtomicLong movimientos = new AtomicLong();
+        AtomicLong errores = new AtomicLong();
+        List<ClienteRed> clientes = new ArrayList<>();
+        long inicio = System.nanoTime();
+        try (ServidorPartidas servidor = new ServidorPartidas("127.0.0.1", 0, hilos)) {
+            servidor.iniciar();
+            for (int i = 0; i < 2 * partidas; i++) {
+                ClienteRed cliente = new ClienteRed("127.0.0.1", servidor.getPuerto());
+                cliente.addPropertyChangeListener(
+                        new JugadorAleatorio(cliente, pendientes, motivos, movimientos, errores));
+                cliente.iniciar();
+                cliente.buscarPartida(600_000, 0, "Jugador " + i);
+                clientes.add(cliente);
+            }
+            pendientes.await();
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("%d partidas, %d movimientos en %.2f s con %d conexiones y %d hilos de E/S"
+                            + " (%.0f movimientos/s, %d errores)%n", partidas, movimientos.get(), segundos,
+                    servidor.getNumeroConexiones(), hilos, movimientos.get() / segundos, errores.get());
+            for (Map.Entry<String, Integer> entrada : new TreeMap<>(motivos).entrySet()) {
+                System.out.printf("  %-30s %d%n", entrada.getKey(), entrada.getValue());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrumpido", e);
+        } finally {
+            for (ClienteRed cliente : clientes) {
+                cliente.close();
+            }
+        }
+    }
+
+    /**
+     * Jugador de {@link #pruebaRed} que responde con un movimiento legal al azar.
+     * Lleva su propia copia de la posición, actualizada sólo con los
+     * movimientos que confirma el servidor, y su propio árbitro para no mover
+     * en una partida que el servidor está a punto de dar por terminada.
+     */
+    private static class JugadorAleatorio implements PropertyChangeListener {
+        private final ClienteRed cliente;
+        private final CountDownLatch pendientes;
+        private final Map<String, Integer> motivos;
+        private final AtomicLong movimientos;
+        private final AtomicLong errores;
+        private Posicion posicion;
+        private Arbitro arbitro;
+        private int bando;
+        private long partida;
+
+        JugadorAleatorio(ClienteRed cliente, CountDownLatch pendientes, Map<String, Integer> motivos,
+                         AtomicLong movimientos, AtomicLong errores) {
+            this.cliente = cliente;
+            this.pendientes = pendientes;
+            this.motivos = motivos;
+            this.movimientos = movimientos;
+            this.errores = errores;
+        }
+
+        @Override
+        public void propertyChange(PropertyChangeEvent evt) {
+            if (!(evt.getNewValue() instanceof Mensaje)) {
+                return;
+            }
+            Mensaje mensaje = (Mensaje) evt.getNewValue();
+            switch (evt.getPropertyName()) {
+                case "PARTIDA_INICIADA":
+                    posicion = Posicion.inicial();
+                    arbitro = new Arbitro();
+                    bando = mensaje.getBando();
+                    partida = mensaje.getPartida();
+                    break;
+                case "MOVIMIENTO_RED":
+                    short codigo = mensaje.getMovimiento();
+                    for (int movimiento : GeneradorMovimientos.legales(posicion)) {
+                        if (Protocolo.empaquetar(Movimiento.origen(movimiento), Movimiento.destino(movimiento),
+                                Movimiento.promocion(movimiento)) == codigo) {
+                            posicion.hacerMovimiento(movimiento);
+                            break;
+                        }
+                    }
+                    if (bando == Posicion.BLANCAS) {
+                        movimientos.incrementAndGet();
+                    }
+                    break;
+                case "FIN_PARTIDA_RED":
+                    if (bando == Posicion.BLANCAS) {
+                        motivos.merge(mensaje.getMotivo(), 1, Integer::sum);
+                        pendientes.countDown();
+                    }
+                    return;
+                default:
+                    errores.incrementAndGet();
+                    System.err.println("Error del servidor: " + mensaje.getTexto());
+                    return;
+            }
+            int[] legales = GeneradorMovimientos.legales(posicion);
+            if (!arbitro.registrar(posicion, legales.length).esFinal() && posicion.getTurno() == bando) {
+                int movimiento = legales[ThreadLocalRandom.current().nextInt(legales.length)];
+                try {
+                    cliente.mover(partida, Movimiento.origen(movimiento), Movimiento.destino(movimiento),
+                            Movimiento.promocion(movimiento));
+                } catch (IOException e) {
+                    errores.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Anota un archivo PGN completo con {@link AnotadorPgn}.
+     */
+    private static void anotar(String[] args) throws IOException {
+        AnotadorPgn anotador = new AnotadorPgn(args[1], args[2]);
+        for (int i = 3; i < args.length; i++) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("falta el valor de " + args[i]);
+            }
+            String valor = args[++i];
+            switch (args[i - 1]) {
+                case "--hilos": anotador.setHilos(Integer.parseInt(valor)); break;
+                case "--profundidad": anotador.setProfundidad(Integer.parseInt(valor)); break;
+                case "--tiempo": anotador.setTiempoPosicionMs(Long.parseLong(valor)); break;
+                case "--hash": anotador.setHashMb(Integer.parseInt(valor)); break;
+                case "--cpu": anotador.setPresupuestoCpuMs((long) (Double.parseDouble(valor) * 60_000)); break;
+                default:
+                    throw new IllegalArgumentException("opción desconocida: " + args[i - 1]);
+            }
+        }
+        try {
+            if (!anotador.ejecutar()) {
+                System.exit(3);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Enfrenta dos configuraciones del motor y muestra el Elo y el veredicto del SPRT.
+     */
+    private static void torneo(String[] args) throws IOException {
+        ConfiguracionMotor motorA = ConfiguracionMotor.desdeTexto(args[1], "A");
+        ConfiguracionMotor motorB = ConfiguracionMotor.desdeTexto(args[2], "B");
+        int partidas = 100;
+        int hilos = Runtime.getRuntime().availableProcessors();
+        int plies = 8;
+        String libro = null;
+        String salida = null;
+        double elo0 = 0;
+        double elo1 = 5;
+        double alfa = 0.05;
+        double beta = 0.05;
+        for (int i = 3; i < args.length; i++) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("falta el valor de " + args[i]);
+            }
+            String valor = args[++i];
+            switch (args[i - 1]) {
+                case "--partidas": partidas = Integer.parseInt(valor); break;
+                case "--hilos": hilos = Integer.parseInt(valor); break;
+                case "--plies": plies = Integer.parseInt(valor); break;
+                case "--aperturas": libro = valor; break;
+                case "--pgn": salida = valor; break;
+                case "--elo0": elo0 = Double.parseDouble(valor); break;
+                case "--elo1": elo1 = Double.parseDouble(valor); break;
+                case "--alfa": alfa = Double.parseDouble(valor); break;
+                case "--beta": beta = Double.parseDouble(valor); break;
+                default:
+                    throw new IllegalArgumentException("opción desconocida: " + args[i - 1]);
+            }
+        }
+
+        List<String> aperturas = libro != null
+                ? Torneo.cargarAperturas(libro, plies) : List.of(Posicion.FEN_INICIAL);
+        Torneo torneo = new Torneo(motorA, motorB, aperturas, new Sprt(elo0, elo1, alfa, beta));
+        torneo.setPartidas(partidas);
+        torneo.setHilos(hilos);
+        Writer escritor = salida != null ? new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(salida), StandardCharsets.UTF_8)) : null;
+        try {
+            torneo.setSalidaPgn(escritor);
+            torneo.ejecutar();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (escritor != null) {
+                escritor.close();
+            }
+        }
+    }
+
+    private static void escribirEpd(Writer escritor, Posicion posicion, int partida, int ply) throws IOException {
+        String fen = posicion.aFen();
+        String epd = fen.substring(0, fen.lastIndexOf(' ', fen.lastIndexOf(' ') - 1));
+        escritor.write(epd + " id \"" + partida + "." + ply + "\";\n");
+    }
+
+    private static String formatearPuntuacion(ResultadoBusqueda resultado, int signo) {
+        if (resultado.esMate()) {
+            return "#" + (signo * (resultado.getMateEnPly() + (resultado.getMateEnPly() > 0 ? 1 : -1)) / 2);
+        }
+        return String.format("%+.2f", signo * resultado.getPuntuacion() / 100.0);
+    }
+
+    private static LectorPgn abrir(String archivo) throws IOException {
+        return new LectorPgn(new InputStreamReader(new FileInputStream(archivo), StandardCharsets.UTF_8));
+    }
+
+    private static void requerirArgumentos(String[] args, int minimo) {
+        if (args.length < minimo) {
+            throw new IllegalArgumentException("faltan argumentos para " + args[0]);
+        }
+    }
+
+    private static String unir(String[] args, int desde) {
+        return String.join(" ", Arrays.copyOfRange(args, desde, args.length));
+    }
+}
@@ -1,12 +1,27 @@
 package Modelo;
 
+import Diagnostico.EventoSonido;
 import javax.sound.sampled.*;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Gestiona la reproducción de efectos de sonido para el juego de ajedrez.
  * Maneja sonidos para movimientos y victoria.
+ *
+ * Los archivos WAV se decodifican una sola vez en memoria y se reproducen
+ * mediante un pequeño conjunto de Clips reutilizables desde un hilo de audio
+ * dedicado. Las peticiones se encolan en una cola acotada: si la cola está
+ * llena o todos los Clips de un sonido están ocupados, la petición se descarta
+ * en lugar de bloquear al llamante.
  */
 public class GestorSonido {
     /** Ruta base donde se encuentran los archivos de sonido */
@@ -15,6 +30,49 @@ public class GestorSonido {
     private static final String SONIDO_MOVIMIENTO = "movimiento.wav";
     /** Nombre del archivo de sonido para victoria */
     private static final String SONIDO_VICTORIA = "victoria.wav";
+    /** Número de Clips reutilizables por cada sonido */
+    private static final int CLIPS_POR_SONIDO = 3;
+    /** Capacidad máxima de la cola de reproducción */
+    private static final int CAPACIDAD_COLA = 8;
+
+    /** Clips precargados de cada sonido, indexados por nombre de archivo */
+    private static final Map<String, Clip[]> clips = new HashMap<>();
+    /**
+     * Clips que están sonando. Se marcan al arrancarlos y se liberan con su
+     * evento STOP: justo después de start() isActive() aún puede ser false, y
+     * dos peticiones seguidas reiniciarían el mismo Clip en vez de solaparse.
+     */
+    private static final Set<Clip> ocupados = ConcurrentHashMap.newKeySet();
+    /** Cola acotada de sonidos pendientes de reproducir */
+    private static final BlockingQueue<String> cola = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+
+    /**
+     * Precarga los sonidos y arranca el hilo de audio.
+     * Es seguro llamarlo varias veces; sólo la primera tiene efecto.
+     */
+    public static void inicializar() {
+        Arranque.asegurar();
+    }
+
+    /**
+     * Carga los sonidos y arranca el hilo de audio al inicializarse la clase.
+     * La JVM lo hace una sola vez, y después cada reproducción llega a la
+     * cola sin tomar ningún cerrojo.
+     */
+    private static final class Arranque {
+        static {
+            cargarSonido(SONIDO_MOVIMIENTO);
+            cargarSonido(SONIDO_VICTORIA);
+
+            Thread hiloAudio = new Thread(GestorSonido::procesarCola, "GestorSonido");
+            hiloAudio.setDaemon(true);
+            hiloAudio.start();
+        }
+
+        private static void asegurar() {
+            // Basta con llegar aquí para que se ejecute el inicializador estático
+        }
+    }
 
     /**
      * Reproduce el sonido asociado al movimiento de una pieza.
@@ -31,18 +89,109 @@ public class GestorSonido {
     }
 
     /**
-     * Método auxiliar que maneja la reproducción de archivos de sonido.
+     * Encola un sonido para su reproducción sin bloquear.
+     * Si la cola está llena la petición se descarta.
      * @param nombreArchivo Nombre del archivo WAV a reproducir
      */
     private static void reproducirSonido(String nombreArchivo) {
-        try {
-            File archivoSonido = new File(RUTA_SONIDOS + nombreArchivo);
-            AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(archivoSonido);
-            Clip clip = AudioSystem.getClip();
-            clip.open(audioInputStream);
-            clip.start();
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-            e.printStackTrace();
+        inicializar();
+        if (!cola.offer(nombreArchivo)) {
+            EventoSonido evento = new EventoSonido();
+            if (evento.isEnabled()) {
+                evento.sonido = nombreArchivo;
+                evento.reproducido = false;
+                evento.commit();
+            }
+        }
+    }
+
+    /**
+     * Bucle del hilo de audio: toma peticiones de la cola y las reproduce
+     * sobre el primer Clip libre del sonido correspondiente.
+     */
+    private static void procesarCola() {
+        while (true) {
+            String nombreArchivo;
+            try {
+                nombreArchivo = cola.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            EventoSonido evento = new EventoSonido();
+            evento.begin();
+            boolean reproducido = false;
+            Clip[] pool = clips.get(nombreArchivo);
+            if (pool != null) {
+                for (Clip clip : pool) {
+                    if (ocupados.add(clip)) {
+                        clip.setFramePosition(0);
+                        clip.start();
+                        reproducido = true;
+                        break;
+                    }
+                }
+            }
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.sonido = nombreArchivo;
+                evento.reproducido = reproducido;
+                evento.commit();
+            }
+        }
+    }
+
+    /**
+     * Decodifica un archivo WAV en memoria y abre sus Clips reutilizables.
+     * Si no hay dispositivo de audio disponible el sonido queda deshabilitado.
+     * @param nombreArchivo Nombre del archivo WAV a cargar
+     */
+    private static void cargarSonido(String nombreArchivo) {
+        File archivoSonido = new File(RUTA_SONIDOS + nombreArchivo);
+        try (AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(archivoSonido)) {
+            AudioFormat formato = audioInputStream.getFormat();
+            byte[] datos = leerCompleto(audioInputStream);
+
+            Clip[] pool = new Clip[CLIPS_POR_SONIDO];
+            try {
+                for (int i = 0; i < pool.length; i++) {
+                    Clip clip = AudioSystem.getClip();
+                    pool[i] = clip;
+                    clip.addLineListener(evento -> {
+                        if (evento.getType() == LineEvent.Type.STOP) {
+                            ocupados.remove(clip);
+                        }
+                    });
+                    clip.open(formato, datos, 0, datos.length);
+                }
+            } catch (LineUnavailableException | RuntimeException e) {
+                // No se deja abierto ningún Clip de un sonido que no se podrá reproducir
+                for (Clip clip : pool) {
+                    if (clip != null) {
+                        clip.close();
+                    }
+                }
+                throw e;
+            }
+            clips.put(nombreArchivo, pool);
+        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException
+                 | IllegalArgumentException e) {
+            System.err.println("No se pudo cargar el sonido " + nombreArchivo + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lee todos los bytes de audio de un flujo.
+     * @param entrada Flujo de audio
+     * @return Muestras de audio decodificadas
+     */
+    private static byte[] leerCompleto(InputStream entrada) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int leidos;
+        while ((leidos = entrada.read(buffer)) != -1) {
+            salida.write(buffer, 0, leidos);
         }
+        return salida.toByteArray();
     }
-}
\ No newline at end of file
+}
@@ -8,10 +8,16 @@ import java.util.List;
 /**
  * Clase principal del modelo que gestiona el estado del juego de ajedrez.
  * Mantiene el estado del tablero y el registro de movimientos en notación PGN.
+ *
+ * La posición que se muestra es un {@link TableroEstado} inmutable: se
+ * sustituye entera en cada cambio, de modo que cualquier hilo puede leer la
+ * actual sin cerrojos y sin ver un tablero a medio actualizar.
  */
 public class Modelo {
-    /** Representa el tablero actual del juego */
+    /** Tablero modificable con el que se reproducen los movimientos PGN */
     private Tablero tablero;
+    /** Posición publicada */
+    private volatile TableroEstado estado = TableroEstado.INICIAL;
     /** Lista de movimientos en notación PGN (Portable Game Notation) */
     private List<String> movimientosPGN;
 
@@ -33,12 +39,19 @@ public class Modelo {
     }
 
     /**
-     * @return El tablero actual del juego
+     * @return Tablero modificable con el que se reproducen los movimientos PGN
      */
     public Tablero getTablero() {
         return tablero;
     }
 
+    /**
+     * @return Posición actual, que puede compartirse con cualquier hilo
+     */
+    public TableroEstado getEstado() {
+        return estado;
+    }
+
     /**
      * @return Lista de movimientos en notación PGN
      */
@@ -51,13 +64,14 @@ public class Modelo {
      */
     public void reiniciarTablero() {
         tablero = new Tablero();
+        estado = TableroEstado.INICIAL;
     }
 
     /**
-     * Actualiza el estado del tablero con una nueva configuración de piezas
-     * @param estado Nueva configuración de piezas para el tablero
+     * Publica una nueva posición. Al ser inmutable, se guarda sin copiarla.
+     * @param estado Nueva disposición de las piezas
      */
-    public void setTablero(Pieza[][] estado) {
-        tablero.setTablero(estado);
+    public void setTablero(TableroEstado estado) {
+        this.estado = estado;
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package Modelo;
+
+/**
+ * Modalidades de control de tiempo soportadas por el reloj de la partida.
+ */
+public enum ModoTiempo {
+    /** Sin compensación: el tiempo consumido se descuenta íntegramente */
+    SIN_INCREMENTO,
+    /** Fischer: tras cada jugada se suma el incremento completo */
+    FISCHER,
+    /** Bronstein: tras cada jugada se devuelve lo consumido, hasta el valor del retardo */
+    BRONSTEIN,
+    /** Retardo simple: el reloj no empieza a descontar hasta que pasa el retardo */
+    RETARDO_SIMPLE
+}
@@ -2,6 +2,7 @@ package Modelo;
 
 import Modelo.Pieza;
 import Modelo.Tablero;
+import Diagnostico.EventoReglas;
 import java.awt.Point;
 
 /**
@@ -44,6 +45,21 @@ public class ReglaJuego {
      * @return true si es jaque mate, false en caso contrario
      */
     public static boolean esJaqueMate(boolean esReyBlanco, Tablero tablero) {
+        EventoReglas evento = new EventoReglas();
+        evento.begin();
+        boolean mate = comprobarJaqueMate(esReyBlanco, tablero);
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.comprobacion = "ReglaJuego.esJaqueMate";
+            evento.clavePosicion = new TableroEstado(tablero.getTablero()).hashCode();
+            evento.bando = esReyBlanco ? "blancas" : "negras";
+            evento.resultado = mate ? "jaque mate" : "en juego";
+            evento.commit();
+        }
+        return mate;
+    }
+
+    private static boolean comprobarJaqueMate(boolean esReyBlanco, Tablero tablero) {
         Point posRey = encontrarRey(esReyBlanco, tablero);
         if (posRey == null || !estaEnJaque(posRey, esReyBlanco, tablero)) {
             return false;
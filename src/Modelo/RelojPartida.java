@@ -0,0 +1,195 @@
+package Modelo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Modelo del reloj de ajedrez.
+ * Lleva la cuenta del tiempo de cada jugador en milisegundos a partir de
+ * System.nanoTime, que es monótono y no depende de la frecuencia con la que
+ * se refresque la interfaz. El tiempo sólo se descuenta al cambiar de turno;
+ * mientras tanto el tiempo restante del jugador al que le toca se calcula al
+ * vuelo, por lo que no se acumula deriva.
+ *
+ * Soporta incremento Fischer, retardo Bronstein y retardo simple, y registra
+ * el instante y la duración de cada jugada.
+ */
+public class RelojPartida {
+    private final JugadorAjedrez blancas;
+    private final JugadorAjedrez negras;
+    private final int tiempoInicial;
+    private final int incremento;
+    private final ModoTiempo modo;
+
+    private boolean turnoBlancas;
+    private boolean activo;
+    /** Instante (System.nanoTime) de inicio de la partida */
+    private long inicioPartida;
+    /** Instante (System.nanoTime) de inicio del turno actual */
+    private long inicioTurno;
+    /** Milisegundos desde el inicio de la partida en que se completó cada jugada */
+    private final List<Long> marcasJugadas;
+    /** Milisegundos consumidos en cada jugada */
+    private final List<Integer> duracionJugadas;
+
+    /**
+     * Crea un reloj con el mismo tiempo inicial para ambos jugadores.
+     *
+     * @param blancas Jugador de las piezas blancas
+     * @param negras Jugador de las piezas negras
+     * @param tiempoInicial Tiempo inicial de cada jugador en milisegundos
+     * @param incremento Incremento o retardo por jugada en milisegundos
+     * @param modo Modalidad de control de tiempo
+     */
+    public RelojPartida(JugadorAjedrez blancas, JugadorAjedrez negras,
+                        int tiempoInicial, int incremento, ModoTiempo modo) {
+        this.blancas = blancas;
+        this.negras = negras;
+        this.tiempoInicial = tiempoInicial;
+        this.incremento = incremento;
+        this.modo = modo;
+        this.marcasJugadas = new ArrayList<>();
+        this.duracionJugadas = new ArrayList<>();
+        reiniciar();
+    }
+
+    /**
+     * Restablece el tiempo inicial de ambos jugadores y borra el registro de jugadas.
+     */
+    public void reiniciar() {
+        activo = false;
+        turnoBlancas = true;
+        blancas.setTiempoRestante(tiempoInicial);
+        negras.setTiempoRestante(tiempoInicial);
+        marcasJugadas.clear();
+        duracionJugadas.clear();
+    }
+
+    /**
+     * Reinicia el reloj y empieza a contar el tiempo de las blancas.
+     */
+    public void iniciar() {
+        reiniciar();
+        activo = true;
+        inicioPartida = System.nanoTime();
+        inicioTurno = inicioPartida;
+    }
+
+    /**
+     * Detiene el reloj descontando el tiempo consumido en el turno actual.
+     */
+    public void detener() {
+        if (!activo) return;
+        jugadorActual().actualizarTiempo(tiempoADescontar(transcurridoTurno()));
+        activo = false;
+    }
+
+    /**
+     * Cierra el turno actual: descuenta el tiempo consumido, aplica el
+     * incremento o retardo correspondiente, registra la jugada y pasa el
+     * turno al rival.
+     */
+    public void cambiarTurno() {
+        if (!activo) return;
+
+        long ahora = System.nanoTime();
+        int consumido = (int) ((ahora - inicioTurno) / 1_000_000L);
+        JugadorAjedrez jugador = jugadorActual();
+        jugador.actualizarTiempo(tiempoADescontar(consumido));
+
+        if (jugador.getTiempoRestante() > 0) {
+            if (modo == ModoTiempo.FISCHER) {
+                jugador.setTiempoRestante(jugador.getTiempoRestante() + incremento);
+            } else if (modo == ModoTiempo.BRONSTEIN) {
+                jugador.setTiempoRestante(jugador.getTiempoRestante() + Math.min(consumido, incremento));
+            }
+        }
+
+        marcasJugadas.add((ahora - inicioPartida) / 1_000_000L);
+        duracionJugadas.add(consumido);
+        turnoBlancas = !turnoBlancas;
+        inicioTurno = ahora;
+    }
+
+    /**
+     * Sustituye el tiempo restante de ambos jugadores por el que indica una
+     * fuente externa, como el servidor de una partida en red, y empieza a
+     * contar el turno actual desde este instante.
+     * @param blancas Milisegundos restantes de las blancas
+     * @param negras Milisegundos restantes de las negras
+     */
+    public void ajustar(int blancas, int negras) {
+        this.blancas.setTiempoRestante(blancas);
+        this.negras.setTiempoRestante(negras);
+        inicioTurno = System.nanoTime();
+    }
+
+    /**
+     * Calcula el tiempo restante de un jugador en este instante.
+     * @param deBlancas true para las blancas, false para las negras
+     * @return Milisegundos restantes, nunca negativo
+     */
+    public int getTiempoRestante(boolean deBlancas) {
+        JugadorAjedrez jugador = deBlancas ? blancas : negras;
+        int restante = jugador.getTiempoRestante();
+        if (activo && deBlancas == turnoBlancas) {
+            restante -= tiempoADescontar(transcurridoTurno());
+        }
+        return Math.max(0, restante);
+    }
+
+    /**
+     * @return true si al jugador al que le toca mover se le ha acabado el tiempo
+     */
+    public boolean tiempoAgotado() {
+        return activo && getTiempoRestante(turnoBlancas) <= 0;
+    }
+
+    /**
+     * @return true si le toca mover a las blancas
+     */
+    public boolean isTurnoBlancas() {
+        return turnoBlancas;
+    }
+
+    /**
+     * @return true si el reloj está en marcha
+     */
+    public boolean isActivo() {
+        return activo;
+    }
+
+    /**
+     * @return Milisegundos desde el inicio de la partida en que se completó cada jugada
+     */
+    public List<Long> getMarcasJugadas() {
+        return Collections.unmodifiableList(marcasJugadas);
+    }
+
+    /**
+     * @return Milisegundos consumidos en cada jugada
+     */
+    public List<Integer> getDuracionJugadas() {
+        return Collections.unmodifiableList(duracionJugadas);
+    }
+
+    private JugadorAjedrez jugadorActual() {
+        return turnoBlancas ? blancas : negras;
+    }
+
+    private int transcurridoTurno() {
+        return (int) ((System.nanoTime() - inicioTurno) / 1_000_000L);
+    }
+
+    /**
+     * Tiempo que se descuenta del reloj por un turno de la duración indicada.
+     * Con retardo simple los primeros milisegundos del turno son gratuitos.
+     */
+    private int tiempoADescontar(int consumido) {
+        if (modo == ModoTiempo.RETARDO_SIMPLE) {
+            return Math.max(0, consumido - incremento);
+        }
+        return consumido;
+    }
+}
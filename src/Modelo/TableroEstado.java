@@ -1,43 +1,174 @@
 package Modelo;
 
-import Modelo.Pieza;
+import java.util.Arrays;
 
 /**
- * Representa una instantánea del estado del tablero de ajedrez.
- * Permite mantener una copia independiente del estado de las piezas
- * en un momento específico del juego.
+ * Instantánea inmutable de la disposición de las piezas en el tablero.
+ *
+ * Cada casilla ocupa 4 bits (16 casillas por cada long, 4 longs en total):
+ * los 3 bits bajos son el tipo de pieza (1 Peón, 2 Caballo, 3 Alfil, 4 Torre,
+ * 5 Dama, 6 Rey, 0 vacía) y el cuarto indica que es negra. Como nunca cambia,
+ * una misma instantánea puede compartirse sin copias ni cerrojos entre el hilo
+ * de Swing, el de la lógica de la partida, los del motor y el historial. Las
+ * modificaciones devuelven una instantánea nueva; copiar 32 bytes es más
+ * barato que cualquier estructura compartida por partes.
  */
-public class TableroEstado {
-    /** Matriz que almacena una copia del estado del tablero */
-    private Pieza[][] estado;
+public final class TableroEstado {
+    /** Bit que distingue las piezas negras dentro del código de una casilla */
+    public static final int NEGRA = 8;
+
+    private static final String[] NOMBRES = {null, "Peón", "Caballo", "Alfil", "Torre", "Dama", "Rey"};
+
+    /** Tablero sin piezas */
+    public static final TableroEstado VACIO = new TableroEstado(new long[4]);
+    /** Disposición inicial de una partida */
+    public static final TableroEstado INICIAL = new TableroEstado(new Tablero().getTablero());
+
+    /** Códigos de las casillas, la casilla fila * 8 + columna en los bits 4 * (casilla % 16) de la palabra casilla / 16 */
+    private final long[] palabras;
 
     /**
-     * Crea una copia profunda del estado actual del tablero.
-     * Cada pieza en el tablero es copiada individualmente para evitar
-     * referencias compartidas.
+     * Crea la instantánea de una matriz de piezas. La matriz no se conserva,
+     * así que puede seguir modificándose sin afectar a la instantánea.
      *
-     * @param tablero Estado del tablero a copiar
+     * @param tablero Matriz 8x8 de piezas, indexada por [fila][columna]
      */
     public TableroEstado(Pieza[][] tablero) {
-        this.estado = new Pieza[8][8];
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                if (tablero[i][j] != null) {
-                    this.estado[i][j] = new Pieza(
-                            tablero[i][j].getNombre(),
-                            tablero[i][j].getColor(),
-                            tablero[i][j].getPosicion()
-                    );
-                }
+        this(empaquetar(tablero));
+    }
+
+    private TableroEstado(long[] palabras) {
+        this.palabras = palabras;
+    }
+
+    /**
+     * Crea la instantánea de un tablero con las piezas codificadas como en el
+     * motor: tipo positivo para las blancas y negativo para las negras.
+     * @param casillas 64 casillas, indexadas por fila * 8 + columna
+     * @return Instantánea equivalente
+     */
+    public static TableroEstado desdeCasillas(int[] casillas) {
+        long[] palabras = new long[4];
+        for (int casilla = 0; casilla < 64; casilla++) {
+            int pieza = casillas[casilla];
+            if (pieza != 0) {
+                long codigo = pieza > 0 ? pieza : NEGRA | -pieza;
+                palabras[casilla >>> 4] |= codigo << ((casilla & 15) << 2);
             }
         }
+        return new TableroEstado(palabras);
+    }
+
+    /**
+     * @param fila Fila (0-7)
+     * @param columna Columna (0-7)
+     * @return Código de la pieza de la casilla, 0 si está vacía
+     */
+    public int getCodigo(int fila, int columna) {
+        int casilla = fila * 8 + columna;
+        return (int) (palabras[casilla >>> 4] >>> ((casilla & 15) << 2)) & 0xF;
+    }
+
+    /**
+     * @return true si la casilla no tiene pieza
+     */
+    public boolean estaVacia(int fila, int columna) {
+        return getCodigo(fila, columna) == 0;
+    }
+
+    /**
+     * @return Nombre de la pieza de la casilla (Rey, Dama, etc.), o null si está vacía
+     */
+    public String getNombre(int fila, int columna) {
+        return NOMBRES[getCodigo(fila, columna) & 7];
+    }
+
+    /**
+     * @return Color de la pieza de la casilla ('B' o 'N'), o ' ' si está vacía
+     */
+    public char getColor(int fila, int columna) {
+        int codigo = getCodigo(fila, columna);
+        return codigo == 0 ? ' ' : (codigo & NEGRA) != 0 ? 'N' : 'B';
     }
 
     /**
-     * Obtiene la copia del estado del tablero
-     * @return Matriz 8x8 con el estado guardado del tablero
+     * @param fila Fila (0-7)
+     * @param columna Columna (0-7)
+     * @param codigo Código de la nueva pieza, 0 para vaciar la casilla
+     * @return Instantánea con la casilla cambiada; esta no se modifica
      */
-    public Pieza[][] getEstado() {
-        return estado;
+    public TableroEstado conPieza(int fila, int columna, int codigo) {
+        if (getCodigo(fila, columna) == codigo) {
+            return this;
+        }
+        int casilla = fila * 8 + columna;
+        int desplazamiento = (casilla & 15) << 2;
+        long[] copia = palabras.clone();
+        copia[casilla >>> 4] = (copia[casilla >>> 4] & ~(0xFL << desplazamiento)) | ((long) codigo << desplazamiento);
+        return new TableroEstado(copia);
+    }
+
+    /**
+     * Traslada una pieza, capturando lo que hubiera en el destino. No aplica
+     * reglas especiales como el enroque o la promoción.
+     * @return Instantánea tras el movimiento; esta no se modifica
+     */
+    public TableroEstado mover(int filaOrigen, int columnaOrigen, int filaDestino, int columnaDestino) {
+        int codigo = getCodigo(filaOrigen, columnaOrigen);
+        return conPieza(filaOrigen, columnaOrigen, 0).conPieza(filaDestino, columnaDestino, codigo);
+    }
+
+    /**
+     * Crea una matriz de piezas nueva para el código que aún trabaja con ella.
+     * @return Matriz 8x8 independiente, indexada por [fila][columna]
+     */
+    public Pieza[][] aPiezas() {
+        Pieza[][] tablero = new Pieza[8][8];
+        for (int fila = 0; fila < 8; fila++) {
+            for (int columna = 0; columna < 8; columna++) {
+                if (!estaVacia(fila, columna)) {
+                    tablero[fila][columna] = new Pieza(getNombre(fila, columna), getColor(fila, columna),
+                            String.format("%c%d", (char) ('a' + columna), fila + 1));
+                }
+            }
+        }
+        return tablero;
+    }
+
+    @Override
+    public boolean equals(Object otro) {
+        return otro instanceof TableroEstado && Arrays.equals(palabras, ((TableroEstado) otro).palabras);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(palabras);
+    }
+
+    private static long[] empaquetar(Pieza[][] tablero) {
+        long[] palabras = new long[4];
+        for (int fila = 0; fila < 8; fila++) {
+            for (int columna = 0; columna < 8; columna++) {
+                Pieza pieza = tablero[fila][columna];
+                if (pieza != null) {
+                    long codigo = tipo(pieza.getNombre());
+                    if (codigo > 0) {
+                        int casilla = fila * 8 + columna;
+                        codigo |= pieza.getColor() == 'N' ? NEGRA : 0;
+                        palabras[casilla >>> 4] |= codigo << ((casilla & 15) << 2);
+                    }
+                }
+            }
+        }
+        return palabras;
+    }
+
+    private static int tipo(String nombre) {
+        for (int tipo = 1; tipo < NOMBRES.length; tipo++) {
+            if (NOMBRES[tipo].equals(nombre)) {
+                return tipo;
+            }
+        }
+        return 0;
     }
-}
\ No newline at end of file
+}
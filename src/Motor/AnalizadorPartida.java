@@ -0,0 +1,211 @@
+package Motor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Analiza en segundo plano todas las posiciones de una partida con un grupo
+ * de hilos, cada posición hasta una profundidad o un tiempo fijos. Las
+ * evaluaciones se entregan según se completan, no en orden.
+ *
+ * Cada hilo toma la posición pendiente más cercana al foco, que es la que
+ * está mirando el usuario: primero la propia posición, después las
+ * siguientes y las anteriores alternadas a distancia creciente. Mover el
+ * foco no interrumpe nada; sólo cambia el orden de lo que falta. Los hilos
+ * comparten la tabla de transposición, de modo que lo aprendido en una
+ * posición acelera las vecinas.
+ */
+public class AnalizadorPartida implements AutoCloseable {
+    private final ExecutorService hilos;
+    private final int numeroHilos;
+    private final TablaTransposicion tabla;
+    private final OpcionesBusqueda opciones = new OpcionesBusqueda();
+    /** Tabla de peones de cada hilo, que se conserva entre posiciones */
+    private final ThreadLocal<TablaPeones> peones =
+            ThreadLocal.withInitial(() -> new TablaPeones(Buscador.TAMANO_TABLA_PEONES));
+    private final int profundidad;
+    private final long tiempoMs;
+    private Trabajo actual;
+
+    /**
+     * @param numeroHilos Hilos que analizan a la vez (al menos 1)
+     * @param megabytes Tamaño de la tabla de transposición compartida
+     * @param profundidad Profundidad de cada posición
+     * @param tiempoMs Tiempo máximo por posición en milisegundos, 0 para no limitarlo
+     */
+    public AnalizadorPartida(int numeroHilos, int megabytes, int profundidad, long tiempoMs) {
+        this.numeroHilos = Math.max(1, numeroHilos);
+        this.tabla = new TablaTransposicion(megabytes);
+        this.profundidad = profundidad;
+        this.tiempoMs = tiempoMs;
+        this.hilos = Executors.newFixedThreadPool(this.numeroHilos, tarea -> {
+            Thread hilo = new Thread(tarea, "Analisis");
+            hilo.setDaemon(true);
+            hilo.setPriority(Thread.MIN_PRIORITY);
+            return hilo;
+        });
+    }
+
+    /**
+     * Empieza a analizar una partida, abandonando la anterior si la había.
+     * @param posiciones Posición inicial y las que siguen a cada medio movimiento; no se modifican
+     * @param foco Posición que se analiza primero
+     * @param alEvaluar Recibe cada evaluación, desde los hilos del análisis
+     */
+    public synchronized void analizar(List<Posicion> posiciones, int foco, Consumer<EvaluacionPosicion> alEvaluar) {
+        detener();
+        List<Posicion> copias = new ArrayList<>(posiciones.size());
+        for (Posicion posicion : posiciones) {
+            copias.add(posicion.copiar());
+        }
+        Trabajo trabajo = new Trabajo(copias, foco, alEvaluar);
+        actual = trabajo;
+        for (int i = 0; i < Math.min(numeroHilos, copias.size()); i++) {
+            hilos.execute(() -> trabajar(trabajo));
+        }
+    }
+
+    /**
+     * @param ply Posición que mira ahora el usuario; las pendientes más cercanas pasan delante
+     */
+    public synchronized void setFoco(int ply) {
+        if (actual != null) {
+            actual.setFoco(ply);
+        }
+    }
+
+    /**
+     * Abandona el análisis en curso; las posiciones a medio analizar se descartan.
+     */
+    public synchronized void detener() {
+        if (actual != null) {
+            actual.cancelar();
+            actual = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        detener();
+        hilos.shutdown();
+    }
+
+    private void trabajar(Trabajo trabajo) {
+        int ply;
+        while ((ply = trabajo.tomar()) >= 0) {
+            EvaluacionPosicion evaluacion = evaluar(trabajo, ply);
+            if (evaluacion == null) {
+                return;
+            }
+            trabajo.alEvaluar.accept(evaluacion);
+        }
+    }
+
+    /**
+     * @return Evaluación de la posición, o null si el análisis se abandonó mientras tanto
+     */
+    private EvaluacionPosicion evaluar(Trabajo trabajo, int ply) {
+        Posicion posicion = trabajo.posiciones.get(ply);
+        if (GeneradorMovimientos.legales(posicion).length == 0) {
+            return EvaluacionPosicion.deFinal(ply, posicion);
+        }
+
+        LimitesBusqueda limites = LimitesBusqueda.porProfundidad(profundidad);
+        if (tiempoMs > 0) {
+            limites.setTiempoMovimiento(tiempoMs);
+        }
+        ControlTiempo control = new ControlTiempo(limites, posicion.getTurno());
+        if (!trabajo.empezar(control)) {
+            return null;
+        }
+        ResultadoBusqueda resultado;
+        try {
+            resultado = new Buscador(posicion, tabla, opciones, peones.get()).buscar(limites, control);
+        } finally {
+            trabajo.terminar(control);
+        }
+        if (trabajo.isCancelado()) {
+            return null;
+        }
+        return EvaluacionPosicion.desdeResultado(ply, posicion, resultado);
+    }
+
+    /**
+     * Posiciones de una partida y las que quedan por analizar. Todo su estado
+     * mutable se protege con su propio cerrojo.
+     */
+    private static final class Trabajo {
+        private final List<Posicion> posiciones;
+        private final Consumer<EvaluacionPosicion> alEvaluar;
+        private final boolean[] tomadas;
+        /** Búsquedas en curso, para poder detenerlas al cancelar */
+        private final List<ControlTiempo> enCurso = new ArrayList<>();
+        private int pendientes;
+        private int foco;
+        private boolean cancelado;
+
+        Trabajo(List<Posicion> posiciones, int foco, Consumer<EvaluacionPosicion> alEvaluar) {
+            this.posiciones = posiciones;
+            this.alEvaluar = alEvaluar;
+            this.tomadas = new boolean[posiciones.size()];
+            this.pendientes = posiciones.size();
+            this.foco = foco;
+        }
+
+        synchronized void setFoco(int foco) {
+            this.foco = foco;
+        }
+
+        /**
+         * @return Posición pendiente más cercana al foco, que queda reservada,
+         *         o -1 si no queda ninguna o se ha cancelado
+         */
+        synchronized int tomar() {
+            if (cancelado || pendientes == 0) {
+                return -1;
+            }
+            int centro = Math.max(0, Math.min(foco, tomadas.length - 1));
+            for (int distancia = 0; distancia < tomadas.length; distancia++) {
+                int ply = centro + distancia;
+                if (ply < tomadas.length && !tomadas[ply]) {
+                    return reservar(ply);
+                }
+                ply = centro - distancia;
+                if (ply >= 0 && !tomadas[ply]) {
+                    return reservar(ply);
+                }
+            }
+            return -1;
+        }
+
+        private int reservar(int ply) {
+            tomadas[ply] = true;
+            pendientes--;
+            return ply;
+        }
+
+        synchronized boolean empezar(ControlTiempo control) {
+            if (cancelado) {
+                return false;
+            }
+            enCurso.add(control);
+            return true;
+        }
+
+        synchronized void terminar(ControlTiempo control) {
+            enCurso.remove(control);
+        }
+
+        synchronized boolean isCancelado() {
+            return cancelado;
+        }
+
+        synchronized void cancelar() {
+            cancelado = true;
+            enCurso.forEach(ControlTiempo::detener);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package Motor;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Anota con el motor todas las partidas de un archivo PGN: la evaluación
+ * tras cada movimiento y, en los que empeoran mucho la posición de quien
+ * los juega, la marca "?!", "?" o "??" y el mejor movimiento.
+ *
+ * Las partidas se leen de una en una y cada una se analiza entera en un
+ * hilo del pool; sólo hay unas pocas partidas en vuelo a la vez, así que la
+ * memoria no depende del tamaño del archivo. Se escriben en el mismo orden
+ * en que se leyeron, en cuanto están listas todas las anteriores.
+ *
+ * Cada pocas partidas escritas se guarda un punto de control junto a la
+ * salida (salida.punto) con las partidas y bytes ya escritos. Si el proceso
+ * se interrumpe, al volver a ejecutarlo la salida se recorta hasta ese punto
+ * y se continúa con la partida siguiente. Para que el resultado no dependa
+ * de por dónde se reanude, cada partida se analiza con la tabla de
+ * transposición vacía.
+ *
+ * El presupuesto de CPU limita el tiempo de procesador que suman todos los
+ * hilos en cada ejecución: agotado, se terminan las partidas empezadas, no se
+ * empiezan más y el punto de control queda listo para continuar más tarde.
+ */
+public class AnotadorPgn {
+    /** Partidas escritas entre dos puntos de control */
+    private static final int PARTIDAS_POR_PUNTO = 10;
+    /** Tiempo máximo entre dos puntos de control */
+    private static final long MS_POR_PUNTO = 30_000;
+
+    private final Path entrada;
+    private final Path salida;
+    private final Path punto;
+    private int hilos = Runtime.getRuntime().availableProcessors();
+    private int profundidad = 8;
+    private long tiempoPosicionMs;
+    private int hashMb = 16;
+    private long presupuestoCpuMs;
+    private PrintStream informe = System.out;
+
+    private final OpcionesBusqueda opciones = new OpcionesBusqueda();
+    private final ThreadLocal<TablaTransposicion> tablas =
+            ThreadLocal.withInitial(() -> new TablaTransposicion(hashMb));
+    private final ThreadLocal<TablaPeones> tablasPeones =
+            ThreadLocal.withInitial(() -> new TablaPeones(Buscador.TAMANO_TABLA_PEONES));
+    private final AtomicLong cpuNs = new AtomicLong();
+    private final AtomicLong posiciones = new AtomicLong();
+
+    /** Partidas terminadas que esperan a que se escriban las anteriores; protegido por this */
+    private final Map<Integer, PartidaPgn> terminadas = new HashMap<>();
+    private int siguienteEscribir;
+    private int escritasDesdePunto;
+    private long ultimoPunto;
+    private long cpuAnteriorMs;
+    private FileOutputStream flujoSalida;
+    private EscritorPgn escritor;
+    private volatile IOException errorEscritura;
+
+    /**
+     * @param entrada Archivo PGN con las partidas
+     * @param salida Archivo PGN donde se escriben las partidas anotadas
+     */
+    public AnotadorPgn(String entrada, String salida) {
+        this.entrada = Paths.get(entrada);
+        this.salida = Paths.get(salida);
+        this.punto = Paths.get(salida + ".punto");
+    }
+
+    public void setHilos(int hilos) {
+        this.hilos = Math.max(1, hilos);
+    }
+
+    /**
+     * @param profundidad Profundidad de la búsqueda en cada posición
+     */
+    public void setProfundidad(int profundidad) {
+        this.profundidad = profundidad;
+    }
+
+    /**
+     * @param tiempoPosicionMs Tiempo máximo por posición, 0 para limitar sólo la profundidad
+     */
+    public void setTiempoPosicionMs(long tiempoPosicionMs) {
+        this.tiempoPosicionMs = tiempoPosicionMs;
+    }
+
+    /**
+     * @param hashMb Tamaño de la tabla de transposición de cada hilo
+     */
+    public void setHashMb(int hashMb) {
+        this.hashMb = hashMb;
+    }
+
+    /**
+     * @param presupuestoCpuMs Tiempo de procesador de todos los hilos en esta ejecución, 0 sin límite
+     */
+    public void setPresupuestoCpuMs(long presupuestoCpuMs) {
+        this.presupuestoCpuMs = presupuestoCpuMs;
+    }
+
+    public void setInforme(PrintStream informe) {
+        this.informe = informe;
+    }
+
+    /**
+     * Anota las partidas, continuando desde el punto de control si lo hay.
+     * @return true si se han anotado todas; false si se agotó el presupuesto antes
+     * @throws IOException Si falla la lectura, la escritura o el punto de control no es de esta entrada
+     * @throws InterruptedException Si se interrumpe la espera
+     */
+    public boolean ejecutar() throws IOException, InterruptedException {
+        int saltar = reanudar();
+        siguienteEscribir = saltar;
+        ultimoPunto = System.currentTimeMillis();
+        long inicio = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "Anotador");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        // Limita las partidas leídas y aún sin escribir
+        Semaphore enVuelo = new Semaphore(hilos * 2);
+        int leidas = 0;
+        boolean leidaEntera = false;
+
+        try (LectorPgn lector = new LectorPgn(Files.newBufferedReader(entrada, StandardCharsets.UTF_8))) {
+            PartidaPgn partida;
+            while ((partida = lector.siguiente()) != null) {
+                int indice = leidas++;
+                if (indice < saltar) {
+                    continue;
+                }
+                enVuelo.acquire();
+                if (errorEscritura != null) {
+                    break;
+                }
+                if (presupuestoAgotado()) {
+                    enVuelo.release();
+                    break;
+                }
+                PartidaPgn original = partida;
+                pool.execute(() -> {
+                    try {
+                        // Una partida que ya no cabe en el presupuesto no se empieza ni se
+                        // escribe, y con ella tampoco ninguna de las siguientes
+                        if (!presupuestoAgotado()) {
+                            entregar(indice, anotar(indice, original));
+                        }
+                    } finally {
+                        enVuelo.release();
+                    }
+                });
+            }
+            leidaEntera = partida == null;
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            synchronized (this) {
+                if (flujoSalida != null) {
+                    if (errorEscritura == null) {
+                        guardarPunto();
+                    }
+                    flujoSalida.close();
+                }
+            }
+        }
+        if (errorEscritura != null) {
+            throw errorEscritura;
+        }
+        boolean completo = leidaEntera && siguienteEscribir == leidas;
+        if (completo) {
+            Files.deleteIfExists(punto);
+        }
+        long ms = Math.max(1, (System.nanoTime() - inicio) / 1_000_000L);
+        informe.printf("%d partidas anotadas (%d en esta ejecución), %d posiciones, %.1f s de CPU en %.1f s%s%n",
+                siguienteEscribir, siguienteEscribir - saltar, posiciones.get(), cpuNs.get() / 1e9, ms / 1000.0,
+                completo ? "" : "; presupuesto agotado, se puede continuar desde " + punto);
+        return completo;
+    }
+
+    /**
+     * Prepara la salida: si hay punto de control la recorta hasta él, y si no la vacía.
+     * @return Partidas ya anotadas que hay que saltar
+     */
+    private int reanudar() throws IOException {
+        int saltar = 0;
+        if (Files.exists(punto)) {
+            Properties datos = new Properties();
+            try (Reader lector = Files.newBufferedReader(punto, StandardCharsets.UTF_8)) {
+                datos.load(lector);
+            }
+            if (!entrada.toAbsolutePath().toString().equals(datos.getProperty("entrada"))) {
+                throw new IOException("el punto de control " + punto + " es de otra entrada: " + datos.getProperty("entrada"));
+            }
+            saltar = Integer.parseInt(datos.getProperty("partidas"));
+            long bytes = Long.parseLong(datos.getProperty("bytes"));
+            cpuAnteriorMs = Long.parseLong(datos.getProperty("cpuMs", "0"));
+            try (FileChannel canal = FileChannel.open(salida, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                if (canal.size() < bytes) {
+                    throw new IOException("la salida es más corta que su punto de control: " + salida);
+                }
+                canal.truncate(bytes);
+            }
+            informe.printf("Continuando tras %d partidas anotadas%n", saltar);
+        }
+        flujoSalida = new FileOutputStream(salida.toFile(), saltar > 0);
+        escritor = new EscritorPgn(new BufferedWriter(new OutputStreamWriter(flujoSalida, StandardCharsets.UTF_8)));
+        return saltar;
+    }
+
+    /**
+     * @return true si los hilos ya han gastado el presupuesto de CPU; el gasto se
+     *         cuenta tras cada posición, así que se nota aun a mitad de una partida
+     */
+    private boolean presupuestoAgotado() {
+        return presupuestoCpuMs > 0 && cpuNs.get() / 1_000_000L >= presupuestoCpuMs;
+    }
+
+    /**
+     * Analiza una partida en el hilo actual. Si algo falla la partida se
+     * devuelve sin anotar, para no perder su lugar en la salida.
+     */
+    private PartidaPgn anotar(int indice, PartidaPgn original) {
+        PartidaPgn anotada = new PartidaPgn();
+        anotada.getEtiquetas().putAll(original.getEtiquetas());
+        anotada.getMovimientos().addAll(original.getMovimientos());
+        anotada.setResultado(original.getResultado());
+        try {
+            TablaTransposicion tabla = tablas.get();
+            tabla.limpiar();
+            Posicion posicion = original.posicionInicial();
+            EvaluacionPosicion anterior = evaluar(0, posicion, tabla);
+            for (int i = 0; i < original.getMovimientos().size(); i++) {
+                int movimiento = Notacion.desdeSan(posicion, original.getMovimientos().get(i));
+                if (movimiento == Movimiento.NINGUNO) {
+                    anotada.setComentario(i, "movimiento ilegal, no se analiza el resto");
+                    break;
+                }
+                posicion.hacerMovimiento(movimiento);
+                EvaluacionPosicion actual = evaluar(i + 1, posicion, tabla);
+                anotar(anotada, i, movimiento, anterior, actual);
+                anterior = actual;
+            }
+            anotada.setEtiqueta("Annotator", "FinalAjedrez (profundidad " + profundidad
+                    + (tiempoPosicionMs > 0 ? ", " + tiempoPosicionMs + " ms" : "") + ")");
+        } catch (RuntimeException e) {
+            informe.println("Partida " + (indice + 1) + ": no se pudo analizar: " + e.getMessage());
+        }
+        return anotada;
+    }
+
+    /**
+     * Comenta un movimiento con la evaluación tras jugarlo y, si empeora la
+     * posición de quien lo juega, con su marca y el mejor movimiento. Tras un
+     * mate o un ahogado no hay evaluación que comentar.
+     */
+    private static void anotar(PartidaPgn partida, int indice, int movimiento,
+                               EvaluacionPosicion antes, EvaluacionPosicion despues) {
+        String comentario = despues.esFinal() ? "" : despues.formatear() + "/" + despues.getProfundidad();
+        String marca = EvaluacionPosicion.marca(EvaluacionPosicion.perdida(antes, despues));
+        if (!marca.isEmpty() && movimiento != antes.getMejorMovimiento() && !antes.getMejorSan().isEmpty()) {
+            partida.setAnotacion(indice, marca);
+            comentario = (comentario + " mejor " + antes.getMejorSan() + " " + antes.formatear()).trim();
+        }
+        if (!comentario.isEmpty()) {
+            partida.setComentario(indice, comentario);
+        }
+    }
+
+    private EvaluacionPosicion evaluar(int ply, Posicion posicion, TablaTransposicion tabla) {
+        posiciones.incrementAndGet();
+        if (GeneradorMovimientos.legales(posicion).length == 0) {
+            return EvaluacionPosicion.deFinal(ply, posicion);
+        }
+        LimitesBusqueda limites = LimitesBusqueda.porProfundidad(profundidad);
+        if (tiempoPosicionMs > 0) {
+            limites.setTiempoMovimiento(tiempoPosicionMs);
+        }
+        long cpuInicio = tiempoCpu();
+        ResultadoBusqueda resultado = new Buscador(posicion, tabla, opciones, tablasPeones.get())
+                .buscar(limites, new ControlTiempo(limites, posicion.getTurno()));
+        cpuNs.addAndGet(tiempoCpu() - cpuInicio);
+        return EvaluacionPosicion.desdeResultado(ply, posicion, resultado);
+    }
+
+    /**
+     * @return Tiempo de procesador del hilo actual en nanosegundos, o el tiempo
+     *         real si la máquina virtual no sabe medirlo
+     */
+    private static long tiempoCpu() {
+        ThreadMXBean cpu = ManagementFactory.getThreadMXBean();
+        return cpu.isCurrentThreadCpuTimeSupported() ? cpu.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /**
+     * Recibe una partida anotada y escribe todas las que ya pueden salir en orden.
+     */
+    private synchronized void entregar(int indice, PartidaPgn anotada) {
+        if (errorEscritura != null) {
+            return;
+        }
+        terminadas.put(indice, anotada);
+        try {
+            PartidaPgn partida;
+            while ((partida = terminadas.remove(siguienteEscribir)) != null) {
+                escritor.escribir(partida);
+                siguienteEscribir++;
+                escritasDesdePunto++;
+            }
+            if (escritasDesdePunto >= PARTIDAS_POR_PUNTO
+                    || (escritasDesdePunto > 0 && System.currentTimeMillis() - ultimoPunto >= MS_POR_PUNTO)) {
+                guardarPunto();
+            }
+        } catch (IOException e) {
+            errorEscritura = e;
+        }
+    }
+
+    /**
+     * Guarda el punto de control. La salida se lleva antes al disco, para que
+     * los bytes que anota el punto existan aunque se corte la corriente, y el
+     * punto se reemplaza de forma atómica.
+     */
+    private synchronized void guardarPunto() throws IOException {
+        FileChannel canal = flujoSalida.getChannel();
+        canal.force(false);
+        Properties datos = new Properties();
+        datos.setProperty("entrada", entrada.toAbsolutePath().toString());
+        datos.setProperty("partidas", String.valueOf(siguienteEscribir));
+        datos.setProperty("bytes", String.valueOf(canal.position()));
+        datos.setProperty("cpuMs", String.valueOf(cpuAnteriorMs + cpuNs.get() / 1_000_000L));
+        Path temporal = Paths.get(punto + ".tmp");
+        try (Writer escritorPunto = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+            datos.store(escritorPunto, "Punto de control de la anotación de " + entrada.getFileName());
+        }
+        Files.move(temporal, punto, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        escritasDesdePunto = 0;
+        ultimoPunto = System.currentTimeMillis();
+        informe.printf("%d partidas anotadas, %d posiciones, %.1f s de CPU%n",
+                siguienteEscribir, posiciones.get(), cpuNs.get() / 1e9);
+    }
+}
@@ -0,0 +1,99 @@
+package Motor;
+
+import Diagnostico.EventoReglas;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aplica las reglas de final de partida: mate, ahogado, material
+ * insuficiente, triple repetición y regla de los 50 movimientos.
+ *
+ * Un árbitro acompaña a una partida y se le pasa cada posición una sola vez,
+ * junto con el número de movimientos legales que ya se ha calculado para
+ * ella. Así cada comprobación cuesta O(1) amortizado: el material se lee de
+ * la firma que mantiene {@link Posicion}, y las repeticiones se cuentan en
+ * una tabla de claves Zobrist que se vacía con cada movimiento irreversible.
+ */
+public final class Arbitro {
+    /** Apariciones de cada clave Zobrist desde el último movimiento irreversible */
+    private final Map<Long, Integer> apariciones = new HashMap<>();
+
+    /**
+     * Registra la posición alcanzada y determina el estado de la partida.
+     * Debe llamarse una vez por cada posición de la partida, incluida la inicial.
+     * @param posicion Posición tras el último movimiento
+     * @param legales Número de movimientos legales de la posición
+     * @return Estado de la partida
+     */
+    public EstadoPartida registrar(Posicion posicion, int legales) {
+        EventoReglas evento = new EventoReglas();
+        evento.begin();
+        if (posicion.getReglaCincuenta() == 0) {
+            // Ninguna posición anterior a un movimiento irreversible puede repetirse
+            apariciones.clear();
+        }
+        int veces = apariciones.merge(posicion.getClave(), 1, Integer::sum);
+        EstadoPartida estado = evaluar(posicion, legales, veces - 1);
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.comprobacion = "Arbitro.registrar";
+            evento.clavePosicion = posicion.getClave();
+            evento.bando = posicion.getTurno() == Posicion.BLANCAS ? "blancas" : "negras";
+            evento.resultado = estado.getDescripcion();
+            evento.commit();
+        }
+        return estado;
+    }
+
+    /**
+     * Olvida las posiciones registradas, para empezar otra partida.
+     */
+    public void reiniciar() {
+        apariciones.clear();
+    }
+
+    /**
+     * Determina el estado de la partida en la posición actual sin un árbitro
+     * previo: genera los movimientos legales y recorre el historial.
+     * @param posicion Posición tras el último movimiento, con su historial
+     * @return Estado de la partida
+     */
+    public static EstadoPartida evaluar(Posicion posicion) {
+        return evaluar(posicion, GeneradorMovimientos.legales(posicion).length,
+                posicion.contarRepeticiones());
+    }
+
+    private static EstadoPartida evaluar(Posicion posicion, int legales, int repeticiones) {
+        if (legales == 0) {
+            return posicion.enJaque() ? EstadoPartida.JAQUE_MATE : EstadoPartida.AHOGADO;
+        }
+        if (materialInsuficiente(posicion)) {
+            return EstadoPartida.MATERIAL_INSUFICIENTE;
+        }
+        if (repeticiones >= 2) {
+            return EstadoPartida.TRIPLE_REPETICION;
+        }
+        if (posicion.getReglaCincuenta() >= 100) {
+            return EstadoPartida.CINCUENTA_MOVIMIENTOS;
+        }
+        return EstadoPartida.EN_CURSO;
+    }
+
+    /**
+     * Ningún bando puede dar mate: sólo quedan los reyes y, como mucho, una
+     * pieza menor, o alfiles todos en casillas del mismo color.
+     */
+    private static boolean materialInsuficiente(Posicion posicion) {
+        for (int tipo : new int[]{Posicion.PEON, Posicion.TORRE, Posicion.DAMA}) {
+            if (posicion.contarPiezas(tipo) + posicion.contarPiezas(-tipo) > 0) {
+                return false;
+            }
+        }
+        int caballos = posicion.contarPiezas(Posicion.CABALLO) + posicion.contarPiezas(-Posicion.CABALLO);
+        int alfilesClaros = posicion.contarAlfiles(true);
+        int alfilesOscuros = posicion.contarAlfiles(false);
+        return caballos + alfilesClaros + alfilesOscuros <= 1
+                || (caballos == 0 && (alfilesClaros == 0 || alfilesOscuros == 0));
+    }
+}
@@ -0,0 +1,68 @@
+package Motor;
+
+import java.util.Arrays;
+
+/**
+ * Tablas de ataque precalculadas para cada casilla del tablero.
+ * Las casillas se numeran como fila * 8 + columna, con la fila 0
+ * correspondiente a la primera fila de las blancas (a1 = 0, h8 = 63).
+ */
+public final class Ataques {
+    /** Casillas alcanzables por un caballo desde cada casilla */
+    public static final int[][] CABALLO = new int[64][];
+    /** Casillas alcanzables por un rey desde cada casilla */
+    public static final int[][] REY = new int[64][];
+    /** Casillas atacadas por un peón de cada color desde cada casilla */
+    public static final int[][][] PEON = new int[2][64][];
+    /**
+     * Rayos de casillas en cada dirección desde cada casilla, ordenados por
+     * distancia. Las direcciones 0-3 son ortogonales y las 4-7 diagonales.
+     */
+    public static final int[][][] RAYOS = new int[8][64][];
+
+    private static final int[][] DIRECCIONES = {
+            {1, 0}, {-1, 0}, {0, 1}, {0, -1},
+            {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+    };
+
+    static {
+        int[][] saltosCaballo = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+        for (int casilla = 0; casilla < 64; casilla++) {
+            int fila = casilla / 8;
+            int columna = casilla % 8;
+            CABALLO[casilla] = destinos(fila, columna, saltosCaballo);
+            REY[casilla] = destinos(fila, columna, DIRECCIONES);
+            PEON[Posicion.BLANCAS][casilla] = destinos(fila, columna, new int[][]{{1, -1}, {1, 1}});
+            PEON[Posicion.NEGRAS][casilla] = destinos(fila, columna, new int[][]{{-1, -1}, {-1, 1}});
+
+            for (int d = 0; d < 8; d++) {
+                int longitud = 0;
+                int[] rayo = new int[7];
+                int f = fila + DIRECCIONES[d][0];
+                int c = columna + DIRECCIONES[d][1];
+                while (f >= 0 && f < 8 && c >= 0 && c < 8) {
+                    rayo[longitud++] = f * 8 + c;
+                    f += DIRECCIONES[d][0];
+                    c += DIRECCIONES[d][1];
+                }
+                RAYOS[d][casilla] = Arrays.copyOf(rayo, longitud);
+            }
+        }
+    }
+
+    private Ataques() {
+    }
+
+    private static int[] destinos(int fila, int columna, int[][] desplazamientos) {
+        int[] resultado = new int[desplazamientos.length];
+        int n = 0;
+        for (int[] d : desplazamientos) {
+            int f = fila + d[0];
+            int c = columna + d[1];
+            if (f >= 0 && f < 8 && c >= 0 && c < 8) {
+                resultado[n++] = f * 8 + c;
+            }
+        }
+        return Arrays.copyOf(resultado, n);
+    }
+}
@@ -0,0 +1,145 @@
+package Motor;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Banco de pruebas de la búsqueda: busca un conjunto fijo de posiciones a
+ * una profundidad dada y suma los nodos visitados. Como la búsqueda es
+ * determinista con un solo hilo, el total de nodos sirve para comparar el
+ * efecto de cambios en la ordenación o la poda sin el ruido del tiempo.
+ * También compara la búsqueda de varias variantes con la de una sola.
+ */
+public final class Bench {
+    /** Posiciones de aperturas, medios juegos y finales variados */
+    public static final String[] POSICIONES = {
+            Posicion.FEN_INICIAL,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4",
+            "r2q1rk1/pp2ppbp/2np1np1/8/3NP3/2N1BP2/PPPQ2PP/R3KB1R w KQ - 3 10",
+            "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1",
+            "8/8/4k3/3p4/3P4/4K3/8/8 w - - 0 1",
+            "2r3k1/5pp1/p3p2p/1p1nP3/3P4/P2B4/1P3PPP/2R3K1 b - - 0 25",
+            "r1b2rk1/2q1b1pp/p2ppn2/1p6/3QP3/1BN1B3/PPP3PP/R4RK1 w - - 0 13"
+    };
+
+    private Bench() {
+    }
+
+    /**
+     * Busca cada posición con una tabla de transposición nueva.
+     * @param profundidad Profundidad fija de cada búsqueda
+     * @param opciones Técnicas de búsqueda activas
+     * @param salida Destino del informe
+     * @return Total de nodos visitados
+     */
+    public static long ejecutar(int profundidad, OpcionesBusqueda opciones, PrintStream salida) {
+        long totalNodos = 0;
+        long sondeosPeones = 0;
+        long aciertosPeones = 0;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < POSICIONES.length; i++) {
+            Posicion posicion = Posicion.desdeFen(POSICIONES[i]);
+            Buscador buscador = new Buscador(posicion, new TablaTransposicion(16), opciones);
+            ResultadoBusqueda resultado = buscador.buscar(profundidad);
+            totalNodos += buscador.getNodos();
+            sondeosPeones += buscador.getTablaPeones().getSondeos();
+            aciertosPeones += buscador.getTablaPeones().getAciertos();
+            salida.printf("Posición %2d: %10d nodos  %6d ms  mejor %s%n", i + 1, buscador.getNodos(),
+                    resultado.getTiempoMs(), Movimiento.aUci(resultado.getMejorMovimiento()));
+        }
+        long ms = Math.max(1, (System.nanoTime() - inicio) / 1_000_000L);
+        salida.println();
+        salida.println("Nodos: " + totalNodos);
+        salida.printf("Tabla de peones: %.1f %% de aciertos en %d consultas%n",
+                sondeosPeones == 0 ? 0.0 : aciertosPeones * 100.0 / sondeosPeones, sondeosPeones);
+        salida.println("Tiempo: " + ms + " ms (" + totalNodos * 1000 / ms + " nodos/s)");
+        return totalNodos;
+    }
+
+    /**
+     * Mide lo que cuesta buscar varias variantes (MultiPV) frente a buscar
+     * sólo la mejor, dando a cada posición el mismo tiempo para cada número de
+     * variantes. Como el tiempo es fijo, el coste aparece como profundidad
+     * perdida: cada variante extra repite la búsqueda de la raíz, aunque las
+     * siguientes aprovechan la tabla que llenaron las anteriores.
+     *
+     * La primera ronda completa se descarta para que la compilación JIT no
+     * favorezca a ningún número de variantes, y en las demás el orden rota
+     * de una ronda a otra. Cada fila da la mediana de las rondas medidas, y
+     * la coincidencia del mejor movimiento se compara con el de una variante
+     * en la misma ronda.
+     * @param msPorPosicion Tiempo de búsqueda de cada posición
+     * @param maximoLineas Mayor número de variantes que se prueba
+     * @param rondas Rondas medidas, sin contar la de calentamiento
+     * @param salida Destino del informe
+     */
+    public static void multiPv(long msPorPosicion, int maximoLineas, int rondas, PrintStream salida) {
+        rondas = Math.max(1, rondas);
+        double[][] profundidades = new double[maximoLineas][rondas];
+        double[][] nps = new double[maximoLineas][rondas];
+        double[][] coincidencias = new double[maximoLineas][rondas];
+        for (int ronda = -1; ronda < rondas; ronda++) {
+            int[][] mejores = new int[maximoLineas][];
+            for (int k = 0; k < maximoLineas; k++) {
+                int lineas = 1 + (k + Math.max(0, ronda)) % maximoLineas;
+                long totalNodos = 0;
+                long totalNanos = 0;
+                int totalProfundidad = 0;
+                mejores[lineas - 1] = new int[POSICIONES.length];
+                for (int i = 0; i < POSICIONES.length; i++) {
+                    Posicion posicion = Posicion.desdeFen(POSICIONES[i]);
+                    Buscador buscador = new Buscador(posicion, new TablaTransposicion(16), new OpcionesBusqueda());
+                    buscador.setLineas(lineas);
+                    LimitesBusqueda limites = LimitesBusqueda.porTiempo(msPorPosicion);
+                    long inicio = System.nanoTime();
+                    ResultadoBusqueda resultado = buscador.buscar(limites,
+                            new ControlTiempo(limites, posicion.getTurno()));
+                    totalNanos += System.nanoTime() - inicio;
+                    totalNodos += buscador.getNodos();
+                    totalProfundidad += resultado.getProfundidad();
+                    mejores[lineas - 1][i] = resultado.getMejorMovimiento();
+                }
+                if (ronda >= 0) {
+                    profundidades[lineas - 1][ronda] = (double) totalProfundidad / POSICIONES.length;
+                    nps[lineas - 1][ronda] = totalNodos * 1e9 / Math.max(1, totalNanos);
+                }
+            }
+            if (ronda >= 0) {
+                for (int lineas = 1; lineas <= maximoLineas; lineas++) {
+                    int iguales = 0;
+                    for (int i = 0; i < POSICIONES.length; i++) {
+                        if (mejores[lineas - 1][i] == mejores[0][i]) {
+                            iguales++;
+                        }
+                    }
+                    coincidencias[lineas - 1][ronda] = iguales;
+                }
+            }
+        }
+        double profundidadUnaLinea = mediana(profundidades[0]);
+        double npsUnaLinea = mediana(nps[0]);
+        salida.printf("Mediana de %d ronda(s) de %d ms por posición, tras una de calentamiento%n",
+                rondas, msPorPosicion);
+        salida.println("Variantes  Prof. media  Prof. perdida     Nodos/s  Nodos/s rel.  Mismo mejor");
+        for (int lineas = 1; lineas <= maximoLineas; lineas++) {
+            double profundidad = mediana(profundidades[lineas - 1]);
+            double nodosSegundo = mediana(nps[lineas - 1]);
+            salida.printf(Locale.ROOT, "%9d  %11.2f  %13.2f  %10.0f  %12.2f  %8.1f/%d%n", lineas,
+                    profundidad, profundidadUnaLinea - profundidad, nodosSegundo, nodosSegundo / npsUnaLinea,
+                    mediana(coincidencias[lineas - 1]), POSICIONES.length);
+        }
+    }
+
+    private static double mediana(double[] valores) {
+        double[] ordenados = valores.clone();
+        Arrays.sort(ordenados);
+        int mitad = ordenados.length / 2;
+        return ordenados.length % 2 == 1 ? ordenados[mitad] : (ordenados[mitad - 1] + ordenados[mitad]) / 2;
+    }
+}
@@ -0,0 +1,569 @@
+package Motor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Búsqueda del mejor movimiento mediante alfa-beta con profundización iterativa.
+ * Cada buscador trabaja sobre su propia copia de la posición y reutiliza sus
+ * buffers de movimientos, por lo que no crea objetos durante la búsqueda.
+ * Varios buscadores pueden compartir una tabla de transposición y un
+ * control de tiempo para buscar en paralelo la misma posición.
+ */
+public class Buscador {
+    /** Puntuación de un mate inmediato */
+    public static final int MATE = 30000;
+    /** Cota superior de cualquier puntuación */
+    public static final int INFINITO = 32000;
+    /** Profundidad máxima en medios movimientos desde la raíz */
+    public static final int MAX_PLY = 128;
+    /** Cada cuántos nodos se comprueban los límites de la búsqueda */
+    private static final int INTERVALO_COMPROBACION = 256;
+    /** Valor a partir del cual se reducen a la mitad todas las entradas de la historia */
+    private static final int LIMITE_HISTORIA = 1 << 20;
+    /** Bits de índice de la tabla de peones propia de cada buscador (16384 entradas) */
+    public static final int TAMANO_TABLA_PEONES = 14;
+    /** Margen de la poda delta: ni ganando la pieza capturada y algo más se llegaría a alfa */
+    private static final int MARGEN_DELTA = 200;
+    /** Margen de la poda de futilidad según la profundidad restante (1 o 2) */
+    private static final int[] MARGEN_FUTILIDAD = {0, 150, 300};
+    /** Semiamplitud inicial de la ventana de aspiración */
+    private static final int VENTANA_ASPIRACION = 25;
+    /** Profundidad desde la que se verifica con una búsqueda normal el corte del movimiento nulo */
+    private static final int PROFUNDIDAD_VERIFICACION = 8;
+    /** Reducción de LMR según la profundidad restante y el número de movimiento */
+    private static final int[][] REDUCCIONES = new int[64][64];
+
+    static {
+        for (int profundidad = 1; profundidad < 64; profundidad++) {
+            for (int numero = 1; numero < 64; numero++) {
+                REDUCCIONES[profundidad][numero] =
+                        (int) (0.75 + Math.log(profundidad) * Math.log(numero) / 2.25);
+            }
+        }
+    }
+
+    private final Posicion posicion;
+    private final TablaTransposicion tabla;
+    private final OpcionesBusqueda opciones;
+    private final TablaPeones peones;
+    private final SelectorMovimientos[] selectores = new SelectorMovimientos[MAX_PLY];
+    /** Dos movimientos tranquilos que produjeron un corte en cada ply */
+    private final int[][] asesinos = new int[MAX_PLY][2];
+    /** Tabla de historia (butterfly) indexada por bando, origen y destino */
+    private final int[] historia = new int[2 * 64 * 64];
+    private final int[][] variantes = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] longitudVariante = new int[MAX_PLY + 1];
+    private ControlTiempo control;
+    private Consumer<ResultadoBusqueda> oyente;
+    private long nodos;
+    /** Nodos ya comunicados al control, que suma los de todos los hilos */
+    private long nodosComprobados;
+    private long inicio;
+    private final ContadoresBusqueda contadores = new ContadoresBusqueda();
+    /** Última instantánea de los contadores, que leen otros hilos */
+    private volatile EstadisticasBusqueda estadisticas = EstadisticasBusqueda.VACIAS;
+    /** Buscadores auxiliares cuyas estadísticas se suman a las de este */
+    private List<Buscador> auxiliares = List.of();
+    /** Número de variantes principales que se buscan (MultiPV) */
+    private int lineas = 1;
+    /** Movimientos de la raíz que ya encabezan una variante de esta iteración */
+    private final int[] excluidos = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+    private int numeroExcluidos;
+
+    /**
+     * Crea un buscador con su propia tabla de transposición.
+     * @param posicion Posición a analizar; el buscador trabaja sobre una copia
+     */
+    public Buscador(Posicion posicion) {
+        this(posicion, new TablaTransposicion(16));
+    }
+
+    /**
+     * @param posicion Posición a analizar; el buscador trabaja sobre una copia
+     * @param tabla Tabla de transposición, posiblemente compartida con otros buscadores
+     */
+    public Buscador(Posicion posicion, TablaTransposicion tabla) {
+        this(posicion, tabla, new OpcionesBusqueda());
+    }
+
+    /**
+     * @param posicion Posición a analizar; el buscador trabaja sobre una copia
+     * @param tabla Tabla de transposición, posiblemente compartida con otros buscadores
+     * @param opciones Técnicas de búsqueda activas; no se modifican durante la búsqueda
+     */
+    public Buscador(Posicion posicion, TablaTransposicion tabla, OpcionesBusqueda opciones) {
+        this(posicion, tabla, opciones, new TablaPeones(TAMANO_TABLA_PEONES));
+    }
+
+    /**
+     * @param posicion Posición a analizar; el buscador trabaja sobre una copia
+     * @param tabla Tabla de transposición, posiblemente compartida con otros buscadores
+     * @param opciones Técnicas de búsqueda activas; no se modifican durante la búsqueda
+     * @param peones Caché de estructuras de peones, propia de este buscador y reutilizable
+     *               entre búsquedas; no se usa si la opción PawnHash está desactivada
+     */
+    public Buscador(Posicion posicion, TablaTransposicion tabla, OpcionesBusqueda opciones, TablaPeones peones) {
+        this.posicion = posicion.copiar();
+        this.tabla = tabla;
+        this.opciones = opciones;
+        this.peones = opciones.isTablaPeones() ? peones : TablaPeones.sinCache();
+        for (int i = 0; i < MAX_PLY; i++) {
+            selectores[i] = new SelectorMovimientos();
+        }
+    }
+
+    /**
+     * Registra un oyente que recibe el resultado de cada iteración completada.
+     * @param oyente Receptor de los resultados parciales, o null
+     */
+    public void setOyente(Consumer<ResultadoBusqueda> oyente) {
+        this.oyente = oyente;
+    }
+
+    /**
+     * Indica los buscadores que trabajan en paralelo con este, para sumar sus
+     * estadísticas a las de cada resultado.
+     * @param auxiliares Buscadores auxiliares de la misma búsqueda
+     */
+    public void setAuxiliares(List<Buscador> auxiliares) {
+        this.auxiliares = List.copyOf(auxiliares);
+    }
+
+    /**
+     * Pide las mejores variantes y no sólo la mejor. En cada iteración la raíz
+     * se busca una vez por variante, excluyendo los movimientos que ya
+     * encabezan las anteriores, cada una con su propia ventana de aspiración.
+     * @param lineas Número de variantes (al menos 1)
+     */
+    public void setLineas(int lineas) {
+        this.lineas = Math.max(1, lineas);
+    }
+
+    /**
+     * Busca con profundidad creciente hasta la profundidad indicada.
+     * @param profundidadMaxima Profundidad máxima en medios movimientos
+     * @return Resultado de la última iteración completada
+     */
+    public ResultadoBusqueda buscar(int profundidadMaxima) {
+        LimitesBusqueda limites = LimitesBusqueda.porProfundidad(profundidadMaxima);
+        return buscar(limites, new ControlTiempo(limites, posicion.getTurno()));
+    }
+
+    /**
+     * Busca con profundidad creciente mientras lo permitan los límites.
+     * @param limites Límites de profundidad de la búsqueda
+     * @param control Control de tiempo y parada, posiblemente compartido con otros buscadores
+     * @return Resultado de la última iteración completada
+     */
+    public ResultadoBusqueda buscar(LimitesBusqueda limites, ControlTiempo control) {
+        this.control = control;
+        this.inicio = System.nanoTime();
+        this.nodos = 0;
+        this.nodosComprobados = 0;
+        contadores.reiniciar();
+        estadisticas = EstadisticasBusqueda.VACIAS;
+        for (int[] asesinosPly : asesinos) {
+            Arrays.fill(asesinosPly, Movimiento.NINGUNO);
+        }
+        Arrays.fill(historia, 0);
+        int profundidadMaxima = limites.getProfundidad() > 0
+                ? Math.min(limites.getProfundidad(), MAX_PLY - 1) : MAX_PLY - 1;
+
+        int[] legales = GeneradorMovimientos.legales(posicion);
+        ResultadoBusqueda resultado = new ResultadoBusqueda(
+                legales.length > 0 ? legales[0] : Movimiento.NINGUNO, 0, 0, 0, 0,
+                legales.length > 0 ? new int[]{legales[0]} : new int[0]);
+        if (legales.length == 0) {
+            return resultado;
+        }
+
+        int numeroLineas = Math.min(lineas, legales.length);
+        // Puntuación de cada variante en la iteración anterior, centro de su ventana de aspiración
+        int[] puntuaciones = new int[numeroLineas];
+        for (int profundidad = 1; profundidad <= profundidadMaxima; profundidad++) {
+            if (profundidad > 1 && !control.puedeIniciarIteracion()) {
+                break;
+            }
+            List<ResultadoBusqueda> encontradas = new ArrayList<>(numeroLineas);
+            numeroExcluidos = 0;
+            for (int linea = 0; linea < numeroLineas; linea++) {
+                int puntuacion = opciones.isAspiracion() && profundidad >= 5
+                        ? buscarConAspiracion(profundidad, puntuaciones[linea])
+                        : alfaBeta(profundidad, -INFINITO, INFINITO, 0, true);
+                if (control.isDetenido() && profundidad > 1) {
+                    break;
+                }
+                int[] variante = Arrays.copyOf(variantes[0], longitudVariante[0]);
+                if (variante.length == 0) {
+                    break;
+                }
+                encontradas.add(new ResultadoBusqueda(variante[0], puntuacion, profundidad, nodos,
+                        (System.nanoTime() - inicio) / 1_000_000L, variante));
+                excluidos[numeroExcluidos++] = variante[0];
+                if (control.isDetenido()) {
+                    break;
+                }
+            }
+            numeroExcluidos = 0;
+            // Una iteración sólo cuenta si completa todas sus variantes (salvo la primera)
+            if (encontradas.isEmpty() || (encontradas.size() < numeroLineas && profundidad > 1)) {
+                break;
+            }
+            encontradas.sort((a, b) -> Integer.compare(b.getPuntuacion(), a.getPuntuacion()));
+            for (int linea = 0; linea < encontradas.size(); linea++) {
+                puntuaciones[linea] = encontradas.get(linea).getPuntuacion();
+            }
+            ResultadoBusqueda mejor = encontradas.get(0);
+            long nanos = System.nanoTime() - inicio;
+            contadores.cerrarIteracion(profundidad, nodos, nanos);
+            estadisticas = contadores.instantanea(nodos, nanos);
+            resultado = new ResultadoBusqueda(mejor.getMejorMovimiento(), mejor.getPuntuacion(), profundidad, nodos,
+                    nanos / 1_000_000L, mejor.getVariantePrincipal(), getEstadisticasCombinadas())
+                    .conLineas(encontradas);
+            if (oyente != null) {
+                oyente.accept(resultado);
+            }
+            if (control.isDetenido()) {
+                break;
+            }
+        }
+        estadisticas = contadores.instantanea(nodos, System.nanoTime() - inicio);
+        return resultado.conEstadisticas(getEstadisticasCombinadas());
+    }
+
+    /**
+     * Busca primero con una ventana estrecha alrededor de la puntuación de la
+     * iteración anterior, que produce más cortes. Si el resultado cae fuera,
+     * se repite ensanchando la ventana por ese lado.
+     */
+    private int buscarConAspiracion(int profundidad, int anterior) {
+        int delta = VENTANA_ASPIRACION;
+        int alfa = Math.max(anterior - delta, -INFINITO);
+        int beta = Math.min(anterior + delta, INFINITO);
+        while (true) {
+            int puntuacion = alfaBeta(profundidad, alfa, beta, 0, true);
+            if (control.isDetenido()) {
+                return puntuacion;
+            }
+            if (puntuacion <= alfa) {
+                alfa = Math.max(puntuacion - delta, -INFINITO);
+            } else if (puntuacion >= beta) {
+                beta = Math.min(puntuacion + delta, INFINITO);
+            } else {
+                return puntuacion;
+            }
+            delta *= 2;
+        }
+    }
+
+    /**
+     * @param permitirNulo false justo después de un movimiento nulo, para no pasar dos veces seguidas
+     */
+    private int alfaBeta(int profundidad, int alfa, int beta, int ply, boolean permitirNulo) {
+        longitudVariante[ply] = 0;
+        if ((nodos & (INTERVALO_COMPROBACION - 1)) == 0 && comprobarLimites()) {
+            return 0;
+        }
+        if (ply > 0 && (posicion.getReglaCincuenta() >= 100 || posicion.esRepeticion())) {
+            return 0;
+        }
+        boolean enJaque = posicion.enJaque();
+        if (enJaque) {
+            profundidad++;
+        }
+        if (profundidad <= 0 || ply >= MAX_PLY - 1) {
+            return quiescencia(alfa, beta, ply);
+        }
+        nodos++;
+
+        boolean esVariantePrincipal = beta - alfa > 1;
+        long entrada = tabla.sondear(posicion.getClave());
+        contadores.sondeosTabla++;
+        int movimientoTabla = Movimiento.NINGUNO;
+        if (entrada != 0) {
+            contadores.aciertosTabla++;
+            movimientoTabla = TablaTransposicion.movimiento(entrada);
+            if (!esVariantePrincipal && ply > 0 && TablaTransposicion.profundidad(entrada) >= profundidad) {
+                int puntuacion = desdeTabla(TablaTransposicion.puntuacion(entrada), ply);
+                int tipo = TablaTransposicion.tipo(entrada);
+                if (tipo == TablaTransposicion.EXACTA
+                        || (tipo == TablaTransposicion.INFERIOR && puntuacion >= beta)
+                        || (tipo == TablaTransposicion.SUPERIOR && puntuacion <= alfa)) {
+                    return puntuacion;
+                }
+            }
+        }
+
+        int estatica = enJaque || esVariantePrincipal ? -INFINITO : Evaluacion.evaluar(posicion, peones);
+        int turno = posicion.getTurno();
+
+        // Movimiento nulo: si pasando el turno el rival sigue sin alcanzar beta,
+        // mover seguro que también corta. Sin piezas (sólo peones) el zugzwang
+        // es frecuente y no se intenta; a mucha profundidad el corte se verifica.
+        if (opciones.isMovimientoNulo() && permitirNulo && !esVariantePrincipal && !enJaque
+                && profundidad >= 3 && estatica >= beta && posicion.tienePiezas(turno)
+                && Math.abs(beta) < MATE - MAX_PLY) {
+            int reduccion = 3 + profundidad / 6;
+            posicion.hacerMovimientoNulo();
+            int puntuacion = -alfaBeta(profundidad - 1 - reduccion, -beta, -beta + 1, ply + 1, false);
+            posicion.deshacerMovimientoNulo();
+            if (control.isDetenido()) {
+                return 0;
+            }
+            if (puntuacion >= beta) {
+                if (profundidad < PROFUNDIDAD_VERIFICACION
+                        || alfaBeta(profundidad - 1 - reduccion, beta - 1, beta, ply, false) >= beta) {
+                    return puntuacion >= MATE - MAX_PLY ? beta : puntuacion;
+                }
+                longitudVariante[ply] = 0;
+            }
+        }
+
+        // Futilidad: cerca de las hojas, si ni con un margen generoso la
+        // evaluación llega a alfa, los movimientos tranquilos no la cambiarán
+        boolean podarFutiles = opciones.isFutilidad() && !esVariantePrincipal && !enJaque
+                && profundidad < MARGEN_FUTILIDAD.length && Math.abs(alfa) < MATE - MAX_PLY
+                && estatica + MARGEN_FUTILIDAD[profundidad] <= alfa;
+
+        int asesino1 = opciones.isAsesinos() ? asesinos[ply][0] : Movimiento.NINGUNO;
+        int asesino2 = opciones.isAsesinos() ? asesinos[ply][1] : Movimiento.NINGUNO;
+        SelectorMovimientos selector = selectores[ply];
+        selector.iniciar(posicion, movimientoTabla, asesino1, asesino2,
+                opciones.isHistoria() ? historia : null, false);
+
+        int alfaOriginal = alfa;
+        int mejor = -INFINITO;
+        int mejorMovimiento = Movimiento.NINGUNO;
+        int legales = 0;
+        int movimiento;
+        while ((movimiento = selector.siguiente()) != Movimiento.NINGUNO) {
+            if (ply == 0 && numeroExcluidos > 0 && excluido(movimiento)) {
+                continue;
+            }
+            posicion.hacerMovimiento(movimiento);
+            if (posicion.dejaReyEnJaque()) {
+                posicion.deshacerMovimiento();
+                continue;
+            }
+            legales++;
+            boolean tranquilo = Movimiento.esTranquilo(movimiento);
+            boolean daJaque = posicion.enJaque();
+
+            if (podarFutiles && tranquilo && !daJaque && legales > 1) {
+                posicion.deshacerMovimiento();
+                if (estatica + MARGEN_FUTILIDAD[profundidad] > mejor) {
+                    mejor = estatica + MARGEN_FUTILIDAD[profundidad];
+                }
+                continue;
+            }
+
+            int puntuacion;
+            if (legales == 1) {
+                puntuacion = -alfaBeta(profundidad - 1, -beta, -alfa, ply + 1, true);
+            } else {
+                // Los movimientos tranquilos tardíos, que la ordenación considera
+                // peores, se buscan primero con menos profundidad y ventana nula
+                int reduccion = 0;
+                if (opciones.isReducciones() && tranquilo && !daJaque && !enJaque && profundidad >= 3
+                        && legales > 3 && movimiento != asesino1 && movimiento != asesino2) {
+                    reduccion = REDUCCIONES[Math.min(profundidad, 63)][Math.min(legales, 63)];
+                    if (esVariantePrincipal) {
+                        reduccion--;
+                    }
+                    reduccion = Math.max(0, Math.min(reduccion, profundidad - 2));
+                }
+                puntuacion = -alfaBeta(profundidad - 1 - reduccion, -alfa - 1, -alfa, ply + 1, true);
+                if (puntuacion > alfa && reduccion > 0) {
+                    puntuacion = -alfaBeta(profundidad - 1, -alfa - 1, -alfa, ply + 1, true);
+                }
+                if (puntuacion > alfa && puntuacion < beta) {
+                    puntuacion = -alfaBeta(profundidad - 1, -beta, -alfa, ply + 1, true);
+                }
+            }
+            posicion.deshacerMovimiento();
+            if (control.isDetenido()) {
+                return 0;
+            }
+
+            if (puntuacion > mejor) {
+                mejor = puntuacion;
+                mejorMovimiento = movimiento;
+                if (puntuacion > alfa) {
+                    alfa = puntuacion;
+                    actualizarVariante(ply, movimiento);
+                    if (alfa >= beta) {
+                        contadores.cortes++;
+                        if (legales == 1) {
+                            contadores.cortesPrimerMovimiento++;
+                        }
+                        if (tranquilo) {
+                            registrarCorte(movimiento, profundidad, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (legales == 0) {
+            return enJaque ? -MATE + ply : 0;
+        }
+
+        int tipo = mejor >= beta ? TablaTransposicion.INFERIOR
+                : mejor > alfaOriginal ? TablaTransposicion.EXACTA : TablaTransposicion.SUPERIOR;
+        // Con movimientos excluidos el mejor de la raíz no es el de la posición
+        if (ply > 0 || numeroExcluidos == 0) {
+            tabla.guardar(posicion.getClave(), mejorMovimiento, haciaTabla(mejor, ply), profundidad, tipo);
+        }
+        return mejor;
+    }
+
+    /**
+     * Búsqueda de quietud: al agotar la profundidad se siguen explorando las
+     * capturas y promociones hasta llegar a una posición tranquila, para no
+     * evaluar a mitad de un intercambio. El bando que mueve puede no capturar
+     * y quedarse con la evaluación estática (stand pat); las capturas que
+     * pierden material según el SEE ya las descarta el selector, y las que ni
+     * en el mejor caso alcanzarían alfa se podan (poda delta).
+     */
+    private int quiescencia(int alfa, int beta, int ply) {
+        longitudVariante[ply] = 0;
+        if ((nodos & (INTERVALO_COMPROBACION - 1)) == 0 && comprobarLimites()) {
+            return 0;
+        }
+        nodos++;
+        contadores.nodosQuiescencia++;
+        int estatica = Evaluacion.evaluar(posicion, peones);
+        if (estatica >= beta || ply >= MAX_PLY - 1) {
+            return estatica;
+        }
+        if (estatica > alfa) {
+            alfa = estatica;
+        }
+
+        SelectorMovimientos selector = selectores[ply];
+        selector.iniciar(posicion, Movimiento.NINGUNO, Movimiento.NINGUNO, Movimiento.NINGUNO, null, true);
+        int movimiento;
+        while ((movimiento = selector.siguiente()) != Movimiento.NINGUNO) {
+            if (Movimiento.promocion(movimiento) == Posicion.VACIO) {
+                int victima = Movimiento.esAlPaso(movimiento) ? Posicion.PEON
+                        : Math.abs(posicion.pieza(Movimiento.destino(movimiento)));
+                if (estatica + Evaluacion.VALOR[victima] + MARGEN_DELTA <= alfa) {
+                    continue;
+                }
+            }
+            posicion.hacerMovimiento(movimiento);
+            if (posicion.dejaReyEnJaque()) {
+                posicion.deshacerMovimiento();
+                continue;
+            }
+            int puntuacion = -quiescencia(-beta, -alfa, ply + 1);
+            posicion.deshacerMovimiento();
+            if (control.isDetenido()) {
+                return 0;
+            }
+            if (puntuacion > alfa) {
+                alfa = puntuacion;
+                actualizarVariante(ply, movimiento);
+                if (alfa >= beta) {
+                    break;
+                }
+            }
+        }
+        return alfa;
+    }
+
+    /**
+     * Las puntuaciones de mate se guardan relativas al nodo y no a la raíz,
+     * para que sigan siendo válidas al encontrar la posición a otro ply.
+     */
+    private static int haciaTabla(int puntuacion, int ply) {
+        if (puntuacion >= MATE - MAX_PLY) return puntuacion + ply;
+        if (puntuacion <= -MATE + MAX_PLY) return puntuacion - ply;
+        return puntuacion;
+    }
+
+    private static int desdeTabla(int puntuacion, int ply) {
+        if (puntuacion >= MATE - MAX_PLY) return puntuacion - ply;
+        if (puntuacion <= -MATE + MAX_PLY) return puntuacion + ply;
+        return puntuacion;
+    }
+
+    private boolean comprobarLimites() {
+        long nuevos = nodos - nodosComprobados;
+        nodosComprobados = nodos;
+        return control.comprobar(nuevos);
+    }
+
+    private boolean excluido(int movimiento) {
+        for (int i = 0; i < numeroExcluidos; i++) {
+            if (excluidos[i] == movimiento) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void actualizarVariante(int ply, int movimiento) {
+        variantes[ply][0] = movimiento;
+        System.arraycopy(variantes[ply + 1], 0, variantes[ply], 1, longitudVariante[ply + 1]);
+        longitudVariante[ply] = longitudVariante[ply + 1] + 1;
+    }
+
+    /**
+     * Un movimiento tranquilo que produce un corte pasa a ser asesino del ply
+     * y suma en la tabla de historia en proporción a la profundidad restante.
+     */
+    private void registrarCorte(int movimiento, int profundidad, int ply) {
+        if (asesinos[ply][0] != movimiento) {
+            asesinos[ply][1] = asesinos[ply][0];
+            asesinos[ply][0] = movimiento;
+        }
+        int indice = SelectorMovimientos.indiceHistoria(posicion.getTurno(), movimiento);
+        historia[indice] += profundidad * profundidad;
+        if (historia[indice] > LIMITE_HISTORIA) {
+            for (int i = 0; i < historia.length; i++) {
+                historia[i] /= 2;
+            }
+        }
+    }
+
+    /**
+     * @return Caché de estructuras de peones usada en la evaluación
+     */
+    public TablaPeones getTablaPeones() {
+        return peones;
+    }
+
+    /**
+     * @return Nodos visitados en la última búsqueda
+     */
+    public long getNodos() {
+        return nodos;
+    }
+
+    /**
+     * @return Estadísticas de este buscador al terminar su última iteración;
+     *         se puede llamar desde cualquier hilo
+     */
+    public EstadisticasBusqueda getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * @return Estadísticas de este buscador sumadas a las más recientes de sus auxiliares
+     */
+    public EstadisticasBusqueda getEstadisticasCombinadas() {
+        if (auxiliares.isEmpty()) {
+            return estadisticas;
+        }
+        List<EstadisticasBusqueda> otras = new ArrayList<>(auxiliares.size());
+        for (Buscador auxiliar : auxiliares) {
+            otras.add(auxiliar.getEstadisticas());
+        }
+        return EstadisticasBusqueda.combinar(estadisticas, otras);
+    }
+}
@@ -0,0 +1,118 @@
+package Motor;
+
+/**
+ * Configuración de uno de los motores que se enfrentan en un {@link Torneo}:
+ * nombre, tamaño de la tabla de transposición y límites de cada jugada.
+ *
+ * Se describe con un texto "nombre:clave=valor,clave=valor", por ejemplo
+ * "base:nodos=20000,hash=8". Las claves reconocidas son hash (MB), nodos,
+ * profundidad y tiempo (milisegundos por jugada), además de las de
+ * {@link OpcionesBusqueda}.
+ */
+public class ConfiguracionMotor {
+    private String nombre;
+    private int hashMb = 8;
+    private final LimitesBusqueda limites = new LimitesBusqueda();
+    private final OpcionesBusqueda opciones = new OpcionesBusqueda();
+
+    /**
+     * @param nombre Nombre con el que aparece en el PGN y en el informe
+     */
+    public ConfiguracionMotor(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Interpreta una descripción "nombre:clave=valor,...". Si no se indica
+     * ningún límite se juega a 20000 nodos por jugada.
+     * @param descripcion Descripción del motor
+     * @param nombrePorDefecto Nombre si la descripción no incluye uno
+     * @return Configuración correspondiente
+     * @throws IllegalArgumentException Si alguna clave o valor no es válido
+     */
+    public static ConfiguracionMotor desdeTexto(String descripcion, String nombrePorDefecto) {
+        String texto = descripcion.trim();
+        int dosPuntos = texto.indexOf(':');
+        String nombre = nombrePorDefecto;
+        if (dosPuntos >= 0) {
+            nombre = texto.substring(0, dosPuntos).trim();
+            texto = texto.substring(dosPuntos + 1);
+        } else if (!texto.contains("=")) {
+            nombre = texto;
+            texto = "";
+        }
+        ConfiguracionMotor configuracion = new ConfiguracionMotor(nombre.isEmpty() ? nombrePorDefecto : nombre);
+        for (String par : texto.split(",")) {
+            if (par.isBlank()) {
+                continue;
+            }
+            int igual = par.indexOf('=');
+            if (igual < 0) {
+                throw new IllegalArgumentException("se esperaba clave=valor: " + par);
+            }
+            configuracion.establecer(par.substring(0, igual).trim(), par.substring(igual + 1).trim());
+        }
+        if (configuracion.limites.getNodos() == 0 && configuracion.limites.getProfundidad() == 0
+                && configuracion.limites.getTiempoMovimiento() < 0) {
+            configuracion.limites.setNodos(20000);
+        }
+        return configuracion;
+    }
+
+    /**
+     * Cambia una opción de la configuración.
+     * @param clave Nombre de la opción, sin distinguir mayúsculas
+     * @param valor Nuevo valor
+     * @throws IllegalArgumentException Si la opción no existe o el valor no es válido
+     */
+    public void establecer(String clave, String valor) {
+        try {
+            switch (clave.toLowerCase()) {
+                case "hash":
+                    hashMb = Math.max(1, Integer.parseInt(valor));
+                    break;
+                case "nodos":
+                    limites.setNodos(Long.parseLong(valor));
+                    break;
+                case "profundidad":
+                    limites.setProfundidad(Integer.parseInt(valor));
+                    break;
+                case "tiempo":
+                    limites.setTiempoMovimiento(Long.parseLong(valor));
+                    break;
+                default:
+                    if (!opciones.establecer(clave, valor)) {
+                        throw new IllegalArgumentException("opción de motor desconocida: " + clave);
+                    }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("valor no válido para " + clave + ": " + valor);
+        }
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public int getHashMb() {
+        return hashMb;
+    }
+
+    /**
+     * @return Técnicas de búsqueda activas en este motor
+     */
+    public OpcionesBusqueda getOpciones() {
+        return opciones;
+    }
+
+    /**
+     * @return Límites que se aplican a cada jugada del motor
+     */
+    public LimitesBusqueda getLimites() {
+        return limites;
+    }
+}
@@ -0,0 +1,60 @@
+package Motor;
+
+import java.util.Arrays;
+
+/**
+ * Contadores de un único hilo de búsqueda. Son campos normales, sin
+ * sincronización: sólo los modifica su buscador, que al terminar cada
+ * iteración publica una {@link EstadisticasBusqueda} inmutable con ellos.
+ */
+final class ContadoresBusqueda {
+    long nodosQuiescencia;
+    long cortes;
+    long cortesPrimerMovimiento;
+    long sondeosTabla;
+    long aciertosTabla;
+    /** Nodos y nanosegundos que costó completar cada profundidad */
+    private final long[] nodosIteracion = new long[Buscador.MAX_PLY];
+    private final long[] nanosIteracion = new long[Buscador.MAX_PLY];
+    private int profundidad;
+    private long nodosAnteriores;
+    private long nanosAnteriores;
+
+    void reiniciar() {
+        nodosQuiescencia = 0;
+        cortes = 0;
+        cortesPrimerMovimiento = 0;
+        sondeosTabla = 0;
+        aciertosTabla = 0;
+        Arrays.fill(nodosIteracion, 0);
+        Arrays.fill(nanosIteracion, 0);
+        profundidad = 0;
+        nodosAnteriores = 0;
+        nanosAnteriores = 0;
+    }
+
+    /**
+     * Anota lo que ha costado la iteración que acaba de completarse.
+     * @param profundidad Profundidad completada
+     * @param nodos Nodos totales desde el principio de la búsqueda
+     * @param nanos Nanosegundos desde el principio de la búsqueda
+     */
+    void cerrarIteracion(int profundidad, long nodos, long nanos) {
+        nodosIteracion[profundidad] = nodos - nodosAnteriores;
+        nanosIteracion[profundidad] = nanos - nanosAnteriores;
+        nodosAnteriores = nodos;
+        nanosAnteriores = nanos;
+        this.profundidad = profundidad;
+    }
+
+    /**
+     * @param nodos Nodos totales del buscador
+     * @param nanos Duración de la búsqueda hasta ahora
+     * @return Copia inmutable de los contadores
+     */
+    EstadisticasBusqueda instantanea(long nodos, long nanos) {
+        return new EstadisticasBusqueda(1, profundidad, nodos, nodosQuiescencia, cortes, cortesPrimerMovimiento,
+                sondeosTabla, aciertosTabla, nanos / 1_000_000L,
+                Arrays.copyOf(nodosIteracion, profundidad + 1), Arrays.copyOf(nanosIteracion, profundidad + 1));
+    }
+}
@@ -0,0 +1,121 @@
+package Motor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decide cuándo debe terminar una búsqueda en curso.
+ * Es compartido por todos los hilos de una misma búsqueda: cualquiera de
+ * ellos, o el adaptador UCI al recibir "stop", puede detenerla, y todos la
+ * ven detenida en su siguiente comprobación.
+ *
+ * Hay dos límites de tiempo: pasado el suave no se empieza una nueva
+ * iteración, porque probablemente no daría tiempo a terminarla, y el duro
+ * interrumpe la iteración en curso. Mientras se piensa en el tiempo
+ * del rival (ponder) no se aplica ninguno de los dos.
+ */
+public class ControlTiempo {
+    /** Margen que se reserva en el reloj para la comunicación con la interfaz */
+    private static final long MARGEN_MS = 30;
+
+    private final long limiteSuaveMs;
+    private final long limiteDuroMs;
+    private final long limiteNodos;
+    /** Nodos visitados entre todos los hilos que comparten este control */
+    private final AtomicLong nodos = new AtomicLong();
+    private volatile long inicio;
+    private volatile boolean ponder;
+    private volatile boolean detenido;
+
+    /**
+     * Calcula los límites de tiempo a partir de los recibidos en "go".
+     * @param limites Límites de la búsqueda
+     * @param turno Bando que mueve, para elegir su reloj
+     */
+    public ControlTiempo(LimitesBusqueda limites, int turno) {
+        this.inicio = System.nanoTime();
+        this.ponder = limites.isPonder();
+        this.limiteNodos = limites.getNodos();
+
+        long restante = limites.getTiempoRestante(turno);
+        if (limites.isInfinito()) {
+            limiteSuaveMs = -1;
+            limiteDuroMs = -1;
+        } else if (limites.getTiempoMovimiento() >= 0) {
+            limiteSuaveMs = limites.getTiempoMovimiento() / 2;
+            limiteDuroMs = limites.getTiempoMovimiento();
+        } else if (restante >= 0) {
+            int movimientos = limites.getMovimientosHastaControl() > 0
+                    ? Math.min(limites.getMovimientosHastaControl(), 30) : 30;
+            long disponible = Math.max(1, restante - MARGEN_MS);
+            long objetivo = disponible / movimientos + limites.getIncremento(turno) * 3 / 4;
+            limiteSuaveMs = Math.min(objetivo * 6 / 10, disponible);
+            limiteDuroMs = Math.min(objetivo * 4, disponible / 2 + limites.getIncremento(turno) / 2);
+        } else {
+            limiteSuaveMs = -1;
+            limiteDuroMs = -1;
+        }
+    }
+
+    /**
+     * Comprueba los límites durante la búsqueda y la detiene si se superan.
+     * El límite de nodos se aplica a la suma de todos los hilos.
+     * @param nuevos Nodos visitados por el hilo que comprueba desde su comprobación anterior
+     * @return true si la búsqueda debe terminar
+     */
+    public boolean comprobar(long nuevos) {
+        if (detenido) {
+            return true;
+        }
+        long total = nodos.addAndGet(nuevos);
+        if (limiteNodos > 0 && total >= limiteNodos) {
+            detenido = true;
+        } else if (!ponder && limiteDuroMs >= 0 && transcurridoMs() >= limiteDuroMs) {
+            detenido = true;
+        }
+        return detenido;
+    }
+
+    /**
+     * @return true si queda tiempo para empezar otra iteración
+     */
+    public boolean puedeIniciarIteracion() {
+        return !detenido && (ponder || limiteSuaveMs < 0 || transcurridoMs() < limiteSuaveMs);
+    }
+
+    /**
+     * Detiene la búsqueda en todos los hilos.
+     */
+    public void detener() {
+        detenido = true;
+    }
+
+    /**
+     * @return true si la búsqueda se ha detenido
+     */
+    public boolean isDetenido() {
+        return detenido;
+    }
+
+    /**
+     * El rival jugó el movimiento previsto: a partir de ahora corre el
+     * tiempo propio y se aplican los límites normales.
+     */
+    public void ponderhit() {
+        inicio = System.nanoTime();
+        ponder = false;
+    }
+
+    /**
+     * @return true si se está pensando en el tiempo del rival
+     */
+    public boolean isPonder() {
+        return ponder;
+    }
+
+    /**
+     * @return Milisegundos desde el inicio de la búsqueda o desde el último ponderhit
+     */
+    public long transcurridoMs() {
+        return (System.nanoTime() - inicio) / 1_000_000L;
+    }
+}
@@ -0,0 +1,82 @@
+package Motor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escribe partidas en formato PGN, con las líneas de movimientos
+ * ajustadas a 80 columnas, incluidas las anotaciones y comentarios de
+ * cada movimiento.
+ */
+public class EscritorPgn {
+    private static final int ANCHO_LINEA = 80;
+
+    private final Writer salida;
+
+    /**
+     * @param salida Destino del texto PGN
+     */
+    public EscritorPgn(Writer salida) {
+        this.salida = salida;
+    }
+
+    /**
+     * Escribe una partida completa seguida de una línea en blanco.
+     * @param partida Partida a escribir
+     * @throws IOException si falla la escritura
+     */
+    public void escribir(PartidaPgn partida) throws IOException {
+        for (Map.Entry<String, String> etiqueta : partida.getEtiquetas().entrySet()) {
+            salida.write("[" + etiqueta.getKey() + " \"" + etiqueta.getValue().replace("\"", "\\\"") + "\"]\n");
+        }
+        salida.write('\n');
+
+        StringBuilder linea = new StringBuilder();
+        List<String> movimientos = partida.getMovimientos();
+        int primerPly = primerPly(partida);
+        boolean trasComentario = false;
+        for (int i = 0; i < movimientos.size(); i++) {
+            int ply = primerPly + i;
+            if (ply % 2 == 0) {
+                agregar(linea, (ply / 2 + 1) + ".");
+            } else if (i == 0 || trasComentario) {
+                // Tras un comentario se repite el número de jugada de las negras
+                agregar(linea, (ply / 2 + 1) + "...");
+            }
+            agregar(linea, movimientos.get(i) + partida.getAnotacion(i));
+            String comentario = partida.getComentario(i);
+            trasComentario = comentario != null;
+            if (trasComentario) {
+                agregar(linea, "{" + comentario.replace('}', ')') + "}");
+            }
+        }
+        agregar(linea, partida.getResultado());
+        salida.write(linea.toString());
+        salida.write("\n\n");
+        salida.flush();
+    }
+
+    private void agregar(StringBuilder linea, String texto) {
+        int inicioLinea = linea.lastIndexOf("\n") + 1;
+        if (linea.length() - inicioLinea + texto.length() + 1 > ANCHO_LINEA) {
+            linea.append('\n');
+        } else if (linea.length() > inicioLinea) {
+            linea.append(' ');
+        }
+        linea.append(texto);
+    }
+
+    /**
+     * @return Medio movimiento inicial (0 si empiezan las blancas en la jugada 1)
+     */
+    private static int primerPly(PartidaPgn partida) {
+        String fen = partida.getEtiqueta("FEN");
+        if (fen == null) {
+            return 0;
+        }
+        Posicion inicial = Posicion.desdeFen(fen);
+        return (inicial.getNumeroJugada() - 1) * 2 + inicial.getTurno();
+    }
+}
@@ -0,0 +1,199 @@
+package Motor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Estadísticas de una búsqueda, inmutables: nodos, nodos de quietud, nodos
+ * por segundo, factor de ramificación efectivo, tasa de cortes con el primer
+ * movimiento, tasa de aciertos en la tabla de transposición y lo que costó
+ * cada profundidad.
+ *
+ * Cada hilo cuenta por su cuenta y publica una instantánea al terminar cada
+ * iteración; las de todos los hilos se combinan con {@link #combinar}. Los
+ * totales suman todos los hilos, mientras que la profundidad y el coste por
+ * profundidad son los del hilo principal, el primero de la combinación.
+ */
+public final class EstadisticasBusqueda {
+    /** Estadísticas de una búsqueda que aún no ha hecho nada */
+    public static final EstadisticasBusqueda VACIAS =
+            new EstadisticasBusqueda(1, 0, 0, 0, 0, 0, 0, 0, 0, new long[1], new long[1]);
+
+    private final int hilos;
+    private final int profundidad;
+    private final long nodos;
+    private final long nodosQuiescencia;
+    private final long cortes;
+    private final long cortesPrimerMovimiento;
+    private final long sondeosTabla;
+    private final long aciertosTabla;
+    private final long tiempoMs;
+    private final long[] nodosIteracion;
+    private final long[] nanosIteracion;
+
+    EstadisticasBusqueda(int hilos, int profundidad, long nodos, long nodosQuiescencia, long cortes,
+                         long cortesPrimerMovimiento, long sondeosTabla, long aciertosTabla, long tiempoMs,
+                         long[] nodosIteracion, long[] nanosIteracion) {
+        this.hilos = hilos;
+        this.profundidad = profundidad;
+        this.nodos = nodos;
+        this.nodosQuiescencia = nodosQuiescencia;
+        this.cortes = cortes;
+        this.cortesPrimerMovimiento = cortesPrimerMovimiento;
+        this.sondeosTabla = sondeosTabla;
+        this.aciertosTabla = aciertosTabla;
+        this.tiempoMs = tiempoMs;
+        this.nodosIteracion = nodosIteracion;
+        this.nanosIteracion = nanosIteracion;
+    }
+
+    /**
+     * Suma las estadísticas de varios hilos.
+     * @param principal Estadísticas del hilo principal
+     * @param auxiliares Estadísticas de los demás hilos; se ignoran los null
+     * @return Estadísticas combinadas
+     */
+    public static EstadisticasBusqueda combinar(EstadisticasBusqueda principal, List<EstadisticasBusqueda> auxiliares) {
+        int hilos = 1;
+        long nodos = principal.nodos;
+        long quiescencia = principal.nodosQuiescencia;
+        long cortes = principal.cortes;
+        long primeros = principal.cortesPrimerMovimiento;
+        long sondeos = principal.sondeosTabla;
+        long aciertos = principal.aciertosTabla;
+        for (EstadisticasBusqueda auxiliar : auxiliares) {
+            if (auxiliar == null) {
+                continue;
+            }
+            hilos += auxiliar.hilos;
+            nodos += auxiliar.nodos;
+            quiescencia += auxiliar.nodosQuiescencia;
+            cortes += auxiliar.cortes;
+            primeros += auxiliar.cortesPrimerMovimiento;
+            sondeos += auxiliar.sondeosTabla;
+            aciertos += auxiliar.aciertosTabla;
+        }
+        return new EstadisticasBusqueda(hilos, principal.profundidad, nodos, quiescencia, cortes, primeros,
+                sondeos, aciertos, principal.tiempoMs, principal.nodosIteracion, principal.nanosIteracion);
+    }
+
+    public int getHilos() {
+        return hilos;
+    }
+
+    public int getProfundidad() {
+        return profundidad;
+    }
+
+    /**
+     * @return Nodos visitados por todos los hilos, incluidos los de quietud
+     */
+    public long getNodos() {
+        return nodos;
+    }
+
+    /**
+     * @return Nodos de la búsqueda de quietud
+     */
+    public long getNodosQuiescencia() {
+        return nodosQuiescencia;
+    }
+
+    public long getTiempoMs() {
+        return tiempoMs;
+    }
+
+    /**
+     * @return Nodos por segundo de todos los hilos juntos
+     */
+    public long getNps() {
+        return nodos * 1000 / Math.max(1, tiempoMs);
+    }
+
+    /**
+     * Factor de ramificación efectivo: cuántas veces crece el árbol por cada
+     * medio movimiento de profundidad. Se compara con la iteración de dos
+     * profundidades atrás porque alfa-beta alterna iteraciones pares e impares
+     * de tamaño muy distinto.
+     * @return Raíz cuadrada del cociente entre los nodos de la última iteración
+     *         y los de dos iteraciones antes, o 0 si aún no hay tres iteraciones
+     */
+    public double getFactorRamificacion() {
+        if (profundidad < 3 || nodosIteracion[profundidad - 2] == 0) {
+            return 0;
+        }
+        return Math.sqrt((double) nodosIteracion[profundidad] / nodosIteracion[profundidad - 2]);
+    }
+
+    /**
+     * @return Fracción de los cortes beta que produjo el primer movimiento
+     *         probado, medida de la calidad de la ordenación
+     */
+    public double getTasaCortePrimerMovimiento() {
+        return cortes == 0 ? 0 : (double) cortesPrimerMovimiento / cortes;
+    }
+
+    /**
+     * @return Fracción de las consultas a la tabla de transposición que encontraron la posición
+     */
+    public double getTasaAciertosTabla() {
+        return sondeosTabla == 0 ? 0 : (double) aciertosTabla / sondeosTabla;
+    }
+
+    /**
+     * @param profundidad Profundidad entre 1 y {@link #getProfundidad()}
+     * @return Nodos del hilo principal en la iteración de esa profundidad
+     */
+    public long getNodosIteracion(int profundidad) {
+        return nodosIteracion[profundidad];
+    }
+
+    /**
+     * @param profundidad Profundidad entre 1 y {@link #getProfundidad()}
+     * @return Microsegundos que tardó el hilo principal en completar esa profundidad
+     */
+    public long getMicrosIteracion(int profundidad) {
+        return nanosIteracion[profundidad] / 1000;
+    }
+
+    /**
+     * Líneas "info string" de UCI con las estadísticas que no tienen campo propio en el protocolo.
+     * @return Una línea con los totales y otra con el tiempo por profundidad
+     */
+    public List<String> aLineasUci() {
+        List<String> lineas = new ArrayList<>();
+        lineas.add(String.format(Locale.ROOT,
+                "info string stats threads %d qnodes %d ebf %.2f firstcut %.1f%% tthit %.1f%%",
+                hilos, nodosQuiescencia, getFactorRamificacion(),
+                getTasaCortePrimerMovimiento() * 100, getTasaAciertosTabla() * 100));
+        StringBuilder tiempos = new StringBuilder("info string depthtime");
+        for (int p = 1; p <= profundidad; p++) {
+            tiempos.append(' ').append(p).append(':').append(getMicrosIteracion(p)).append("us");
+        }
+        lineas.add(tiempos.toString());
+        return lineas;
+    }
+
+    /**
+     * @return Objeto JSON de una línea con todas las estadísticas
+     */
+    public String aJson() {
+        StringBuilder json = new StringBuilder(256);
+        json.append(String.format(Locale.ROOT,
+                "{\"hilos\":%d,\"profundidad\":%d,\"nodos\":%d,\"nodosQuiescencia\":%d,\"tiempoMs\":%d,"
+                        + "\"nps\":%d,\"factorRamificacion\":%.3f,\"tasaCortePrimerMovimiento\":%.4f,"
+                        + "\"tasaAciertosTabla\":%.4f,\"iteraciones\":[",
+                hilos, profundidad, nodos, nodosQuiescencia, tiempoMs, getNps(), getFactorRamificacion(),
+                getTasaCortePrimerMovimiento(), getTasaAciertosTabla()));
+        for (int p = 1; p <= profundidad; p++) {
+            if (p > 1) {
+                json.append(',');
+            }
+            json.append("{\"profundidad\":").append(p)
+                    .append(",\"nodos\":").append(nodosIteracion[p])
+                    .append(",\"microsegundos\":").append(getMicrosIteracion(p)).append('}');
+        }
+        return json.append("]}").toString();
+    }
+}
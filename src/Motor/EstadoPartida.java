@@ -0,0 +1,51 @@
+package Motor;
+
+/**
+ * Estado de una partida tras el último movimiento.
+ */
+public enum EstadoPartida {
+    EN_CURSO("en curso"),
+    JAQUE_MATE("jaque mate"),
+    AHOGADO("rey ahogado"),
+    MATERIAL_INSUFICIENTE("material insuficiente"),
+    TRIPLE_REPETICION("triple repetición"),
+    CINCUENTA_MOVIMIENTOS("regla de los 50 movimientos");
+
+    private final String descripcion;
+
+    EstadoPartida(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    /**
+     * @return true si la partida ha terminado
+     */
+    public boolean esFinal() {
+        return this != EN_CURSO;
+    }
+
+    /**
+     * @return true si la partida ha terminado en tablas
+     */
+    public boolean esTablas() {
+        return esFinal() && this != JAQUE_MATE;
+    }
+
+    /**
+     * @param turno Bando al que le tocaría mover en la posición final
+     * @return Resultado en formato PGN: "1-0", "0-1", "1/2-1/2" o "*"
+     */
+    public String resultadoPgn(int turno) {
+        if (this == JAQUE_MATE) {
+            return turno == Posicion.BLANCAS ? "0-1" : "1-0";
+        }
+        return esTablas() ? "1/2-1/2" : "*";
+    }
+
+    /**
+     * @return Descripción legible del estado
+     */
+    public String getDescripcion() {
+        return descripcion;
+    }
+}
@@ -0,0 +1,273 @@
+package Motor;
+
+/**
+ * Evaluación estática de posiciones.
+ * Devuelve la puntuación en centipeones desde el punto de vista del bando
+ * al que le toca mover.
+ *
+ * La evaluación combina material y tablas de casillas con dos juegos de
+ * valores, de medio juego y de final, que se mezclan según la fase de la
+ * partida (cuánto material queda sobre el tablero). {@link Posicion} mantiene
+ * las dos sumas y la fase al poner y quitar piezas, así que evaluar una
+ * posición durante la búsqueda cuesta unas pocas operaciones aritméticas.
+ *
+ * La estructura de peones se toma de una {@link TablaPeones}; sólo el escudo
+ * de peones del rey y el bloqueo de los peones pasados, que dependen de otras
+ * piezas, se calculan en cada evaluación a partir de sus máscaras.
+ */
+public final class Evaluacion {
+    /** Valor de cada tipo de pieza en centipeones, indexado por tipo */
+    public static final int[] VALOR = {0, 100, 320, 330, 500, 900, 0};
+    /** Aportación de cada tipo de pieza a la fase de la partida */
+    public static final int[] FASE_PIEZA = {0, 0, 1, 1, 2, 4, 0};
+    /** Fase con todo el material inicial; 0 corresponde a un final de reyes y peones */
+    public static final int FASE_TOTAL = 24;
+
+    /**
+     * Material más tabla de casillas de medio juego, indexado por
+     * [Zobrist.indicePieza(pieza)][casilla], con signo: positivo para las
+     * piezas blancas y negativo para las negras.
+     */
+    static final int[][] MEDIO_JUEGO = new int[12][64];
+    /** Igual que {@link #MEDIO_JUEGO} con los valores de final */
+    static final int[][] FINAL = new int[12][64];
+
+    /** Bonificación de medio juego por cada peón del escudo, en la fila contigua al rey y en la siguiente */
+    private static final int[] ESCUDO = {10, 5};
+    /** Casillas del escudo de peones de un rey, por bando, casilla del rey y distancia (1 o 2 filas) */
+    private static final long[][][] CASILLAS_ESCUDO = new long[2][64][2];
+
+    private static final int[] MATERIAL_MEDIO_JUEGO = {0, 82, 337, 365, 477, 1025, 0};
+    private static final int[] MATERIAL_FINAL = {0, 94, 281, 297, 512, 936, 0};
+
+    // Tablas vistas desde las blancas, con la octava fila arriba como en un diagrama
+    private static final int[] PEON_MEDIO = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             10,  10,  20,  30,  30,  20,  10,  10,
+              5,   5,  10,  25,  25,  10,   5,   5,
+              0,   0,   0,  20,  20,   0,   0,   0,
+              5,  -5, -10,   0,   0, -10,  -5,   5,
+              5,  10,  10, -20, -20,  10,  10,   5,
+              0,   0,   0,   0,   0,   0,   0,   0
+    };
+    private static final int[] PEON_FINAL = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             80,  80,  80,  80,  80,  80,  80,  80,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             30,  30,  30,  30,  30,  30,  30,  30,
+             15,  15,  15,  15,  15,  15,  15,  15,
+              5,   5,   5,   5,   5,   5,   5,   5,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0
+    };
+    private static final int[] CABALLO_TABLA = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20,   0,   0,   0,   0, -20, -40,
+            -30,   0,  10,  15,  15,  10,   0, -30,
+            -30,   5,  15,  20,  20,  15,   5, -30,
+            -30,   0,  15,  20,  20,  15,   0, -30,
+            -30,   5,  10,  15,  15,  10,   5, -30,
+            -40, -20,   0,   5,   5,   0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] ALFIL_TABLA = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,  10,  10,   5,   0, -10,
+            -10,   5,   5,  10,  10,   5,   5, -10,
+            -10,   0,  10,  10,  10,  10,   0, -10,
+            -10,  10,  10,  10,  10,  10,  10, -10,
+            -10,   5,   0,   0,   0,   0,   5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] TORRE_MEDIO = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+              5,  10,  10,  10,  10,  10,  10,   5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+              0,   0,   0,   5,   5,   0,   0,   0
+    };
+    private static final int[] TORRE_FINAL = {
+             10,  10,  10,  10,  10,  10,  10,  10,
+             15,  15,  15,  15,  15,  15,  15,  15,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0
+    };
+    private static final int[] DAMA_TABLA = {
+            -20, -10, -10,  -5,  -5, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,   5,   5,   5,   0, -10,
+             -5,   0,   5,   5,   5,   5,   0,  -5,
+              0,   0,   5,   5,   5,   5,   0,  -5,
+            -10,   5,   5,   5,   5,   5,   0, -10,
+            -10,   0,   5,   0,   0,   0,   0, -10,
+            -20, -10, -10,  -5,  -5, -10, -10, -20
+    };
+    private static final int[] REY_MEDIO = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+             20,  20,   0,   0,   0,   0,  20,  20,
+             20,  30,  10,   0,   0,  10,  30,  20
+    };
+    private static final int[] REY_FINAL = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10,   0,   0, -10, -20, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -30,   0,   0,   0,   0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    static {
+        int[][] medio = {null, PEON_MEDIO, CABALLO_TABLA, ALFIL_TABLA, TORRE_MEDIO, DAMA_TABLA, REY_MEDIO};
+        int[][] fin = {null, PEON_FINAL, CABALLO_TABLA, ALFIL_TABLA, TORRE_FINAL, DAMA_TABLA, REY_FINAL};
+        for (int tipo = Posicion.PEON; tipo <= Posicion.REY; tipo++) {
+            int blanca = Zobrist.indicePieza(tipo);
+            int negra = Zobrist.indicePieza(-tipo);
+            for (int casilla = 0; casilla < 64; casilla++) {
+                int fila = casilla / 8;
+                int columna = casilla % 8;
+                // Las blancas leen la tabla de abajo arriba; las negras, reflejada
+                int indiceBlancas = (7 - fila) * 8 + columna;
+                int indiceNegras = fila * 8 + columna;
+                MEDIO_JUEGO[blanca][casilla] = MATERIAL_MEDIO_JUEGO[tipo] + medio[tipo][indiceBlancas];
+                FINAL[blanca][casilla] = MATERIAL_FINAL[tipo] + fin[tipo][indiceBlancas];
+                MEDIO_JUEGO[negra][casilla] = -(MATERIAL_MEDIO_JUEGO[tipo] + medio[tipo][indiceNegras]);
+                FINAL[negra][casilla] = -(MATERIAL_FINAL[tipo] + fin[tipo][indiceNegras]);
+            }
+        }
+
+        for (int casilla = 0; casilla < 64; casilla++) {
+            int fila = casilla / 8;
+            int columna = casilla % 8;
+            for (int distancia = 1; distancia <= 2; distancia++) {
+                for (int c = Math.max(0, columna - 1); c <= Math.min(7, columna + 1); c++) {
+                    if (fila + distancia < 8) {
+                        CASILLAS_ESCUDO[Posicion.BLANCAS][casilla][distancia - 1] |= 1L << ((fila + distancia) * 8 + c);
+                    }
+                    if (fila - distancia >= 0) {
+                        CASILLAS_ESCUDO[Posicion.NEGRAS][casilla][distancia - 1] |= 1L << ((fila - distancia) * 8 + c);
+                    }
+                }
+            }
+        }
+    }
+
+    private Evaluacion() {
+    }
+
+    /**
+     * Evalúa la posición recalculando la estructura de peones.
+     * @param posicion Posición a evaluar
+     * @return Puntuación en centipeones para el bando que mueve
+     */
+    public static int evaluar(Posicion posicion) {
+        return evaluar(posicion, TablaPeones.sinCache());
+    }
+
+    /**
+     * Evalúa la posición a partir de las sumas que mantiene la propia posición
+     * y de la estructura de peones guardada en la tabla.
+     * Con las aserciones activadas (-ea) se compara con un recálculo completo.
+     * @param posicion Posición a evaluar
+     * @param peones Caché de estructuras de peones del hilo que evalúa
+     * @return Puntuación en centipeones para el bando que mueve
+     */
+    public static int evaluar(Posicion posicion, TablaPeones peones) {
+        int entrada = peones.sondear(posicion);
+        int medioJuego = posicion.getMedioJuego() + peones.getMedioJuego(entrada)
+                + escudoRey(posicion, peones, entrada);
+        int fin = posicion.getFinal() + peones.getFinal(entrada) + pasadosBloqueados(posicion, peones, entrada);
+        int puntuacion = mezclar(medioJuego, fin, posicion.getFase());
+        assert puntuacion == evaluarDesdeCero(posicion)
+                : "evaluación incremental desincronizada en " + posicion.aFen();
+        return posicion.getTurno() == Posicion.BLANCAS ? puntuacion : -puntuacion;
+    }
+
+    /**
+     * Recalcula la evaluación recorriendo todo el tablero. Sólo se usa para
+     * comprobar que las sumas incrementales de la posición son correctas.
+     * @param posicion Posición a evaluar
+     * @return Puntuación en centipeones desde el punto de vista de las blancas
+     */
+    public static int evaluarDesdeCero(Posicion posicion) {
+        int medioJuego = 0;
+        int fin = 0;
+        int fase = 0;
+        for (int casilla = 0; casilla < 64; casilla++) {
+            int pieza = posicion.pieza(casilla);
+            if (pieza != Posicion.VACIO) {
+                int indice = Zobrist.indicePieza(pieza);
+                medioJuego += MEDIO_JUEGO[indice][casilla];
+                fin += FINAL[indice][casilla];
+                fase += FASE_PIEZA[Math.abs(pieza)];
+            }
+        }
+        TablaPeones peones = TablaPeones.sinCache();
+        int entrada = peones.sondear(posicion);
+        medioJuego += peones.getMedioJuego(entrada) + escudoRey(posicion, peones, entrada);
+        fin += peones.getFinal(entrada) + pasadosBloqueados(posicion, peones, entrada);
+        return mezclar(medioJuego, fin, fase);
+    }
+
+    /**
+     * Peones propios delante del rey mientras sigue en sus dos primeras filas.
+     */
+    private static int escudoRey(Posicion posicion, TablaPeones peones, int entrada) {
+        int puntuacion = 0;
+        for (int bando = Posicion.BLANCAS; bando <= Posicion.NEGRAS; bando++) {
+            int rey = posicion.getRey(bando);
+            int filaRelativa = bando == Posicion.BLANCAS ? rey / 8 : 7 - rey / 8;
+            if (filaRelativa > 1) {
+                continue;
+            }
+            long propios = peones.getPeones(entrada, bando);
+            int escudo = Long.bitCount(propios & CASILLAS_ESCUDO[bando][rey][0]) * ESCUDO[0]
+                    + Long.bitCount(propios & CASILLAS_ESCUDO[bando][rey][1]) * ESCUDO[1];
+            puntuacion += bando == Posicion.BLANCAS ? escudo : -escudo;
+        }
+        return puntuacion;
+    }
+
+    /**
+     * Un peón pasado con una pieza delante vale la mitad en el final.
+     */
+    private static int pasadosBloqueados(Posicion posicion, TablaPeones peones, int entrada) {
+        int puntuacion = 0;
+        for (long pasados = peones.getPasados(entrada, Posicion.BLANCAS); pasados != 0; pasados &= pasados - 1) {
+            int casilla = Long.numberOfTrailingZeros(pasados);
+            if (casilla < 56 && posicion.pieza(casilla + 8) != Posicion.VACIO) {
+                puntuacion -= TablaPeones.bonificacionPasado(casilla / 8) / 2;
+            }
+        }
+        for (long pasados = peones.getPasados(entrada, Posicion.NEGRAS); pasados != 0; pasados &= pasados - 1) {
+            int casilla = Long.numberOfTrailingZeros(pasados);
+            if (casilla >= 8 && posicion.pieza(casilla - 8) != Posicion.VACIO) {
+                puntuacion += TablaPeones.bonificacionPasado(7 - casilla / 8) / 2;
+            }
+        }
+        return puntuacion;
+    }
+
+    /**
+     * Interpola entre la puntuación de medio juego y la de final según la fase.
+     */
+    private static int mezclar(int medioJuego, int fin, int fase) {
+        int f = Math.min(fase, FASE_TOTAL);
+        return (medioJuego * f + fin * (FASE_TOTAL - f)) / FASE_TOTAL;
+    }
+}
@@ -0,0 +1,154 @@
+package Motor;
+
+import java.util.Locale;
+
+/**
+ * Evaluación de una posición de una partida analizada por el
+ * {@link AnalizadorPartida}. La puntuación se da siempre desde el punto de
+ * vista de las blancas, para poder comparar posiciones consecutivas.
+ */
+public class EvaluacionPosicion {
+    /** Puntuación máxima, en centipeones, con la que se comparan y dibujan las evaluaciones */
+    public static final int LIMITE = 1000;
+    /** Centipeones perdidos a partir de los cuales un movimiento es un error grave ("??") */
+    public static final int UMBRAL_ERROR_GRAVE = 300;
+    /** Centipeones perdidos a partir de los cuales un movimiento es un error ("?") */
+    public static final int UMBRAL_ERROR = 150;
+    /** Centipeones perdidos a partir de los cuales un movimiento es dudoso ("?!") */
+    public static final int UMBRAL_DUDOSO = 70;
+
+    private final int ply;
+    private final boolean mueveBlancas;
+    private final int puntuacion;
+    private final int mejorMovimiento;
+    private final String mejorSan;
+    private final int profundidad;
+
+    /**
+     * @param ply Medios movimientos jugados hasta la posición (0 = posición inicial)
+     * @param mueveBlancas true si en la posición mueven las blancas
+     * @param puntuacion Puntuación para las blancas, con las de mate como en {@link Buscador}
+     * @param mejorMovimiento Mejor movimiento encontrado, o Movimiento.NINGUNO si la partida ha terminado
+     * @param mejorSan Mejor movimiento en SAN, o "" si no hay
+     * @param profundidad Profundidad completada
+     */
+    public EvaluacionPosicion(int ply, boolean mueveBlancas, int puntuacion, int mejorMovimiento, String mejorSan,
+                              int profundidad) {
+        this.ply = ply;
+        this.mueveBlancas = mueveBlancas;
+        this.puntuacion = puntuacion;
+        this.mejorMovimiento = mejorMovimiento;
+        this.mejorSan = mejorSan;
+        this.profundidad = profundidad;
+    }
+
+    /**
+     * @param ply Medios movimientos jugados hasta la posición
+     * @param posicion Posición analizada
+     * @param resultado Resultado de la búsqueda, con la puntuación para el bando que mueve
+     * @return Evaluación con la puntuación pasada al punto de vista de las blancas
+     */
+    public static EvaluacionPosicion desdeResultado(int ply, Posicion posicion, ResultadoBusqueda resultado) {
+        boolean mueveBlancas = posicion.getTurno() == Posicion.BLANCAS;
+        int mejor = resultado.getMejorMovimiento();
+        return new EvaluacionPosicion(ply, mueveBlancas, (mueveBlancas ? 1 : -1) * resultado.getPuntuacion(), mejor,
+                mejor != Movimiento.NINGUNO ? Notacion.aSan(posicion, mejor) : "", resultado.getProfundidad());
+    }
+
+    /**
+     * @param ply Medios movimientos jugados hasta la posición
+     * @param posicion Posición sin movimientos legales
+     * @return Evaluación de mate o ahogado, sin búsqueda
+     */
+    public static EvaluacionPosicion deFinal(int ply, Posicion posicion) {
+        boolean mueveBlancas = posicion.getTurno() == Posicion.BLANCAS;
+        int puntuacion = posicion.enJaque() ? -Buscador.MATE : 0;
+        return new EvaluacionPosicion(ply, mueveBlancas, (mueveBlancas ? 1 : -1) * puntuacion,
+                Movimiento.NINGUNO, "", 0);
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public boolean isMueveBlancas() {
+        return mueveBlancas;
+    }
+
+    /**
+     * @return Puntuación para las blancas en centipeones; los mates valen casi {@link Buscador#MATE}
+     */
+    public int getPuntuacion() {
+        return puntuacion;
+    }
+
+    /**
+     * @return Puntuación para las blancas limitada a ±{@link #LIMITE}, de modo que un mate
+     *         cuenta como una ventaja decisiva y no como un salto enorme
+     */
+    public int getPuntuacionAcotada() {
+        return Math.max(-LIMITE, Math.min(LIMITE, puntuacion));
+    }
+
+    public int getMejorMovimiento() {
+        return mejorMovimiento;
+    }
+
+    public String getMejorSan() {
+        return mejorSan;
+    }
+
+    public int getProfundidad() {
+        return profundidad;
+    }
+
+    /**
+     * @return true si la puntuación indica un mate forzado para alguno de los bandos
+     */
+    public boolean esMate() {
+        return Math.abs(puntuacion) >= Buscador.MATE - Buscador.MAX_PLY;
+    }
+
+    /**
+     * Centipeones que pierde el bando que juega el movimiento entre dos
+     * posiciones consecutivas, según las puntuaciones acotadas.
+     * @param antes Evaluación de la posición antes del movimiento
+     * @param despues Evaluación de la posición siguiente
+     * @return Pérdida para el bando que movió, 0 si mejoró su evaluación
+     */
+    public static int perdida(EvaluacionPosicion antes, EvaluacionPosicion despues) {
+        int diferencia = despues.getPuntuacionAcotada() - antes.getPuntuacionAcotada();
+        return Math.max(0, antes.mueveBlancas ? -diferencia : diferencia);
+    }
+
+    /**
+     * @param perdida Centipeones perdidos por el bando que movió, según {@link #perdida}
+     * @return "??", "?" o "?!" según la gravedad, o "" si no merece anotación
+     */
+    public static String marca(int perdida) {
+        return perdida >= UMBRAL_ERROR_GRAVE ? "??" : perdida >= UMBRAL_ERROR ? "?"
+                : perdida >= UMBRAL_DUDOSO ? "?!" : "";
+    }
+
+    /**
+     * @return true si la posición no tiene movimientos legales (mate o ahogado)
+     */
+    public boolean esFinal() {
+        return profundidad == 0 && mejorMovimiento == Movimiento.NINGUNO;
+    }
+
+    /**
+     * @return Puntuación para las blancas en texto, como "+0.35", "#-3" para un mate
+     *         de las negras en 3 jugadas o "#" si el mate ya está en el tablero
+     */
+    public String formatear() {
+        if (esMate()) {
+            int ply = puntuacion > 0 ? Buscador.MATE - puntuacion : Buscador.MATE + puntuacion;
+            if (ply == 0) {
+                return "#";
+            }
+            return "#" + (puntuacion > 0 ? "" : "-") + (ply + 1) / 2;
+        }
+        return String.format(Locale.ROOT, "%+.2f", puntuacion / 100.0);
+    }
+}
@@ -0,0 +1,258 @@
+package Motor;
+
+import java.util.Arrays;
+
+/**
+ * Generador de movimientos para {@link Posicion}.
+ * Los movimientos se escriben en arrays de int suministrados por el llamante,
+ * de forma que la búsqueda puede reutilizar sus propios buffers sin crear
+ * objetos en cada nodo.
+ */
+public final class GeneradorMovimientos {
+    /** Máximo de movimientos pseudo-legales posibles en una posición */
+    public static final int MAX_MOVIMIENTOS = 256;
+    /** Genera todos los movimientos */
+    public static final int TODOS = 0;
+    /** Genera sólo capturas y promociones a dama */
+    public static final int CAPTURAS = 1;
+    /** Genera el resto: movimientos sin captura y promociones menores */
+    public static final int TRANQUILOS = 2;
+
+    private static final int[] PROMOCIONES = {
+            Posicion.DAMA, Posicion.TORRE, Posicion.ALFIL, Posicion.CABALLO
+    };
+
+    private GeneradorMovimientos() {
+    }
+
+    /**
+     * Genera los movimientos pseudo-legales del bando al que le toca mover.
+     * Los enroques sí se validan por completo (casillas libres y no atacadas).
+     *
+     * @param posicion Posición de partida
+     * @param lista Array donde se escriben los movimientos
+     * @param inicio Índice de la lista a partir del cual escribir
+     * @param soloCapturas true para generar sólo capturas y promociones a dama
+     * @return Índice siguiente al último movimiento escrito
+     */
+    public static int generar(Posicion posicion, int[] lista, int inicio, boolean soloCapturas) {
+        return generar(posicion, lista, inicio, soloCapturas ? CAPTURAS : TODOS);
+    }
+
+    /**
+     * Genera los movimientos pseudo-legales de una de las clases
+     * {@link #TODOS}, {@link #CAPTURAS} o {@link #TRANQUILOS}. Las dos
+     * últimas son complementarias, de modo que la búsqueda puede generar las
+     * capturas y, sólo si no producen un corte, el resto de movimientos.
+     *
+     * @param posicion Posición de partida
+     * @param lista Array donde se escriben los movimientos
+     * @param inicio Índice de la lista a partir del cual escribir
+     * @param modo Clase de movimientos a generar
+     * @return Índice siguiente al último movimiento escrito
+     */
+    public static int generar(Posicion posicion, int[] lista, int inicio, int modo) {
+        int n = inicio;
+        for (int origen = 0; origen < 64; origen++) {
+            n = generarDesde(posicion, origen, lista, n, modo);
+        }
+        return n;
+    }
+
+    /**
+     * Comprueba si un movimiento, por ejemplo el guardado en la tabla de
+     * transposición o un movimiento asesino de otra rama, es pseudo-legal en
+     * la posición. Sólo genera los movimientos de la pieza de origen.
+     * @param posicion Posición de partida
+     * @param movimiento Movimiento codificado
+     * @return true si el generador produciría ese mismo movimiento
+     */
+    public static boolean esPseudoLegal(Posicion posicion, int movimiento) {
+        return esPseudoLegal(posicion, movimiento, new int[32]);
+    }
+
+    /**
+     * Variante de {@link #esPseudoLegal(Posicion, int)} que usa un buffer del
+     * llamante, de al menos 32 elementos, para no crear objetos en la búsqueda.
+     */
+    public static boolean esPseudoLegal(Posicion posicion, int movimiento, int[] lista) {
+        if (movimiento == Movimiento.NINGUNO) {
+            return false;
+        }
+        int n = generarDesde(posicion, Movimiento.origen(movimiento), lista, 0, TODOS);
+        for (int i = 0; i < n; i++) {
+            if (lista[i] == movimiento) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int generarDesde(Posicion posicion, int origen, int[] lista, int n, int modo) {
+        int turno = posicion.getTurno();
+        int signo = turno == Posicion.BLANCAS ? 1 : -1;
+        int pieza = posicion.pieza(origen) * signo;
+        switch (pieza) {
+            case Posicion.PEON:
+                return generarPeon(posicion, origen, turno, lista, n, modo);
+            case Posicion.CABALLO:
+                return generarSaltos(posicion, origen, Ataques.CABALLO[origen], signo, lista, n, modo);
+            case Posicion.REY:
+                n = generarSaltos(posicion, origen, Ataques.REY[origen], signo, lista, n, modo);
+                return modo != CAPTURAS ? generarEnroques(posicion, turno, lista, n) : n;
+            case Posicion.ALFIL:
+                return generarDeslizantes(posicion, origen, 4, 8, signo, lista, n, modo);
+            case Posicion.TORRE:
+                return generarDeslizantes(posicion, origen, 0, 4, signo, lista, n, modo);
+            case Posicion.DAMA:
+                return generarDeslizantes(posicion, origen, 0, 8, signo, lista, n, modo);
+            default:
+                return n;
+        }
+    }
+
+    /**
+     * Genera los movimientos legales de la posición.
+     * @param posicion Posición de partida; se modifica y se restaura durante la comprobación
+     * @return Array con los movimientos legales
+     */
+    public static int[] legales(Posicion posicion) {
+        int[] lista = new int[MAX_MOVIMIENTOS];
+        int n = generar(posicion, lista, 0, false);
+        int legales = 0;
+        for (int i = 0; i < n; i++) {
+            if (esLegal(posicion, lista[i])) {
+                lista[legales++] = lista[i];
+            }
+        }
+        return Arrays.copyOf(lista, legales);
+    }
+
+    /**
+     * Comprueba si un movimiento pseudo-legal deja al propio rey a salvo.
+     * @param posicion Posición de partida; queda igual que estaba
+     * @param movimiento Movimiento pseudo-legal de la posición
+     * @return true si el movimiento es legal
+     */
+    public static boolean esLegal(Posicion posicion, int movimiento) {
+        posicion.hacerMovimiento(movimiento);
+        boolean legal = !posicion.dejaReyEnJaque();
+        posicion.deshacerMovimiento();
+        return legal;
+    }
+
+    private static int generarPeon(Posicion posicion, int origen, int turno, int[] lista, int n, int modo) {
+        int avance = turno == Posicion.BLANCAS ? 8 : -8;
+        int filaInicial = turno == Posicion.BLANCAS ? 1 : 6;
+        int filaPromocion = turno == Posicion.BLANCAS ? 7 : 0;
+        int destino = origen + avance;
+
+        if (posicion.pieza(destino) == Posicion.VACIO) {
+            if (destino / 8 == filaPromocion) {
+                n = agregarPromociones(origen, destino, 0, lista, n, modo);
+            } else if (modo != CAPTURAS) {
+                lista[n++] = Movimiento.crear(origen, destino, Posicion.VACIO, 0);
+                int doble = destino + avance;
+                if (origen / 8 == filaInicial && posicion.pieza(doble) == Posicion.VACIO) {
+                    lista[n++] = Movimiento.crear(origen, doble, Posicion.VACIO, Movimiento.AVANCE_DOBLE);
+                }
+            }
+        }
+
+        for (int captura : Ataques.PEON[turno][origen]) {
+            int pieza = posicion.pieza(captura);
+            if (pieza != Posicion.VACIO && (pieza > 0) != (turno == Posicion.BLANCAS)) {
+                if (captura / 8 == filaPromocion) {
+                    n = agregarPromociones(origen, captura, Movimiento.CAPTURA, lista, n, modo);
+                } else if (modo != TRANQUILOS) {
+                    lista[n++] = Movimiento.crear(origen, captura, Posicion.VACIO, Movimiento.CAPTURA);
+                }
+            } else if (captura == posicion.getAlPaso() && modo != TRANQUILOS) {
+                lista[n++] = Movimiento.crear(origen, captura, Posicion.VACIO,
+                        Movimiento.CAPTURA | Movimiento.AL_PASO);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * La promoción a dama cuenta como captura y las menores como tranquilas.
+     */
+    private static int agregarPromociones(int origen, int destino, int indicadores, int[] lista, int n,
+                                          int modo) {
+        for (int promocion : PROMOCIONES) {
+            boolean esDama = promocion == Posicion.DAMA;
+            if ((esDama && modo != TRANQUILOS) || (!esDama && modo != CAPTURAS)) {
+                lista[n++] = Movimiento.crear(origen, destino, promocion, indicadores);
+            }
+        }
+        return n;
+    }
+
+    private static int generarSaltos(Posicion posicion, int origen, int[] destinos, int signo,
+                                     int[] lista, int n, int modo) {
+        for (int destino : destinos) {
+            int pieza = posicion.pieza(destino) * signo;
+            if (pieza == Posicion.VACIO) {
+                if (modo != CAPTURAS) {
+                    lista[n++] = Movimiento.crear(origen, destino, Posicion.VACIO, 0);
+                }
+            } else if (pieza < 0 && modo != TRANQUILOS) {
+                lista[n++] = Movimiento.crear(origen, destino, Posicion.VACIO, Movimiento.CAPTURA);
+            }
+        }
+        return n;
+    }
+
+    private static int generarDeslizantes(Posicion posicion, int origen, int primeraDireccion,
+                                          int ultimaDireccion, int signo, int[] lista, int n, int modo) {
+        for (int d = primeraDireccion; d < ultimaDireccion; d++) {
+            for (int destino : Ataques.RAYOS[d][origen]) {
+                int pieza = posicion.pieza(destino) * signo;
+                if (pieza == Posicion.VACIO) {
+                    if (modo != CAPTURAS) {
+                        lista[n++] = Movimiento.crear(origen, destino, Posicion.VACIO, 0);
+                    }
+                    continue;
+                }
+                if (pieza < 0 && modo != TRANQUILOS) {
+                    lista[n++] = Movimiento.crear(origen, destino, Posicion.VACIO, Movimiento.CAPTURA);
+                }
+                break;
+            }
+        }
+        return n;
+    }
+
+    private static int generarEnroques(Posicion posicion, int turno, int[] lista, int n) {
+        int enroques = posicion.getEnroques();
+        int rey = turno == Posicion.BLANCAS ? 4 : 60;
+        int signo = turno == Posicion.BLANCAS ? 1 : -1;
+        int rival = turno ^ 1;
+        int corto = turno == Posicion.BLANCAS ? Posicion.ENROQUE_BLANCO_CORTO : Posicion.ENROQUE_NEGRO_CORTO;
+        int largo = turno == Posicion.BLANCAS ? Posicion.ENROQUE_BLANCO_LARGO : Posicion.ENROQUE_NEGRO_LARGO;
+
+        if (posicion.pieza(rey) != signo * Posicion.REY || (enroques & (corto | largo)) == 0
+                || posicion.estaAtacada(rey, rival)) {
+            return n;
+        }
+        if ((enroques & corto) != 0
+                && posicion.pieza(rey + 3) == signo * Posicion.TORRE
+                && posicion.pieza(rey + 1) == Posicion.VACIO
+                && posicion.pieza(rey + 2) == Posicion.VACIO
+                && !posicion.estaAtacada(rey + 1, rival)
+                && !posicion.estaAtacada(rey + 2, rival)) {
+            lista[n++] = Movimiento.crear(rey, rey + 2, Posicion.VACIO, Movimiento.ENROQUE);
+        }
+        if ((enroques & largo) != 0
+                && posicion.pieza(rey - 4) == signo * Posicion.TORRE
+                && posicion.pieza(rey - 1) == Posicion.VACIO
+                && posicion.pieza(rey - 2) == Posicion.VACIO
+                && posicion.pieza(rey - 3) == Posicion.VACIO
+                && !posicion.estaAtacada(rey - 1, rival)
+                && !posicion.estaAtacada(rey - 2, rival)) {
+            lista[n++] = Movimiento.crear(rey, rey - 2, Posicion.VACIO, Movimiento.ENROQUE);
+        }
+        return n;
+    }
+}
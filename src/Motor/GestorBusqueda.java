@@ -0,0 +1,226 @@
+package Motor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Lanza y controla búsquedas en segundo plano, con uno o varios hilos.
+ * Con varios hilos todos buscan la misma posición compartiendo la tabla de
+ * transposición (Lazy SMP): los hilos auxiliares llenan la tabla y el hilo
+ * principal aprovecha sus resultados. Sólo se informa del resultado del
+ * hilo principal, aunque sus estadísticas suman las de todos los hilos.
+ *
+ * El monitor del gestor sólo protege su estado y nunca se retiene mientras
+ * se espera a un hilo de búsqueda, porque estos lo consultan al terminar.
+ * Las operaciones que esperan se ordenan entre sí con otro cerrojo.
+ */
+public class GestorBusqueda {
+    private final TablaTransposicion tabla;
+    private final OpcionesBusqueda opciones = new OpcionesBusqueda();
+    /** Tabla de peones de cada hilo, que se conserva entre búsquedas */
+    private final List<TablaPeones> tablasPeones = new ArrayList<>();
+    private int numeroHilos = 1;
+    private int lineas = 1;
+    private Thread hiloPrincipal;
+    private ControlTiempo control;
+    /** Ordena las operaciones que esperan a la búsqueda en curso; los hilos de búsqueda no lo toman */
+    private final Object arranque = new Object();
+
+    /**
+     * @param megabytes Tamaño inicial de la tabla de transposición
+     */
+    public GestorBusqueda(int megabytes) {
+        this.tabla = new TablaTransposicion(megabytes);
+    }
+
+    /**
+     * Inicia una búsqueda en segundo plano. Si había otra en curso se detiene antes.
+     *
+     * @param posicion Posición a analizar
+     * @param limites Límites de la búsqueda
+     * @param alIterar Recibe el resultado de cada iteración completada
+     * @param alTerminar Recibe el resultado final cuando la búsqueda termina
+     */
+    public void iniciar(Posicion posicion, LimitesBusqueda limites,
+                       Consumer<ResultadoBusqueda> alIterar,
+                       Consumer<ResultadoBusqueda> alTerminar) {
+        synchronized (arranque) {
+            detenerYEsperar();
+            synchronized (this) {
+                lanzar(posicion, limites, alIterar, alTerminar);
+            }
+        }
+    }
+
+    /**
+     * Crea los hilos de una búsqueda nueva; se llama con el monitor tomado y sin búsqueda en curso.
+     */
+    private void lanzar(Posicion posicion, LimitesBusqueda limites,
+                        Consumer<ResultadoBusqueda> alIterar,
+                        Consumer<ResultadoBusqueda> alTerminar) {
+        ControlTiempo nuevoControl = new ControlTiempo(limites, posicion.getTurno());
+        control = nuevoControl;
+        OpcionesBusqueda opcionesBusqueda = opciones.copiar();
+        while (tablasPeones.size() < numeroHilos) {
+            tablasPeones.add(new TablaPeones(Buscador.TAMANO_TABLA_PEONES));
+        }
+
+        List<Thread> auxiliares = new ArrayList<>();
+        List<Buscador> buscadoresAuxiliares = new ArrayList<>();
+        for (int i = 1; i < numeroHilos; i++) {
+            Buscador auxiliar = new Buscador(posicion, tabla, opcionesBusqueda, tablasPeones.get(i));
+            buscadoresAuxiliares.add(auxiliar);
+            LimitesBusqueda limitesAuxiliar = new LimitesBusqueda();
+            Thread hilo = new Thread(() -> auxiliar.buscar(limitesAuxiliar, nuevoControl), "Busqueda-" + i);
+            hilo.setDaemon(true);
+            auxiliares.add(hilo);
+        }
+
+        Buscador principal = new Buscador(posicion, tabla, opcionesBusqueda, tablasPeones.get(0));
+        principal.setOyente(alIterar);
+        principal.setLineas(lineas);
+        principal.setAuxiliares(buscadoresAuxiliares);
+        // Respuesta de reserva por si la búsqueda falla: quien espera el resultado no debe quedarse sin él
+        int[] legales = GeneradorMovimientos.legales(posicion);
+        int reserva = legales.length > 0 ? legales[0] : Movimiento.NINGUNO;
+        hiloPrincipal = new Thread(() -> {
+            ResultadoBusqueda resultado = null;
+            try {
+                auxiliares.forEach(Thread::start);
+                resultado = principal.buscar(limites, nuevoControl);
+                // En modo infinito o ponder no se responde hasta recibir stop o ponderhit
+                while ((limites.isInfinito() || nuevoControl.isPonder()) && !nuevoControl.isDetenido()) {
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Error en la búsqueda: " + e);
+            } finally {
+                nuevoControl.detener();
+                for (Thread auxiliar : auxiliares) {
+                    try {
+                        auxiliar.join();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                if (resultado == null) {
+                    resultado = new ResultadoBusqueda(reserva, 0, 0, 0, 0,
+                            reserva != Movimiento.NINGUNO ? new int[]{reserva} : new int[0]);
+                }
+                // Los auxiliares han publicado sus contadores definitivos al terminar
+                alTerminar.accept(resultado.conEstadisticas(principal.getEstadisticasCombinadas()));
+            }
+        }, "Busqueda-0");
+        hiloPrincipal.setDaemon(true);
+        hiloPrincipal.start();
+    }
+
+    /**
+     * Pide a la búsqueda en curso que termine cuanto antes.
+     */
+    public synchronized void detener() {
+        if (control != null) {
+            control.detener();
+        }
+    }
+
+    /**
+     * Indica que el rival jugó el movimiento previsto durante el ponder.
+     */
+    public synchronized void ponderhit() {
+        if (control != null) {
+            control.ponderhit();
+        }
+    }
+
+    /**
+     * Detiene la búsqueda en curso y espera a que su hilo termine.
+     */
+    public void detenerYEsperar() {
+        detener();
+        esperar();
+    }
+
+    /**
+     * Espera a que termine la búsqueda en curso, si la hay.
+     */
+    public void esperar() {
+        Thread hilo;
+        synchronized (this) {
+            hilo = hiloPrincipal;
+        }
+        if (hilo != null && hilo != Thread.currentThread()) {
+            try {
+                hilo.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @param megabytes Nuevo tamaño de la tabla de transposición
+     */
+    public void setHash(int megabytes) {
+        synchronized (arranque) {
+            detenerYEsperar();
+            tabla.redimensionar(megabytes);
+        }
+    }
+
+    /**
+     * @param numeroHilos Número de hilos de búsqueda (al menos 1)
+     */
+    public synchronized void setHilos(int numeroHilos) {
+        this.numeroHilos = Math.max(1, numeroHilos);
+    }
+
+    /**
+     * Sólo el hilo principal busca varias variantes; los auxiliares siguen
+     * buscando la mejor y llenan la tabla para todas.
+     * @param lineas Número de variantes que se buscan (MultiPV, al menos 1)
+     */
+    public synchronized void setLineas(int lineas) {
+        this.lineas = Math.max(1, lineas);
+    }
+
+    /**
+     * Cambia una de las {@link OpcionesBusqueda}; se aplica a partir de la siguiente búsqueda.
+     * @return false si la opción no existe
+     */
+    public synchronized boolean establecerOpcion(String nombre, String valor) {
+        return opciones.establecer(nombre, valor);
+    }
+
+    /**
+     * @return Fracción de evaluaciones cuya estructura de peones estaba en caché,
+     *         acumulada en todos los hilos desde la última partida nueva
+     */
+    public synchronized double getTasaAciertosPeones() {
+        long sondeos = 0;
+        long aciertos = 0;
+        for (TablaPeones peones : tablasPeones) {
+            sondeos += peones.getSondeos();
+            aciertos += peones.getAciertos();
+        }
+        return sondeos == 0 ? 0 : (double) aciertos / sondeos;
+    }
+
+    /**
+     * Olvida lo aprendido en partidas anteriores.
+     */
+    public void nuevaPartida() {
+        synchronized (arranque) {
+            detenerYEsperar();
+            synchronized (this) {
+                tabla.limpiar();
+                tablasPeones.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package Motor;
+
+/**
+ * Evaluación estática de intercambios (SEE): calcula el material que gana o
+ * pierde una captura si ambos bandos siguen capturando en la casilla de
+ * destino, siempre con su pieza menos valiosa, y pudiendo detenerse cuando
+ * seguir no les conviene.
+ *
+ * Los atacantes se buscan con las tablas de {@link Ataques}. Las piezas que
+ * ya han capturado se marcan en una máscara de 64 bits y se tratan como
+ * casillas vacías, de modo que aparecen los ataques en rayos X de las
+ * piezas deslizantes que quedaban detrás.
+ */
+public final class Intercambio {
+    /** Valor de las piezas en el intercambio; el rey vale más que cualquier ganancia */
+    private static final int[] VALOR = {0, 100, 320, 330, 500, 900, 20000};
+
+    private Intercambio() {
+    }
+
+    /**
+     * @param posicion Posición antes de la captura
+     * @param movimiento Captura o promoción pseudo-legal
+     * @return Ganancia de material esperada en centipeones para el bando que mueve
+     */
+    public static int evaluar(Posicion posicion, int movimiento) {
+        return evaluar(posicion, movimiento, new int[32]);
+    }
+
+    /**
+     * Variante de {@link #evaluar(Posicion, int)} que usa un buffer del
+     * llamante, de al menos 32 elementos, para no crear objetos en la búsqueda.
+     */
+    public static int evaluar(Posicion posicion, int movimiento, int[] ganancia) {
+        int origen = Movimiento.origen(movimiento);
+        int destino = Movimiento.destino(movimiento);
+        long retiradas = 1L << origen;
+        int profundidad = 0;
+
+        int victima = Movimiento.esAlPaso(movimiento) ? Posicion.PEON : Math.abs(posicion.pieza(destino));
+        if (Movimiento.esAlPaso(movimiento)) {
+            retiradas |= 1L << (destino + (posicion.getTurno() == Posicion.BLANCAS ? -8 : 8));
+        }
+        int enCasilla = Math.abs(posicion.pieza(origen));
+        ganancia[0] = VALOR[victima];
+        int promocion = Movimiento.promocion(movimiento);
+        if (promocion != Posicion.VACIO) {
+            ganancia[0] += VALOR[promocion] - VALOR[Posicion.PEON];
+            enCasilla = promocion;
+        }
+
+        int bando = posicion.getTurno() ^ 1;
+        while (profundidad < 31) {
+            int atacante = menorAtacante(posicion, destino, bando, retiradas);
+            if (atacante < 0) {
+                break;
+            }
+            profundidad++;
+            ganancia[profundidad] = VALOR[enCasilla] - ganancia[profundidad - 1];
+            if (Math.max(-ganancia[profundidad - 1], ganancia[profundidad]) < 0) {
+                // Ningún bando mejora su resultado continuando: esta captura no se hará
+                profundidad--;
+                break;
+            }
+            retiradas |= 1L << atacante;
+            enCasilla = Math.abs(posicion.pieza(atacante));
+            bando ^= 1;
+        }
+        while (profundidad > 0) {
+            ganancia[profundidad - 1] = -Math.max(-ganancia[profundidad - 1], ganancia[profundidad]);
+            profundidad--;
+        }
+        return ganancia[0];
+    }
+
+    /**
+     * Busca la pieza menos valiosa de un bando que ataca una casilla.
+     * @return Casilla de la pieza, o -1 si no hay ninguna
+     */
+    private static int menorAtacante(Posicion posicion, int casilla, int bando, long retiradas) {
+        int signo = bando == Posicion.BLANCAS ? 1 : -1;
+        for (int origen : Ataques.PEON[bando ^ 1][casilla]) {
+            if ((retiradas & (1L << origen)) == 0 && posicion.pieza(origen) == signo * Posicion.PEON) {
+                return origen;
+            }
+        }
+        for (int origen : Ataques.CABALLO[casilla]) {
+            if ((retiradas & (1L << origen)) == 0 && posicion.pieza(origen) == signo * Posicion.CABALLO) {
+                return origen;
+            }
+        }
+        int alfil = -1;
+        int torre = -1;
+        int dama = -1;
+        for (int d = 0; d < 8; d++) {
+            int deslizante = d < 4 ? Posicion.TORRE : Posicion.ALFIL;
+            for (int origen : Ataques.RAYOS[d][casilla]) {
+                int pieza = posicion.pieza(origen);
+                if (pieza == Posicion.VACIO || (retiradas & (1L << origen)) != 0) {
+                    continue;
+                }
+                if (pieza == signo * deslizante) {
+                    if (deslizante == Posicion.ALFIL) {
+                        alfil = origen;
+                    } else {
+                        torre = origen;
+                    }
+                } else if (pieza == signo * Posicion.DAMA) {
+                    dama = origen;
+                }
+                break;
+            }
+        }
+        if (alfil >= 0) return alfil;
+        if (torre >= 0) return torre;
+        if (dama >= 0) return dama;
+        for (int origen : Ataques.REY[casilla]) {
+            if ((retiradas & (1L << origen)) == 0 && posicion.pieza(origen) == signo * Posicion.REY) {
+                return origen;
+            }
+        }
+        return -1;
+    }
+}
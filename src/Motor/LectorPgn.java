@@ -0,0 +1,137 @@
+package Motor;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lector de archivos PGN que devuelve las partidas de una en una, sin cargar
+ * el archivo completo en memoria. Ignora comentarios, variantes, NAGs y
+ * números de jugada.
+ */
+public class LectorPgn implements Closeable {
+    private static final Pattern ETIQUETA = Pattern.compile("\\[\\s*(\\w+)\\s+\"(.*)\"\\s*]");
+
+    private final BufferedReader lector;
+    /** Línea de etiqueta leída que pertenece ya a la siguiente partida */
+    private String lineaPendiente;
+    private int profundidadComentario;
+    private int profundidadVariante;
+
+    /**
+     * @param entrada Origen del texto PGN
+     */
+    public LectorPgn(Reader entrada) {
+        this.lector = entrada instanceof BufferedReader ? (BufferedReader) entrada : new BufferedReader(entrada);
+    }
+
+    /**
+     * Lee la siguiente partida.
+     * @return Partida leída, o null si no quedan más
+     * @throws IOException si falla la lectura
+     */
+    public PartidaPgn siguiente() throws IOException {
+        PartidaPgn partida = new PartidaPgn();
+        boolean enMovimientos = false;
+        boolean hayContenido = false;
+        profundidadComentario = 0;
+        profundidadVariante = 0;
+
+        String linea;
+        while ((linea = leerLinea()) != null) {
+            String recortada = linea.trim();
+            if (profundidadComentario == 0 && recortada.startsWith("[")) {
+                if (enMovimientos) {
+                    // Partida sin resultado final: la etiqueta abre la siguiente
+                    lineaPendiente = linea;
+                    return partida;
+                }
+                Matcher m = ETIQUETA.matcher(recortada);
+                if (m.find()) {
+                    partida.setEtiqueta(m.group(1), m.group(2).replace("\\\"", "\""));
+                    hayContenido = true;
+                }
+                continue;
+            }
+            if (recortada.isEmpty() || recortada.startsWith("%")) {
+                continue;
+            }
+            enMovimientos = true;
+            hayContenido = true;
+            if (procesarMovimientos(recortada, partida)) {
+                return partida;
+            }
+        }
+        return hayContenido ? partida : null;
+    }
+
+    /**
+     * Procesa una línea de movimientos.
+     * @return true si la línea contiene el resultado que cierra la partida
+     */
+    private boolean procesarMovimientos(String linea, PartidaPgn partida) {
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= linea.length(); i++) {
+            char c = i < linea.length() ? linea.charAt(i) : ' ';
+            if (profundidadComentario > 0) {
+                if (c == '}') {
+                    profundidadComentario--;
+                }
+                continue;
+            }
+            if (c == '{' || c == '(' || c == ')' || c == ';' || Character.isWhitespace(c)) {
+                if (token.length() > 0 && procesarToken(token.toString(), partida)) {
+                    return true;
+                }
+                token.setLength(0);
+                if (c == '{') {
+                    profundidadComentario++;
+                } else if (c == '(') {
+                    profundidadVariante++;
+                } else if (c == ')') {
+                    profundidadVariante = Math.max(0, profundidadVariante - 1);
+                } else if (c == ';') {
+                    return false;
+                }
+            } else {
+                token.append(c);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true si el token es el resultado de la partida
+     */
+    private boolean procesarToken(String token, PartidaPgn partida) {
+        if (profundidadVariante > 0 || token.startsWith("$")) {
+            return false;
+        }
+        if (token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*")) {
+            partida.setResultado(token);
+            return true;
+        }
+        String movimiento = token.replaceFirst("^\\d+\\.+", "").replaceAll("[!?]+$", "");
+        if (!movimiento.isEmpty() && !movimiento.matches("\\d+")) {
+            partida.getMovimientos().add(movimiento);
+        }
+        return false;
+    }
+
+    private String leerLinea() throws IOException {
+        if (lineaPendiente != null) {
+            String linea = lineaPendiente;
+            lineaPendiente = null;
+            return linea;
+        }
+        return lector.readLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lector.close();
+    }
+}
@@ -0,0 +1,118 @@
+package Motor;
+
+/**
+ * Límites de una búsqueda, tal como los recibe el comando "go" de UCI.
+ * Un valor de 0 (o -1 para los tiempos) indica que ese límite no se aplica.
+ */
+public class LimitesBusqueda {
+    private int profundidad;
+    private long nodos;
+    private long tiempoMovimiento = -1;
+    private long tiempoBlancas = -1;
+    private long tiempoNegras = -1;
+    private long incrementoBlancas;
+    private long incrementoNegras;
+    private int movimientosHastaControl;
+    private boolean infinito;
+    private boolean ponder;
+
+    /**
+     * @param profundidad Profundidad máxima en medios movimientos
+     * @return Límites que sólo restringen la profundidad
+     */
+    public static LimitesBusqueda porProfundidad(int profundidad) {
+        LimitesBusqueda limites = new LimitesBusqueda();
+        limites.setProfundidad(profundidad);
+        return limites;
+    }
+
+    /**
+     * @param milisegundos Tiempo fijo por movimiento
+     * @return Límites que sólo restringen el tiempo
+     */
+    public static LimitesBusqueda porTiempo(long milisegundos) {
+        LimitesBusqueda limites = new LimitesBusqueda();
+        limites.setTiempoMovimiento(milisegundos);
+        return limites;
+    }
+
+    public int getProfundidad() {
+        return profundidad;
+    }
+
+    public void setProfundidad(int profundidad) {
+        this.profundidad = profundidad;
+    }
+
+    public long getNodos() {
+        return nodos;
+    }
+
+    public void setNodos(long nodos) {
+        this.nodos = nodos;
+    }
+
+    public long getTiempoMovimiento() {
+        return tiempoMovimiento;
+    }
+
+    public void setTiempoMovimiento(long tiempoMovimiento) {
+        this.tiempoMovimiento = tiempoMovimiento;
+    }
+
+    /**
+     * @param bando Posicion.BLANCAS o Posicion.NEGRAS
+     * @return Tiempo restante en el reloj de ese bando, -1 si no se conoce
+     */
+    public long getTiempoRestante(int bando) {
+        return bando == Posicion.BLANCAS ? tiempoBlancas : tiempoNegras;
+    }
+
+    public void setTiempoRestante(int bando, long milisegundos) {
+        if (bando == Posicion.BLANCAS) {
+            tiempoBlancas = milisegundos;
+        } else {
+            tiempoNegras = milisegundos;
+        }
+    }
+
+    /**
+     * @param bando Posicion.BLANCAS o Posicion.NEGRAS
+     * @return Incremento por jugada de ese bando en milisegundos
+     */
+    public long getIncremento(int bando) {
+        return bando == Posicion.BLANCAS ? incrementoBlancas : incrementoNegras;
+    }
+
+    public void setIncremento(int bando, long milisegundos) {
+        if (bando == Posicion.BLANCAS) {
+            incrementoBlancas = milisegundos;
+        } else {
+            incrementoNegras = milisegundos;
+        }
+    }
+
+    public int getMovimientosHastaControl() {
+        return movimientosHastaControl;
+    }
+
+    public void setMovimientosHastaControl(int movimientosHastaControl) {
+        this.movimientosHastaControl = movimientosHastaControl;
+    }
+
+    public boolean isInfinito() {
+        return infinito;
+    }
+
+    public void setInfinito(boolean infinito) {
+        this.infinito = infinito;
+    }
+
+    public boolean isPonder() {
+        return ponder;
+    }
+
+    public void setPonder(boolean ponder) {
+        this.ponder = ponder;
+    }
+}
@@ -0,0 +1,108 @@
+package Motor;
+
+/**
+ * Utilidades para los movimientos codificados como enteros.
+ * Un movimiento guarda en un int la casilla de origen (bits 0-5), la de
+ * destino (bits 6-11), la pieza de promoción (bits 12-14) y unos indicadores
+ * de captura, captura al paso, enroque y avance doble de peón. Así las listas
+ * de movimientos son simples arrays de int, sin objetos por movimiento.
+ */
+public final class Movimiento {
+    /** Valor que representa la ausencia de movimiento */
+    public static final int NINGUNO = 0;
+
+    public static final int CAPTURA = 1 << 16;
+    public static final int AL_PASO = 1 << 17;
+    public static final int ENROQUE = 1 << 18;
+    public static final int AVANCE_DOBLE = 1 << 19;
+
+    private static final String LETRAS_PROMOCION = "  nbrq";
+
+    private Movimiento() {
+    }
+
+    /**
+     * Codifica un movimiento.
+     * @param origen Casilla de origen (0-63)
+     * @param destino Casilla de destino (0-63)
+     * @param promocion Tipo de pieza de promoción, o Posicion.VACIO
+     * @param indicadores Combinación de CAPTURA, AL_PASO, ENROQUE y AVANCE_DOBLE
+     * @return Movimiento codificado
+     */
+    public static int crear(int origen, int destino, int promocion, int indicadores) {
+        return origen | (destino << 6) | (promocion << 12) | indicadores;
+    }
+
+    public static int origen(int movimiento) {
+        return movimiento & 63;
+    }
+
+    public static int destino(int movimiento) {
+        return (movimiento >>> 6) & 63;
+    }
+
+    public static int promocion(int movimiento) {
+        return (movimiento >>> 12) & 7;
+    }
+
+    public static boolean esCaptura(int movimiento) {
+        return (movimiento & CAPTURA) != 0;
+    }
+
+    public static boolean esAlPaso(int movimiento) {
+        return (movimiento & AL_PASO) != 0;
+    }
+
+    public static boolean esEnroque(int movimiento) {
+        return (movimiento & ENROQUE) != 0;
+    }
+
+    public static boolean esAvanceDoble(int movimiento) {
+        return (movimiento & AVANCE_DOBLE) != 0;
+    }
+
+    /**
+     * @return true si el movimiento no es captura ni promoción
+     */
+    public static boolean esTranquilo(int movimiento) {
+        return (movimiento & CAPTURA) == 0 && promocion(movimiento) == Posicion.VACIO;
+    }
+
+    /**
+     * Convierte el movimiento a notación UCI (e2e4, e7e8q).
+     * @param movimiento Movimiento codificado
+     * @return Texto del movimiento, "0000" si es NINGUNO
+     */
+    public static String aUci(int movimiento) {
+        if (movimiento == NINGUNO) {
+            return "0000";
+        }
+        String texto = nombreCasilla(origen(movimiento)) + nombreCasilla(destino(movimiento));
+        int promocion = promocion(movimiento);
+        return promocion != Posicion.VACIO ? texto + LETRAS_PROMOCION.charAt(promocion) : texto;
+    }
+
+    /**
+     * @param casilla Índice de casilla (0-63)
+     * @return Nombre algebraico de la casilla, por ejemplo "e4"
+     */
+    public static String nombreCasilla(int casilla) {
+        return "" + (char) ('a' + casilla % 8) + (char) ('1' + casilla / 8);
+    }
+
+    /**
+     * @param nombre Nombre algebraico de una casilla, por ejemplo "e4"
+     * @return Índice de la casilla, o -1 si el nombre no es válido
+     */
+    public static int casillaDesdeNombre(String nombre) {
+        if (nombre.length() != 2) {
+            return -1;
+        }
+        int columna = nombre.charAt(0) - 'a';
+        int fila = nombre.charAt(1) - '1';
+        if (columna < 0 || columna > 7 || fila < 0 || fila > 7) {
+            return -1;
+        }
+        return fila * 8 + columna;
+    }
+}
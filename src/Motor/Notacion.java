@@ -0,0 +1,181 @@
+package Motor;
+
+/**
+ * Conversión entre movimientos codificados y notación algebraica estándar (SAN).
+ * Se usan las letras inglesas de las piezas (N, B, R, Q, K), como en los
+ * archivos PGN.
+ */
+public final class Notacion {
+    private static final String LETRAS_PIEZAS = "  NBRQK";
+
+    private Notacion() {
+    }
+
+    /**
+     * Convierte un movimiento legal a notación SAN, incluyendo la
+     * desambiguación y los sufijos de jaque (+) y mate (#).
+     * @param posicion Posición antes del movimiento; queda igual que estaba
+     * @param movimiento Movimiento legal de la posición
+     * @return Movimiento en notación SAN
+     */
+    public static String aSan(Posicion posicion, int movimiento) {
+        return aSan(posicion, movimiento, GeneradorMovimientos.legales(posicion));
+    }
+
+    /**
+     * Variante de {@link #aSan(Posicion, int)} que reutiliza una lista de
+     * movimientos legales ya calculada para la posición.
+     */
+    public static String aSan(Posicion posicion, int movimiento, int[] legales) {
+        StringBuilder san = new StringBuilder();
+        int origen = Movimiento.origen(movimiento);
+        int destino = Movimiento.destino(movimiento);
+        int tipo = Math.abs(posicion.pieza(origen));
+
+        if (Movimiento.esEnroque(movimiento)) {
+            san.append(destino > origen ? "O-O" : "O-O-O");
+        } else if (tipo == Posicion.PEON) {
+            if (Movimiento.esCaptura(movimiento)) {
+                san.append((char) ('a' + origen % 8)).append('x');
+            }
+            san.append(Movimiento.nombreCasilla(destino));
+            if (Movimiento.promocion(movimiento) != Posicion.VACIO) {
+                san.append('=').append(LETRAS_PIEZAS.charAt(Movimiento.promocion(movimiento)));
+            }
+        } else {
+            san.append(LETRAS_PIEZAS.charAt(tipo));
+            boolean ambiguo = false;
+            boolean mismaColumna = false;
+            boolean mismaFila = false;
+            for (int otro : legales) {
+                int otroOrigen = Movimiento.origen(otro);
+                if (otro != movimiento && Movimiento.destino(otro) == destino && otroOrigen != origen
+                        && Math.abs(posicion.pieza(otroOrigen)) == tipo) {
+                    ambiguo = true;
+                    mismaColumna |= otroOrigen % 8 == origen % 8;
+                    mismaFila |= otroOrigen / 8 == origen / 8;
+                }
+            }
+            if (ambiguo) {
+                if (!mismaColumna) {
+                    san.append((char) ('a' + origen % 8));
+                } else if (!mismaFila) {
+                    san.append((char) ('1' + origen / 8));
+                } else {
+                    san.append(Movimiento.nombreCasilla(origen));
+                }
+            }
+            if (Movimiento.esCaptura(movimiento)) {
+                san.append('x');
+            }
+            san.append(Movimiento.nombreCasilla(destino));
+        }
+
+        posicion.hacerMovimiento(movimiento);
+        if (posicion.enJaque()) {
+            san.append(GeneradorMovimientos.legales(posicion).length == 0 ? '#' : '+');
+        }
+        posicion.deshacerMovimiento();
+        return san.toString();
+    }
+
+    /**
+     * Interpreta un movimiento en notación SAN (o UCI como alternativa).
+     * Se ignoran los sufijos de jaque, mate y anotaciones (+, #, !, ?).
+     * @param posicion Posición en la que se juega el movimiento
+     * @param texto Movimiento en notación SAN, por ejemplo "Nbd7", "exd6", "e8=Q" u "O-O"
+     * @return Movimiento legal correspondiente, o Movimiento.NINGUNO si no hay ninguno
+     */
+    public static int desdeSan(Posicion posicion, String texto) {
+        return desdeSan(posicion, texto, GeneradorMovimientos.legales(posicion));
+    }
+
+    /**
+     * Variante de {@link #desdeSan(Posicion, String)} que reutiliza una lista
+     * de movimientos legales ya calculada para la posición.
+     */
+    public static int desdeSan(Posicion posicion, String texto, int[] legales) {
+        String san = texto.replaceAll("[+#!?]", "").trim();
+        if (san.isEmpty()) {
+            return Movimiento.NINGUNO;
+        }
+
+        if (san.equals("O-O") || san.equals("0-0") || san.equals("O-O-O") || san.equals("0-0-0")) {
+            boolean largo = san.length() == 5;
+            for (int movimiento : legales) {
+                if (Movimiento.esEnroque(movimiento)
+                        && (Movimiento.destino(movimiento) < Movimiento.origen(movimiento)) == largo) {
+                    return movimiento;
+                }
+            }
+            return Movimiento.NINGUNO;
+        }
+
+        int tipo = Posicion.PEON;
+        char primera = san.charAt(0);
+        if (LETRAS_PIEZAS.indexOf(primera) > 1) {
+            tipo = LETRAS_PIEZAS.indexOf(primera);
+            san = san.substring(1);
+        }
+
+        int promocion = Posicion.VACIO;
+        int igual = san.indexOf('=');
+        if (igual >= 0 && igual + 1 < san.length()) {
+            promocion = LETRAS_PIEZAS.indexOf(Character.toUpperCase(san.charAt(igual + 1)));
+            san = san.substring(0, igual);
+        } else if (tipo == Posicion.PEON && san.length() >= 3
+                && LETRAS_PIEZAS.indexOf(san.charAt(san.length() - 1)) > 1) {
+            promocion = LETRAS_PIEZAS.indexOf(san.charAt(san.length() - 1));
+            san = san.substring(0, san.length() - 1);
+        }
+
+        san = san.replace("x", "").replace("-", "").replace(":", "");
+        if (san.length() < 2) {
+            return desdeUci(legales, texto.trim());
+        }
+        int destino = Movimiento.casillaDesdeNombre(san.substring(san.length() - 2));
+        String desambiguacion = san.substring(0, san.length() - 2);
+        if (destino < 0) {
+            // Puede ser una promoción en UCI, como e7e8q
+            return desdeUci(legales, texto.trim());
+        }
+
+        int columnaOrigen = -1;
+        int filaOrigen = -1;
+        for (char c : desambiguacion.toCharArray()) {
+            if (c >= 'a' && c <= 'h') {
+                columnaOrigen = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                filaOrigen = c - '1';
+            }
+        }
+
+        for (int movimiento : legales) {
+            int origen = Movimiento.origen(movimiento);
+            if (Movimiento.destino(movimiento) == destino
+                    && Math.abs(posicion.pieza(origen)) == tipo
+                    && Movimiento.promocion(movimiento) == promocion
+                    && (columnaOrigen < 0 || origen % 8 == columnaOrigen)
+                    && (filaOrigen < 0 || origen / 8 == filaOrigen)
+                    && !Movimiento.esEnroque(movimiento)) {
+                return movimiento;
+            }
+        }
+        return desdeUci(legales, texto.trim());
+    }
+
+    /**
+     * Busca entre los movimientos legales uno escrito en notación UCI (e2e4, e7e8q).
+     * @param legales Movimientos legales de la posición
+     * @param uci Movimiento en notación UCI
+     * @return Movimiento correspondiente, o Movimiento.NINGUNO si no hay ninguno
+     */
+    public static int desdeUci(int[] legales, String uci) {
+        for (int movimiento : legales) {
+            if (Movimiento.aUci(movimiento).equals(uci)) {
+                return movimiento;
+            }
+        }
+        return Movimiento.NINGUNO;
+    }
+}
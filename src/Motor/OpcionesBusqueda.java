@@ -0,0 +1,138 @@
+package Motor;
+
+import java.util.Arrays;
+
+/**
+ * Técnicas de la búsqueda que pueden activarse o desactivarse por separado,
+ * para medir el efecto de cada una en nodos, tiempo y fuerza de juego.
+ * Los nombres son los que se muestran como opciones UCI y los que acepta
+ * {@link ConfiguracionMotor}; al comparar no se distinguen mayúsculas.
+ * Todas están activas por defecto.
+ */
+public class OpcionesBusqueda {
+    /** Nombres de las opciones, en el orden en que se anuncian por UCI */
+    public static final String[] NOMBRES = {
+            "Killers", "History", "NullMove", "LMR", "Futility", "AspirationWindows", "PawnHash"
+    };
+
+    private static final int ASESINOS = 0;
+    private static final int HISTORIA = 1;
+    private static final int MOVIMIENTO_NULO = 2;
+    private static final int REDUCCIONES = 3;
+    private static final int FUTILIDAD = 4;
+    private static final int ASPIRACION = 5;
+    private static final int TABLA_PEONES = 6;
+
+    private final boolean[] activas = new boolean[NOMBRES.length];
+
+    public OpcionesBusqueda() {
+        Arrays.fill(activas, true);
+    }
+
+    /**
+     * Cambia una opción a partir de su nombre.
+     * @param nombre Nombre de la opción
+     * @param valor "true"/"false", "on"/"off" o "1"/"0"
+     * @return false si no existe ninguna opción con ese nombre
+     * @throws IllegalArgumentException Si el valor no es válido
+     */
+    public boolean establecer(String nombre, String valor) {
+        int indice = indice(nombre);
+        if (indice < 0) {
+            return false;
+        }
+        activas[indice] = interpretar(valor);
+        return true;
+    }
+
+    /**
+     * @param nombre Nombre de la opción
+     * @return Valor actual de la opción
+     * @throws IllegalArgumentException Si la opción no existe
+     */
+    public boolean consultar(String nombre) {
+        int indice = indice(nombre);
+        if (indice < 0) {
+            throw new IllegalArgumentException("opción de búsqueda desconocida: " + nombre);
+        }
+        return activas[indice];
+    }
+
+    /**
+     * @return Copia independiente de las opciones
+     */
+    public OpcionesBusqueda copiar() {
+        OpcionesBusqueda copia = new OpcionesBusqueda();
+        System.arraycopy(activas, 0, copia.activas, 0, activas.length);
+        return copia;
+    }
+
+    /**
+     * @return true si se prueban los movimientos asesinos antes que el resto de tranquilos
+     */
+    public boolean isAsesinos() {
+        return activas[ASESINOS];
+    }
+
+    /**
+     * @return true si los movimientos tranquilos se ordenan por la tabla de historia
+     */
+    public boolean isHistoria() {
+        return activas[HISTORIA];
+    }
+
+    /**
+     * @return true si se poda con el movimiento nulo
+     */
+    public boolean isMovimientoNulo() {
+        return activas[MOVIMIENTO_NULO];
+    }
+
+    /**
+     * @return true si se reduce la profundidad de los movimientos tranquilos tardíos (LMR)
+     */
+    public boolean isReducciones() {
+        return activas[REDUCCIONES];
+    }
+
+    /**
+     * @return true si se descartan movimientos tranquilos sin esperanza cerca de las hojas
+     */
+    public boolean isFutilidad() {
+        return activas[FUTILIDAD];
+    }
+
+    /**
+     * @return true si cada iteración empieza con una ventana estrecha alrededor de la anterior
+     */
+    public boolean isAspiracion() {
+        return activas[ASPIRACION];
+    }
+
+    /**
+     * @return true si la estructura de peones se guarda en una {@link TablaPeones}
+     */
+    public boolean isTablaPeones() {
+        return activas[TABLA_PEONES];
+    }
+
+    private static int indice(String nombre) {
+        for (int i = 0; i < NOMBRES.length; i++) {
+            if (NOMBRES[i].equalsIgnoreCase(nombre)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean interpretar(String valor) {
+        switch (valor.trim().toLowerCase()) {
+            case "true": case "on": case "1":
+                return true;
+            case "false": case "off": case "0":
+                return false;
+            default:
+                throw new IllegalArgumentException("se esperaba true o false: " + valor);
+        }
+    }
+}
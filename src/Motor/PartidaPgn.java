@@ -0,0 +1,100 @@
+package Motor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partida leída de o destinada a un archivo PGN: etiquetas, movimientos en
+ * notación SAN y resultado. Las partidas que se escriben pueden llevar además
+ * anotaciones ("?", "!?"...) y comentarios tras cada movimiento.
+ */
+public class PartidaPgn {
+    private final Map<String, String> etiquetas;
+    private final List<String> movimientos;
+    private String resultado;
+    /** Anotación y comentario de cada movimiento, por su índice en la lista */
+    private final Map<Integer, String> anotaciones = new HashMap<>();
+    private final Map<Integer, String> comentarios = new HashMap<>();
+
+    /**
+     * Crea una partida vacía con resultado desconocido ("*").
+     */
+    public PartidaPgn() {
+        this.etiquetas = new LinkedHashMap<>();
+        this.movimientos = new ArrayList<>();
+        this.resultado = "*";
+    }
+
+    /**
+     * @return Etiquetas de la partida en el orden en que se leyeron o añadieron
+     */
+    public Map<String, String> getEtiquetas() {
+        return etiquetas;
+    }
+
+    /**
+     * @param nombre Nombre de la etiqueta, por ejemplo "White"
+     * @return Valor de la etiqueta, o null si no existe
+     */
+    public String getEtiqueta(String nombre) {
+        return etiquetas.get(nombre);
+    }
+
+    public void setEtiqueta(String nombre, String valor) {
+        etiquetas.put(nombre, valor);
+    }
+
+    /**
+     * @return Movimientos de la partida en notación SAN
+     */
+    public List<String> getMovimientos() {
+        return movimientos;
+    }
+
+    /**
+     * @return Resultado: "1-0", "0-1", "1/2-1/2" o "*"
+     */
+    public String getResultado() {
+        return resultado;
+    }
+
+    public void setResultado(String resultado) {
+        this.resultado = resultado;
+    }
+
+    /**
+     * @param indice Índice del movimiento en {@link #getMovimientos()}
+     * @return Anotación que sigue al movimiento ("?", "??", "?!"...), o "" si no tiene
+     */
+    public String getAnotacion(int indice) {
+        return anotaciones.getOrDefault(indice, "");
+    }
+
+    public void setAnotacion(int indice, String anotacion) {
+        anotaciones.put(indice, anotacion);
+    }
+
+    /**
+     * @param indice Índice del movimiento en {@link #getMovimientos()}
+     * @return Comentario que sigue al movimiento, o null si no tiene
+     */
+    public String getComentario(int indice) {
+        return comentarios.get(indice);
+    }
+
+    public void setComentario(int indice, String comentario) {
+        comentarios.put(indice, comentario);
+    }
+
+    /**
+     * Posición inicial de la partida, teniendo en cuenta la etiqueta FEN.
+     * @return Nueva posición
+     */
+    public Posicion posicionInicial() {
+        String fen = etiquetas.get("FEN");
+        return fen != null ? Posicion.desdeFen(fen) : Posicion.inicial();
+    }
+}
@@ -0,0 +1,60 @@
+package Motor;
+
+import java.io.PrintStream;
+
+/**
+ * Recuento de nodos del árbol de movimientos legales (perft).
+ * Sirve para verificar el generador de movimientos contra valores conocidos
+ * y para medir su velocidad.
+ */
+public final class Perft {
+    private Perft() {
+    }
+
+    /**
+     * Cuenta las posiciones alcanzables con exactamente la profundidad indicada.
+     * @param posicion Posición de partida; queda igual que estaba
+     * @param profundidad Número de medios movimientos
+     * @return Número de nodos hoja
+     */
+    public static long contar(Posicion posicion, int profundidad) {
+        int[][] buffers = new int[profundidad + 1][GeneradorMovimientos.MAX_MOVIMIENTOS];
+        return contar(posicion, profundidad, buffers);
+    }
+
+    private static long contar(Posicion posicion, int profundidad, int[][] buffers) {
+        if (profundidad == 0) {
+            return 1;
+        }
+        int[] lista = buffers[profundidad];
+        int n = GeneradorMovimientos.generar(posicion, lista, 0, false);
+        long nodos = 0;
+        for (int i = 0; i < n; i++) {
+            posicion.hacerMovimiento(lista[i]);
+            if (!posicion.dejaReyEnJaque()) {
+                nodos += profundidad == 1 ? 1 : contar(posicion, profundidad - 1, buffers);
+            }
+            posicion.deshacerMovimiento();
+        }
+        return nodos;
+    }
+
+    /**
+     * Escribe el recuento de cada movimiento de la raíz y devuelve el total.
+     * @param posicion Posición de partida; queda igual que estaba
+     * @param profundidad Número de medios movimientos
+     * @param salida Destino de las líneas "movimiento: nodos"
+     * @return Número total de nodos hoja
+     */
+    public static long dividir(Posicion posicion, int profundidad, PrintStream salida) {
+        long total = 0;
+        for (int movimiento : GeneradorMovimientos.legales(posicion)) {
+            posicion.hacerMovimiento(movimiento);
+            long nodos = profundidad <= 1 ? 1 : contar(posicion, profundidad - 1);
+            posicion.deshacerMovimiento();
+            salida.println(Movimiento.aUci(movimiento) + ": " + nodos);
+            total += nodos;
+        }
+        return total;
+    }
+}
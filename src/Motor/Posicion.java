@@ -0,0 +1,769 @@
+package Motor;
+
+import Modelo.Pieza;
+import Modelo.TableroEstado;
+
+import java.util.Arrays;
+
+/**
+ * Posición de ajedrez completa para el motor, independiente de la interfaz.
+ * A diferencia de Modelo.Tablero guarda también el turno, los derechos de
+ * enroque, la casilla de captura al paso, la regla de los 50 movimientos y
+ * una clave Zobrist, y permite hacer y deshacer movimientos sin crear objetos.
+ *
+ * Las piezas se representan con enteros: positivos para las blancas y
+ * negativos para las negras. Las casillas se numeran como fila * 8 + columna,
+ * con la misma orientación que Modelo.Tablero (fila 0 = primera fila blanca).
+ */
+public class Posicion {
+    public static final int VACIO = 0;
+    public static final int PEON = 1;
+    public static final int CABALLO = 2;
+    public static final int ALFIL = 3;
+    public static final int TORRE = 4;
+    public static final int DAMA = 5;
+    public static final int REY = 6;
+
+    public static final int BLANCAS = 0;
+    public static final int NEGRAS = 1;
+
+    public static final int ENROQUE_BLANCO_CORTO = 1;
+    public static final int ENROQUE_BLANCO_LARGO = 2;
+    public static final int ENROQUE_NEGRO_CORTO = 4;
+    public static final int ENROQUE_NEGRO_LARGO = 8;
+
+    /** Posición inicial estándar en notación FEN */
+    public static final String FEN_INICIAL = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String LETRAS_FEN = " pnbrqk";
+
+    /** Derechos de enroque que se conservan al mover desde o hacia cada casilla */
+    private static final int[] MASCARA_ENROQUE = new int[64];
+
+    static {
+        Arrays.fill(MASCARA_ENROQUE, 15);
+        MASCARA_ENROQUE[0] &= ~ENROQUE_BLANCO_LARGO;
+        MASCARA_ENROQUE[4] &= ~(ENROQUE_BLANCO_CORTO | ENROQUE_BLANCO_LARGO);
+        MASCARA_ENROQUE[7] &= ~ENROQUE_BLANCO_CORTO;
+        MASCARA_ENROQUE[56] &= ~ENROQUE_NEGRO_LARGO;
+        MASCARA_ENROQUE[60] &= ~(ENROQUE_NEGRO_CORTO | ENROQUE_NEGRO_LARGO);
+        MASCARA_ENROQUE[63] &= ~ENROQUE_NEGRO_CORTO;
+    }
+
+    private final int[] casillas = new int[64];
+    private final int[] reyes = new int[2];
+    private int turno;
+    private int enroques;
+    private int alPaso = -1;
+    private int reglaCincuenta;
+    private int numeroJugada = 1;
+    private long clave;
+    /** Clave Zobrist calculada sólo con los peones, para la {@link TablaPeones} */
+    private long clavePeones;
+    /** Sumas de material y tablas de casillas, mantenidas por poner y quitar */
+    private int medioJuego;
+    private int finalJuego;
+    private int fase;
+    /** Piezas que no son peones ni rey de cada bando */
+    private final int[] piezas = new int[2];
+    /**
+     * Firma de material: número de piezas de cada clase en 4 bits por índice
+     * Zobrist, más los alfiles de casillas claras (bits 48-55) y oscuras (56-63)
+     */
+    private long firmaMaterial;
+
+    // Historial para deshacer movimientos, en arrays paralelos preasignados
+    private int nHistorial;
+    private int[] histMovimiento = new int[256];
+    private int[] histCapturada = new int[256];
+    private int[] histEnroques = new int[256];
+    private int[] histAlPaso = new int[256];
+    private int[] histCincuenta = new int[256];
+    private long[] histClave = new long[256];
+
+    private Posicion() {
+    }
+
+    /**
+     * @return Nueva posición con la disposición inicial estándar
+     */
+    public static Posicion inicial() {
+        return desdeFen(FEN_INICIAL);
+    }
+
+    /**
+     * Crea una posición a partir de una cadena FEN.
+     * @param fen Posición en notación Forsyth-Edwards
+     * @return Posición equivalente
+     * @throws IllegalArgumentException si la cadena no es un FEN válido
+     */
+    public static Posicion desdeFen(String fen) {
+        String[] campos = fen.trim().split("\\s+");
+        if (campos.length < 2) {
+            throw new IllegalArgumentException("FEN incompleto: " + fen);
+        }
+        Posicion posicion = new Posicion();
+        posicion.reyes[BLANCAS] = -1;
+        posicion.reyes[NEGRAS] = -1;
+
+        int fila = 7;
+        int columna = 0;
+        for (char c : campos[0].toCharArray()) {
+            if (c == '/') {
+                fila--;
+                columna = 0;
+            } else if (Character.isDigit(c)) {
+                columna += c - '0';
+            } else {
+                int tipo = LETRAS_FEN.indexOf(Character.toLowerCase(c));
+                if (tipo <= 0 || fila < 0 || columna > 7) {
+                    throw new IllegalArgumentException("FEN no válido: " + fen);
+                }
+                posicion.poner(fila * 8 + columna, Character.isUpperCase(c) ? tipo : -tipo);
+                columna++;
+            }
+        }
+        if (posicion.reyes[BLANCAS] < 0 || posicion.reyes[NEGRAS] < 0) {
+            throw new IllegalArgumentException("FEN sin los dos reyes: " + fen);
+        }
+
+        posicion.turno = campos[1].equals("b") ? NEGRAS : BLANCAS;
+        if (campos.length > 2) {
+            for (char c : campos[2].toCharArray()) {
+                switch (c) {
+                    case 'K': posicion.enroques |= ENROQUE_BLANCO_CORTO; break;
+                    case 'Q': posicion.enroques |= ENROQUE_BLANCO_LARGO; break;
+                    case 'k': posicion.enroques |= ENROQUE_NEGRO_CORTO; break;
+                    case 'q': posicion.enroques |= ENROQUE_NEGRO_LARGO; break;
+                }
+            }
+        }
+        if (campos.length > 3 && !campos[3].equals("-")) {
+            int casilla = Movimiento.casillaDesdeNombre(campos[3]);
+            int peon = casilla + (posicion.turno == BLANCAS ? -8 : 8);
+            if (casilla >= 0 && peon >= 0 && peon < 64) {
+                // Se comprueba desde el punto de vista del bando que hizo el avance doble
+                posicion.turno ^= 1;
+                if (posicion.hayPeonRivalAlLado(peon)) {
+                    posicion.alPaso = casilla;
+                }
+                posicion.turno ^= 1;
+            }
+        }
+        if (campos.length > 4) {
+            posicion.reglaCincuenta = Integer.parseInt(campos[4]);
+        }
+        if (campos.length > 5) {
+            posicion.numeroJugada = Math.max(1, Integer.parseInt(campos[5]));
+        }
+        posicion.clave ^= posicion.claveEstado();
+        return posicion;
+    }
+
+    /**
+     * Crea una posición a partir de la matriz de piezas usada por la interfaz.
+     * Los derechos de enroque se deducen de si reyes y torres siguen en sus
+     * casillas iniciales; no se conserva la casilla de captura al paso.
+     *
+     * @param tablero Matriz 8x8 de piezas, indexada por [fila][columna]
+     * @param blancasMueven true si es el turno de las blancas
+     * @return Posición equivalente
+     */
+    public static Posicion desdeTablero(Pieza[][] tablero, boolean blancasMueven) {
+        Posicion posicion = new Posicion();
+        for (int fila = 0; fila < 8; fila++) {
+            for (int columna = 0; columna < 8; columna++) {
+                Pieza pieza = tablero[fila][columna];
+                if (pieza != null) {
+                    int tipo = tipoDesdeNombre(pieza.getNombre());
+                    posicion.poner(fila * 8 + columna, pieza.getColor() == 'B' ? tipo : -tipo);
+                }
+            }
+        }
+        posicion.turno = blancasMueven ? BLANCAS : NEGRAS;
+        posicion.deducirEnroques();
+        return posicion;
+    }
+
+    /**
+     * Crea una posición a partir de una instantánea del tablero, con los
+     * mismos criterios que {@link #desdeTablero}.
+     * @param estado Disposición de las piezas
+     * @param blancasMueven true si es el turno de las blancas
+     * @return Posición equivalente
+     */
+    public static Posicion desdeEstado(TableroEstado estado, boolean blancasMueven) {
+        Posicion posicion = new Posicion();
+        for (int fila = 0; fila < 8; fila++) {
+            for (int columna = 0; columna < 8; columna++) {
+                int codigo = estado.getCodigo(fila, columna);
+                if (codigo != VACIO) {
+                    int tipo = codigo & ~TableroEstado.NEGRA;
+                    posicion.poner(fila * 8 + columna, (codigo & TableroEstado.NEGRA) == 0 ? tipo : -tipo);
+                }
+            }
+        }
+        posicion.turno = blancasMueven ? BLANCAS : NEGRAS;
+        posicion.deducirEnroques();
+        return posicion;
+    }
+
+    /**
+     * Sin historial, los enroques se permiten si rey y torre siguen en sus casillas iniciales.
+     */
+    private void deducirEnroques() {
+        int[] c = casillas;
+        if (c[4] == REY && c[7] == TORRE) enroques |= ENROQUE_BLANCO_CORTO;
+        if (c[4] == REY && c[0] == TORRE) enroques |= ENROQUE_BLANCO_LARGO;
+        if (c[60] == -REY && c[63] == -TORRE) enroques |= ENROQUE_NEGRO_CORTO;
+        if (c[60] == -REY && c[56] == -TORRE) enroques |= ENROQUE_NEGRO_LARGO;
+        clave ^= claveEstado();
+    }
+
+    /**
+     * @return Instantánea inmutable de la disposición actual de las piezas
+     */
+    public TableroEstado aEstado() {
+        return TableroEstado.desdeCasillas(casillas);
+    }
+
+    /**
+     * Convierte la posición a la matriz de piezas usada por la interfaz.
+     * @return Nueva matriz 8x8 indexada por [fila][columna]
+     */
+    public Pieza[][] aTablero() {
+        Pieza[][] tablero = new Pieza[8][8];
+        for (int casilla = 0; casilla < 64; casilla++) {
+            int pieza = casillas[casilla];
+            if (pieza != VACIO) {
+                tablero[casilla / 8][casilla % 8] = new Pieza(nombreDesdeTipo(Math.abs(pieza)),
+                        pieza > 0 ? 'B' : 'N', Movimiento.nombreCasilla(casilla));
+            }
+        }
+        return tablero;
+    }
+
+    /**
+     * @return Copia independiente de la posición, incluido su historial
+     */
+    public Posicion copiar() {
+        Posicion copia = new Posicion();
+        System.arraycopy(casillas, 0, copia.casillas, 0, 64);
+        copia.reyes[BLANCAS] = reyes[BLANCAS];
+        copia.reyes[NEGRAS] = reyes[NEGRAS];
+        copia.turno = turno;
+        copia.enroques = enroques;
+        copia.alPaso = alPaso;
+        copia.reglaCincuenta = reglaCincuenta;
+        copia.numeroJugada = numeroJugada;
+        copia.clave = clave;
+        copia.clavePeones = clavePeones;
+        copia.medioJuego = medioJuego;
+        copia.finalJuego = finalJuego;
+        copia.fase = fase;
+        copia.piezas[BLANCAS] = piezas[BLANCAS];
+        copia.piezas[NEGRAS] = piezas[NEGRAS];
+        copia.firmaMaterial = firmaMaterial;
+        copia.nHistorial = nHistorial;
+        copia.histMovimiento = histMovimiento.clone();
+        copia.histCapturada = histCapturada.clone();
+        copia.histEnroques = histEnroques.clone();
+        copia.histAlPaso = histAlPaso.clone();
+        copia.histCincuenta = histCincuenta.clone();
+        copia.histClave = histClave.clone();
+        return copia;
+    }
+
+    /**
+     * @return Posición en notación FEN
+     */
+    public String aFen() {
+        StringBuilder sb = new StringBuilder();
+        for (int fila = 7; fila >= 0; fila--) {
+            int vacias = 0;
+            for (int columna = 0; columna < 8; columna++) {
+                int pieza = casillas[fila * 8 + columna];
+                if (pieza == VACIO) {
+                    vacias++;
+                    continue;
+                }
+                if (vacias > 0) {
+                    sb.append(vacias);
+                    vacias = 0;
+                }
+                char letra = LETRAS_FEN.charAt(Math.abs(pieza));
+                sb.append(pieza > 0 ? Character.toUpperCase(letra) : letra);
+            }
+            if (vacias > 0) {
+                sb.append(vacias);
+            }
+            if (fila > 0) {
+                sb.append('/');
+            }
+        }
+        sb.append(turno == BLANCAS ? " w " : " b ");
+        if (enroques == 0) {
+            sb.append('-');
+        } else {
+            if ((enroques & ENROQUE_BLANCO_CORTO) != 0) sb.append('K');
+            if ((enroques & ENROQUE_BLANCO_LARGO) != 0) sb.append('Q');
+            if ((enroques & ENROQUE_NEGRO_CORTO) != 0) sb.append('k');
+            if ((enroques & ENROQUE_NEGRO_LARGO) != 0) sb.append('q');
+        }
+        sb.append(' ').append(alPaso >= 0 ? Movimiento.nombreCasilla(alPaso) : "-");
+        sb.append(' ').append(reglaCincuenta).append(' ').append(numeroJugada);
+        return sb.toString();
+    }
+
+    /**
+     * Ejecuta un movimiento pseudo-legal generado para esta posición.
+     * No comprueba la legalidad: tras llamarlo, {@link #dejaReyEnJaque()}
+     * indica si el movimiento dejó al propio rey atacado.
+     * @param movimiento Movimiento codificado
+     */
+    public void hacerMovimiento(int movimiento) {
+        int origen = Movimiento.origen(movimiento);
+        int destino = Movimiento.destino(movimiento);
+        int pieza = casillas[origen];
+        int capturada;
+
+        guardarHistorial(movimiento);
+        clave ^= claveEstado();
+
+        if (Movimiento.esAlPaso(movimiento)) {
+            int casillaCapturada = destino + (turno == BLANCAS ? -8 : 8);
+            capturada = casillas[casillaCapturada];
+            quitar(casillaCapturada);
+        } else {
+            capturada = casillas[destino];
+            if (capturada != VACIO) {
+                quitar(destino);
+            }
+        }
+        histCapturada[nHistorial - 1] = capturada;
+
+        quitar(origen);
+        int promocion = Movimiento.promocion(movimiento);
+        poner(destino, promocion == VACIO ? pieza : (turno == BLANCAS ? promocion : -promocion));
+
+        if (Movimiento.esEnroque(movimiento)) {
+            if (destino > origen) {
+                poner(origen + 1, casillas[origen + 3]);
+                quitar(origen + 3);
+            } else {
+                poner(origen - 1, casillas[origen - 4]);
+                quitar(origen - 4);
+            }
+        }
+
+        enroques &= MASCARA_ENROQUE[origen] & MASCARA_ENROQUE[destino];
+        alPaso = -1;
+        if (Movimiento.esAvanceDoble(movimiento) && hayPeonRivalAlLado(destino)) {
+            alPaso = (origen + destino) / 2;
+        }
+        reglaCincuenta = (Math.abs(pieza) == PEON || capturada != VACIO) ? 0 : reglaCincuenta + 1;
+        if (turno == NEGRAS) {
+            numeroJugada++;
+        }
+        turno ^= 1;
+        clave ^= claveEstado();
+    }
+
+    /**
+     * Deshace el último movimiento realizado con {@link #hacerMovimiento(int)}.
+     */
+    public void deshacerMovimiento() {
+        nHistorial--;
+        int movimiento = histMovimiento[nHistorial];
+        int capturada = histCapturada[nHistorial];
+        int origen = Movimiento.origen(movimiento);
+        int destino = Movimiento.destino(movimiento);
+
+        turno ^= 1;
+        if (turno == NEGRAS) {
+            numeroJugada--;
+        }
+
+        int pieza = casillas[destino];
+        quitar(destino);
+        poner(origen, Movimiento.promocion(movimiento) == VACIO ? pieza : (turno == BLANCAS ? PEON : -PEON));
+
+        if (capturada != VACIO) {
+            if (Movimiento.esAlPaso(movimiento)) {
+                poner(destino + (turno == BLANCAS ? -8 : 8), capturada);
+            } else {
+                poner(destino, capturada);
+            }
+        }
+
+        if (Movimiento.esEnroque(movimiento)) {
+            if (destino > origen) {
+                poner(origen + 3, casillas[origen + 1]);
+                quitar(origen + 1);
+            } else {
+                poner(origen - 4, casillas[origen - 1]);
+                quitar(origen - 1);
+            }
+        }
+
+        enroques = histEnroques[nHistorial];
+        alPaso = histAlPaso[nHistorial];
+        reglaCincuenta = histCincuenta[nHistorial];
+        clave = histClave[nHistorial];
+    }
+
+    /**
+     * Pasa el turno sin mover ninguna pieza, para la poda de movimiento nulo.
+     * Se anota en el historial como Movimiento.NINGUNO y corta la ventana de
+     * repeticiones, porque una posición alcanzada pasando no es una repetición real.
+     */
+    public void hacerMovimientoNulo() {
+        guardarHistorial(Movimiento.NINGUNO);
+        histCapturada[nHistorial - 1] = VACIO;
+        clave ^= claveEstado();
+        alPaso = -1;
+        reglaCincuenta = 0;
+        turno ^= 1;
+        clave ^= claveEstado();
+    }
+
+    /**
+     * Deshace el último {@link #hacerMovimientoNulo()}.
+     */
+    public void deshacerMovimientoNulo() {
+        nHistorial--;
+        turno ^= 1;
+        alPaso = histAlPaso[nHistorial];
+        reglaCincuenta = histCincuenta[nHistorial];
+        clave = histClave[nHistorial];
+    }
+
+    /**
+     * Indica si la posición actual ya se dio antes desde el último movimiento
+     * irreversible (captura o movimiento de peón).
+     * @return true si la posición es una repetición
+     */
+    public boolean esRepeticion() {
+        int limite = Math.max(0, nHistorial - reglaCincuenta);
+        for (int i = nHistorial - 2; i >= limite; i -= 2) {
+            if (histClave[i] == clave) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cuenta cuántas veces se dio antes la posición actual desde el último
+     * movimiento irreversible.
+     * @return Número de apariciones anteriores de la posición
+     */
+    public int contarRepeticiones() {
+        int repeticiones = 0;
+        int limite = Math.max(0, nHistorial - reglaCincuenta);
+        for (int i = nHistorial - 2; i >= limite; i -= 2) {
+            if (histClave[i] == clave) {
+                repeticiones++;
+            }
+        }
+        return repeticiones;
+    }
+
+    /**
+     * @return true si el último movimiento dejó en jaque al rey del bando que movió
+     */
+    public boolean dejaReyEnJaque() {
+        return estaAtacada(reyes[turno ^ 1], turno);
+    }
+
+    /**
+     * @return true si el rey del bando al que le toca mover está en jaque
+     */
+    public boolean enJaque() {
+        return estaAtacada(reyes[turno], turno ^ 1);
+    }
+
+    /**
+     * Indica si una casilla está atacada por alguna pieza de un bando.
+     * @param casilla Casilla a comprobar
+     * @param porBando BLANCAS o NEGRAS
+     * @return true si alguna pieza de ese bando ataca la casilla
+     */
+    public boolean estaAtacada(int casilla, int porBando) {
+        int signo = porBando == BLANCAS ? 1 : -1;
+
+        for (int origen : Ataques.PEON[porBando ^ 1][casilla]) {
+            if (casillas[origen] == signo * PEON) return true;
+        }
+        for (int origen : Ataques.CABALLO[casilla]) {
+            if (casillas[origen] == signo * CABALLO) return true;
+        }
+        for (int origen : Ataques.REY[casilla]) {
+            if (casillas[origen] == signo * REY) return true;
+        }
+        for (int d = 0; d < 8; d++) {
+            int deslizante = d < 4 ? TORRE : ALFIL;
+            for (int origen : Ataques.RAYOS[d][casilla]) {
+                int pieza = casillas[origen];
+                if (pieza != VACIO) {
+                    if (pieza == signo * deslizante || pieza == signo * DAMA) return true;
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param casilla Casilla (0-63)
+     * @return Pieza con signo en la casilla, VACIO si no hay ninguna
+     */
+    public int pieza(int casilla) {
+        return casillas[casilla];
+    }
+
+    /**
+     * @return BLANCAS o NEGRAS según el bando al que le toca mover
+     */
+    public int getTurno() {
+        return turno;
+    }
+
+    /**
+     * @return Derechos de enroque como combinación de las constantes ENROQUE_*
+     */
+    public int getEnroques() {
+        return enroques;
+    }
+
+    /**
+     * @return Casilla de captura al paso, o -1 si no hay
+     */
+    public int getAlPaso() {
+        return alPaso;
+    }
+
+    /**
+     * @return Medios movimientos desde la última captura o movimiento de peón
+     */
+    public int getReglaCincuenta() {
+        return reglaCincuenta;
+    }
+
+    /**
+     * @return Número de la jugada actual, empezando en 1
+     */
+    public int getNumeroJugada() {
+        return numeroJugada;
+    }
+
+    /**
+     * @return Clave Zobrist de la posición
+     */
+    public long getClave() {
+        return clave;
+    }
+
+    /**
+     * @param bando BLANCAS o NEGRAS
+     * @return Casilla del rey de ese bando
+     */
+    public int getRey(int bando) {
+        return reyes[bando];
+    }
+
+    /**
+     * @return Suma de material y tablas de casillas de medio juego, positiva si favorece a las blancas
+     */
+    public int getMedioJuego() {
+        return medioJuego;
+    }
+
+    /**
+     * @return Suma de material y tablas de casillas de final, positiva si favorece a las blancas
+     */
+    public int getFinal() {
+        return finalJuego;
+    }
+
+    /**
+     * @return Fase de la partida según el material que queda, de 0 a {@link Evaluacion#FASE_TOTAL} o más
+     */
+    public int getFase() {
+        return fase;
+    }
+
+    /**
+     * @return Clave Zobrist de la estructura de peones
+     */
+    public long getClavePeones() {
+        return clavePeones;
+    }
+
+    /**
+     * @param bando Bando a consultar
+     * @return true si al bando le queda alguna pieza además de peones y rey
+     */
+    public boolean tienePiezas(int bando) {
+        return piezas[bando] > 0;
+    }
+
+    /**
+     * @param pieza Pieza con signo (positiva para las blancas)
+     * @return Número de piezas de esa clase en el tablero
+     */
+    public int contarPiezas(int pieza) {
+        return (int) (firmaMaterial >>> (4 * Zobrist.indicePieza(pieza))) & 15;
+    }
+
+    /**
+     * @param casillasClaras true para contar los alfiles de casillas claras
+     * @return Número de alfiles, de ambos bandos, en casillas de ese color
+     */
+    public int contarAlfiles(boolean casillasClaras) {
+        return (int) (firmaMaterial >>> (casillasClaras ? 48 : 56)) & 0xFF;
+    }
+
+    /**
+     * @return Firma de material; dos posiciones con la misma firma tienen las mismas piezas
+     */
+    public long getFirmaMaterial() {
+        return firmaMaterial;
+    }
+
+    /**
+     * @return Número de movimientos guardados en el historial
+     */
+    public int getNumeroMovimientos() {
+        return nHistorial;
+    }
+
+    /**
+     * @return Último movimiento realizado, o Movimiento.NINGUNO si no hay
+     */
+    public int getUltimoMovimiento() {
+        return nHistorial > 0 ? histMovimiento[nHistorial - 1] : Movimiento.NINGUNO;
+    }
+
+    /**
+     * @param tipo Tipo de pieza (PEON..REY)
+     * @return Nombre de la pieza tal como lo usa Modelo.Pieza
+     */
+    public static String nombreDesdeTipo(int tipo) {
+        switch (tipo) {
+            case PEON: return "Peón";
+            case CABALLO: return "Caballo";
+            case ALFIL: return "Alfil";
+            case TORRE: return "Torre";
+            case DAMA: return "Dama";
+            case REY: return "Rey";
+            default: return "";
+        }
+    }
+
+    /**
+     * @param nombre Nombre de pieza tal como lo usa Modelo.Pieza
+     * @return Tipo de pieza (PEON..REY), o VACIO si el nombre no es conocido
+     */
+    public static int tipoDesdeNombre(String nombre) {
+        switch (nombre) {
+            case "Peón": return PEON;
+            case "Caballo": return CABALLO;
+            case "Alfil": return ALFIL;
+            case "Torre": return TORRE;
+            case "Dama": return DAMA;
+            case "Rey": return REY;
+            default: return VACIO;
+        }
+    }
+
+    private void poner(int casilla, int pieza) {
+        int indice = Zobrist.indicePieza(pieza);
+        casillas[casilla] = pieza;
+        clave ^= Zobrist.PIEZAS[indice][casilla];
+        if (Math.abs(pieza) == PEON) {
+            clavePeones ^= Zobrist.PIEZAS[indice][casilla];
+        }
+        medioJuego += Evaluacion.MEDIO_JUEGO[indice][casilla];
+        finalJuego += Evaluacion.FINAL[indice][casilla];
+        fase += Evaluacion.FASE_PIEZA[Math.abs(pieza)];
+        if (Math.abs(pieza) != PEON && Math.abs(pieza) != REY) {
+            piezas[pieza > 0 ? BLANCAS : NEGRAS]++;
+        }
+        firmaMaterial += incrementoFirma(pieza, indice, casilla);
+        if (pieza == REY) {
+            reyes[BLANCAS] = casilla;
+        } else if (pieza == -REY) {
+            reyes[NEGRAS] = casilla;
+        }
+    }
+
+    private void quitar(int casilla) {
+        int pieza = casillas[casilla];
+        int indice = Zobrist.indicePieza(pieza);
+        clave ^= Zobrist.PIEZAS[indice][casilla];
+        if (Math.abs(pieza) == PEON) {
+            clavePeones ^= Zobrist.PIEZAS[indice][casilla];
+        }
+        medioJuego -= Evaluacion.MEDIO_JUEGO[indice][casilla];
+        finalJuego -= Evaluacion.FINAL[indice][casilla];
+        fase -= Evaluacion.FASE_PIEZA[Math.abs(pieza)];
+        if (Math.abs(pieza) != PEON && Math.abs(pieza) != REY) {
+            piezas[pieza > 0 ? BLANCAS : NEGRAS]--;
+        }
+        firmaMaterial -= incrementoFirma(pieza, indice, casilla);
+        casillas[casilla] = VACIO;
+    }
+
+    /**
+     * @return Cantidad que suma a la firma de material una pieza en una casilla
+     */
+    private static long incrementoFirma(int pieza, int indice, int casilla) {
+        long incremento = 1L << (4 * indice);
+        if (Math.abs(pieza) == ALFIL) {
+            boolean clara = (casilla / 8 + casilla % 8) % 2 != 0;
+            incremento += 1L << (clara ? 48 : 56);
+        }
+        return incremento;
+    }
+
+    /**
+     * @return Parte de la clave que depende del turno, enroques y captura al paso
+     */
+    private long claveEstado() {
+        long k = Zobrist.ENROQUES[enroques];
+        if (alPaso >= 0) {
+            k ^= Zobrist.AL_PASO[alPaso % 8];
+        }
+        return turno == NEGRAS ? k ^ Zobrist.TURNO : k;
+    }
+
+    /**
+     * Sólo se anota la casilla de captura al paso si hay un peón rival que
+     * pueda capturar, para que posiciones iguales tengan la misma clave.
+     */
+    private boolean hayPeonRivalAlLado(int destino) {
+        int peonRival = turno == BLANCAS ? -PEON : PEON;
+        int columna = destino % 8;
+        return (columna > 0 && casillas[destino - 1] == peonRival)
+                || (columna < 7 && casillas[destino + 1] == peonRival);
+    }
+
+    private void guardarHistorial(int movimiento) {
+        if (nHistorial == histMovimiento.length) {
+            int n = nHistorial * 2;
+            histMovimiento = Arrays.copyOf(histMovimiento, n);
+            histCapturada = Arrays.copyOf(histCapturada, n);
+            histEnroques = Arrays.copyOf(histEnroques, n);
+            histAlPaso = Arrays.copyOf(histAlPaso, n);
+            histCincuenta = Arrays.copyOf(histCincuenta, n);
+            histClave = Arrays.copyOf(histClave, n);
+        }
+        histMovimiento[nHistorial] = movimiento;
+        histEnroques[nHistorial] = enroques;
+        histAlPaso[nHistorial] = alPaso;
+        histCincuenta[nHistorial] = reglaCincuenta;
+        histClave[nHistorial] = clave;
+        nHistorial++;
+    }
+}
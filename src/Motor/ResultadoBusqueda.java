@@ -0,0 +1,123 @@
+package Motor;
+
+import java.util.List;
+
+/**
+ * Resultado de una búsqueda: mejor movimiento, puntuación, variante principal
+ * y estadísticas de la búsqueda. Con MultiPV lleva además las demás variantes,
+ * cada una como un resultado propio.
+ */
+public class ResultadoBusqueda {
+    private final int mejorMovimiento;
+    private final int puntuacion;
+    private final int profundidad;
+    private final long nodos;
+    private final long tiempoMs;
+    private final int[] variantePrincipal;
+    private final EstadisticasBusqueda estadisticas;
+    /** Variantes de mejor a peor, o null si sólo se buscó la principal */
+    private final List<ResultadoBusqueda> lineas;
+
+    /**
+     * @param mejorMovimiento Mejor movimiento encontrado
+     * @param puntuacion Puntuación en centipeones para el bando que mueve
+     * @param profundidad Última profundidad completada
+     * @param nodos Nodos visitados
+     * @param tiempoMs Duración de la búsqueda en milisegundos
+     * @param variantePrincipal Secuencia de movimientos esperada
+     */
+    public ResultadoBusqueda(int mejorMovimiento, int puntuacion, int profundidad, long nodos,
+                             long tiempoMs, int[] variantePrincipal) {
+        this(mejorMovimiento, puntuacion, profundidad, nodos, tiempoMs, variantePrincipal, EstadisticasBusqueda.VACIAS);
+    }
+
+    /**
+     * @param estadisticas Estadísticas de todos los hilos de la búsqueda
+     */
+    public ResultadoBusqueda(int mejorMovimiento, int puntuacion, int profundidad, long nodos,
+                             long tiempoMs, int[] variantePrincipal, EstadisticasBusqueda estadisticas) {
+        this(mejorMovimiento, puntuacion, profundidad, nodos, tiempoMs, variantePrincipal, estadisticas, null);
+    }
+
+    private ResultadoBusqueda(int mejorMovimiento, int puntuacion, int profundidad, long nodos, long tiempoMs,
+                              int[] variantePrincipal, EstadisticasBusqueda estadisticas,
+                              List<ResultadoBusqueda> lineas) {
+        this.mejorMovimiento = mejorMovimiento;
+        this.puntuacion = puntuacion;
+        this.profundidad = profundidad;
+        this.nodos = nodos;
+        this.tiempoMs = tiempoMs;
+        this.variantePrincipal = variantePrincipal;
+        this.estadisticas = estadisticas;
+        this.lineas = lineas;
+    }
+
+    /**
+     * @return Copia de este resultado con otras estadísticas
+     */
+    public ResultadoBusqueda conEstadisticas(EstadisticasBusqueda estadisticas) {
+        return new ResultadoBusqueda(mejorMovimiento, puntuacion, profundidad, nodos, tiempoMs,
+                variantePrincipal, estadisticas, lineas);
+    }
+
+    /**
+     * @param lineas Variantes encontradas, de mejor a peor; la primera debe ser esta
+     * @return Copia de este resultado con las variantes de MultiPV
+     */
+    public ResultadoBusqueda conLineas(List<ResultadoBusqueda> lineas) {
+        return new ResultadoBusqueda(mejorMovimiento, puntuacion, profundidad, nodos, tiempoMs,
+                variantePrincipal, estadisticas, List.copyOf(lineas));
+    }
+
+    /**
+     * @return Variantes de mejor a peor; sin MultiPV, sólo este mismo resultado
+     */
+    public List<ResultadoBusqueda> getLineas() {
+        return lineas != null ? lineas : List.of(this);
+    }
+
+    public int getMejorMovimiento() {
+        return mejorMovimiento;
+    }
+
+    public int getPuntuacion() {
+        return puntuacion;
+    }
+
+    public int getProfundidad() {
+        return profundidad;
+    }
+
+    public long getNodos() {
+        return nodos;
+    }
+
+    public long getTiempoMs() {
+        return tiempoMs;
+    }
+
+    public int[] getVariantePrincipal() {
+        return variantePrincipal.clone();
+    }
+
+    /**
+     * @return Estadísticas de la búsqueda, sumando todos sus hilos
+     */
+    public EstadisticasBusqueda getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * @return true si la puntuación indica un mate forzado para alguno de los bandos
+     */
+    public boolean esMate() {
+        return Math.abs(puntuacion) >= Buscador.MATE - Buscador.MAX_PLY;
+    }
+
+    /**
+     * @return Medios movimientos hasta el mate (positivo si gana el bando que mueve)
+     */
+    public int getMateEnPly() {
+        return puntuacion > 0 ? Buscador.MATE - puntuacion : -(Buscador.MATE + puntuacion);
+    }
+}
@@ -0,0 +1,215 @@
+package Motor;
+
+/**
+ * Entrega los movimientos de un nodo de la búsqueda por etapas, del más
+ * prometedor al menos:
+ * <ol>
+ *     <li>el movimiento de la tabla de transposición,</li>
+ *     <li>las capturas, de la víctima más valiosa con el atacante menos valioso (MVV-LVA),</li>
+ *     <li>los dos movimientos asesinos del ply,</li>
+ *     <li>los movimientos tranquilos, según la tabla de historia,</li>
+ *     <li>las capturas que pierden material según {@link Intercambio}.</li>
+ * </ol>
+ * Cada etapa se genera sólo cuando se agota la anterior, así que en los
+ * nodos que se cortan con el primer movimiento no se llega a generar nada.
+ * Cuando sólo se piden capturas, como en la búsqueda de quietud, las
+ * capturas perdedoras se descartan directamente.
+ *
+ * La búsqueda reserva un selector por ply al empezar y los reutiliza: los
+ * movimientos y sus puntuaciones viven en arrays propios del selector.
+ */
+public class SelectorMovimientos {
+    private static final int ETAPA_TABLA = 0;
+    private static final int ETAPA_GENERAR_CAPTURAS = 1;
+    private static final int ETAPA_CAPTURAS = 2;
+    private static final int ETAPA_ASESINO_1 = 3;
+    private static final int ETAPA_ASESINO_2 = 4;
+    private static final int ETAPA_GENERAR_TRANQUILOS = 5;
+    private static final int ETAPA_TRANQUILOS = 6;
+    private static final int ETAPA_CAPTURAS_MALAS = 7;
+    private static final int ETAPA_FIN = 8;
+
+    private final int[] movimientos = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+    private final int[] puntuaciones = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+    private final int[] malas = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+    private final int[] auxiliar = new int[32];
+    private Posicion posicion;
+    private int[] historia;
+    private int movimientoTabla;
+    private int asesino1;
+    private int asesino2;
+    private boolean soloCapturas;
+    private int etapa;
+    private int actual;
+    private int total;
+    private int nMalas;
+    private int actualMalas;
+
+    /**
+     * Prepara el selector para un nuevo nodo.
+     *
+     * @param posicion Posición del nodo
+     * @param movimientoTabla Movimiento de la tabla de transposición, o Movimiento.NINGUNO
+     * @param asesino1 Primer movimiento asesino del ply, o Movimiento.NINGUNO
+     * @param asesino2 Segundo movimiento asesino del ply, o Movimiento.NINGUNO
+     * @param historia Tabla de historia indexada por {@link #indiceHistoria}, o null para no usarla
+     * @param soloCapturas true para entregar sólo capturas y promociones a dama
+     */
+    public void iniciar(Posicion posicion, int movimientoTabla, int asesino1, int asesino2,
+                        int[] historia, boolean soloCapturas) {
+        this.posicion = posicion;
+        this.movimientoTabla = movimientoTabla;
+        this.asesino1 = asesino1;
+        this.asesino2 = asesino2 != asesino1 ? asesino2 : Movimiento.NINGUNO;
+        this.historia = historia;
+        this.soloCapturas = soloCapturas;
+        this.etapa = ETAPA_TABLA;
+        this.actual = 0;
+        this.total = 0;
+        this.nMalas = 0;
+        this.actualMalas = 0;
+    }
+
+    /**
+     * @return Siguiente movimiento pseudo-legal, o Movimiento.NINGUNO si no quedan
+     */
+    public int siguiente() {
+        while (true) {
+            switch (etapa) {
+                case ETAPA_TABLA:
+                    etapa = ETAPA_GENERAR_CAPTURAS;
+                    if ((!soloCapturas || !Movimiento.esTranquilo(movimientoTabla))
+                            && GeneradorMovimientos.esPseudoLegal(posicion, movimientoTabla, auxiliar)) {
+                        return movimientoTabla;
+                    }
+                    movimientoTabla = Movimiento.NINGUNO;
+                    break;
+                case ETAPA_GENERAR_CAPTURAS:
+                    total = GeneradorMovimientos.generar(posicion, movimientos, 0, GeneradorMovimientos.CAPTURAS);
+                    actual = 0;
+                    for (int i = 0; i < total; i++) {
+                        puntuaciones[i] = mvvLva(movimientos[i]);
+                    }
+                    etapa = ETAPA_CAPTURAS;
+                    break;
+                case ETAPA_CAPTURAS:
+                    while (actual < total) {
+                        int movimiento = elegirMejor();
+                        if (movimiento == movimientoTabla) {
+                            continue;
+                        }
+                        if (pierdeMaterial(movimiento)) {
+                            malas[nMalas++] = movimiento;
+                            continue;
+                        }
+                        return movimiento;
+                    }
+                    etapa = soloCapturas ? ETAPA_FIN : ETAPA_ASESINO_1;
+                    break;
+                case ETAPA_ASESINO_1:
+                    etapa = ETAPA_ASESINO_2;
+                    if (esAsesinoValido(asesino1)) {
+                        return asesino1;
+                    }
+                    break;
+                case ETAPA_ASESINO_2:
+                    etapa = ETAPA_GENERAR_TRANQUILOS;
+                    if (esAsesinoValido(asesino2)) {
+                        return asesino2;
+                    }
+                    break;
+                case ETAPA_GENERAR_TRANQUILOS:
+                    total = GeneradorMovimientos.generar(posicion, movimientos, 0, GeneradorMovimientos.TRANQUILOS);
+                    actual = 0;
+                    int turno = posicion.getTurno();
+                    for (int i = 0; i < total; i++) {
+                        puntuaciones[i] = historia != null ? historia[indiceHistoria(turno, movimientos[i])] : 0;
+                    }
+                    etapa = ETAPA_TRANQUILOS;
+                    break;
+                case ETAPA_TRANQUILOS:
+                    while (actual < total) {
+                        int movimiento = elegirMejor();
+                        if (movimiento != movimientoTabla && movimiento != asesino1 && movimiento != asesino2) {
+                            return movimiento;
+                        }
+                    }
+                    etapa = ETAPA_CAPTURAS_MALAS;
+                    break;
+                case ETAPA_CAPTURAS_MALAS:
+                    if (actualMalas < nMalas) {
+                        return malas[actualMalas++];
+                    }
+                    etapa = ETAPA_FIN;
+                    break;
+                default:
+                    return Movimiento.NINGUNO;
+            }
+        }
+    }
+
+    /**
+     * @param turno Bando que mueve
+     * @param movimiento Movimiento codificado
+     * @return Índice del movimiento en una tabla de historia de 2 x 64 x 64 entradas
+     */
+    public static int indiceHistoria(int turno, int movimiento) {
+        return (turno << 12) | (Movimiento.origen(movimiento) << 6) | Movimiento.destino(movimiento);
+    }
+
+    /**
+     * Un asesino viene de otra rama del mismo ply: sólo se prueba si es un
+     * movimiento tranquilo posible aquí y no coincide con el de la tabla.
+     */
+    private boolean esAsesinoValido(int movimiento) {
+        return movimiento != Movimiento.NINGUNO && movimiento != movimientoTabla
+                && Movimiento.esTranquilo(movimiento)
+                && GeneradorMovimientos.esPseudoLegal(posicion, movimiento, auxiliar);
+    }
+
+    /**
+     * Selección parcial: lleva el movimiento de mayor puntuación a la posición
+     * actual. Es más barato que ordenar toda la lista cuando hay un corte pronto.
+     */
+    private int elegirMejor() {
+        int mejor = actual;
+        for (int i = actual + 1; i < total; i++) {
+            if (puntuaciones[i] > puntuaciones[mejor]) {
+                mejor = i;
+            }
+        }
+        int movimiento = movimientos[mejor];
+        movimientos[mejor] = movimientos[actual];
+        puntuaciones[mejor] = puntuaciones[actual];
+        movimientos[actual] = movimiento;
+        actual++;
+        return movimiento;
+    }
+
+    /**
+     * Sólo hace falta el SEE cuando el atacante vale más que la víctima: en
+     * otro caso la captura no puede perder material.
+     */
+    private boolean pierdeMaterial(int movimiento) {
+        if (Movimiento.promocion(movimiento) != Posicion.VACIO || Movimiento.esAlPaso(movimiento)) {
+            return false;
+        }
+        int atacante = Math.abs(posicion.pieza(Movimiento.origen(movimiento)));
+        int victima = Math.abs(posicion.pieza(Movimiento.destino(movimiento)));
+        if (atacante != Posicion.REY && Evaluacion.VALOR[atacante] <= Evaluacion.VALOR[victima]) {
+            return false;
+        }
+        return Intercambio.evaluar(posicion, movimiento, auxiliar) < 0;
+    }
+
+    private int mvvLva(int movimiento) {
+        int atacante = Math.abs(posicion.pieza(Movimiento.origen(movimiento)));
+        int victima = Movimiento.esAlPaso(movimiento) ? Posicion.PEON
+                : Math.abs(posicion.pieza(Movimiento.destino(movimiento)));
+        int puntuacion = Evaluacion.VALOR[victima] * 8 - atacante;
+        if (Movimiento.promocion(movimiento) != Posicion.VACIO) {
+            puntuacion += Evaluacion.VALOR[Movimiento.promocion(movimiento)] * 8;
+        }
+        return puntuacion;
+    }
+}
@@ -0,0 +1,163 @@
+package Motor;
+
+/**
+ * Estadísticas de un enfrentamiento entre dos motores: diferencia de Elo con
+ * su intervalo de confianza y test secuencial de razón de probabilidades
+ * (SPRT) entre las hipótesis H0: elo = elo0 y H1: elo = elo1.
+ *
+ * El logaritmo de la razón de verosimilitudes se calcula con la aproximación
+ * normal habitual sobre el modelo logístico de Elo, a partir de la media y la
+ * varianza de las puntuaciones de las partidas. Los resultados se cuentan
+ * desde el punto de vista del primer motor.
+ */
+public class Sprt {
+    /** Decisión del test en un momento dado */
+    public enum Veredicto {
+        CONTINUAR, ACEPTAR_H0, ACEPTAR_H1
+    }
+
+    /**
+     * Resultados ficticios que se suman a cada tipo (victoria, tablas, derrota)
+     * sólo cuando la varianza observada es nula, para que el LLR esté definido
+     */
+    private static final double PREVIA = 0.5;
+
+    private final double elo0;
+    private final double elo1;
+    private final double limiteInferior;
+    private final double limiteSuperior;
+    private int victorias;
+    private int tablas;
+    private int derrotas;
+
+    /**
+     * @param elo0 Diferencia de Elo de la hipótesis nula
+     * @param elo1 Diferencia de Elo de la hipótesis alternativa
+     * @param alfa Probabilidad de aceptar H1 siendo cierta H0
+     * @param beta Probabilidad de aceptar H0 siendo cierta H1
+     */
+    public Sprt(double elo0, double elo1, double alfa, double beta) {
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.limiteInferior = Math.log(beta / (1 - alfa));
+        this.limiteSuperior = Math.log((1 - beta) / alfa);
+    }
+
+    /**
+     * Anota el resultado de una partida.
+     * @param puntos 1 si ganó el primer motor, 0.5 en tablas y 0 si perdió
+     */
+    public synchronized void registrar(double puntos) {
+        if (puntos > 0.75) {
+            victorias++;
+        } else if (puntos < 0.25) {
+            derrotas++;
+        } else {
+            tablas++;
+        }
+    }
+
+    public synchronized int getVictorias() {
+        return victorias;
+    }
+
+    public synchronized int getTablas() {
+        return tablas;
+    }
+
+    public synchronized int getDerrotas() {
+        return derrotas;
+    }
+
+    public synchronized int getPartidas() {
+        return victorias + tablas + derrotas;
+    }
+
+    /**
+     * @return Diferencia de Elo estimada a partir de la puntuación media
+     */
+    public synchronized double elo() {
+        int n = getPartidas();
+        return n == 0 ? 0 : eloDesdePuntuacion(media());
+    }
+
+    /**
+     * @return Semiamplitud del intervalo de confianza del 95 % de la diferencia de Elo
+     */
+    public synchronized double margenElo() {
+        int n = getPartidas();
+        if (n == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double desviacion = Math.sqrt(varianza() / n);
+        double superior = eloDesdePuntuacion(media() + 1.96 * desviacion);
+        double inferior = eloDesdePuntuacion(media() - 1.96 * desviacion);
+        return (superior - inferior) / 2;
+    }
+
+    /**
+     * @return Logaritmo de la razón de verosimilitudes entre H1 y H0
+     */
+    public synchronized double llr() {
+        int n = getPartidas();
+        if (n == 0) {
+            return 0;
+        }
+        // La puntuación sale de los resultados reales; la previa sólo interviene
+        // cuando todos son iguales y la varianza observada sería nula
+        double media = media();
+        double varianza = varianza();
+        if (varianza <= 0) {
+            double w = victorias + PREVIA;
+            double d = tablas + PREVIA;
+            double l = derrotas + PREVIA;
+            varianza = (w * (1 - media) * (1 - media) + d * (0.5 - media) * (0.5 - media)
+                    + l * media * media) / (w + d + l);
+        }
+        double s0 = puntuacionDesdeElo(elo0);
+        double s1 = puntuacionDesdeElo(elo1);
+        return n * (s1 - s0) * (2 * media - s0 - s1) / (2 * varianza);
+    }
+
+    /**
+     * @return Decisión del test con los resultados anotados hasta ahora
+     */
+    public synchronized Veredicto veredicto() {
+        double llr = llr();
+        if (llr >= limiteSuperior) {
+            return Veredicto.ACEPTAR_H1;
+        }
+        if (llr <= limiteInferior) {
+            return Veredicto.ACEPTAR_H0;
+        }
+        return Veredicto.CONTINUAR;
+    }
+
+    public double getLimiteInferior() {
+        return limiteInferior;
+    }
+
+    public double getLimiteSuperior() {
+        return limiteSuperior;
+    }
+
+    private double media() {
+        return (victorias + 0.5 * tablas) / getPartidas();
+    }
+
+    private double varianza() {
+        int n = getPartidas();
+        double media = media();
+        return (victorias * (1 - media) * (1 - media) + tablas * (0.5 - media) * (0.5 - media)
+                + derrotas * media * media) / n;
+    }
+
+    private static double puntuacionDesdeElo(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double eloDesdePuntuacion(double puntuacion) {
+        double acotada = Math.max(1e-6, Math.min(1 - 1e-6, puntuacion));
+        return -400 * Math.log10(1 / acotada - 1);
+    }
+}
@@ -0,0 +1,198 @@
+package Motor;
+
+/**
+ * Caché de la evaluación de la estructura de peones: peones doblados,
+ * aislados y pasados. Esos términos sólo dependen de dónde están los peones,
+ * que cambian en pocos movimientos, así que se calculan una vez por
+ * estructura y se guardan indexados por la clave Zobrist de peones de
+ * {@link Posicion}.
+ *
+ * Cada entrada guarda, además de las puntuaciones, los peones y los peones
+ * pasados de cada bando como máscaras de 64 bits, que la evaluación usa para
+ * los términos que dependen también de otras piezas (escudo del rey, peones
+ * pasados bloqueados). Los datos viven en arrays paralelos de primitivos.
+ *
+ * No es segura entre hilos: cada buscador usa la suya.
+ */
+public class TablaPeones {
+    private static final int[] DOBLADO = {-10, -20};
+    private static final int[] AISLADO = {-10, -15};
+    /** Bonificación de un peón pasado según su fila relativa, de medio juego y de final */
+    private static final int[] PASADO_MEDIO_JUEGO = {0, 5, 10, 15, 25, 40, 60, 0};
+    private static final int[] PASADO_FINAL = {0, 10, 20, 35, 60, 90, 130, 0};
+
+    /** Casillas de cada columna */
+    private static final long[] COLUMNA = new long[8];
+    /** Casillas de las columnas vecinas */
+    private static final long[] ADYACENTES = new long[8];
+    /** Casillas por delante de un peón, en su columna y las vecinas, que un peón rival ocuparía para frenarlo */
+    private static final long[][] FRENTE = new long[2][64];
+
+    static {
+        for (int columna = 0; columna < 8; columna++) {
+            for (int fila = 0; fila < 8; fila++) {
+                COLUMNA[columna] |= 1L << (fila * 8 + columna);
+            }
+        }
+        for (int columna = 0; columna < 8; columna++) {
+            ADYACENTES[columna] = (columna > 0 ? COLUMNA[columna - 1] : 0) | (columna < 7 ? COLUMNA[columna + 1] : 0);
+        }
+        for (int casilla = 0; casilla < 64; casilla++) {
+            long columnas = COLUMNA[casilla % 8] | ADYACENTES[casilla % 8];
+            int fila = casilla / 8;
+            long encima = fila < 7 ? -1L << ((fila + 1) * 8) : 0;
+            long debajo = fila > 0 ? -1L >>> ((8 - fila) * 8) : 0;
+            FRENTE[Posicion.BLANCAS][casilla] = columnas & encima;
+            FRENTE[Posicion.NEGRAS][casilla] = columnas & debajo;
+        }
+    }
+
+    private final long[] claves;
+    private final int[] medioJuego;
+    private final int[] finalJuego;
+    /** Dos máscaras por entrada, una por bando */
+    private final long[] peones;
+    private final long[] pasados;
+    private final int mascara;
+    private final boolean usarCache;
+    private long sondeos;
+    private long aciertos;
+
+    /**
+     * @param bitsIndice Logaritmo en base 2 del número de entradas
+     */
+    public TablaPeones(int bitsIndice) {
+        this(bitsIndice, true);
+    }
+
+    private TablaPeones(int bitsIndice, boolean usarCache) {
+        this.usarCache = usarCache;
+        int entradas = 1 << bitsIndice;
+        mascara = entradas - 1;
+        claves = new long[entradas];
+        medioJuego = new int[entradas];
+        finalJuego = new int[entradas];
+        peones = new long[entradas * 2];
+        pasados = new long[entradas * 2];
+        // La clave 0 corresponde a no tener peones, cuya entrada correcta es toda a cero
+    }
+
+    /**
+     * @return Tabla de una entrada que recalcula la estructura en cada consulta,
+     *         para evaluar fuera de la búsqueda o medir el coste sin caché
+     */
+    public static TablaPeones sinCache() {
+        return new TablaPeones(0, false);
+    }
+
+    /**
+     * Busca la estructura de peones de la posición y la calcula si no está.
+     * @param posicion Posición a evaluar
+     * @return Índice de la entrada, para consultarla con los métodos get
+     */
+    public int sondear(Posicion posicion) {
+        long clave = posicion.getClavePeones();
+        int indice = (int) clave & mascara;
+        sondeos++;
+        if (usarCache && claves[indice] == clave) {
+            aciertos++;
+            return indice;
+        }
+        calcular(posicion, indice);
+        return indice;
+    }
+
+    public int getMedioJuego(int indice) {
+        return medioJuego[indice];
+    }
+
+    public int getFinal(int indice) {
+        return finalJuego[indice];
+    }
+
+    /**
+     * @return Máscara de las casillas con peones del bando
+     */
+    public long getPeones(int indice, int bando) {
+        return peones[indice * 2 + bando];
+    }
+
+    /**
+     * @return Máscara de las casillas con peones pasados del bando
+     */
+    public long getPasados(int indice, int bando) {
+        return pasados[indice * 2 + bando];
+    }
+
+    /**
+     * @param filaRelativa Fila del peón contada desde su propio lado, de 0 a 7
+     * @return Bonificación de final de un peón pasado en esa fila
+     */
+    public static int bonificacionPasado(int filaRelativa) {
+        return PASADO_FINAL[filaRelativa];
+    }
+
+    /**
+     * @return Fracción de consultas resueltas con la caché, entre 0 y 1
+     */
+    public double getTasaAciertos() {
+        return sondeos == 0 ? 0 : (double) aciertos / sondeos;
+    }
+
+    public long getSondeos() {
+        return sondeos;
+    }
+
+    public long getAciertos() {
+        return aciertos;
+    }
+
+    private void calcular(Posicion posicion, int indice) {
+        long[] propios = new long[2];
+        long[] pasadosBando = new long[2];
+        for (int casilla = 0; casilla < 64; casilla++) {
+            int pieza = posicion.pieza(casilla);
+            if (pieza == Posicion.PEON) {
+                propios[Posicion.BLANCAS] |= 1L << casilla;
+            } else if (pieza == -Posicion.PEON) {
+                propios[Posicion.NEGRAS] |= 1L << casilla;
+            }
+        }
+
+        int medio = 0;
+        int fin = 0;
+        for (int bando = Posicion.BLANCAS; bando <= Posicion.NEGRAS; bando++) {
+            int signo = bando == Posicion.BLANCAS ? 1 : -1;
+            long mios = propios[bando];
+            long rivales = propios[bando ^ 1];
+            for (int columna = 0; columna < 8; columna++) {
+                int enColumna = Long.bitCount(mios & COLUMNA[columna]);
+                if (enColumna > 1) {
+                    medio += signo * DOBLADO[0] * (enColumna - 1);
+                    fin += signo * DOBLADO[1] * (enColumna - 1);
+                }
+                if (enColumna > 0 && (mios & ADYACENTES[columna]) == 0) {
+                    medio += signo * AISLADO[0] * enColumna;
+                    fin += signo * AISLADO[1] * enColumna;
+                }
+            }
+            for (long resto = mios; resto != 0; resto &= resto - 1) {
+                int casilla = Long.numberOfTrailingZeros(resto);
+                if ((FRENTE[bando][casilla] & rivales) == 0) {
+                    pasadosBando[bando] |= 1L << casilla;
+                    int filaRelativa = bando == Posicion.BLANCAS ? casilla / 8 : 7 - casilla / 8;
+                    medio += signo * PASADO_MEDIO_JUEGO[filaRelativa];
+                    fin += signo * PASADO_FINAL[filaRelativa];
+                }
+            }
+        }
+
+        claves[indice] = posicion.getClavePeones();
+        medioJuego[indice] = medio;
+        finalJuego[indice] = fin;
+        peones[indice * 2] = propios[Posicion.BLANCAS];
+        peones[indice * 2 + 1] = propios[Posicion.NEGRAS];
+        pasados[indice * 2] = pasadosBando[Posicion.BLANCAS];
+        pasados[indice * 2 + 1] = pasadosBando[Posicion.NEGRAS];
+    }
+}
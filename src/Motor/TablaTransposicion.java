@@ -0,0 +1,105 @@
+package Motor;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de transposición compartida entre los hilos de búsqueda.
+ * Cada entrada ocupa dos long en arrays paralelos: la clave, guardada como
+ * clave XOR datos, y los datos empaquetados. Si dos hilos escriben a la vez
+ * la misma entrada, la comprobación de la clave descarta la mezcla, por lo
+ * que no hacen falta bloqueos.
+ */
+public class TablaTransposicion {
+    /** La puntuación es exacta */
+    public static final int EXACTA = 0;
+    /** La puntuación es una cota inferior (hubo corte beta) */
+    public static final int INFERIOR = 1;
+    /** La puntuación es una cota superior (ningún movimiento superó alfa) */
+    public static final int SUPERIOR = 2;
+
+    private static final long VALIDA = 1L << 63;
+    private static final int BYTES_POR_ENTRADA = 16;
+
+    private long[] claves;
+    private long[] datos;
+    private int mascara;
+
+    /**
+     * @param megabytes Tamaño aproximado de la tabla
+     */
+    public TablaTransposicion(int megabytes) {
+        redimensionar(megabytes);
+    }
+
+    /**
+     * Cambia el tamaño de la tabla, descartando su contenido.
+     * @param megabytes Nuevo tamaño aproximado; se redondea a una potencia de dos de entradas
+     */
+    public void redimensionar(int megabytes) {
+        long entradas = Math.max(1024, (long) megabytes * 1024 * 1024 / BYTES_POR_ENTRADA);
+        int potencia = Integer.highestOneBit((int) Math.min(entradas, 1 << 30));
+        claves = new long[potencia];
+        datos = new long[potencia];
+        mascara = potencia - 1;
+    }
+
+    /**
+     * Vacía la tabla.
+     */
+    public void limpiar() {
+        Arrays.fill(claves, 0);
+        Arrays.fill(datos, 0);
+    }
+
+    /**
+     * @param clave Clave Zobrist de la posición
+     * @return Datos empaquetados de la entrada, o 0 si no hay entrada para la clave
+     */
+    public long sondear(long clave) {
+        int i = (int) clave & mascara;
+        long d = datos[i];
+        return (claves[i] ^ d) == clave ? d : 0;
+    }
+
+    /**
+     * Guarda el resultado de buscar una posición.
+     * @param clave Clave Zobrist de la posición
+     * @param movimiento Mejor movimiento encontrado, o Movimiento.NINGUNO
+     * @param puntuacion Puntuación ya ajustada para no depender del ply
+     * @param profundidad Profundidad de la búsqueda
+     * @param tipo EXACTA, INFERIOR o SUPERIOR
+     */
+    public void guardar(long clave, int movimiento, int puntuacion, int profundidad, int tipo) {
+        int i = (int) clave & mascara;
+        long anterior = datos[i];
+        if ((claves[i] ^ anterior) == clave && profundidad(anterior) > profundidad && tipo != EXACTA) {
+            return;
+        }
+        if (movimiento == Movimiento.NINGUNO && (claves[i] ^ anterior) == clave) {
+            movimiento = movimiento(anterior);
+        }
+        long d = VALIDA
+                | (movimiento & 0xFFFFFL)
+                | ((long) (puntuacion + 32768) & 0xFFFF) << 20
+                | ((long) Math.max(0, Math.min(255, profundidad))) << 36
+                | ((long) tipo) << 44;
+        datos[i] = d;
+        claves[i] = clave ^ d;
+    }
+
+    public static int movimiento(long datos) {
+        return (int) (datos & 0xFFFFF);
+    }
+
+    public static int puntuacion(long datos) {
+        return (int) ((datos >>> 20) & 0xFFFF) - 32768;
+    }
+
+    public static int profundidad(long datos) {
+        return (int) ((datos >>> 36) & 0xFF);
+    }
+
+    public static int tipo(long datos) {
+        return (int) ((datos >>> 44) & 3);
+    }
+}
@@ -0,0 +1,263 @@
+package Motor;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Enfrenta dos configuraciones del motor en partidas rápidas jugadas en
+ * paralelo, una por hilo del pool. Cada apertura del libro se juega dos
+ * veces, una con cada motor llevando las blancas, para compensar la ventaja
+ * de la posición.
+ *
+ * Las partidas las termina el {@link Arbitro} (mate, ahogado, repeticiones,
+ * regla de los 50 movimientos o material insuficiente) o, si se alargan
+ * demasiado, se adjudican como tablas. Cada partida terminada se escribe
+ * enseguida en el PGN de salida y se suma al {@link Sprt}; cuando el test
+ * llega a una decisión no se empiezan más partidas.
+ */
+public class Torneo {
+    /** Medios movimientos tras los que una partida se adjudica como tablas */
+    private static final int MAX_PLIES = 400;
+
+    private final ConfiguracionMotor motorA;
+    private final ConfiguracionMotor motorB;
+    private final List<String> aperturas;
+    private final Sprt sprt;
+    private int partidas = 100;
+    private int hilos = Runtime.getRuntime().availableProcessors();
+    private Writer salidaPgn;
+    private EscritorPgn escritorPgn;
+    private PrintStream informe = System.out;
+    private boolean pararConVeredicto = true;
+
+    private final AtomicBoolean detenido = new AtomicBoolean();
+    private final AtomicInteger terminadas = new AtomicInteger();
+    /** Tablas de transposición de cada hilo del pool, reutilizadas entre partidas */
+    private final ThreadLocal<TablaTransposicion[]> tablas;
+    /** Tablas de peones de cada hilo del pool, una por motor */
+    private final ThreadLocal<TablaPeones[]> tablasPeones = ThreadLocal.withInitial(() -> new TablaPeones[]{
+            new TablaPeones(Buscador.TAMANO_TABLA_PEONES), new TablaPeones(Buscador.TAMANO_TABLA_PEONES)});
+
+    /**
+     * @param motorA Primer motor; los resultados se cuentan desde su punto de vista
+     * @param motorB Segundo motor
+     * @param aperturas Posiciones iniciales en FEN
+     * @param sprt Test estadístico que acumula los resultados
+     */
+    public Torneo(ConfiguracionMotor motorA, ConfiguracionMotor motorB, List<String> aperturas, Sprt sprt) {
+        if (aperturas.isEmpty()) {
+            throw new IllegalArgumentException("el libro de aperturas está vacío");
+        }
+        this.motorA = motorA;
+        this.motorB = motorB;
+        this.aperturas = aperturas;
+        this.sprt = sprt;
+        this.tablas = ThreadLocal.withInitial(() -> new TablaTransposicion[]{
+                new TablaTransposicion(motorA.getHashMb()), new TablaTransposicion(motorB.getHashMb())});
+    }
+
+    /**
+     * Lee un libro de aperturas. En los archivos .epd cada línea es una
+     * posición; en los PGN se toma la posición tras los primeros medios
+     * movimientos de cada partida.
+     *
+     * @param archivo Archivo .epd o .pgn
+     * @param plies Medios movimientos que se juegan de cada partida PGN
+     * @return Lista de posiciones en FEN
+     * @throws IOException Si no se puede leer el archivo
+     */
+    public static List<String> cargarAperturas(String archivo, int plies) throws IOException {
+        List<String> aperturas = new ArrayList<>();
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(
+                new FileInputStream(archivo), StandardCharsets.UTF_8))) {
+            if (archivo.toLowerCase().endsWith(".epd")) {
+                String linea;
+                while ((linea = lector.readLine()) != null) {
+                    String[] campos = linea.trim().split("\\s+");
+                    if (campos.length < 4) {
+                        continue;
+                    }
+                    String fen = campos[0] + " " + campos[1] + " " + campos[2] + " " + campos[3] + " 0 1";
+                    aperturas.add(Posicion.desdeFen(fen).aFen());
+                }
+                return aperturas;
+            }
+
+            LectorPgn lectorPgn = new LectorPgn(lector);
+            PartidaPgn partida;
+            while ((partida = lectorPgn.siguiente()) != null) {
+                Posicion posicion = partida.posicionInicial();
+                List<String> movimientos = partida.getMovimientos();
+                for (int i = 0; i < Math.min(plies, movimientos.size()); i++) {
+                    int movimiento = Notacion.desdeSan(posicion, movimientos.get(i));
+                    if (movimiento == Movimiento.NINGUNO) {
+                        break;
+                    }
+                    posicion.hacerMovimiento(movimiento);
+                }
+                aperturas.add(posicion.aFen());
+            }
+        }
+        return aperturas;
+    }
+
+    /**
+     * Juega el torneo y espera a que terminen todas las partidas.
+     * @throws InterruptedException Si se interrumpe la espera
+     */
+    public void ejecutar() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "Torneo");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        informe.printf("%s contra %s: %d partidas en %d hilos, %d aperturas%n",
+                motorA.getNombre(), motorB.getNombre(), partidas, hilos, aperturas.size());
+        for (int i = 0; i < partidas; i++) {
+            int ronda = i + 1;
+            String fen = aperturas.get((i / 2) % aperturas.size());
+            boolean aConBlancas = i % 2 == 0;
+            pool.execute(() -> {
+                if (!detenido.get()) {
+                    jugar(ronda, fen, aConBlancas);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        mostrarResumen();
+    }
+
+    /**
+     * Juega una partida completa y anota su resultado.
+     */
+    private void jugar(int ronda, String fen, boolean aConBlancas) {
+        TablaTransposicion[] propias = tablas.get();
+        TablaPeones[] peones = tablasPeones.get();
+        propias[0].limpiar();
+        propias[1].limpiar();
+
+        Posicion posicion = Posicion.desdeFen(fen);
+        PartidaPgn partida = new PartidaPgn();
+        ConfiguracionMotor blancas = aConBlancas ? motorA : motorB;
+        ConfiguracionMotor negras = aConBlancas ? motorB : motorA;
+        partida.setEtiqueta("Event", "Torneo " + motorA.getNombre() + " - " + motorB.getNombre());
+        partida.setEtiqueta("Site", "local");
+        partida.setEtiqueta("Date", LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy.MM.dd")));
+        partida.setEtiqueta("Round", String.valueOf(ronda));
+        partida.setEtiqueta("White", blancas.getNombre());
+        partida.setEtiqueta("Black", negras.getNombre());
+        partida.setEtiqueta("Result", "*");
+        if (!fen.equals(Posicion.FEN_INICIAL)) {
+            partida.setEtiqueta("SetUp", "1");
+            partida.setEtiqueta("FEN", fen);
+        }
+
+        Arbitro arbitro = new Arbitro();
+        EstadoPartida estado = arbitro.registrar(posicion, GeneradorMovimientos.legales(posicion).length);
+        int plies = 0;
+        while (!estado.esFinal() && plies < MAX_PLIES && !detenido.get()) {
+            boolean mueveA = (posicion.getTurno() == Posicion.BLANCAS) == aConBlancas;
+            ConfiguracionMotor motor = mueveA ? motorA : motorB;
+            TablaTransposicion tabla = propias[mueveA ? 0 : 1];
+            LimitesBusqueda limites = motor.getLimites();
+            ResultadoBusqueda resultado = new Buscador(posicion, tabla, motor.getOpciones(), peones[mueveA ? 0 : 1])
+                    .buscar(limites, new ControlTiempo(limites, posicion.getTurno()));
+            int movimiento = resultado.getMejorMovimiento();
+            partida.getMovimientos().add(Notacion.aSan(posicion, movimiento));
+            posicion.hacerMovimiento(movimiento);
+            plies++;
+            estado = arbitro.registrar(posicion, GeneradorMovimientos.legales(posicion).length);
+        }
+        if (!estado.esFinal() && plies < MAX_PLIES) {
+            // El torneo se detuvo a mitad de partida: no cuenta
+            return;
+        }
+
+        String resultado = estado.esFinal() ? estado.resultadoPgn(posicion.getTurno()) : "1/2-1/2";
+        partida.setResultado(resultado);
+        partida.setEtiqueta("Result", resultado);
+        partida.setEtiqueta("Termination", estado.esFinal() ? "normal" : "adjudication");
+        double puntosBlancas = resultado.equals("1-0") ? 1 : resultado.equals("0-1") ? 0 : 0.5;
+        registrar(partida, aConBlancas ? puntosBlancas : 1 - puntosBlancas,
+                estado.esFinal() ? estado.getDescripcion() : "adjudicada por longitud");
+    }
+
+    /**
+     * Escribe la partida, actualiza las estadísticas y muestra el progreso.
+     * Se sincroniza para que el PGN y el informe no mezclen partidas.
+     */
+    private synchronized void registrar(PartidaPgn partida, double puntosA, String motivo) {
+        if (escritorPgn != null) {
+            try {
+                escritorPgn.escribir(partida);
+                salidaPgn.flush();
+            } catch (IOException e) {
+                informe.println("No se pudo escribir la partida " + partida.getEtiqueta("Round")
+                        + ": " + e.getMessage());
+            }
+        }
+        sprt.registrar(puntosA);
+        Sprt.Veredicto veredicto = sprt.veredicto();
+        informe.printf("Partida %d/%d (ronda %s, %s, %s): +%d =%d -%d  Elo %+.1f ± %.1f  LLR %.2f [%.2f, %.2f]%n",
+                terminadas.incrementAndGet(), partidas, partida.getEtiqueta("Round"),
+                partida.getResultado(), motivo, sprt.getVictorias(), sprt.getTablas(), sprt.getDerrotas(),
+                sprt.elo(), sprt.margenElo(), sprt.llr(), sprt.getLimiteInferior(), sprt.getLimiteSuperior());
+        if (veredicto != Sprt.Veredicto.CONTINUAR && pararConVeredicto) {
+            detenido.set(true);
+        }
+    }
+
+    private void mostrarResumen() {
+        informe.println();
+        informe.printf("%s contra %s: +%d =%d -%d en %d partidas%n", motorA.getNombre(), motorB.getNombre(),
+                sprt.getVictorias(), sprt.getTablas(), sprt.getDerrotas(), sprt.getPartidas());
+        informe.printf("Elo: %+.1f ± %.1f (95 %%)%n", sprt.elo(), sprt.margenElo());
+        switch (sprt.veredicto()) {
+            case ACEPTAR_H1:
+                informe.printf("SPRT: se acepta H1 (LLR %.2f)%n", sprt.llr());
+                break;
+            case ACEPTAR_H0:
+                informe.printf("SPRT: se acepta H0 (LLR %.2f)%n", sprt.llr());
+                break;
+            default:
+                informe.printf("SPRT: sin decisión (LLR %.2f)%n", sprt.llr());
+        }
+    }
+
+    public void setPartidas(int partidas) {
+        this.partidas = partidas;
+    }
+
+    public void setHilos(int hilos) {
+        this.hilos = Math.max(1, hilos);
+    }
+
+    /**
+     * @param salidaPgn Destino de las partidas terminadas, o null para no guardarlas
+     */
+    public void setSalidaPgn(Writer salidaPgn) {
+        this.salidaPgn = salidaPgn;
+        this.escritorPgn = salidaPgn != null ? new EscritorPgn(salidaPgn) : null;
+    }
+
+    public void setInforme(PrintStream informe) {
+        this.informe = informe;
+    }
+
+    /**
+     * @param pararConVeredicto true para no empezar más partidas cuando el SPRT llegue a una decisión
+     */
+    public void setPararConVeredicto(boolean pararConVeredicto) {
+        this.pararConVeredicto = pararConVeredicto;
+    }
+}
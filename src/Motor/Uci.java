@@ -0,0 +1,246 @@
+package Motor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Adaptador del protocolo UCI sobre la entrada y salida estándar.
+ * Los comandos se leen en el hilo que llama a {@link #ejecutar()} mientras
+ * la búsqueda corre en sus propios hilos, de modo que "stop" y "ponderhit"
+ * se atienden de inmediato aunque haya una búsqueda en curso.
+ */
+public class Uci {
+    private static final String NOMBRE = "FinalAjedrez";
+    private static final int HASH_POR_DEFECTO = 16;
+    private static final int HASH_MAXIMO = 4096;
+    private static final int HILOS_MAXIMO = 256;
+    private static final int LINEAS_MAXIMO = 64;
+
+    private final BufferedReader entrada;
+    private final PrintStream salida;
+    private final GestorBusqueda gestor;
+    private Posicion posicion;
+    /** Si se envían las estadísticas de la búsqueda tras cada iteración (opción SearchStats) */
+    private volatile boolean estadisticas;
+
+    /**
+     * @param entrada Origen de los comandos
+     * @param salida Destino de las respuestas
+     */
+    public Uci(BufferedReader entrada, PrintStream salida) {
+        this.entrada = entrada;
+        this.salida = salida;
+        this.gestor = new GestorBusqueda(HASH_POR_DEFECTO);
+        this.posicion = Posicion.inicial();
+    }
+
+    /**
+     * Procesa comandos hasta recibir "quit" o el fin de la entrada.
+     * @throws IOException si falla la lectura de la entrada
+     */
+    public void ejecutar() throws IOException {
+        String linea;
+        while ((linea = entrada.readLine()) != null) {
+            String[] partes = linea.trim().split("\\s+");
+            if (partes[0].isEmpty()) {
+                continue;
+            }
+            switch (partes[0]) {
+                case "uci":
+                    enviar("id name " + NOMBRE);
+                    enviar("id author FinalAjedrez");
+                    enviar("option name Hash type spin default " + HASH_POR_DEFECTO + " min 1 max " + HASH_MAXIMO);
+                    enviar("option name Threads type spin default 1 min 1 max " + HILOS_MAXIMO);
+                    enviar("option name Ponder type check default false");
+                    enviar("option name MultiPV type spin default 1 min 1 max " + LINEAS_MAXIMO);
+                    enviar("option name SearchStats type check default false");
+                    OpcionesBusqueda porDefecto = new OpcionesBusqueda();
+                    for (String opcion : OpcionesBusqueda.NOMBRES) {
+                        enviar("option name " + opcion + " type check default " + porDefecto.consultar(opcion));
+                    }
+                    enviar("uciok");
+                    break;
+                case "isready":
+                    enviar("readyok");
+                    break;
+                case "ucinewgame":
+                    gestor.nuevaPartida();
+                    posicion = Posicion.inicial();
+                    break;
+                case "setoption":
+                    establecerOpcion(linea);
+                    break;
+                case "position":
+                    gestor.detenerYEsperar();
+                    establecerPosicion(partes);
+                    break;
+                case "go":
+                    iniciarBusqueda(partes);
+                    break;
+                case "stop":
+                    gestor.detener();
+                    break;
+                case "ponderhit":
+                    gestor.ponderhit();
+                    break;
+                case "quit":
+                    gestor.detenerYEsperar();
+                    return;
+                default:
+                    // Los comandos desconocidos se ignoran, como indica el protocolo
+                    break;
+            }
+        }
+        gestor.detenerYEsperar();
+    }
+
+    private void establecerOpcion(String linea) {
+        String[] partes = linea.trim().split("\\s+");
+        String nombre = null;
+        String valor = null;
+        for (int i = 1; i < partes.length - 1; i++) {
+            if (partes[i].equals("name")) {
+                nombre = partes[i + 1];
+            } else if (partes[i].equals("value")) {
+                valor = partes[i + 1];
+            }
+        }
+        if (nombre == null || valor == null) {
+            return;
+        }
+        try {
+            switch (nombre.toLowerCase()) {
+                case "hash":
+                    gestor.setHash(Math.max(1, Math.min(HASH_MAXIMO, Integer.parseInt(valor))));
+                    break;
+                case "threads":
+                    gestor.setHilos(Math.max(1, Math.min(HILOS_MAXIMO, Integer.parseInt(valor))));
+                    break;
+                case "multipv":
+                    gestor.setLineas(Math.max(1, Math.min(LINEAS_MAXIMO, Integer.parseInt(valor))));
+                    break;
+                case "searchstats":
+                    estadisticas = Boolean.parseBoolean(valor);
+                    break;
+                default:
+                    gestor.establecerOpcion(nombre, valor);
+                    break;
+            }
+        } catch (IllegalArgumentException e) {
+            enviar("info string valor no válido para " + nombre + ": " + valor);
+        }
+    }
+
+    private void establecerPosicion(String[] partes) {
+        int i = 1;
+        Posicion nueva;
+        if (partes.length > 1 && partes[1].equals("fen")) {
+            StringBuilder fen = new StringBuilder();
+            for (i = 2; i < partes.length && !partes[i].equals("moves"); i++) {
+                fen.append(partes[i]).append(' ');
+            }
+            try {
+                nueva = Posicion.desdeFen(fen.toString());
+            } catch (IllegalArgumentException e) {
+                enviar("info string " + e.getMessage());
+                return;
+            }
+        } else {
+            nueva = Posicion.inicial();
+            i = 2;
+        }
+
+        if (i < partes.length && partes[i].equals("moves")) {
+            for (i++; i < partes.length; i++) {
+                int movimiento = Notacion.desdeUci(GeneradorMovimientos.legales(nueva), partes[i]);
+                if (movimiento == Movimiento.NINGUNO) {
+                    enviar("info string movimiento ilegal " + partes[i]);
+                    break;
+                }
+                nueva.hacerMovimiento(movimiento);
+            }
+        }
+        posicion = nueva;
+    }
+
+    private void iniciarBusqueda(String[] partes) {
+        LimitesBusqueda limites = new LimitesBusqueda();
+        for (int i = 1; i < partes.length; i++) {
+            String clave = partes[i];
+            String valor = i + 1 < partes.length ? partes[i + 1] : "0";
+            try {
+                switch (clave) {
+                    case "depth": limites.setProfundidad(Integer.parseInt(valor)); i++; break;
+                    case "nodes": limites.setNodos(Long.parseLong(valor)); i++; break;
+                    case "movetime": limites.setTiempoMovimiento(Long.parseLong(valor)); i++; break;
+                    case "wtime": limites.setTiempoRestante(Posicion.BLANCAS, Long.parseLong(valor)); i++; break;
+                    case "btime": limites.setTiempoRestante(Posicion.NEGRAS, Long.parseLong(valor)); i++; break;
+                    case "winc": limites.setIncremento(Posicion.BLANCAS, Long.parseLong(valor)); i++; break;
+                    case "binc": limites.setIncremento(Posicion.NEGRAS, Long.parseLong(valor)); i++; break;
+                    case "movestogo": limites.setMovimientosHastaControl(Integer.parseInt(valor)); i++; break;
+                    case "infinite": limites.setInfinito(true); break;
+                    case "ponder": limites.setPonder(true); break;
+                    default: break;
+                }
+            } catch (NumberFormatException e) {
+                enviar("info string valor no válido para " + clave + ": " + valor);
+            }
+        }
+        gestor.iniciar(posicion, limites, this::enviarInfo, this::enviarMejorMovimiento);
+    }
+
+    private void enviarInfo(ResultadoBusqueda resultado) {
+        // Los nodos son los de todos los hilos, como esperan las interfaces
+        long nodos = Math.max(resultado.getNodos(), resultado.getEstadisticas().getNodos());
+        long tiempo = Math.max(1, resultado.getTiempoMs());
+        List<ResultadoBusqueda> lineas = resultado.getLineas();
+        for (int i = 0; i < lineas.size(); i++) {
+            ResultadoBusqueda linea = lineas.get(i);
+            StringBuilder info = new StringBuilder("info depth ").append(resultado.getProfundidad());
+            // Sin MultiPV se omite el índice, como hacen los demás motores
+            if (lineas.size() > 1) {
+                info.append(" multipv ").append(i + 1);
+            }
+            if (linea.esMate()) {
+                int ply = linea.getMateEnPly();
+                info.append(" score mate ").append(ply > 0 ? (ply + 1) / 2 : -((-ply + 1) / 2));
+            } else {
+                info.append(" score cp ").append(linea.getPuntuacion());
+            }
+            info.append(" nodes ").append(nodos)
+                    .append(" nps ").append(nodos * 1000 / tiempo)
+                    .append(" time ").append(resultado.getTiempoMs())
+                    .append(" pv");
+            for (int movimiento : linea.getVariantePrincipal()) {
+                info.append(' ').append(Movimiento.aUci(movimiento));
+            }
+            enviar(info.toString());
+        }
+        if (estadisticas) {
+            resultado.getEstadisticas().aLineasUci().forEach(this::enviar);
+        }
+    }
+
+    private void enviarMejorMovimiento(ResultadoBusqueda resultado) {
+        int[] variante = resultado.getVariantePrincipal();
+        String respuesta = "bestmove " + Movimiento.aUci(resultado.getMejorMovimiento());
+        if (variante.length > 1) {
+            respuesta += " ponder " + Movimiento.aUci(variante[1]);
+        }
+        if (estadisticas) {
+            enviar(String.format(Locale.ROOT, "info string pawn hash hit rate %.1f%%",
+                    gestor.getTasaAciertosPeones() * 100));
+        }
+        enviar(respuesta);
+    }
+
+    private void enviar(String linea) {
+        synchronized (salida) {
+            salida.println(linea);
+            salida.flush();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package Motor;
+
+/**
+ * Claves aleatorias para el hashing Zobrist de las posiciones.
+ * Se generan con una semilla fija para que las claves sean las mismas
+ * en todas las ejecuciones.
+ */
+public final class Zobrist {
+    /** Clave de cada pieza (índice de {@link #indicePieza}) en cada casilla */
+    public static final long[][] PIEZAS = new long[12][64];
+    /** Clave de cada combinación de derechos de enroque */
+    public static final long[] ENROQUES = new long[16];
+    /** Clave de la columna de la casilla de captura al paso */
+    public static final long[] AL_PASO = new long[8];
+    /** Clave que se aplica cuando mueven las negras */
+    public static final long TURNO;
+
+    private static long semilla = 0x9E3779B97F4A7C15L;
+
+    static {
+        for (int p = 0; p < 12; p++) {
+            for (int c = 0; c < 64; c++) {
+                PIEZAS[p][c] = siguiente();
+            }
+        }
+        for (int i = 0; i < 16; i++) {
+            ENROQUES[i] = siguiente();
+        }
+        for (int i = 0; i < 8; i++) {
+            AL_PASO[i] = siguiente();
+        }
+        TURNO = siguiente();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param pieza Pieza con signo (positiva blanca, negativa negra)
+     * @return Índice 0-11 de la pieza en {@link #PIEZAS}
+     */
+    public static int indicePieza(int pieza) {
+        return pieza > 0 ? pieza - 1 : 5 - pieza;
+    }
+
+    /** Generador xorshift64*, suficiente para claves de hashing */
+    private static long siguiente() {
+        semilla ^= semilla >>> 12;
+        semilla ^= semilla << 25;
+        semilla ^= semilla >>> 27;
+        return semilla * 0x2545F4914F6CDD1DL;
+    }
+}
@@ -0,0 +1,151 @@
+package Servidor;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+/**
+ * Cliente del {@link ServidorPartidas}. Envía las peticiones del jugador y
+ * lee las respuestas en un hilo propio, que las notifica como propiedades:
+ * "PARTIDA_INICIADA", "MOVIMIENTO_RED", "FIN_PARTIDA_RED", "DIFUSION_RED" y "ERROR_RED" con
+ * el {@link Mensaje} como nuevo valor, y "DESCONECTADO" al cerrarse la
+ * conexión. Los oyentes se llaman desde el hilo lector, no desde el de Swing.
+ */
+public class ClienteRed implements AutoCloseable {
+    private final Socket socket;
+    private final OutputStream salida;
+    private final DataInputStream entrada;
+    private final PropertyChangeSupport soporte = new PropertyChangeSupport(this);
+    private final Thread lector;
+
+    /**
+     * Conecta con el servidor. La lectura de mensajes no empieza hasta
+     * {@link #iniciar()}, para poder registrar antes los oyentes.
+     * @param host Nombre o dirección del servidor
+     * @param puerto Puerto del servidor
+     * @throws IOException Si no se puede conectar
+     */
+    public ClienteRed(String host, int puerto) throws IOException {
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(host, puerto), 5000);
+        salida = socket.getOutputStream();
+        entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        lector = new Thread(this::leer, "cliente-red");
+        lector.setDaemon(true);
+    }
+
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        soporte.addPropertyChangeListener(listener);
+    }
+
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        soporte.removePropertyChangeListener(listener);
+    }
+
+    /**
+     * Empieza a leer los mensajes del servidor.
+     */
+    public void iniciar() {
+        lector.start();
+    }
+
+    /**
+     * Pide una partida; el servidor la empieza cuando otro jugador pide el mismo control de tiempo.
+     * @param tiempoInicial Tiempo de cada jugador en milisegundos, 0 para jugar sin reloj
+     * @param incremento Incremento Fischer por jugada en milisegundos
+     * @param nombre Nombre del jugador
+     */
+    public void buscarPartida(int tiempoInicial, int incremento, String nombre) throws IOException {
+        enviar(Protocolo.buscarPartida(tiempoInicial, incremento, nombre));
+    }
+
+    /**
+     * Propone un movimiento. Sólo cuenta cuando el servidor lo confirma con "MOVIMIENTO_RED".
+     * @param partida Identificador de la partida
+     * @param origen Casilla de origen
+     * @param destino Casilla de destino
+     * @param promocion Pieza de promoción, o Posicion.VACIO
+     */
+    public void mover(long partida, int origen, int destino, int promocion) throws IOException {
+        enviar(Protocolo.mover(partida, Protocolo.empaquetar(origen, destino, promocion)));
+    }
+
+    /**
+     * @param partida Identificador de la partida que se abandona
+     */
+    public void abandonar(long partida) throws IOException {
+        enviar(Protocolo.abandonar(partida));
+    }
+
+    /**
+     * Empieza a seguir una partida como espectador; las novedades llegan con "DIFUSION_RED".
+     * @param partida Identificador de la partida
+     */
+    public void observar(long partida) throws IOException {
+        enviar(Protocolo.observar(partida));
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private synchronized void enviar(ByteBuffer trama) throws IOException {
+        salida.write(trama.array(), trama.arrayOffset() + trama.position(), trama.remaining());
+        salida.flush();
+    }
+
+    /**
+     * Bucle del hilo lector: lee tramas completas y las notifica.
+     */
+    private void leer() {
+        try {
+            while (true) {
+                int longitud = entrada.readUnsignedShort();
+                if (longitud == 0 || longitud > Protocolo.MAXIMO_TRAMA) {
+                    throw new IOException("longitud de trama no válida: " + longitud);
+                }
+                byte[] contenido = new byte[longitud];
+                entrada.readFully(contenido);
+                Mensaje mensaje = Mensaje.leer(ByteBuffer.wrap(contenido));
+                soporte.firePropertyChange(nombrePropiedad(mensaje.getTipo()), null, mensaje);
+            }
+        } catch (EOFException e) {
+            // El servidor ha cerrado la conexión
+        } catch (IOException | IllegalArgumentException e) {
+            if (!socket.isClosed()) {
+                System.err.println("Error en la conexión con el servidor: " + e.getMessage());
+            }
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Ya no se usa
+            }
+            soporte.firePropertyChange("DESCONECTADO", false, true);
+        }
+    }
+
+    private static String nombrePropiedad(byte tipo) {
+        switch (tipo) {
+            case Protocolo.PARTIDA_INICIADA:
+                return "PARTIDA_INICIADA";
+            case Protocolo.MOVIMIENTO:
+                return "MOVIMIENTO_RED";
+            case Protocolo.FIN_PARTIDA:
+                return "FIN_PARTIDA_RED";
+            case Protocolo.DIFUSION:
+                return "DIFUSION_RED";
+            default:
+                return "ERROR_RED";
+        }
+    }
+}
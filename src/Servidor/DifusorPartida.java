@@ -0,0 +1,307 @@
+package Servidor;
+
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Difunde los movimientos y los relojes de una partida a cualquier número de
+ * espectadores.
+ *
+ * La partida escribe cada evento en un anillo de tamaño fijo sin esperar a
+ * nadie: sólo hay un escritor (la sesión, que publica con su cerrojo tomado),
+ * así que basta con escribir la casilla y luego el contador de publicados.
+ * Cada espectador lleva su propio cursor de lectura. Los espectadores se
+ * reparten en grupos, y cada grupo se atiende en un hilo de difusión que
+ * entrega a cada uno, en un solo {@link LoteDifusion}, todo lo publicado desde
+ * su entrega anterior. Un espectador lento sólo retrasa a su grupo; si el
+ * anillo da la vuelta antes de que lo lea, se le entrega de una vez lo que le
+ * falta a partir del historial de movimientos y del último estado. Un
+ * espectador que aún no ha despachado su lote anterior (véase
+ * {@link Espectador#listo()}) se salta hasta que lo haga, y entonces recibe
+ * todo lo acumulado de una vez.
+ */
+public class DifusorPartida {
+    /** Eventos que guarda el anillo; potencia de dos */
+    public static final int CAPACIDAD = 256;
+    /** Espectadores que atiende cada tarea de difusión */
+    private static final int TAMANO_GRUPO = 64;
+
+    private static final byte MOVIMIENTO = 0;
+    private static final byte RELOJ = 1;
+    private static final byte FIN = 2;
+
+    private final long partida;
+    private final Executor ejecutor;
+    /**
+     * Las casillas se leen sin sincronizar: un lector puede ver un evento más
+     * nuevo que el que busca, y lo detecta por su número de secuencia. Los
+     * eventos son inmutables, así que nunca se ven a medio escribir.
+     */
+    private final Evento[] anillo = new Evento[CAPACIDAD];
+    /** Eventos publicados; el siguiente ocupa la casilla publicados % CAPACIDAD */
+    private volatile long publicados;
+    private volatile Evento ultimo;
+    /** Movimientos jugados, para los espectadores que llegan tarde o se quedan atrás */
+    private volatile short[] historial = new short[64];
+    private volatile int jugadas;
+    private final CopyOnWriteArrayList<Grupo> grupos = new CopyOnWriteArrayList<>();
+    private final AtomicInteger suscriptores = new AtomicInteger();
+
+    /**
+     * @param partida Identificador de la partida que se difunde
+     * @param ejecutor Hilos de difusión, compartidos con otras partidas
+     */
+    public DifusorPartida(long partida, Executor ejecutor) {
+        this.partida = partida;
+        this.ejecutor = ejecutor;
+    }
+
+    /**
+     * Añade un espectador. Su primer lote contiene todos los movimientos
+     * jugados hasta ahora y el estado actual de los relojes.
+     * @param espectador Receptor de las novedades
+     * @return Suscripción con la que dejar de recibirlas
+     */
+    public Suscripcion suscribir(Espectador espectador) {
+        Grupo grupo;
+        Suscripcion suscripcion;
+        synchronized (grupos) {
+            grupo = grupos.isEmpty() ? null : grupos.get(grupos.size() - 1);
+            if (grupo == null || grupo.miembros.size() >= TAMANO_GRUPO) {
+                grupo = new Grupo();
+                grupos.add(grupo);
+            }
+            suscripcion = new Suscripcion(espectador, grupo);
+            grupo.miembros.add(suscripcion);
+        }
+        suscriptores.incrementAndGet();
+        grupo.programar();
+        return suscripcion;
+    }
+
+    /**
+     * Publica un movimiento con el tiempo restante tras jugarlo. Sólo debe
+     * llamarla el escritor de la partida.
+     * @param movimiento Movimiento empaquetado como en {@link Protocolo}
+     * @param relojBlancas Milisegundos de las blancas, o -1 sin reloj
+     * @param relojNegras Milisegundos de las negras, o -1 sin reloj
+     */
+    public void publicarMovimiento(short movimiento, int relojBlancas, int relojNegras) {
+        int jugada = jugadas;
+        short[] movimientos = historial;
+        if (jugada == movimientos.length) {
+            movimientos = Arrays.copyOf(movimientos, jugada * 2);
+        }
+        movimientos[jugada] = movimiento;
+        historial = movimientos;
+        jugadas = jugada + 1;
+        publicar(new Evento(publicados, MOVIMIENTO, movimiento, jugada, relojBlancas, relojNegras, null, null));
+    }
+
+    /**
+     * Publica el tiempo restante de cada bando. Sólo debe llamarla el escritor de la partida.
+     */
+    public void publicarReloj(int relojBlancas, int relojNegras) {
+        publicar(new Evento(publicados, RELOJ, (short) 0, -1, relojBlancas, relojNegras, null, null));
+    }
+
+    /**
+     * Publica el final de la partida. Sólo debe llamarla el escritor de la partida.
+     * @param resultado "1-0", "0-1" o "1/2-1/2"
+     * @param motivo Causa del final
+     */
+    public void publicarFin(String resultado, String motivo, int relojBlancas, int relojNegras) {
+        publicar(new Evento(publicados, FIN, (short) 0, -1, relojBlancas, relojNegras, resultado, motivo));
+    }
+
+    /**
+     * @return Número de eventos publicados desde que empezó la partida
+     */
+    public long getPublicados() {
+        return publicados;
+    }
+
+    /**
+     * @return Número de espectadores suscritos
+     */
+    public int getNumeroSuscriptores() {
+        return suscriptores.get();
+    }
+
+    public long getPartida() {
+        return partida;
+    }
+
+    private void publicar(Evento evento) {
+        anillo[(int) (evento.secuencia & (CAPACIDAD - 1))] = evento;
+        ultimo = evento;
+        publicados = evento.secuencia + 1;
+        for (Grupo grupo : grupos) {
+            grupo.programar();
+        }
+    }
+
+    /**
+     * Evento publicado, inmutable.
+     */
+    private static final class Evento {
+        private final long secuencia;
+        private final byte tipo;
+        private final short movimiento;
+        /** Número de la jugada en los movimientos, -1 en los demás */
+        private final int jugada;
+        private final int relojBlancas;
+        private final int relojNegras;
+        private final String resultado;
+        private final String motivo;
+
+        private Evento(long secuencia, byte tipo, short movimiento, int jugada,
+                       int relojBlancas, int relojNegras, String resultado, String motivo) {
+            this.secuencia = secuencia;
+            this.tipo = tipo;
+            this.movimiento = movimiento;
+            this.jugada = jugada;
+            this.relojBlancas = relojBlancas;
+            this.relojNegras = relojNegras;
+            this.resultado = resultado;
+            this.motivo = motivo;
+        }
+    }
+
+    /**
+     * Espectadores que se atienden juntos en una misma tarea de difusión. La
+     * tarea sólo está encolada o en marcha una vez a la vez, de modo que cada
+     * suscripción la usa un único hilo en cada momento.
+     */
+    private final class Grupo {
+        private final CopyOnWriteArrayList<Suscripcion> miembros = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean programado = new AtomicBoolean();
+        /** Hay novedades o espectadores reanudados que la tarea aún no ha atendido */
+        private volatile boolean pendiente;
+
+        private void programar() {
+            pendiente = true;
+            if (programado.compareAndSet(false, true)) {
+                try {
+                    ejecutor.execute(this::difundir);
+                } catch (RejectedExecutionException e) {
+                    // Los hilos de difusión se han detenido
+                    programado.set(false);
+                }
+            }
+        }
+
+        private void difundir() {
+            do {
+                pendiente = false;
+                for (Suscripcion suscripcion : miembros) {
+                    suscripcion.entregar();
+                }
+                programado.set(false);
+                // Lo publicado o reanudado mientras se entregaba lo recoge esta misma tarea
+            } while (pendiente && programado.compareAndSet(false, true));
+        }
+    }
+
+    /**
+     * Un espectador suscrito y la posición hasta la que ha recibido.
+     */
+    public final class Suscripcion {
+        private final Espectador espectador;
+        private final Grupo grupo;
+        /** Secuencia del siguiente evento por entregar, -1 para resincronizar */
+        private long cursor = -1;
+        /** Movimientos ya entregados */
+        private int recibidas;
+
+        private Suscripcion(Espectador espectador, Grupo grupo) {
+            this.espectador = espectador;
+            this.grupo = grupo;
+        }
+
+        /**
+         * Deja de recibir novedades.
+         */
+        public void cancelar() {
+            if (grupo.miembros.remove(this)) {
+                suscriptores.decrementAndGet();
+            }
+        }
+
+        /**
+         * Vuelve a intentar la entrega a un espectador que no estaba listo.
+         */
+        public void reanudar() {
+            grupo.programar();
+        }
+
+        private void entregar() {
+            long hasta = publicados;
+            if (cursor == hasta || !espectador.listo()) {
+                return;
+            }
+            LoteDifusion lote = cursor < 0 || hasta - cursor > CAPACIDAD ? resincronizar() : leerAnillo(hasta);
+            if (lote == null) {
+                return;
+            }
+            try {
+                espectador.recibir(lote);
+            } catch (RuntimeException e) {
+                System.err.println("Espectador retirado de la partida " + partida + ": " + e);
+                cancelar();
+            }
+        }
+
+        /**
+         * Junta los eventos del anillo desde el cursor hasta el indicado.
+         * @return Lote, o el de resincronización si el anillo ya los ha sobrescrito
+         */
+        private LoteDifusion leerAnillo(long hasta) {
+            short[] movimientos = new short[(int) (hasta - cursor)];
+            int nuevos = 0;
+            int primera = recibidas;
+            Evento reciente = null;
+            for (long secuencia = cursor; secuencia < hasta; secuencia++) {
+                Evento evento = anillo[(int) (secuencia & (CAPACIDAD - 1))];
+                if (evento == null || evento.secuencia != secuencia) {
+                    return resincronizar();
+                }
+                // Tras una resincronización pueden llegar movimientos ya entregados
+                if (evento.tipo == MOVIMIENTO && evento.jugada == primera + nuevos) {
+                    movimientos[nuevos++] = evento.movimiento;
+                }
+                reciente = evento;
+            }
+            long eventos = hasta - cursor;
+            cursor = hasta;
+            recibidas = primera + nuevos;
+            return new LoteDifusion(partida, primera, Arrays.copyOf(movimientos, nuevos), eventos,
+                    reciente.relojBlancas, reciente.relojNegras, reciente.resultado, reciente.motivo, false);
+        }
+
+        /**
+         * Construye el lote desde el historial y el último evento, para un
+         * espectador nuevo o uno al que el anillo ha dejado atrás.
+         */
+        private LoteDifusion resincronizar() {
+            Evento reciente = ultimo;
+            if (reciente == null) {
+                cursor = 0;
+                return null;
+            }
+            // El historial se amplía antes de publicar, así que cubre al menos hasta el último evento
+            int total = jugadas;
+            short[] movimientos = Arrays.copyOfRange(historial, recibidas, total);
+            long eventos = cursor < 0 ? reciente.secuencia + 1 : reciente.secuencia + 1 - cursor;
+            int primera = recibidas;
+            cursor = reciente.secuencia + 1;
+            recibidas = total;
+            return new LoteDifusion(partida, primera, movimientos, eventos,
+                    reciente.relojBlancas, reciente.relojNegras, reciente.resultado, reciente.motivo, true);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package Servidor;
+
+/**
+ * Receptor de las novedades de una partida difundidas por un {@link DifusorPartida}.
+ */
+@FunctionalInterface
+public interface Espectador {
+    /**
+     * Recibe las novedades ocurridas desde el lote anterior. Se llama desde
+     * los hilos de difusión, nunca a la vez para el mismo espectador; debe
+     * volver pronto, porque mientras tanto esperan los demás espectadores de
+     * su grupo (la partida, en cambio, no espera nunca).
+     * @param lote Movimientos nuevos y último estado de los relojes
+     */
+    void recibir(LoteDifusion lote);
+
+    /**
+     * Indica si el espectador puede aceptar otro lote. Mientras no pueda, las
+     * novedades se le acumulan y luego las recibe juntas en un solo lote, o
+     * en uno de resincronización si el anillo ya ha dado la vuelta. Quien
+     * devuelva false debe llamar a {@link DifusorPartida.Suscripcion#reanudar()}
+     * cuando vuelva a estar listo.
+     * @return true si puede recibir ya
+     */
+    default boolean listo() {
+        return true;
+    }
+}
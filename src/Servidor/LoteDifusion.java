@@ -0,0 +1,93 @@
+package Servidor;
+
+/**
+ * Novedades de una partida entregadas de una vez a un espectador. Un lote
+ * agrupa todos los eventos publicados desde la entrega anterior: incluye cada
+ * movimiento nuevo, pero de los relojes sólo el último valor, de modo que un
+ * espectador lento recibe menos lotes, más grandes, en vez de acumular retraso.
+ */
+public class LoteDifusion {
+    private final long partida;
+    private final int primeraJugada;
+    private final short[] movimientos;
+    private final long eventos;
+    private final int relojBlancas;
+    private final int relojNegras;
+    private final String resultado;
+    private final String motivo;
+    private final boolean resincronizado;
+
+    LoteDifusion(long partida, int primeraJugada, short[] movimientos, long eventos,
+                 int relojBlancas, int relojNegras, String resultado, String motivo, boolean resincronizado) {
+        this.partida = partida;
+        this.primeraJugada = primeraJugada;
+        this.movimientos = movimientos;
+        this.eventos = eventos;
+        this.relojBlancas = relojBlancas;
+        this.relojNegras = relojNegras;
+        this.resultado = resultado;
+        this.motivo = motivo;
+        this.resincronizado = resincronizado;
+    }
+
+    public long getPartida() {
+        return partida;
+    }
+
+    /**
+     * @return Número (desde 0) de la jugada del primer movimiento del lote
+     */
+    public int getPrimeraJugada() {
+        return primeraJugada;
+    }
+
+    /**
+     * @return Movimientos nuevos en orden, empaquetados como en {@link Protocolo}
+     */
+    public short[] getMovimientos() {
+        return movimientos;
+    }
+
+    /**
+     * @return Número de eventos publicados que resume el lote
+     */
+    public long getEventos() {
+        return eventos;
+    }
+
+    /**
+     * @return Milisegundos de las blancas, o -1 si la partida no tiene reloj
+     */
+    public int getRelojBlancas() {
+        return relojBlancas;
+    }
+
+    /**
+     * @return Milisegundos de las negras, o -1 si la partida no tiene reloj
+     */
+    public int getRelojNegras() {
+        return relojNegras;
+    }
+
+    /**
+     * @return Resultado si la partida ha terminado, o null si sigue en juego
+     */
+    public String getResultado() {
+        return resultado;
+    }
+
+    /**
+     * @return Causa del final, o null si la partida sigue en juego
+     */
+    public String getMotivo() {
+        return motivo;
+    }
+
+    /**
+     * @return true si el lote se ha reconstruido desde el historial porque el
+     * espectador acaba de suscribirse o se quedó atrás más de lo que guarda el anillo
+     */
+    public boolean isResincronizado() {
+        return resincronizado;
+    }
+}
@@ -0,0 +1,154 @@
+package Servidor;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Mensaje del protocolo de red ya decodificado. Sólo tienen valor los campos
+ * que corresponden a su tipo, según se describe en {@link Protocolo}.
+ */
+public class Mensaje {
+    private final byte tipo;
+    private long partida;
+    private int bando;
+    private short movimiento;
+    private int tiempoInicial;
+    private int incremento;
+    private int relojBlancas = -1;
+    private int relojNegras = -1;
+    private int primeraJugada;
+    private short[] movimientos = new short[0];
+    /** Nombre del jugador o del rival, resultado o texto del error, según el tipo */
+    private String texto = "";
+    private String motivo = "";
+
+    private Mensaje(byte tipo) {
+        this.tipo = tipo;
+    }
+
+    /**
+     * Decodifica una trama extraída con {@link Protocolo#siguienteTrama}.
+     * @param trama Contenido de la trama, empezando por el tipo
+     * @return Mensaje decodificado
+     * @throws IllegalArgumentException Si el tipo es desconocido o la trama está truncada
+     */
+    public static Mensaje leer(ByteBuffer trama) {
+        Mensaje mensaje = new Mensaje(trama.get());
+        try {
+            switch (mensaje.tipo) {
+                case Protocolo.BUSCAR_PARTIDA:
+                    mensaje.tiempoInicial = trama.getInt();
+                    mensaje.incremento = trama.getInt();
+                    mensaje.texto = Protocolo.leerTexto(trama);
+                    break;
+                case Protocolo.MOVER:
+                    mensaje.partida = trama.getLong();
+                    mensaje.movimiento = trama.getShort();
+                    break;
+                case Protocolo.ABANDONAR:
+                case Protocolo.OBSERVAR:
+                    mensaje.partida = trama.getLong();
+                    break;
+                case Protocolo.PARTIDA_INICIADA:
+                    mensaje.partida = trama.getLong();
+                    mensaje.bando = trama.get();
+                    mensaje.tiempoInicial = trama.getInt();
+                    mensaje.incremento = trama.getInt();
+                    mensaje.texto = Protocolo.leerTexto(trama);
+                    break;
+                case Protocolo.MOVIMIENTO:
+                    mensaje.partida = trama.getLong();
+                    mensaje.movimiento = trama.getShort();
+                    mensaje.relojBlancas = trama.getInt();
+                    mensaje.relojNegras = trama.getInt();
+                    break;
+                case Protocolo.FIN_PARTIDA:
+                    mensaje.partida = trama.getLong();
+                    mensaje.texto = Protocolo.leerTexto(trama);
+                    mensaje.motivo = Protocolo.leerTexto(trama);
+                    break;
+                case Protocolo.DIFUSION:
+                    mensaje.partida = trama.getLong();
+                    mensaje.primeraJugada = trama.getInt();
+                    mensaje.relojBlancas = trama.getInt();
+                    mensaje.relojNegras = trama.getInt();
+                    mensaje.movimientos = new short[trama.getShort() & 0xFFFF];
+                    for (int i = 0; i < mensaje.movimientos.length; i++) {
+                        mensaje.movimientos[i] = trama.getShort();
+                    }
+                    mensaje.texto = Protocolo.leerTexto(trama);
+                    mensaje.motivo = Protocolo.leerTexto(trama);
+                    break;
+                case Protocolo.ERROR:
+                    mensaje.partida = trama.getLong();
+                    mensaje.texto = Protocolo.leerTexto(trama);
+                    break;
+                default:
+                    throw new IllegalArgumentException("tipo de mensaje desconocido: " + mensaje.tipo);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("mensaje truncado de tipo " + mensaje.tipo);
+        }
+        return mensaje;
+    }
+
+    public byte getTipo() {
+        return tipo;
+    }
+
+    public long getPartida() {
+        return partida;
+    }
+
+    public int getBando() {
+        return bando;
+    }
+
+    public short getMovimiento() {
+        return movimiento;
+    }
+
+    public int getTiempoInicial() {
+        return tiempoInicial;
+    }
+
+    public int getIncremento() {
+        return incremento;
+    }
+
+    /**
+     * @return Milisegundos de las blancas según el servidor, -1 si la partida no tiene reloj
+     */
+    public int getRelojBlancas() {
+        return relojBlancas;
+    }
+
+    /**
+     * @return Milisegundos de las negras según el servidor, -1 si la partida no tiene reloj
+     */
+    public int getRelojNegras() {
+        return relojNegras;
+    }
+
+    /**
+     * @return Número (desde 0) de la jugada del primer movimiento difundido
+     */
+    public int getPrimeraJugada() {
+        return primeraJugada;
+    }
+
+    /**
+     * @return Movimientos difundidos, empaquetados como en {@link Protocolo}
+     */
+    public short[] getMovimientos() {
+        return movimientos;
+    }
+
+    public String getTexto() {
+        return texto;
+    }
+
+    public String getMotivo() {
+        return motivo;
+    }
+}
@@ -0,0 +1,192 @@
+package Servidor;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formato binario de los mensajes entre {@link ServidorPartidas} y
+ * {@link ClienteRed}. Cada trama empieza con su longitud en 2 bytes (sin
+ * contarlos), seguida de 1 byte de tipo y del contenido, en orden de red.
+ *
+ * Los movimientos viajan en 2 bytes con la misma disposición que los bits
+ * bajos de {@link Motor.Movimiento}: origen (bits 0-5), destino (6-11) y pieza
+ * de promoción (12-14). Los textos se codifican como 1 byte de longitud
+ * seguido de UTF-8.
+ *
+ * Cliente a servidor:
+ * <ul>
+ *   <li>BUSCAR_PARTIDA: tiempo inicial (int, ms), incremento (int, ms), nombre</li>
+ *   <li>MOVER: partida (long), movimiento (short)</li>
+ *   <li>ABANDONAR: partida (long)</li>
+ *   <li>OBSERVAR: partida (long)</li>
+ * </ul>
+ * Servidor a cliente:
+ * <ul>
+ *   <li>PARTIDA_INICIADA: partida (long), bando (byte), tiempo inicial (int), incremento (int), rival</li>
+ *   <li>MOVIMIENTO: partida (long), movimiento (short), reloj de blancas y de negras (int, ms)</li>
+ *   <li>FIN_PARTIDA: partida (long), resultado, motivo</li>
+ *   <li>ERROR: partida (long, 0 si no hay), mensaje</li>
+ *   <li>DIFUSION: partida (long), primera jugada (int), reloj de blancas y de negras (int, ms),
+ *       número de movimientos (short), movimientos (short cada uno), resultado y motivo (vacíos si sigue)</li>
+ * </ul>
+ */
+public final class Protocolo {
+    public static final byte BUSCAR_PARTIDA = 0x01;
+    public static final byte MOVER = 0x02;
+    public static final byte ABANDONAR = 0x03;
+    public static final byte OBSERVAR = 0x04;
+
+    public static final byte PARTIDA_INICIADA = (byte) 0x81;
+    public static final byte MOVIMIENTO = (byte) 0x82;
+    public static final byte FIN_PARTIDA = (byte) 0x83;
+    public static final byte ERROR = (byte) 0x84;
+    public static final byte DIFUSION = (byte) 0x85;
+
+    /** Longitud máxima del contenido de una trama, tipo incluido */
+    public static final int MAXIMO_TRAMA = 1024;
+    private static final int MAXIMO_TEXTO = 255;
+    /** Movimientos que caben en una trama de difusión junto a los textos más largos */
+    public static final int MAXIMO_MOVIMIENTOS_DIFUSION = 200;
+
+    private Protocolo() {
+    }
+
+    /**
+     * @param origen Casilla de origen
+     * @param destino Casilla de destino
+     * @param promocion Pieza de promoción, o Posicion.VACIO
+     * @return Movimiento empaquetado en 16 bits
+     */
+    public static short empaquetar(int origen, int destino, int promocion) {
+        return (short) (origen | destino << 6 | promocion << 12);
+    }
+
+    public static int origen(short movimiento) {
+        return movimiento & 0x3F;
+    }
+
+    public static int destino(short movimiento) {
+        return (movimiento >>> 6) & 0x3F;
+    }
+
+    public static int promocion(short movimiento) {
+        return (movimiento >>> 12) & 0x7;
+    }
+
+    public static ByteBuffer buscarPartida(int tiempoInicial, int incremento, String nombre) {
+        ByteBuffer trama = iniciar(BUSCAR_PARTIDA, 8 + longitudTexto(nombre));
+        trama.putInt(tiempoInicial).putInt(incremento);
+        return terminar(ponerTexto(trama, nombre));
+    }
+
+    public static ByteBuffer mover(long partida, short movimiento) {
+        return terminar(iniciar(MOVER, 10).putLong(partida).putShort(movimiento));
+    }
+
+    public static ByteBuffer abandonar(long partida) {
+        return terminar(iniciar(ABANDONAR, 8).putLong(partida));
+    }
+
+    public static ByteBuffer observar(long partida) {
+        return terminar(iniciar(OBSERVAR, 8).putLong(partida));
+    }
+
+    public static ByteBuffer partidaIniciada(long partida, int bando, int tiempoInicial, int incremento, String rival) {
+        ByteBuffer trama = iniciar(PARTIDA_INICIADA, 17 + longitudTexto(rival));
+        trama.putLong(partida).put((byte) bando).putInt(tiempoInicial).putInt(incremento);
+        return terminar(ponerTexto(trama, rival));
+    }
+
+    public static ByteBuffer movimiento(long partida, short movimiento, int relojBlancas, int relojNegras) {
+        return terminar(iniciar(MOVIMIENTO, 18).putLong(partida).putShort(movimiento)
+                .putInt(relojBlancas).putInt(relojNegras));
+    }
+
+    public static ByteBuffer finPartida(long partida, String resultado, String motivo) {
+        ByteBuffer trama = iniciar(FIN_PARTIDA, 8 + longitudTexto(resultado) + longitudTexto(motivo));
+        trama.putLong(partida);
+        return terminar(ponerTexto(ponerTexto(trama, resultado), motivo));
+    }
+
+    /**
+     * @param movimientos Movimientos del lote
+     * @param desde Primer movimiento que va en esta trama
+     * @param cuantos Movimientos de esta trama, como mucho {@link #MAXIMO_MOVIMIENTOS_DIFUSION}
+     */
+    public static ByteBuffer difusion(long partida, int primeraJugada, int relojBlancas, int relojNegras,
+                                      short[] movimientos, int desde, int cuantos, String resultado, String motivo) {
+        if (cuantos > MAXIMO_MOVIMIENTOS_DIFUSION) {
+            throw new IllegalArgumentException("demasiados movimientos en una trama: " + cuantos);
+        }
+        ByteBuffer trama = iniciar(DIFUSION, 22 + 2 * cuantos + longitudTexto(resultado) + longitudTexto(motivo));
+        trama.putLong(partida).putInt(primeraJugada).putInt(relojBlancas).putInt(relojNegras).putShort((short) cuantos);
+        for (int i = desde; i < desde + cuantos; i++) {
+            trama.putShort(movimientos[i]);
+        }
+        return terminar(ponerTexto(ponerTexto(trama, resultado), motivo));
+    }
+
+    public static ByteBuffer error(long partida, String mensaje) {
+        ByteBuffer trama = iniciar(ERROR, 8 + longitudTexto(mensaje));
+        trama.putLong(partida);
+        return terminar(ponerTexto(trama, mensaje));
+    }
+
+    /**
+     * Lee un texto escrito con el formato del protocolo.
+     * @throws BufferUnderflowException Si la trama está truncada
+     */
+    public static String leerTexto(ByteBuffer trama) {
+        int longitud = trama.get() & 0xFF;
+        byte[] bytes = new byte[longitud];
+        trama.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Extrae la siguiente trama completa de un buffer en modo lectura.
+     * @param entrada Bytes recibidos; avanza hasta el final de la trama extraída
+     * @return Contenido de la trama (tipo incluido), o null si aún no está completa
+     * @throws IllegalArgumentException Si la trama anuncia una longitud no válida
+     */
+    public static ByteBuffer siguienteTrama(ByteBuffer entrada) {
+        if (entrada.remaining() < 2) {
+            return null;
+        }
+        int longitud = entrada.getShort(entrada.position()) & 0xFFFF;
+        if (longitud == 0 || longitud > MAXIMO_TRAMA) {
+            throw new IllegalArgumentException("longitud de trama no válida: " + longitud);
+        }
+        if (entrada.remaining() < 2 + longitud) {
+            return null;
+        }
+        entrada.position(entrada.position() + 2);
+        ByteBuffer trama = entrada.slice();
+        trama.limit(longitud);
+        entrada.position(entrada.position() + longitud);
+        return trama;
+    }
+
+    private static ByteBuffer iniciar(byte tipo, int contenido) {
+        ByteBuffer trama = ByteBuffer.allocate(3 + contenido);
+        trama.putShort((short) (1 + contenido)).put(tipo);
+        return trama;
+    }
+
+    private static ByteBuffer terminar(ByteBuffer trama) {
+        trama.flip();
+        return trama;
+    }
+
+    private static int longitudTexto(String texto) {
+        return 1 + Math.min(MAXIMO_TEXTO, texto.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static ByteBuffer ponerTexto(ByteBuffer trama, String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        int longitud = Math.min(MAXIMO_TEXTO, bytes.length);
+        trama.put((byte) longitud).put(bytes, 0, longitud);
+        return trama;
+    }
+}
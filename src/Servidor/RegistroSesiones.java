@@ -0,0 +1,149 @@
+package Servidor;
+
+import Modelo.ModoTiempo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro de las partidas alojadas en un proceso. Crea las sesiones, les
+ * asigna un identificador y permite localizarlas desde cualquier hilo.
+ *
+ * Las sesiones no tienen hilos propios: quien recibe un movimiento lo aplica
+ * directamente sobre la sesión, y las caídas de bandera de todas las partidas
+ * se programan en un único temporizador compartido. Así miles de partidas
+ * simultáneas sólo cuestan memoria. Del mismo modo, los espectadores de
+ * todas las partidas se atienden con un único conjunto de hilos de difusión.
+ */
+public class RegistroSesiones implements AutoCloseable {
+    private final ConcurrentHashMap<Long, SesionPartida> sesiones = new ConcurrentHashMap<>();
+    private final AtomicLong siguienteId = new AtomicLong(1);
+    private final ScheduledExecutorService temporizador;
+    private final ExecutorService difusion;
+
+    public RegistroSesiones() {
+        ScheduledThreadPoolExecutor ejecutor = new ScheduledThreadPoolExecutor(1, tarea -> {
+            Thread hilo = new Thread(tarea, "relojes-sesiones");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        // Cada movimiento cancela la caída programada antes; que no se acumulen en la cola
+        ejecutor.setRemoveOnCancelPolicy(true);
+        this.temporizador = Executors.unconfigurableScheduledExecutorService(ejecutor);
+        this.difusion = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), tarea -> {
+            Thread hilo = new Thread(tarea, "difusion-sesiones");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Crea una partida con reloj. El reloj no empieza hasta llamar a
+     * {@link SesionPartida#iniciar()}.
+     * @param blancas Nombre del jugador de las blancas
+     * @param negras Nombre del jugador de las negras
+     * @param tiempoInicial Tiempo de cada jugador en milisegundos
+     * @param incremento Incremento o retardo por jugada en milisegundos
+     * @param modo Modalidad de control de tiempo
+     * @return Nueva sesión registrada
+     */
+    public SesionPartida crear(String blancas, String negras, int tiempoInicial, int incremento, ModoTiempo modo) {
+        long id = siguienteId.getAndIncrement();
+        SesionPartida sesion = new SesionPartida(id, blancas, negras, tiempoInicial, incremento, modo, temporizador, difusion);
+        sesiones.put(id, sesion);
+        return sesion;
+    }
+
+    /**
+     * Crea una partida por correspondencia, sin reloj.
+     * @param blancas Nombre del jugador de las blancas
+     * @param negras Nombre del jugador de las negras
+     * @return Nueva sesión registrada
+     */
+    public SesionPartida crear(String blancas, String negras) {
+        return crear(blancas, negras, 0, 0, ModoTiempo.FISCHER);
+    }
+
+    /**
+     * @param id Identificador de la sesión
+     * @return La sesión, o null si no existe
+     */
+    public SesionPartida obtener(long id) {
+        return sesiones.get(id);
+    }
+
+    /**
+     * Retira una sesión del registro. Si la partida seguía en juego, su reloj
+     * deja de vigilarse: se cancela la caída de bandera programada y ya no se
+     * avisa a su oyente.
+     * @param id Identificador de la sesión
+     * @return La sesión retirada, o null si no existía
+     */
+    public SesionPartida eliminar(long id) {
+        SesionPartida sesion = sesiones.remove(id);
+        if (sesion != null) {
+            sesion.retirar();
+        }
+        return sesion;
+    }
+
+    /**
+     * Retira las partidas terminadas cuya última actividad es anterior al límite.
+     * @param antiguedadMs Milisegundos desde el final de la partida
+     * @return Número de sesiones retiradas
+     */
+    public int purgarTerminadas(long antiguedadMs) {
+        long limite = System.currentTimeMillis() - antiguedadMs;
+        int retiradas = 0;
+        for (SesionPartida sesion : sesiones.values()) {
+            if (sesion.isTerminada() && sesion.getUltimaActividad() <= limite
+                    && sesiones.remove(sesion.getId(), sesion)) {
+                retiradas++;
+            }
+        }
+        return retiradas;
+    }
+
+    /**
+     * @return Copia de las sesiones registradas en este momento
+     */
+    public Collection<SesionPartida> getSesiones() {
+        return Collections.unmodifiableList(new ArrayList<>(sesiones.values()));
+    }
+
+    /**
+     * @return Número de sesiones registradas
+     */
+    public int getNumeroSesiones() {
+        return sesiones.size();
+    }
+
+    /**
+     * @return Número de sesiones cuya partida sigue en juego
+     */
+    public int getNumeroEnCurso() {
+        int enCurso = 0;
+        for (SesionPartida sesion : sesiones.values()) {
+            if (!sesion.isTerminada()) {
+                enCurso++;
+            }
+        }
+        return enCurso;
+    }
+
+    /**
+     * Detiene el temporizador de los relojes y los hilos de difusión.
+     */
+    @Override
+    public void close() {
+        temporizador.shutdownNow();
+        difusion.shutdownNow();
+    }
+}
@@ -0,0 +1,540 @@
+package Servidor;
+
+import Modelo.ModoTiempo;
+import Motor.Posicion;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor TCP de partidas con E/S no bloqueante. Unos pocos hilos, cada uno
+ * con su propio Selector, atienden todas las conexiones; el primero acepta
+ * las nuevas y las reparte entre todos por turnos.
+ *
+ * Los jugadores piden partida con un control de tiempo y el servidor empareja
+ * a los dos primeros que coinciden. Cada partida es una {@link SesionPartida}
+ * de un {@link RegistroSesiones}: el servidor aplica allí los movimientos con
+ * las reglas del motor y lleva el reloj oficial, cuyo tiempo restante envía a
+ * ambos jugadores tras cada movimiento. Cualquier conexión puede además
+ * seguir una partida como espectadora a través de su {@link DifusorPartida}.
+ * Los mensajes siguen el formato de {@link Protocolo}.
+ */
+public class ServidorPartidas implements AutoCloseable {
+    /** Bytes pendientes de escribir a partir de los cuales se da por perdida una conexión que no lee */
+    private static final int MAXIMO_SALIDA = 256 * 1024;
+
+    private final ServerSocketChannel aceptador;
+    private final Reactor[] reactores;
+    private final RegistroSesiones registro = new RegistroSesiones();
+    /** Jugadores de cada partida en juego, blancas primero */
+    private final Map<Long, Conexion[]> jugadores = new ConcurrentHashMap<>();
+    /** Partidas cuyo final ya se ha anunciado */
+    private final Map<Long, AtomicBoolean> finAnunciado = new ConcurrentHashMap<>();
+    /** Jugador que espera rival para cada control de tiempo (tiempo << 32 | incremento) */
+    private final Map<Long, Conexion> enEspera = new HashMap<>();
+    private final AtomicInteger conexiones = new AtomicInteger();
+    private int siguienteReactor;
+
+    /**
+     * Abre el puerto de escucha; los hilos no empiezan hasta {@link #iniciar()}.
+     * @param direccion Dirección en la que escuchar, por ejemplo "localhost" o "0.0.0.0"
+     * @param puerto Puerto TCP, o 0 para que el sistema asigne uno libre
+     * @param hilos Número de hilos de E/S
+     * @throws IOException Si no se puede abrir el puerto
+     */
+    public ServidorPartidas(String direccion, int puerto, int hilos) throws IOException {
+        if (hilos < 1) {
+            throw new IllegalArgumentException("se necesita al menos un hilo: " + hilos);
+        }
+        aceptador = ServerSocketChannel.open();
+        aceptador.bind(new InetSocketAddress(direccion, puerto), 1024);
+        aceptador.configureBlocking(false);
+        reactores = new Reactor[hilos];
+        for (int i = 0; i < hilos; i++) {
+            reactores[i] = new Reactor(i);
+        }
+        aceptador.register(reactores[0].selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Arranca los hilos de E/S.
+     */
+    public void iniciar() {
+        for (Reactor reactor : reactores) {
+            reactor.hilo.start();
+        }
+    }
+
+    /**
+     * @return Puerto en el que escucha el servidor, útil si se pidió el 0
+     */
+    public int getPuerto() {
+        return aceptador.socket().getLocalPort();
+    }
+
+    /**
+     * @return Registro con las partidas en juego
+     */
+    public RegistroSesiones getRegistro() {
+        return registro;
+    }
+
+    /**
+     * @return Número de conexiones abiertas
+     */
+    public int getNumeroConexiones() {
+        return conexiones.get();
+    }
+
+    /**
+     * Cierra el puerto, todas las conexiones y el temporizador de los relojes.
+     */
+    @Override
+    public void close() throws IOException {
+        aceptador.close();
+        for (Reactor reactor : reactores) {
+            reactor.cerrar();
+        }
+        registro.close();
+    }
+
+    private void procesar(Conexion conexion, Mensaje mensaje) {
+        switch (mensaje.getTipo()) {
+            case Protocolo.BUSCAR_PARTIDA:
+                buscarPartida(conexion, mensaje);
+                break;
+            case Protocolo.MOVER:
+                mover(conexion, mensaje);
+                break;
+            case Protocolo.ABANDONAR:
+                abandonar(conexion, mensaje.getPartida());
+                break;
+            case Protocolo.OBSERVAR:
+                observar(conexion, mensaje.getPartida());
+                break;
+            default:
+                conexion.enviar(Protocolo.error(0, "mensaje no admitido: " + mensaje.getTipo()));
+        }
+    }
+
+    private void buscarPartida(Conexion conexion, Mensaje mensaje) {
+        if (mensaje.getTiempoInicial() < 0 || mensaje.getIncremento() < 0) {
+            conexion.enviar(Protocolo.error(0, "control de tiempo no válido"));
+            return;
+        }
+        conexion.nombre = mensaje.getTexto();
+        long control = (long) mensaje.getTiempoInicial() << 32 | mensaje.getIncremento();
+        Conexion rival;
+        synchronized (enEspera) {
+            rival = enEspera.remove(control);
+            if (rival == null || rival == conexion || !rival.canal.isOpen()) {
+                enEspera.put(control, conexion);
+                return;
+            }
+        }
+
+        SesionPartida sesion = registro.crear(rival.nombre, conexion.nombre,
+                mensaje.getTiempoInicial(), mensaje.getIncremento(), ModoTiempo.FISCHER);
+        long id = sesion.getId();
+        jugadores.put(id, new Conexion[]{rival, conexion});
+        finAnunciado.put(id, new AtomicBoolean());
+        rival.partidas.put(id, Posicion.BLANCAS);
+        conexion.partidas.put(id, Posicion.NEGRAS);
+        sesion.setAlCaerBandera(this::anunciarFin);
+        sesion.iniciar();
+        rival.enviar(Protocolo.partidaIniciada(id, Posicion.BLANCAS,
+                mensaje.getTiempoInicial(), mensaje.getIncremento(), conexion.nombre));
+        conexion.enviar(Protocolo.partidaIniciada(id, Posicion.NEGRAS,
+                mensaje.getTiempoInicial(), mensaje.getIncremento(), rival.nombre));
+    }
+
+    private void mover(Conexion conexion, Mensaje mensaje) {
+        long id = mensaje.getPartida();
+        Integer bando = conexion.partidas.get(id);
+        SesionPartida sesion = registro.obtener(id);
+        Conexion[] pareja = jugadores.get(id);
+        if (bando == null || sesion == null || pareja == null) {
+            conexion.enviar(Protocolo.error(id, "no juegas la partida " + id));
+            return;
+        }
+        short movimiento = mensaje.getMovimiento();
+        try {
+            // La sesión se bloquea durante el movimiento y el envío para que
+            // los relojes y el orden de los mensajes sean los de la partida
+            synchronized (sesion) {
+                sesion.jugar(bando, Protocolo.origen(movimiento), Protocolo.destino(movimiento),
+                        Protocolo.promocion(movimiento));
+                ByteBuffer aviso = Protocolo.movimiento(id, movimiento,
+                        sesion.getTiempoRestante(Posicion.BLANCAS), sesion.getTiempoRestante(Posicion.NEGRAS));
+                ByteBuffer avisoNegras = aviso.duplicate();
+                pareja[0].enviar(aviso);
+                pareja[1].enviar(avisoNegras);
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            conexion.enviar(Protocolo.error(id, e.getMessage()));
+        }
+        if (sesion.isTerminada()) {
+            anunciarFin(sesion);
+        }
+    }
+
+    private void abandonar(Conexion conexion, long id) {
+        Integer bando = conexion.partidas.get(id);
+        SesionPartida sesion = registro.obtener(id);
+        if (bando == null || sesion == null) {
+            conexion.enviar(Protocolo.error(id, "no juegas la partida " + id));
+            return;
+        }
+        sesion.abandonar(bando);
+        anunciarFin(sesion);
+    }
+
+    private void observar(Conexion conexion, long id) {
+        SesionPartida sesion = registro.obtener(id);
+        if (sesion == null) {
+            conexion.enviar(Protocolo.error(id, "no existe la partida " + id));
+            return;
+        }
+        if (conexion.observadas.containsKey(id)) {
+            return;
+        }
+        DifusorPartida.Suscripcion suscripcion = sesion.getDifusor().suscribir(new Espectador() {
+            @Override
+            public void recibir(LoteDifusion lote) {
+                difundir(conexion, lote);
+            }
+
+            @Override
+            public boolean listo() {
+                return conexion.salidaVacia();
+            }
+        });
+        if (conexion.observadas.putIfAbsent(id, suscripcion) != null || !conexion.canal.isOpen()) {
+            suscripcion.cancelar();
+        }
+    }
+
+    /**
+     * Envía un lote a un espectador, partido en tramas si no cabe en una. El
+     * difusor no entrega el siguiente hasta que estas tramas se han escrito,
+     * así que a un espectador lento le llegan menos lotes y más grandes.
+     */
+    private void difundir(Conexion conexion, LoteDifusion lote) {
+        if (!conexion.canal.isOpen()) {
+            DifusorPartida.Suscripcion suscripcion = conexion.observadas.remove(lote.getPartida());
+            if (suscripcion != null) {
+                suscripcion.cancelar();
+            }
+            return;
+        }
+        short[] movimientos = lote.getMovimientos();
+        int desde = 0;
+        do {
+            int cuantos = Math.min(Protocolo.MAXIMO_MOVIMIENTOS_DIFUSION, movimientos.length - desde);
+            boolean ultima = desde + cuantos == movimientos.length;
+            String resultado = ultima && lote.getResultado() != null ? lote.getResultado() : "";
+            String motivo = ultima && lote.getMotivo() != null ? lote.getMotivo() : "";
+            conexion.enviar(Protocolo.difusion(lote.getPartida(), lote.getPrimeraJugada() + desde,
+                    lote.getRelojBlancas(), lote.getRelojNegras(), movimientos, desde, cuantos, resultado, motivo));
+            desde += cuantos;
+        } while (desde < movimientos.length);
+    }
+
+    /**
+     * Comunica el resultado a los dos jugadores y retira la partida. Puede
+     * llamarse desde cualquier hilo y varias veces; sólo la primera tiene efecto.
+     */
+    private void anunciarFin(SesionPartida sesion) {
+        long id = sesion.getId();
+        AtomicBoolean anunciado = finAnunciado.get(id);
+        if (anunciado == null || !anunciado.compareAndSet(false, true)) {
+            return;
+        }
+        ByteBuffer aviso = Protocolo.finPartida(id, sesion.getResultado(), sesion.getMotivo());
+        Conexion[] pareja = jugadores.remove(id);
+        if (pareja != null) {
+            for (Conexion jugador : pareja) {
+                jugador.partidas.remove(id);
+                jugador.enviar(aviso.duplicate());
+            }
+        }
+        finAnunciado.remove(id);
+        registro.eliminar(id);
+    }
+
+    /**
+     * Un jugador que se desconecta deja de esperar rival y abandona sus partidas.
+     */
+    private void desconectar(Conexion conexion) {
+        synchronized (enEspera) {
+            enEspera.values().remove(conexion);
+        }
+        for (Long id : new ArrayList<>(conexion.partidas.keySet())) {
+            abandonar(conexion, id);
+        }
+        for (DifusorPartida.Suscripcion suscripcion : conexion.observadas.values()) {
+            suscripcion.cancelar();
+        }
+        conexion.observadas.clear();
+    }
+
+    /**
+     * Estado de una conexión. Sólo su reactor lee del canal y escribe en él;
+     * los demás hilos dejan las tramas en la cola de salida.
+     */
+    private final class Conexion {
+        private final SocketChannel canal;
+        private final Reactor reactor;
+        private final ByteBuffer entrada = ByteBuffer.allocate(4 * Protocolo.MAXIMO_TRAMA);
+        private final Queue<ByteBuffer> salida = new ConcurrentLinkedQueue<>();
+        /** Bytes encolados en la salida y aún no escritos */
+        private final AtomicLong pendientes = new AtomicLong();
+        /** La salida ha superado {@link #MAXIMO_SALIDA}; el reactor cerrará la conexión */
+        private volatile boolean desbordada;
+        /** Bando con el que juega en cada partida */
+        private final Map<Long, Integer> partidas = new ConcurrentHashMap<>();
+        /** Partidas que sigue como espectadora */
+        private final Map<Long, DifusorPartida.Suscripcion> observadas = new ConcurrentHashMap<>();
+        private volatile String nombre = "";
+        private SelectionKey clave;
+        /** Algún espectador de esta conexión espera a que se vacíe la cola de salida */
+        private volatile boolean esperaVaciado;
+
+        private Conexion(SocketChannel canal, Reactor reactor) {
+            this.canal = canal;
+            this.reactor = reactor;
+        }
+
+        /**
+         * Encola una trama y avisa al reactor para que la escriba. Si el otro
+         * extremo deja de leer y la salida pasa de {@link #MAXIMO_SALIDA}, la
+         * trama se descarta y el reactor cierra la conexión.
+         */
+        private void enviar(ByteBuffer trama) {
+            if (canal.isOpen() && !desbordada) {
+                if (pendientes.addAndGet(trama.remaining()) > MAXIMO_SALIDA) {
+                    desbordada = true;
+                } else {
+                    salida.add(trama);
+                }
+                reactor.solicitarEscritura(this);
+            }
+        }
+
+        /**
+         * @return true si no queda nada por escribir; si no, las partidas
+         *         observadas se reanudan cuando el reactor vacíe la cola
+         */
+        private boolean salidaVacia() {
+            if (salida.isEmpty()) {
+                return true;
+            }
+            esperaVaciado = true;
+            // El reactor puede haberla vaciado antes de ver la marca
+            return salida.isEmpty();
+        }
+    }
+
+    /**
+     * Hilo de E/S con su Selector.
+     */
+    private final class Reactor implements Runnable {
+        private final Selector selector;
+        private final Thread hilo;
+        private final Queue<SocketChannel> nuevas = new ConcurrentLinkedQueue<>();
+        private final Queue<Conexion> conEscritura = new ConcurrentLinkedQueue<>();
+        private volatile boolean cerrado;
+
+        private Reactor(int numero) throws IOException {
+            selector = Selector.open();
+            hilo = new Thread(this, "servidor-partidas-" + numero);
+            hilo.setDaemon(true);
+        }
+
+        private void asignar(SocketChannel canal) {
+            nuevas.add(canal);
+            selector.wakeup();
+        }
+
+        private void solicitarEscritura(Conexion conexion) {
+            conEscritura.add(conexion);
+            if (Thread.currentThread() != hilo) {
+                selector.wakeup();
+            }
+        }
+
+        /**
+         * Detiene el reactor. Las conexiones y el selector los cierra su
+         * propio hilo, para no modificarlos mientras los recorre.
+         */
+        private void cerrar() throws IOException {
+            cerrado = true;
+            if (hilo.isAlive()) {
+                selector.wakeup();
+                try {
+                    hilo.join(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                liberar();
+            }
+        }
+
+        private void liberar() throws IOException {
+            for (SelectionKey clave : selector.keys()) {
+                clave.channel().close();
+            }
+            selector.close();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!cerrado) {
+                    selector.select();
+                    registrarNuevas();
+                    Iterator<SelectionKey> claves = selector.selectedKeys().iterator();
+                    while (claves.hasNext()) {
+                        SelectionKey clave = claves.next();
+                        claves.remove();
+                        atender(clave);
+                    }
+                    // Incluye las respuestas encoladas por este mismo hilo al atender las claves
+                    atenderEscrituras();
+                }
+            } catch (ClosedSelectorException e) {
+                // El servidor se ha cerrado
+            } catch (IOException e) {
+                System.err.println("Error en " + hilo.getName() + ": " + e.getMessage());
+            } finally {
+                try {
+                    liberar();
+                } catch (IOException e) {
+                    // Se está cerrando
+                }
+            }
+        }
+
+        private void registrarNuevas() throws IOException {
+            SocketChannel canal;
+            while ((canal = nuevas.poll()) != null) {
+                canal.configureBlocking(false);
+                canal.socket().setTcpNoDelay(true);
+                Conexion conexion = new Conexion(canal, this);
+                conexion.clave = canal.register(selector, SelectionKey.OP_READ, conexion);
+                conexiones.incrementAndGet();
+            }
+        }
+
+        private void atenderEscrituras() {
+            Conexion conexion;
+            while ((conexion = conEscritura.poll()) != null) {
+                if (conexion.clave != null && conexion.clave.isValid()) {
+                    escribir(conexion);
+                }
+            }
+        }
+
+        private void atender(SelectionKey clave) {
+            if (!clave.isValid()) {
+                return;
+            }
+            if (clave.isAcceptable()) {
+                aceptar();
+                return;
+            }
+            Conexion conexion = (Conexion) clave.attachment();
+            if (clave.isReadable()) {
+                leer(conexion);
+            }
+            if (clave.isValid() && clave.isWritable()) {
+                escribir(conexion);
+            }
+        }
+
+        private void aceptar() {
+            try {
+                SocketChannel canal;
+                while ((canal = aceptador.accept()) != null) {
+                    reactores[siguienteReactor].asignar(canal);
+                    siguienteReactor = (siguienteReactor + 1) % reactores.length;
+                }
+            } catch (IOException e) {
+                System.err.println("Error al aceptar una conexión: " + e.getMessage());
+            }
+        }
+
+        private void leer(Conexion conexion) {
+            try {
+                if (conexion.canal.read(conexion.entrada) < 0) {
+                    cerrarConexion(conexion);
+                    return;
+                }
+                conexion.entrada.flip();
+                ByteBuffer trama;
+                while ((trama = Protocolo.siguienteTrama(conexion.entrada)) != null) {
+                    procesar(conexion, Mensaje.leer(trama));
+                }
+                conexion.entrada.compact();
+            } catch (IOException | IllegalArgumentException e) {
+                // Error de red o cliente que no respeta el protocolo
+                cerrarConexion(conexion);
+            }
+        }
+
+        private void escribir(Conexion conexion) {
+            if (conexion.desbordada) {
+                cerrarConexion(conexion);
+                return;
+            }
+            try {
+                ByteBuffer trama;
+                while ((trama = conexion.salida.peek()) != null) {
+                    conexion.pendientes.addAndGet(-conexion.canal.write(trama));
+                    if (trama.hasRemaining()) {
+                        conexion.clave.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                    conexion.salida.poll();
+                }
+                conexion.clave.interestOps(SelectionKey.OP_READ);
+                if (conexion.esperaVaciado) {
+                    conexion.esperaVaciado = false;
+                    conexion.observadas.values().forEach(DifusorPartida.Suscripcion::reanudar);
+                }
+            } catch (IOException e) {
+                cerrarConexion(conexion);
+            }
+        }
+
+        private void cerrarConexion(Conexion conexion) {
+            if (!conexion.canal.isOpen()) {
+                return;
+            }
+            try {
+                conexion.canal.close();
+            } catch (IOException e) {
+                // Se descarta: la conexión ya no se usa
+            }
+            conexiones.decrementAndGet();
+            desconectar(conexion);
+        }
+    }
+}
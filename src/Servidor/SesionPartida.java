@@ -0,0 +1,396 @@
+package Servidor;
+
+import Modelo.JugadorAjedrez;
+import Modelo.ModoTiempo;
+import Modelo.RelojPartida;
+import Motor.Arbitro;
+import Motor.EstadoPartida;
+import Motor.GeneradorMovimientos;
+import Motor.Movimiento;
+import Motor.Notacion;
+import Motor.PartidaPgn;
+import Motor.Posicion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Una partida alojada en el servidor, con su posición, su reloj, su árbitro y
+ * la lista de movimientos jugados. Cada sesión es independiente de las demás:
+ * no comparte con ellas ningún estado mutable, y todos sus métodos se
+ * sincronizan sobre la propia sesión, de modo que cualquier hilo puede
+ * atenderla sin que hagan falta hilos dedicados por partida.
+ *
+ * Las partidas por correspondencia se crean sin reloj. En las que lo tienen,
+ * el reloj se comprueba al recibir cada movimiento y, además, se programa en
+ * el temporizador compartido la caída de bandera del bando que mueve.
+ *
+ * Cada movimiento, cambio de reloj y final se publica en el
+ * {@link DifusorPartida} de la sesión para sus espectadores; como se publica
+ * con la sesión bloqueada, el difusor tiene un único escritor.
+ */
+public class SesionPartida {
+    private final long id;
+    private final JugadorAjedrez blancas;
+    private final JugadorAjedrez negras;
+    /** Reloj de la partida, o null si es por correspondencia */
+    private final RelojPartida reloj;
+    private final ScheduledExecutorService temporizador;
+    private final DifusorPartida difusor;
+
+    private final Posicion posicion = Posicion.inicial();
+    private final Arbitro arbitro = new Arbitro();
+    private final List<String> movimientos = new ArrayList<>();
+    /** Movimientos legales de la posición actual, calculados una vez por movimiento */
+    private int[] legales;
+    private EstadoPartida estado;
+    private String resultado = "*";
+    private String motivo = "";
+    private boolean iniciada;
+    private ScheduledFuture<?> caidaBandera;
+    /** La sesión se ha retirado del registro y su reloj ya no se vigila */
+    private boolean retirada;
+    /** Instante (System.currentTimeMillis) del último cambio en la partida */
+    private long ultimaActividad;
+    /** Se avisa cuando el temporizador termina la partida por tiempo */
+    private Consumer<SesionPartida> alCaerBandera;
+
+    /**
+     * @param id Identificador de la sesión dentro de su registro
+     * @param nombreBlancas Nombre del jugador de las blancas
+     * @param nombreNegras Nombre del jugador de las negras
+     * @param tiempoInicial Tiempo de cada jugador en milisegundos; 0 o menos para jugar sin reloj
+     * @param incremento Incremento o retardo por jugada en milisegundos
+     * @param modo Modalidad de control de tiempo
+     * @param temporizador Temporizador con el que se programan las caídas de bandera
+     * @param difusion Hilos que entregan las novedades a los espectadores
+     */
+    SesionPartida(long id, String nombreBlancas, String nombreNegras, int tiempoInicial, int incremento,
+                  ModoTiempo modo, ScheduledExecutorService temporizador, Executor difusion) {
+        this.id = id;
+        this.blancas = new JugadorAjedrez(nombreBlancas, 'B');
+        this.negras = new JugadorAjedrez(nombreNegras, 'N');
+        this.reloj = tiempoInicial > 0 ? new RelojPartida(blancas, negras, tiempoInicial, incremento, modo) : null;
+        this.temporizador = temporizador;
+        this.difusor = new DifusorPartida(id, difusion);
+        this.legales = GeneradorMovimientos.legales(posicion);
+        this.estado = arbitro.registrar(posicion, legales.length);
+        this.ultimaActividad = System.currentTimeMillis();
+    }
+
+    /**
+     * Pone en marcha el reloj. No hace nada si la partida ya había empezado.
+     */
+    public synchronized void iniciar() {
+        if (iniciada) {
+            return;
+        }
+        iniciada = true;
+        if (reloj != null) {
+            reloj.iniciar();
+            programarCaida();
+            difundirReloj();
+        }
+    }
+
+    /**
+     * Juega un movimiento del bando indicado.
+     * @param bando Bando que mueve (Posicion.BLANCAS o Posicion.NEGRAS)
+     * @param texto Movimiento en notación SAN o UCI
+     * @return Movimiento tal como queda registrado, en notación SAN
+     * @throws IllegalStateException Si la partida no está en juego o no es el turno del bando
+     * @throws IllegalArgumentException Si el movimiento no es legal
+     */
+    public synchronized String jugar(int bando, String texto) {
+        comprobarTurno(bando);
+        int movimiento = Notacion.desdeSan(posicion, texto, legales);
+        if (movimiento == Movimiento.NINGUNO) {
+            throw new IllegalArgumentException("movimiento ilegal: " + texto);
+        }
+        return aplicar(movimiento);
+    }
+
+    /**
+     * Juega un movimiento del bando indicado dado por sus casillas, como
+     * llega en el protocolo binario.
+     * @param bando Bando que mueve (Posicion.BLANCAS o Posicion.NEGRAS)
+     * @param origen Casilla de origen
+     * @param destino Casilla de destino
+     * @param promocion Pieza de promoción, o Posicion.VACIO
+     * @return Movimiento tal como queda registrado, en notación SAN
+     * @throws IllegalStateException Si la partida no está en juego o no es el turno del bando
+     * @throws IllegalArgumentException Si el movimiento no es legal
+     */
+    public synchronized String jugar(int bando, int origen, int destino, int promocion) {
+        comprobarTurno(bando);
+        for (int movimiento : legales) {
+            if (Movimiento.origen(movimiento) == origen && Movimiento.destino(movimiento) == destino
+                    && Movimiento.promocion(movimiento) == promocion) {
+                return aplicar(movimiento);
+            }
+        }
+        throw new IllegalArgumentException("movimiento ilegal: " + Movimiento.nombreCasilla(origen)
+                + Movimiento.nombreCasilla(destino));
+    }
+
+    private void comprobarTurno(int bando) {
+        if (!iniciada) {
+            throw new IllegalStateException("la partida " + id + " no ha empezado");
+        }
+        comprobarTiempo();
+        if (isTerminada()) {
+            throw new IllegalStateException("la partida " + id + " ha terminado: " + motivo);
+        }
+        if (bando != posicion.getTurno()) {
+            throw new IllegalStateException("no es el turno de las " + (bando == Posicion.BLANCAS ? "blancas" : "negras"));
+        }
+    }
+
+    private String aplicar(int movimiento) {
+        String san = Notacion.aSan(posicion, movimiento, legales);
+        movimientos.add(san);
+        posicion.hacerMovimiento(movimiento);
+        legales = GeneradorMovimientos.legales(posicion);
+        estado = arbitro.registrar(posicion, legales.length);
+        ultimaActividad = System.currentTimeMillis();
+
+        if (!estado.esFinal() && reloj != null) {
+            reloj.cambiarTurno();
+            programarCaida();
+        }
+        difusor.publicarMovimiento(Protocolo.empaquetar(Movimiento.origen(movimiento),
+                        Movimiento.destino(movimiento), Movimiento.promocion(movimiento)),
+                getTiempoRestante(Posicion.BLANCAS), getTiempoRestante(Posicion.NEGRAS));
+        if (estado.esFinal()) {
+            terminar(estado.resultadoPgn(posicion.getTurno()), estado.getDescripcion());
+        }
+        return san;
+    }
+
+    /**
+     * El bando indicado abandona y pierde la partida.
+     * @param bando Bando que abandona
+     */
+    public synchronized void abandonar(int bando) {
+        if (!isTerminada()) {
+            terminar(bando == Posicion.BLANCAS ? "0-1" : "1-0", "abandono");
+        }
+    }
+
+    /**
+     * Termina la partida si al bando que mueve se le ha acabado el tiempo.
+     * @return true si la partida ha terminado, por tiempo o por otra causa
+     */
+    public synchronized boolean comprobarTiempo() {
+        if (!isTerminada() && reloj != null && reloj.tiempoAgotado()) {
+            terminar(posicion.getTurno() == Posicion.BLANCAS ? "0-1" : "1-0", "tiempo agotado");
+        }
+        return isTerminada();
+    }
+
+    /**
+     * @return Partida en formato PGN con el resultado actual
+     */
+    public synchronized PartidaPgn aPgn() {
+        PartidaPgn partida = new PartidaPgn();
+        partida.setEtiqueta("Event", "Partida " + id);
+        partida.setEtiqueta("White", blancas.getNombre());
+        partida.setEtiqueta("Black", negras.getNombre());
+        partida.setEtiqueta("Result", resultado);
+        if (isTerminada()) {
+            partida.setEtiqueta("Termination", motivo);
+        }
+        partida.getMovimientos().addAll(movimientos);
+        partida.setResultado(resultado);
+        return partida;
+    }
+
+    /**
+     * Publica para los espectadores el tiempo que le queda a cada bando. No
+     * hace nada si la partida no tiene reloj o ha terminado.
+     */
+    public synchronized void difundirReloj() {
+        if (reloj != null && !isTerminada()) {
+            difusor.publicarReloj(getTiempoRestante(Posicion.BLANCAS), getTiempoRestante(Posicion.NEGRAS));
+        }
+    }
+
+    /**
+     * @return Difusor al que suscribir espectadores de la partida
+     */
+    public DifusorPartida getDifusor() {
+        return difusor;
+    }
+
+    /**
+     * Indica a quién avisar cuando el temporizador dé la partida por perdida
+     * por tiempo, ya que entonces no hay ninguna llamada que lo devuelva. El
+     * aviso llega desde el hilo del temporizador con la sesión bloqueada, así
+     * que el oyente no debe esperar por otros hilos.
+     * @param alCaerBandera Oyente, o null para no avisar
+     */
+    public synchronized void setAlCaerBandera(Consumer<SesionPartida> alCaerBandera) {
+        this.alCaerBandera = alCaerBandera;
+    }
+
+    /**
+     * @return Movimientos legales del bando que mueve en notación UCI, vacío si la partida ha terminado
+     */
+    public synchronized List<String> getMovimientosLegales() {
+        List<String> lista = new ArrayList<>();
+        if (!isTerminada()) {
+            for (int movimiento : legales) {
+                lista.add(Movimiento.aUci(movimiento));
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * @return Copia de los movimientos jugados, en notación SAN
+     */
+    public synchronized List<String> getMovimientos() {
+        return Collections.unmodifiableList(new ArrayList<>(movimientos));
+    }
+
+    /**
+     * @return Posición actual en notación FEN
+     */
+    public synchronized String getFen() {
+        return posicion.aFen();
+    }
+
+    /**
+     * @return Bando al que le toca mover
+     */
+    public synchronized int getTurno() {
+        return posicion.getTurno();
+    }
+
+    /**
+     * @param bando Bando a consultar
+     * @return Milisegundos restantes del bando, o -1 si la partida no tiene reloj
+     */
+    public synchronized int getTiempoRestante(int bando) {
+        return reloj != null ? reloj.getTiempoRestante(bando == Posicion.BLANCAS) : -1;
+    }
+
+    /**
+     * @return Estado de la partida según las reglas del ajedrez
+     */
+    public synchronized EstadoPartida getEstado() {
+        return estado;
+    }
+
+    /**
+     * @return "1-0", "0-1", "1/2-1/2" o "*" si la partida sigue en juego
+     */
+    public synchronized String getResultado() {
+        return resultado;
+    }
+
+    /**
+     * @return Causa del final de la partida, vacía si sigue en juego
+     */
+    public synchronized String getMotivo() {
+        return motivo;
+    }
+
+    /**
+     * @return true si la partida ha terminado por cualquier causa
+     */
+    public synchronized boolean isTerminada() {
+        return !resultado.equals("*");
+    }
+
+    /**
+     * @return Instante (System.currentTimeMillis) del último cambio en la partida
+     */
+    public synchronized long getUltimaActividad() {
+        return ultimaActividad;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getNombreBlancas() {
+        return blancas.getNombre();
+    }
+
+    public String getNombreNegras() {
+        return negras.getNombre();
+    }
+
+    /**
+     * @return true si la partida se juega sin reloj
+     */
+    public boolean isCorrespondencia() {
+        return reloj == null;
+    }
+
+    /**
+     * Deja de vigilar el reloj de una sesión retirada de su registro: cancela
+     * la caída de bandera programada y no vuelve a programarla. La partida
+     * queda como estaba.
+     */
+    synchronized void retirar() {
+        retirada = true;
+        if (caidaBandera != null) {
+            caidaBandera.cancel(false);
+            caidaBandera = null;
+        }
+    }
+
+    private void terminar(String resultado, String motivo) {
+        this.resultado = resultado;
+        this.motivo = motivo;
+        this.ultimaActividad = System.currentTimeMillis();
+        if (reloj != null) {
+            reloj.detener();
+        }
+        if (caidaBandera != null) {
+            caidaBandera.cancel(false);
+            caidaBandera = null;
+        }
+        difusor.publicarFin(resultado, motivo, getTiempoRestante(Posicion.BLANCAS), getTiempoRestante(Posicion.NEGRAS));
+    }
+
+    /**
+     * Programa la comprobación del reloj para el instante en que se acabaría
+     * el tiempo del bando que mueve, sustituyendo la programada antes.
+     */
+    private void programarCaida() {
+        if (temporizador == null || temporizador.isShutdown() || retirada) {
+            return;
+        }
+        if (caidaBandera != null) {
+            caidaBandera.cancel(false);
+        }
+        long restante = reloj.getTiempoRestante(reloj.isTurnoBlancas());
+        caidaBandera = temporizador.schedule(this::vigilarBandera, restante + 1, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Tarea del temporizador. Con retardo el tiempo tarda más en agotarse de
+     * lo previsto, así que si la bandera aún no ha caído se vuelve a programar.
+     */
+    private synchronized void vigilarBandera() {
+        if (isTerminada() || retirada) {
+            return;
+        }
+        if (comprobarTiempo()) {
+            if (alCaerBandera != null) {
+                alCaerBandera.accept(this);
+            }
+        } else if (reloj.isActivo()) {
+            programarCaida();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package Vista;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caché de imágenes pre-rasterizadas de las piezas.
+ * Cada símbolo se dibuja una única vez por combinación de pieza, tamaño de
+ * casilla y factor de escala de la pantalla, de modo que pintar una posición
+ * se reduce a copiar imágenes ya preparadas.
+ *
+ * Las imágenes se crean compatibles con la configuración gráfica de destino
+ * para que Java2D pueda mantenerlas aceleradas en memoria de vídeo.
+ */
+public class CacheSprites {
+    /** Imágenes generadas, indexadas por pieza, tamaño y escala */
+    private final Map<String, BufferedImage> sprites = new HashMap<>();
+    /** Nombre de la fuente usada para rasterizar los símbolos */
+    private final String nombreFuente;
+
+    /**
+     * @param nombreFuente Fuente con la que se dibujan los símbolos de las piezas
+     */
+    public CacheSprites(String nombreFuente) {
+        this.nombreFuente = nombreFuente;
+    }
+
+    /**
+     * Obtiene la imagen de una pieza, rasterizándola si aún no está en caché.
+     *
+     * @param simbolo Símbolo Unicode de la pieza
+     * @param color Color con el que se dibuja el símbolo
+     * @param tam Lado de la casilla en píxeles lógicos
+     * @param escala Factor de escala de la pantalla (1.0, 1.25, 2.0...)
+     * @param gc Configuración gráfica del dispositivo de destino, puede ser null
+     * @return Imagen de tam * escala píxeles físicos de lado
+     */
+    public BufferedImage obtener(String simbolo, Color color, int tam, double escala,
+                                 GraphicsConfiguration gc) {
+        String clave = simbolo + '|' + color.getRGB() + '|' + tam + '|' + escala;
+        BufferedImage sprite = sprites.get(clave);
+        if (sprite == null) {
+            sprite = rasterizar(simbolo, color, tam, escala, gc);
+            sprites.put(clave, sprite);
+        }
+        return sprite;
+    }
+
+    /**
+     * Descarta todas las imágenes generadas. Se usa cuando cambia el
+     * tamaño del tablero y las imágenes anteriores dejan de servir.
+     */
+    public void invalidar() {
+        sprites.clear();
+    }
+
+    /**
+     * Dibuja el símbolo centrado sobre una imagen transparente.
+     */
+    private BufferedImage rasterizar(String simbolo, Color color, int tam, double escala,
+                                     GraphicsConfiguration gc) {
+        int lado = Math.max(1, (int) Math.ceil(tam * escala));
+        BufferedImage imagen = gc != null
+                ? gc.createCompatibleImage(lado, lado, Transparency.TRANSLUCENT)
+                : new BufferedImage(lado, lado, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g2d = imagen.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                    RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2d.setFont(new Font(nombreFuente, Font.PLAIN, Math.max(1, lado * 2 / 3)));
+            FontMetrics fm = g2d.getFontMetrics();
+            int x = (lado - fm.stringWidth(simbolo)) / 2;
+            int y = (lado - fm.getHeight()) / 2 + fm.getAscent();
+            g2d.setColor(color);
+            g2d.drawString(simbolo, x, y);
+        } finally {
+            g2d.dispose();
+        }
+        return imagen;
+    }
+}
@@ -1,15 +1,21 @@
 package Vista;
 
+import Modelo.ModoTiempo;
+
 import javax.swing.*;
 import java.awt.*;
 
 /**
  * Diálogo modal para ingresar los nombres de los jugadores de ajedrez.
- * Permite introducir los nombres para las piezas blancas y negras.
+ * Permite introducir los nombres para las piezas blancas y negras
+ * y el control de tiempo de la partida.
  */
 public class DialogoJugadores extends JDialog {
     private JTextField nombreBlancas;
     private JTextField nombreNegras;
+    private JSpinner minutos;
+    private JSpinner incremento;
+    private JComboBox<ModoTiempo> modoTiempo;
     private boolean aceptado;
 
     /**
@@ -45,6 +51,25 @@ public class DialogoJugadores extends JDialog {
         gbc.gridx = 1;
         add(nombreNegras, gbc);
 
+        minutos = new JSpinner(new SpinnerNumberModel(5, 1, 180, 1));
+        incremento = new JSpinner(new SpinnerNumberModel(0, 0, 60, 1));
+        modoTiempo = new JComboBox<>(ModoTiempo.values());
+
+        gbc.gridx = 0; gbc.gridy = 2;
+        add(new JLabel("Minutos por jugador:"), gbc);
+        gbc.gridx = 1;
+        add(minutos, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 3;
+        add(new JLabel("Incremento/retardo (s):"), gbc);
+        gbc.gridx = 1;
+        add(incremento, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 4;
+        add(new JLabel("Modo de tiempo:"), gbc);
+        gbc.gridx = 1;
+        add(modoTiempo, gbc);
+
         JPanel panelBotones = new JPanel();
         JButton btnAceptar = new JButton("Aceptar");
         btnAceptar.addActionListener(e -> {
@@ -60,7 +85,7 @@ public class DialogoJugadores extends JDialog {
         panelBotones.add(btnAceptar);
         panelBotones.add(btnCancelar);
 
-        gbc.gridx = 0; gbc.gridy = 2;
+        gbc.gridx = 0; gbc.gridy = 5;
         gbc.gridwidth = 2;
         add(panelBotones, gbc);
 
@@ -99,6 +124,27 @@ public class DialogoJugadores extends JDialog {
         return nombreNegras.getText().trim();
     }
 
+    /**
+     * @return Tiempo inicial de cada jugador en milisegundos
+     */
+    public int getTiempoInicial() {
+        return (Integer) minutos.getValue() * 60 * 1000;
+    }
+
+    /**
+     * @return Incremento o retardo por jugada en milisegundos
+     */
+    public int getIncremento() {
+        return (Integer) incremento.getValue() * 1000;
+    }
+
+    /**
+     * @return Modalidad de control de tiempo elegida
+     */
+    public ModoTiempo getModoTiempo() {
+        return (ModoTiempo) modoTiempo.getSelectedItem();
+    }
+
     /**
      * @return true si el usuario presionó Aceptar, false si presionó Cancelar
      */
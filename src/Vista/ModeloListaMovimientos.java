@@ -0,0 +1,145 @@
+package Vista;
+
+import javax.swing.AbstractListModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modelo de la lista de movimientos mostrada junto al tablero.
+ * Cada fila corresponde a una jugada completa (movimiento de blancas y de
+ * negras). Los movimientos se añaden de forma incremental y sólo se notifican
+ * las filas afectadas, por lo que avanzar por una partida larga no obliga a
+ * volver a generar el resto de la lista.
+ */
+public class ModeloListaMovimientos extends AbstractListModel<String> {
+    /** Movimientos en notación algebraica, uno por medio movimiento */
+    private final List<String> movimientos = new ArrayList<>();
+    /** Anotación de cada medio movimiento ("?", "??"), vacía si no tiene */
+    private final List<String> marcas = new ArrayList<>();
+    /** Lista de origen sincronizada por última vez */
+    private List<String> fuente;
+    /** Índice del medio movimiento resaltado, -1 si no hay ninguno */
+    private int plyActual = -1;
+
+    /**
+     * Sincroniza el modelo con una lista de movimientos.
+     * Si la lista es la misma que la última vez y sólo ha crecido, se añaden
+     * los movimientos nuevos; en cualquier otro caso se reemplaza el contenido.
+     * @param lista lista de movimientos en notación algebraica
+     */
+    public void sincronizar(List<String> lista) {
+        boolean mismaFuente = lista == fuente && lista.size() >= movimientos.size();
+        if (!mismaFuente) {
+            fuente = lista;
+            limpiar();
+        }
+        for (int i = movimientos.size(); i < lista.size(); i++) {
+            agregar(lista.get(i));
+        }
+    }
+
+    /**
+     * Añade un medio movimiento al final de la lista.
+     * @param movimiento movimiento en notación algebraica
+     */
+    public void agregar(String movimiento) {
+        movimientos.add(movimiento);
+        marcas.add("");
+        int fila = (movimientos.size() - 1) / 2;
+        if (movimientos.size() % 2 == 1) {
+            fireIntervalAdded(this, fila, fila);
+        } else {
+            fireContentsChanged(this, fila, fila);
+        }
+    }
+
+    /**
+     * Elimina todos los movimientos.
+     */
+    public void limpiar() {
+        int filas = getSize();
+        movimientos.clear();
+        marcas.clear();
+        plyActual = -1;
+        if (filas > 0) {
+            fireIntervalRemoved(this, 0, filas - 1);
+        }
+    }
+
+    /**
+     * Cambia el medio movimiento resaltado, notificando sólo las filas
+     * que cambian de aspecto.
+     * @param ply índice del medio movimiento (0 = primera jugada de blancas), -1 para ninguno
+     */
+    public void setPlyActual(int ply) {
+        if (ply == plyActual) {
+            return;
+        }
+        // -1 / 2 es 0: sin ply anterior no hay fila que repintar
+        int filaAnterior = plyActual >= 0 ? plyActual / 2 : -1;
+        boolean habiaAnterior = filaAnterior >= 0 && filaAnterior < getSize();
+        plyActual = ply;
+        if (habiaAnterior) {
+            fireContentsChanged(this, filaAnterior, filaAnterior);
+        }
+        if (ply >= 0 && ply / 2 < getSize() && ply / 2 != filaAnterior) {
+            fireContentsChanged(this, ply / 2, ply / 2);
+        }
+    }
+
+    /**
+     * Anota un medio movimiento, notificando sólo su fila si la anotación cambia.
+     * @param ply índice del medio movimiento
+     * @param marca anotación ("?", "??"), o "" para quitarla
+     */
+    public void setMarca(int ply, String marca) {
+        if (ply < 0 || ply >= marcas.size() || marcas.get(ply).equals(marca)) {
+            return;
+        }
+        marcas.set(ply, marca);
+        fireContentsChanged(this, ply / 2, ply / 2);
+    }
+
+    /**
+     * @param ply índice del medio movimiento
+     * @return Anotación del medio movimiento, "" si no tiene
+     */
+    public String getMarca(int ply) {
+        return ply < marcas.size() ? marcas.get(ply) : "";
+    }
+
+    /**
+     * @return Índice del medio movimiento resaltado, -1 si no hay ninguno
+     */
+    public int getPlyActual() {
+        return plyActual;
+    }
+
+    /**
+     * @param fila número de fila
+     * @return Movimiento de blancas de la fila
+     */
+    public String getBlancas(int fila) {
+        return movimientos.get(fila * 2);
+    }
+
+    /**
+     * @param fila número de fila
+     * @return Movimiento de negras de la fila, o null si aún no se ha jugado
+     */
+    public String getNegras(int fila) {
+        int indice = fila * 2 + 1;
+        return indice < movimientos.size() ? movimientos.get(indice) : null;
+    }
+
+    @Override
+    public int getSize() {
+        return (movimientos.size() + 1) / 2;
+    }
+
+    @Override
+    public String getElementAt(int fila) {
+        String negras = getNegras(fila);
+        return (fila + 1) + ". " + getBlancas(fila) + (negras != null ? " " + negras : "");
+    }
+}
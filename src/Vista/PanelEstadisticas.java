@@ -0,0 +1,120 @@
+package Vista;
+
+import Motor.EstadisticasBusqueda;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Panel que muestra en directo las estadísticas del análisis del visor:
+ * las mejores variantes, nodos, nodos por segundo, factor de ramificación,
+ * calidad de la ordenación, aciertos en la tabla de transposición y el coste
+ * de cada profundidad. Se actualiza desde el hilo de Swing. Al cambiar el
+ * número de variantes notifica "LINEAS_ANALISIS" con el nuevo número.
+ */
+public class PanelEstadisticas extends JPanel {
+    private static final Color COLOR_FONDO = new Color(45, 45, 45);
+    private static final Color COLOR_TEXTO = new Color(200, 200, 200);
+    private static final Font FUENTE = new Font("Monospaced", Font.PLAIN, 13);
+    private static final int LINEAS_MAXIMO = 5;
+
+    private final JSpinner selectorLineas = new JSpinner(new SpinnerNumberModel(1, 1, LINEAS_MAXIMO, 1));
+    private final JTextArea areaVariantes = new JTextArea(1, 22);
+    private final JLabel lblNodos = crearEtiqueta();
+    private final JLabel lblNps = crearEtiqueta();
+    private final JLabel lblRamificacion = crearEtiqueta();
+    private final JLabel lblCortes = crearEtiqueta();
+    private final JLabel lblTabla = crearEtiqueta();
+    private final JTextArea areaProfundidades = new JTextArea(8, 22);
+
+    public PanelEstadisticas() {
+        setLayout(new BorderLayout(0, 5));
+        setBackground(COLOR_FONDO);
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JPanel cabecera = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        cabecera.setOpaque(false);
+        JLabel lblLineas = crearEtiqueta();
+        lblLineas.setText("Variantes:");
+        cabecera.add(lblLineas);
+        selectorLineas.setFocusable(false);
+        selectorLineas.addChangeListener(e ->
+                firePropertyChange("LINEAS_ANALISIS", null, selectorLineas.getValue()));
+        cabecera.add(selectorLineas);
+
+        areaVariantes.setEditable(false);
+        areaVariantes.setFocusable(false);
+        areaVariantes.setFont(FUENTE);
+        areaVariantes.setBackground(COLOR_FONDO);
+        areaVariantes.setForeground(COLOR_TEXTO);
+
+        JPanel resumen = new JPanel(new GridLayout(0, 1, 0, 2));
+        resumen.setOpaque(false);
+        resumen.add(lblNodos);
+        resumen.add(lblNps);
+        resumen.add(lblRamificacion);
+        resumen.add(lblCortes);
+        resumen.add(lblTabla);
+        JPanel superior = new JPanel(new BorderLayout(0, 5));
+        superior.setOpaque(false);
+        superior.add(cabecera, BorderLayout.NORTH);
+        superior.add(areaVariantes, BorderLayout.CENTER);
+        superior.add(resumen, BorderLayout.SOUTH);
+        add(superior, BorderLayout.NORTH);
+
+        areaProfundidades.setEditable(false);
+        areaProfundidades.setFocusable(false);
+        areaProfundidades.setFont(FUENTE);
+        areaProfundidades.setBackground(COLOR_FONDO);
+        areaProfundidades.setForeground(COLOR_TEXTO);
+        add(new JScrollPane(areaProfundidades), BorderLayout.CENTER);
+        limpiar();
+    }
+
+    /**
+     * @param variantes Evaluación y variante de cada línea ya formateadas, de mejor a peor
+     * @param estadisticas Estadísticas de la última iteración completada
+     */
+    public void mostrar(List<String> variantes, EstadisticasBusqueda estadisticas) {
+        areaVariantes.setText(String.join("\n", variantes));
+        lblNodos.setText(String.format(Locale.ROOT, "Nodos: %,d (quietud %,d)",
+                estadisticas.getNodos(), estadisticas.getNodosQuiescencia()));
+        lblNps.setText(String.format(Locale.ROOT, "Nodos/s: %,d con %d hilo(s)",
+                estadisticas.getNps(), estadisticas.getHilos()));
+        lblRamificacion.setText(String.format(Locale.ROOT, "Ramificación efectiva: %.2f",
+                estadisticas.getFactorRamificacion()));
+        lblCortes.setText(String.format(Locale.ROOT, "Cortes con el 1er movimiento: %.1f%%",
+                estadisticas.getTasaCortePrimerMovimiento() * 100));
+        lblTabla.setText(String.format(Locale.ROOT, "Aciertos en la tabla: %.1f%%",
+                estadisticas.getTasaAciertosTabla() * 100));
+
+        StringBuilder profundidades = new StringBuilder("Prof.        Nodos      ms\n");
+        for (int p = 1; p <= estadisticas.getProfundidad(); p++) {
+            profundidades.append(String.format(Locale.ROOT, "%5d %12d %7.1f%n",
+                    p, estadisticas.getNodosIteracion(p), estadisticas.getMicrosIteracion(p) / 1000.0));
+        }
+        areaProfundidades.setText(profundidades.toString());
+    }
+
+    /**
+     * Borra los datos del análisis anterior.
+     */
+    public void limpiar() {
+        areaVariantes.setText("Analizando...");
+        lblNodos.setText(" ");
+        lblNps.setText(" ");
+        lblRamificacion.setText(" ");
+        lblCortes.setText(" ");
+        lblTabla.setText(" ");
+        areaProfundidades.setText("");
+    }
+
+    private static JLabel crearEtiqueta() {
+        JLabel etiqueta = new JLabel(" ");
+        etiqueta.setFont(FUENTE);
+        etiqueta.setForeground(COLOR_TEXTO);
+        return etiqueta;
+    }
+}
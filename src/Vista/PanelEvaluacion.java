@@ -0,0 +1,165 @@
+package Vista;
+
+import Motor.EvaluacionPosicion;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+
+/**
+ * Gráfica de la evaluación de cada posición de la partida del visor, que se
+ * va completando según llegan los resultados del análisis en segundo plano.
+ * Marca en rojo los errores graves y en naranja los errores, y una línea
+ * vertical señala la posición mostrada. Al pulsar sobre la gráfica se
+ * notifica la propiedad "SELECCION_PLY" con la posición elegida.
+ */
+public class PanelEvaluacion extends JComponent {
+    private static final Color COLOR_FONDO = new Color(45, 45, 45);
+    private static final Color COLOR_VENTAJA_BLANCAS = new Color(225, 225, 225);
+    private static final Color COLOR_LINEA_CERO = new Color(120, 120, 120);
+    private static final Color COLOR_ACTUAL = new Color(255, 215, 0);
+    private static final Color COLOR_ERROR_GRAVE = new Color(231, 76, 60);
+    private static final Color COLOR_ERROR = new Color(243, 156, 18);
+
+    /** Evaluación de cada posición, null mientras no se ha analizado */
+    private EvaluacionPosicion[] evaluaciones = new EvaluacionPosicion[0];
+    private int plyActual;
+
+    public PanelEvaluacion() {
+        setPreferredSize(new Dimension(600, 110));
+        setToolTipText("");
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (evaluaciones.length > 0) {
+                    firePropertyChange("SELECCION_PLY", -1, plyEn(e.getX()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Vacía la gráfica para una partida nueva.
+     * @param posiciones Número de posiciones de la partida, incluida la inicial
+     */
+    public void reiniciar(int posiciones) {
+        evaluaciones = new EvaluacionPosicion[posiciones];
+        plyActual = 0;
+        repaint();
+    }
+
+    /**
+     * Añade la evaluación de una posición.
+     */
+    public void setEvaluacion(EvaluacionPosicion evaluacion) {
+        if (evaluacion.getPly() < evaluaciones.length) {
+            evaluaciones[evaluacion.getPly()] = evaluacion;
+            repaint();
+        }
+    }
+
+    /**
+     * @param ply Posición mostrada en el tablero
+     */
+    public void setPlyActual(int ply) {
+        plyActual = ply;
+        repaint();
+    }
+
+    /**
+     * Clasifica un movimiento según lo que empeoró la evaluación de quien lo jugó.
+     * @param movimiento Índice del medio movimiento (0 = primera jugada de blancas)
+     * @return "??", "?" o "?!" según {@link EvaluacionPosicion#marca}, o "" si no
+     *         merece anotación o aún no se conocen las dos evaluaciones
+     */
+    public String getMarca(int movimiento) {
+        if (movimiento < 0 || movimiento + 1 >= evaluaciones.length
+                || evaluaciones[movimiento] == null || evaluaciones[movimiento + 1] == null) {
+            return "";
+        }
+        return EvaluacionPosicion.marca(EvaluacionPosicion.perdida(evaluaciones[movimiento], evaluaciones[movimiento + 1]));
+    }
+
+    /**
+     * @return Número de posiciones ya evaluadas
+     */
+    public int getEvaluadas() {
+        return (int) Arrays.stream(evaluaciones).filter(e -> e != null).count();
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        if (evaluaciones.length == 0) {
+            return null;
+        }
+        EvaluacionPosicion evaluacion = evaluaciones[plyEn(e.getX())];
+        if (evaluacion == null) {
+            return "Analizando...";
+        }
+        if (evaluacion.esFinal()) {
+            return evaluacion.esMate() ? "Jaque mate" : "Rey ahogado";
+        }
+        return String.format("%s  mejor %s (prof. %d)", evaluacion.formatear(),
+                evaluacion.getMejorSan().isEmpty() ? "-" : evaluacion.getMejorSan(), evaluacion.getProfundidad());
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        int ancho = getWidth();
+        int alto = getHeight();
+        int cero = alto / 2;
+        g2d.setColor(COLOR_FONDO);
+        g2d.fillRect(0, 0, ancho, alto);
+
+        // Columna de cada posición evaluada, desde la línea del cero hacia la ventaja
+        g2d.setColor(COLOR_VENTAJA_BLANCAS);
+        for (int ply = 0; ply < evaluaciones.length; ply++) {
+            if (evaluaciones[ply] != null) {
+                int y = altura(evaluaciones[ply], alto);
+                int x0 = xDe(ply);
+                int x1 = Math.max(x0 + 1, xDe(ply + 1));
+                g2d.fillRect(x0, Math.min(y, cero), x1 - x0, Math.abs(cero - y));
+            }
+        }
+        g2d.setColor(COLOR_LINEA_CERO);
+        g2d.drawLine(0, cero, ancho, cero);
+
+        for (int movimiento = 0; movimiento + 1 < evaluaciones.length; movimiento++) {
+            String marca = getMarca(movimiento);
+            if (marca.equals("??") || marca.equals("?")) {
+                g2d.setColor(marca.equals("??") ? COLOR_ERROR_GRAVE : COLOR_ERROR);
+                int x = (xDe(movimiento + 1) + xDe(movimiento + 2)) / 2;
+                int y = altura(evaluaciones[movimiento + 1], alto);
+                g2d.fillOval(x - 4, y - 4, 8, 8);
+            }
+        }
+
+        if (evaluaciones.length > 0) {
+            g2d.setColor(COLOR_ACTUAL);
+            int x = (xDe(plyActual) + xDe(plyActual + 1)) / 2;
+            g2d.drawLine(x, 0, x, alto);
+        }
+        g2d.dispose();
+    }
+
+    private int xDe(int ply) {
+        return evaluaciones.length == 0 ? 0 : ply * getWidth() / evaluaciones.length;
+    }
+
+    private int plyEn(int x) {
+        return Math.max(0, Math.min(evaluaciones.length - 1, x * evaluaciones.length / Math.max(1, getWidth())));
+    }
+
+    /**
+     * Altura en la que se dibuja una evaluación; se comprime de forma que
+     * las diferencias pequeñas se aprecian y una ventaja decisiva llega al borde.
+     */
+    private static int altura(EvaluacionPosicion evaluacion, int alto) {
+        double relativa = 2 / (1 + Math.exp(-0.004 * evaluacion.getPuntuacionAcotada())) - 1;
+        return (int) Math.round(alto / 2.0 - relativa * (alto / 2.0 - 2));
+    }
+}
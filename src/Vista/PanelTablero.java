@@ -0,0 +1,256 @@
+package Vista;
+
+import Modelo.TableroEstado;
+
+import javax.swing.JComponent;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Componente que dibuja el tablero de ajedrez completo.
+ * Pinta por sí mismo las casillas y las piezas, recuerda qué había en cada
+ * casilla y, al recibir una nueva posición, solicita el repintado únicamente
+ * de las casillas que han cambiado.
+ *
+ * Al pulsar sobre una casilla dispara la propiedad "CLICK_CASILLA" con un
+ * Point cuyo x es la fila (0-7) y cuyo y es la columna (0-7).
+ */
+public class PanelTablero extends JComponent {
+    private static final Color COLOR_CLARO = new Color(240, 217, 181);
+    private static final Color COLOR_OSCURO = new Color(181, 136, 99);
+    private static final Color COLOR_PIEZA_BLANCA = new Color(255, 250, 240);
+    private static final Color COLOR_PIEZA_NEGRA = Color.BLACK;
+    private static final String FUENTE_PIEZAS = "Arial Unicode MS";
+
+    private static final Map<String, String> SIMBOLOS_UNICODE = new HashMap<>();
+
+    /** Símbolo dibujado en cada casilla (fila * 8 + columna), null si está vacía */
+    private final String[] simbolos = new String[64];
+    /** Indica si la pieza de cada casilla es blanca */
+    private final boolean[] piezaBlanca = new boolean[64];
+    /** Color de resaltado de cada casilla, null si no está resaltada */
+    private final Color[] resaltados = new Color[64];
+    /** Imágenes pre-rasterizadas de las piezas */
+    private final CacheSprites sprites = new CacheSprites(FUENTE_PIEZAS);
+
+    /**
+     * Mapa que contiene los símbolos Unicode de las piezas de ajedrez.
+     * Asocia el nombre y color de la pieza con su símbolo correspondiente.
+     */
+    static {
+        SIMBOLOS_UNICODE.put("Rey-B", "♔");
+        SIMBOLOS_UNICODE.put("Dama-B", "♕");
+        SIMBOLOS_UNICODE.put("Torre-B", "♖");
+        SIMBOLOS_UNICODE.put("Alfil-B", "♗");
+        SIMBOLOS_UNICODE.put("Caballo-B", "♘");
+        SIMBOLOS_UNICODE.put("Peón-B", "♙");
+        SIMBOLOS_UNICODE.put("Rey-N", "♚");
+        SIMBOLOS_UNICODE.put("Dama-N", "♛");
+        SIMBOLOS_UNICODE.put("Torre-N", "♜");
+        SIMBOLOS_UNICODE.put("Alfil-N", "♝");
+        SIMBOLOS_UNICODE.put("Caballo-N", "♞");
+        SIMBOLOS_UNICODE.put("Peón-N", "♟");
+    }
+
+    /**
+     * Crea un tablero vacío de 480x480 píxeles que notifica los clicks
+     * sobre sus casillas.
+     */
+    public PanelTablero() {
+        setPreferredSize(new Dimension(480, 480));
+        setOpaque(true);
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int casilla = casillaEn(e.getX(), e.getY());
+                if (casilla >= 0) {
+                    firePropertyChange("CLICK_CASILLA", null, new Point(casilla / 8, casilla % 8));
+                }
+            }
+        });
+
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                sprites.invalidar();
+            }
+        });
+    }
+
+    /**
+     * Muestra una nueva posición. Sólo se repintan las casillas cuyo
+     * contenido ha cambiado y las que tenían un resaltado que se elimina.
+     * @param estadoTablero instantánea con la posición actual de las piezas
+     * @return número de casillas que se repintan
+     */
+    public int actualizar(TableroEstado estadoTablero) {
+        int repintadas = 0;
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 8; j++) {
+                int casilla = i * 8 + j;
+                String simbolo = null;
+                boolean blanca = false;
+                if (!estadoTablero.estaVacia(i, j)) {
+                    String nombre = estadoTablero.getNombre(i, j);
+                    char color = estadoTablero.getColor(i, j);
+                    simbolo = SIMBOLOS_UNICODE.get(nombre + "-" + color);
+                    if (simbolo == null) {
+                        simbolo = nombre.substring(0, 1);
+                    }
+                    blanca = color == 'B';
+                }
+
+                boolean cambio = resaltados[casilla] != null
+                        || !Objects.equals(simbolos[casilla], simbolo)
+                        || piezaBlanca[casilla] != blanca;
+                simbolos[casilla] = simbolo;
+                piezaBlanca[casilla] = blanca;
+                resaltados[casilla] = null;
+                if (cambio) {
+                    repintarCasilla(casilla);
+                    repintadas++;
+                }
+            }
+        }
+        return repintadas;
+    }
+
+    /**
+     * Resalta una casilla con un color determinado hasta la siguiente actualización.
+     * @param fila fila de la casilla (0-7)
+     * @param columna columna de la casilla (0-7)
+     * @param color color con el que se resaltará la casilla
+     */
+    public void resaltarCasilla(int fila, int columna, Color color) {
+        int casilla = fila * 8 + columna;
+        if (!color.equals(resaltados[casilla])) {
+            resaltados[casilla] = color;
+            repintarCasilla(casilla);
+        }
+    }
+
+    /**
+     * Sustituye todos los resaltados por el de una casilla de origen y sus
+     * destinos. Las casillas cuyo resaltado cambia se repintan con una sola
+     * petición de repintado que abarca a todas.
+     * @param origen casilla de origen (fila * 8 + columna), o -1 para no resaltar ninguna
+     * @param destinos máscara de bits de las casillas de destino (bit fila * 8 + columna)
+     * @param colorOrigen color de la casilla de origen
+     * @param colorDestino color de las casillas de destino
+     */
+    public void resaltarCasillas(int origen, long destinos, Color colorOrigen, Color colorDestino) {
+        Rectangle region = null;
+        for (int casilla = 0; casilla < 64; casilla++) {
+            Color color = null;
+            if (casilla == origen) {
+                color = colorOrigen;
+            } else if ((destinos & (1L << casilla)) != 0) {
+                color = colorDestino;
+            }
+            if (!Objects.equals(color, resaltados[casilla])) {
+                resaltados[casilla] = color;
+                Rectangle r = rectanguloCasilla(casilla);
+                region = region == null ? r : region.union(r);
+            }
+        }
+        if (region != null) {
+            repaint(region);
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2d = (Graphics2D) g;
+
+        Rectangle recorte = g2d.getClipBounds();
+        if (recorte == null) {
+            recorte = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g2d.setColor(getParent() != null ? getParent().getBackground() : Color.DARK_GRAY);
+        g2d.fillRect(recorte.x, recorte.y, recorte.width, recorte.height);
+
+        int tam = tamanoCasilla();
+        if (tam <= 0) {
+            return;
+        }
+        AffineTransform transformada = g2d.getTransform();
+        double escala = Math.max(transformada.getScaleX(), transformada.getScaleY());
+        GraphicsConfiguration gc = g2d.getDeviceConfiguration();
+
+        for (int casilla = 0; casilla < 64; casilla++) {
+            Rectangle r = rectanguloCasilla(casilla);
+            if (!r.intersects(recorte)) {
+                continue;
+            }
+            int fila = casilla / 8;
+            int columna = casilla % 8;
+            Color fondo = resaltados[casilla];
+            if (fondo == null) {
+                fondo = (fila + columna) % 2 == 0 ? COLOR_CLARO : COLOR_OSCURO;
+            }
+            g2d.setColor(fondo);
+            g2d.fillRect(r.x, r.y, r.width, r.height);
+
+            String simbolo = simbolos[casilla];
+            if (simbolo != null) {
+                Color color = piezaBlanca[casilla] ? COLOR_PIEZA_BLANCA : COLOR_PIEZA_NEGRA;
+                Image sprite = sprites.obtener(simbolo, color, tam, escala, gc);
+                g2d.drawImage(sprite, r.x, r.y, tam, tam, null);
+            }
+        }
+    }
+
+    /**
+     * Solicita el repintado de la región que ocupa una casilla.
+     * @param casilla índice de la casilla (fila * 8 + columna)
+     */
+    private void repintarCasilla(int casilla) {
+        repaint(rectanguloCasilla(casilla));
+    }
+
+    /**
+     * @return Lado en píxeles de cada casilla según el tamaño actual
+     */
+    private int tamanoCasilla() {
+        return Math.min(getWidth(), getHeight()) / 8;
+    }
+
+    /**
+     * Calcula el rectángulo de una casilla, con el tablero centrado en el componente.
+     * @param casilla índice de la casilla (fila * 8 + columna)
+     * @return Región de la casilla en coordenadas del componente
+     */
+    private Rectangle rectanguloCasilla(int casilla) {
+        int tam = tamanoCasilla();
+        int x0 = (getWidth() - tam * 8) / 2;
+        int y0 = (getHeight() - tam * 8) / 2;
+        return new Rectangle(x0 + (casilla % 8) * tam, y0 + (casilla / 8) * tam, tam, tam);
+    }
+
+    /**
+     * Obtiene la casilla situada bajo un punto del componente.
+     * @return índice de la casilla, o -1 si el punto está fuera del tablero
+     */
+    private int casillaEn(int x, int y) {
+        int tam = tamanoCasilla();
+        if (tam <= 0) {
+            return -1;
+        }
+        int x0 = (getWidth() - tam * 8) / 2;
+        int y0 = (getHeight() - tam * 8) / 2;
+        int columna = Math.floorDiv(x - x0, tam);
+        int fila = Math.floorDiv(y - y0, tam);
+        if (fila < 0 || fila > 7 || columna < 0 || columna > 7) {
+            return -1;
+        }
+        return fila * 8 + columna;
+    }
+}
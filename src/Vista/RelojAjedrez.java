@@ -1,6 +1,9 @@
 package Vista;
 
 import Modelo.GestorSonido;
+import Modelo.JugadorAjedrez;
+import Modelo.ModoTiempo;
+import Modelo.RelojPartida;
 
 import javax.swing.*;
 import java.awt.*;
@@ -8,20 +11,22 @@ import java.text.DecimalFormat;
 
 /**
  * Componente visual que implementa un reloj de ajedrez.
- * Controla el tiempo de cada jugador y muestra una cuenta regresiva
- * con un tiempo inicial de 5 minutos por jugador.
+ * Muestra la cuenta regresiva de cada jugador a partir de un RelojPartida,
+ * que es quien lleva la cuenta real del tiempo. El timer de Swing sólo
+ * refresca la pantalla; por defecto cada jugador dispone de 5 minutos.
  */
 public class RelojAjedrez extends JPanel {
     private JLabel lblTiempoBlancas;
     private JLabel lblTiempoNegras;
     private JLabel lblNombreBlancas;
     private JLabel lblNombreNegras;
-    private Timer timer;
-    private boolean turnoBlancas;
-    private int tiempoBlancas;
-    private int tiempoNegras;
-    private static final int TIEMPO_INICIAL = 300; // 5 minutos en segundos
-    private boolean relojActivo;
+    private final Timer timer;
+    private RelojPartida reloj;
+    /** true si el tiempo oficial lo lleva un servidor y este reloj sólo lo muestra */
+    private boolean relojExterno;
+    private static final int TIEMPO_INICIAL = 5 * 60 * 1000; // 5 minutos en milisegundos
+    /** Intervalo de refresco de la pantalla en milisegundos */
+    private static final int REFRESCO = 100;
 
     /**
      * Constructor del reloj de ajedrez.
@@ -31,9 +36,32 @@ public class RelojAjedrez extends JPanel {
     public RelojAjedrez() {
         setLayout(new GridLayout(2, 2, 10, 5));
         inicializarComponentes();
+        timer = new Timer(REFRESCO, e -> refrescar());
+        configurarTiempo(TIEMPO_INICIAL, 0, ModoTiempo.SIN_INCREMENTO);
+    }
+
+    /**
+     * Cambia el control de tiempo de las próximas partidas.
+     *
+     * @param tiempoInicial Tiempo inicial de cada jugador en milisegundos
+     * @param incremento Incremento o retardo por jugada en milisegundos
+     * @param modo Modalidad de control de tiempo
+     */
+    public void configurarTiempo(int tiempoInicial, int incremento, ModoTiempo modo) {
+        detenerReloj();
+        reloj = new RelojPartida(new JugadorAjedrez(lblNombreBlancas.getText(), 'B'),
+                new JugadorAjedrez(lblNombreNegras.getText(), 'N'),
+                tiempoInicial, incremento, modo);
         reiniciarTiempos();
     }
 
+    /**
+     * @return Modelo del reloj con el tiempo y el registro de cada jugada
+     */
+    public RelojPartida getRelojPartida() {
+        return reloj;
+    }
+
     /**
      * Inicializa y configura los componentes visuales del reloj.
      * Establece las etiquetas, fuentes y estilos para mostrar
@@ -65,32 +93,20 @@ public class RelojAjedrez extends JPanel {
      * Reinicia los tiempos a sus valores iniciales
      */
     private void reiniciarTiempos() {
-        tiempoBlancas = TIEMPO_INICIAL;
-        tiempoNegras = TIEMPO_INICIAL;
-        actualizarEtiquetaTiempo(lblTiempoBlancas, tiempoBlancas);
-        actualizarEtiquetaTiempo(lblTiempoNegras, tiempoNegras);
+        reloj.reiniciar();
+        refrescarEtiquetas();
+        actualizarEstilos();
     }
 
     /**
      * Inicia el reloj para una nueva partida.
-     * Configura el timer y establece el turno inicial para las blancas.
+     * Pone en marcha el tiempo de las blancas y el refresco de la pantalla.
      */
     public void iniciarReloj() {
         detenerReloj();
-        reiniciarTiempos();
-        turnoBlancas = true;
-        relojActivo = true;
-
-        if (timer != null) {
-            timer.stop();
-        }
-
-        timer = new Timer(1000, e -> {
-            if (relojActivo) {
-                actualizarTiempo();
-            }
-        });
+        reloj.iniciar();
         timer.start();
+        refrescarEtiquetas();
         actualizarEstilos();
     }
 
@@ -98,56 +114,60 @@ public class RelojAjedrez extends JPanel {
      * Detiene el reloj de la partida actual.
      */
     public void detenerReloj() {
-        relojActivo = false;
-        if (timer != null) {
-            timer.stop();
-            timer = null;
+        timer.stop();
+        if (reloj != null) {
+            reloj.detener();
         }
     }
 
     /**
-     * Cambia el turno entre jugadores y actualiza los estilos visuales.
+     * Indica si el tiempo oficial lo lleva un servidor. En ese caso el reloj
+     * no declara la caída de bandera: espera a que lo haga el servidor.
+     * @param relojExterno true para partidas en red
      */
-    public void cambiarTurno() {
-        if (!relojActivo) return;
-
-        turnoBlancas = !turnoBlancas;
+    public void setRelojExterno(boolean relojExterno) {
+        this.relojExterno = relojExterno;
+    }
 
-        if (timer != null) {
-            timer.stop();
-        }
+    /**
+     * Corrige el tiempo mostrado con el que envía el servidor.
+     * @param blancas Milisegundos restantes de las blancas
+     * @param negras Milisegundos restantes de las negras
+     */
+    public void sincronizar(int blancas, int negras) {
+        reloj.ajustar(blancas, negras);
+        refrescarEtiquetas();
+        actualizarEstilos();
+    }
 
-        timer = new Timer(1000, e -> {
-            if (relojActivo) {
-                actualizarTiempo();
-            }
-        });
-        timer.start();
+    /**
+     * Cambia el turno entre jugadores y actualiza los estilos visuales.
+     */
+    public void cambiarTurno() {
+        if (!reloj.isActivo()) return;
 
+        reloj.cambiarTurno();
+        refrescarEtiquetas();
         actualizarEstilos();
     }
 
     /**
-     * Actualiza el tiempo del jugador actual y verifica si se ha agotado.
+     * Refresca la pantalla y verifica si se ha agotado el tiempo del jugador actual.
      */
-    private void actualizarTiempo() {
-        if (!relojActivo) return;
+    private void refrescar() {
+        if (!reloj.isActivo()) return;
 
-        if (turnoBlancas && tiempoBlancas > 0) {
-            tiempoBlancas--;
-            actualizarEtiquetaTiempo(lblTiempoBlancas, tiempoBlancas);
-            if (tiempoBlancas <= 0) {
-                tiempoAgotado("Negras");
-            }
-        } else if (!turnoBlancas && tiempoNegras > 0) {
-            tiempoNegras--;
-            actualizarEtiquetaTiempo(lblTiempoNegras, tiempoNegras);
-            if (tiempoNegras <= 0) {
-                tiempoAgotado("Blancas");
-            }
+        refrescarEtiquetas();
+        if (!relojExterno && reloj.tiempoAgotado()) {
+            tiempoAgotado(reloj.isTurnoBlancas() ? "Negras" : "Blancas");
         }
     }
 
+    private void refrescarEtiquetas() {
+        actualizarEtiquetaTiempo(lblTiempoBlancas, reloj.getTiempoRestante(true));
+        actualizarEtiquetaTiempo(lblTiempoNegras, reloj.getTiempoRestante(false));
+    }
+
     /**
      * Maneja el evento de tiempo agotado para un jugador.
      *
@@ -160,16 +180,24 @@ public class RelojAjedrez extends JPanel {
     }
 
     /**
-     * Actualiza la etiqueta de tiempo con el formato mm:ss.
+     * Actualiza la etiqueta de tiempo con el formato mm:ss, o ss.d
+     * cuando quedan menos de 10 segundos.
      *
      * @param label Etiqueta a actualizar
-     * @param segundosTotales Tiempo en segundos a mostrar
+     * @param milisegundos Tiempo en milisegundos a mostrar
      */
-    private void actualizarEtiquetaTiempo(JLabel label, int segundosTotales) {
-        int minutos = segundosTotales / 60;
-        int segundos = segundosTotales % 60;
-        DecimalFormat df = new DecimalFormat("00");
-        label.setText(minutos + ":" + df.format(segundos));
+    private void actualizarEtiquetaTiempo(JLabel label, int milisegundos) {
+        String texto;
+        if (milisegundos < 10_000) {
+            texto = (milisegundos / 1000) + "." + (milisegundos % 1000) / 100;
+        } else {
+            int segundosTotales = (milisegundos + 999) / 1000;
+            DecimalFormat df = new DecimalFormat("00");
+            texto = segundosTotales / 60 + ":" + df.format(segundosTotales % 60);
+        }
+        if (!texto.equals(label.getText())) {
+            label.setText(texto);
+        }
     }
 
     /**
@@ -178,6 +206,7 @@ public class RelojAjedrez extends JPanel {
     private void actualizarEstilos() {
         Color colorActivo = new Color(46, 204, 113);
         Color colorInactivo = new Color(200, 200, 200);
+        boolean turnoBlancas = reloj.isTurnoBlancas();
 
         lblNombreBlancas.setForeground(turnoBlancas ? colorActivo : colorInactivo);
         lblTiempoBlancas.setForeground(turnoBlancas ? colorActivo : colorInactivo);
@@ -0,0 +1,79 @@
+package Vista;
+
+import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.ListCellRenderer;
+import java.awt.*;
+
+/**
+ * Dibuja una fila de la lista de movimientos: número de jugada, movimiento
+ * de blancas y movimiento de negras, resaltando el medio movimiento actual
+ * y, en rojo, las anotaciones de error del análisis.
+ * Una única instancia se reutiliza para pintar todas las filas visibles.
+ */
+public class RenderizadorMovimiento extends JComponent implements ListCellRenderer<String> {
+    private static final Color COLOR_RESALTADO = new Color(255, 215, 0);
+    private static final Color COLOR_MARCA = new Color(231, 76, 60);
+    private static final int ANCHO_NUMERO = 60;
+    private static final int ANCHO_MOVIMIENTO = 110;
+
+    private final ModeloListaMovimientos modelo;
+    private int fila;
+
+    /**
+     * @param modelo modelo del que se leen los movimientos de cada fila
+     */
+    public RenderizadorMovimiento(ModeloListaMovimientos modelo) {
+        this.modelo = modelo;
+        setFont(new Font("Monospaced", Font.PLAIN, 14));
+        setOpaque(true);
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<? extends String> lista, String valor,
+                                                  int indice, boolean seleccionado, boolean foco) {
+        this.fila = indice;
+        setBackground(lista.getBackground());
+        setForeground(lista.getForeground());
+        return this;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        FontMetrics fm = getFontMetrics(getFont());
+        return new Dimension(ANCHO_NUMERO + 2 * ANCHO_MOVIMIENTO, fm.getHeight() + 4);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        g.setFont(getFont());
+        FontMetrics fm = g.getFontMetrics();
+        int base = (getHeight() - fm.getHeight()) / 2 + fm.getAscent();
+
+        g.setColor(getForeground());
+        g.drawString((fila + 1) + ".", 6, base);
+        pintarMovimiento(g, modelo.getBlancas(fila), fila * 2, ANCHO_NUMERO, base);
+        String negras = modelo.getNegras(fila);
+        if (negras != null) {
+            pintarMovimiento(g, negras, fila * 2 + 1, ANCHO_NUMERO + ANCHO_MOVIMIENTO, base);
+        }
+    }
+
+    private void pintarMovimiento(Graphics g, String movimiento, int ply, int x, int base) {
+        if (ply == modelo.getPlyActual()) {
+            g.setColor(COLOR_RESALTADO);
+            g.fillRect(x - 4, 1, ANCHO_MOVIMIENTO - 8, getHeight() - 2);
+            g.setColor(Color.BLACK);
+        } else {
+            g.setColor(getForeground());
+        }
+        g.drawString(movimiento, x, base);
+        String marca = modelo.getMarca(ply);
+        if (!marca.isEmpty()) {
+            g.setColor(COLOR_MARCA);
+            g.drawString(marca, x + g.getFontMetrics().stringWidth(movimiento), base);
+        }
+    }
+}
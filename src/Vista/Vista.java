@@ -1,16 +1,17 @@
 package Vista;
 
+import Diagnostico.EventoActualizarTablero;
 import Modelo.GestorSonido;
-import Vista.CasillaTablero;
-import Modelo.Pieza;
+import Modelo.ModoTiempo;
+import Modelo.TableroEstado;
+import Motor.EstadisticasBusqueda;
+import Motor.EvaluacionPosicion;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import java.beans.PropertyChangeListener;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 
 /**
@@ -28,37 +29,18 @@ public class Vista extends JFrame {
     private static final Font BUTTON_FONT = new Font("Segoe UI", Font.BOLD, 18);
 
 
-    private JPanel panelTablero;
+    private PanelTablero panelTablero;
     private JPanel panelMenu;
-    private CasillaTablero[][] casillas;
-    private JButton btnAnterior, btnSiguiente, btnVolverMenu, btnGuardarPartida;
+    private JButton btnAnterior, btnSiguiente, btnVolverMenu, btnGuardarPartida, btnAnalizar;
     private JButton btnModoVisor, btnModoJuego;
-    private JTextArea areaMovimientos;
+    private JList<String> listaMovimientos;
+    private ModeloListaMovimientos modeloMovimientos;
     private RelojAjedrez relojAjedrez;
-    private static final Map<String, String> SIMBOLOS_UNICODE = new HashMap<>();
+    private PanelEstadisticas panelEstadisticas;
+    private PanelEvaluacion panelEvaluacion;
     private boolean modoJuego = false;
 
 
-    /**
-     * Mapa que contiene los símbolos Unicode de las piezas de ajedrez.
-     * Asocia el nombre y color de la pieza con su símbolo correspondiente.
-     */
-    static {
-        SIMBOLOS_UNICODE.put("Rey-B", "♔");
-        SIMBOLOS_UNICODE.put("Dama-B", "♕");
-        SIMBOLOS_UNICODE.put("Torre-B", "♖");
-        SIMBOLOS_UNICODE.put("Alfil-B", "♗");
-        SIMBOLOS_UNICODE.put("Caballo-B", "♘");
-        SIMBOLOS_UNICODE.put("Peón-B", "♙");
-        SIMBOLOS_UNICODE.put("Rey-N", "♚");
-        SIMBOLOS_UNICODE.put("Dama-N", "♛");
-        SIMBOLOS_UNICODE.put("Torre-N", "♜");
-        SIMBOLOS_UNICODE.put("Alfil-N", "♝");
-        SIMBOLOS_UNICODE.put("Caballo-N", "♞");
-        SIMBOLOS_UNICODE.put("Peón-N", "♟");
-    }
-
-
     /**
      * Construye una nueva ventana de ajedrez.
      * Inicializa todos los componentes y muestra el menú principal.
@@ -83,6 +65,16 @@ public class Vista extends JFrame {
         inicializarBotonesControl();
         inicializarAreaMovimientos();
         inicializarReloj();
+        panelEstadisticas = new PanelEstadisticas();
+        panelEstadisticas.setVisible(false);
+        panelEstadisticas.addPropertyChangeListener("LINEAS_ANALISIS",
+                e -> firePropertyChange("LINEAS_ANALISIS", null, e.getNewValue()));
+        panelEvaluacion = new PanelEvaluacion();
+        panelEvaluacion.addPropertyChangeListener("SELECCION_PLY", e -> {
+            if (!modoJuego) {
+                firePropertyChange("IR_A_PLY", null, e.getNewValue());
+            }
+        });
     }
 
     private void inicializarReloj() {
@@ -99,6 +91,9 @@ public class Vista extends JFrame {
             String jugadorBlancas = dialogo.getNombreBlancas();
             String jugadorNegras = dialogo.getNombreNegras();
             relojAjedrez.setNombres(jugadorBlancas, jugadorNegras);
+            relojAjedrez.configurarTiempo(dialogo.getTiempoInicial(), dialogo.getIncremento(),
+                    dialogo.getModoTiempo());
+            relojAjedrez.setRelojExterno(false);
             return true;
         }
         return false;
@@ -163,15 +158,12 @@ public class Vista extends JFrame {
     }
 
     private void inicializarTablero() {
-        panelTablero = new JPanel(new GridLayout(8, 8));
-        casillas = new CasillaTablero[8][8];
-
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                casillas[i][j] = new CasillaTablero(i, j);
-                panelTablero.add(casillas[i][j]);
+        panelTablero = new PanelTablero();
+        panelTablero.addPropertyChangeListener("CLICK_CASILLA", e -> {
+            if (modoJuego) {
+                firePropertyChange("CLICK_CASILLA", null, e.getNewValue());
             }
-        }
+        });
     }
 
     private void inicializarBotonesControl() {
@@ -179,14 +171,21 @@ public class Vista extends JFrame {
         btnSiguiente = new JButton("Siguiente");
         btnVolverMenu = new JButton("Volver al Menú");
         btnGuardarPartida = new JButton("Guardar Partida");
+        btnAnalizar = new JButton("Analizar");
         estilizarBotonesControl();
     }
 
     private void inicializarAreaMovimientos() {
-        areaMovimientos = new JTextArea(10, 30);
-        areaMovimientos.setEditable(false);
-        areaMovimientos.setFont(new Font("Monospaced", Font.PLAIN, 14));
-        areaMovimientos.setBackground(new Color(245, 245, 245));
+        modeloMovimientos = new ModeloListaMovimientos();
+        listaMovimientos = new JList<>(modeloMovimientos);
+        RenderizadorMovimiento renderizador = new RenderizadorMovimiento(modeloMovimientos);
+        listaMovimientos.setCellRenderer(renderizador);
+        // Altura y anchura fijas: la lista no mide cada fila y sólo pinta las visibles
+        listaMovimientos.setFixedCellHeight(renderizador.getPreferredSize().height);
+        listaMovimientos.setFixedCellWidth(renderizador.getPreferredSize().width);
+        listaMovimientos.setVisibleRowCount(10);
+        listaMovimientos.setFocusable(false);
+        listaMovimientos.setBackground(new Color(245, 245, 245));
     }
 
     private JButton crearBotonMenu(String texto) {
@@ -242,7 +241,7 @@ public class Vista extends JFrame {
     }
 
     private void estilizarBotonesControl() {
-        Component[] botones = {btnAnterior, btnSiguiente, btnVolverMenu, btnGuardarPartida};
+        Component[] botones = {btnAnterior, btnSiguiente, btnVolverMenu, btnGuardarPartida, btnAnalizar};
         for (Component comp : botones) {
             if (comp instanceof JButton) {
                 JButton btn = (JButton) comp;
@@ -282,6 +281,8 @@ public class Vista extends JFrame {
 
         if (modoJuego) {
             panelPrincipal.add(relojAjedrez, BorderLayout.EAST);
+        } else {
+            panelPrincipal.add(panelEvaluacion, BorderLayout.SOUTH);
         }
 
         add(panelPrincipal, BorderLayout.CENTER);
@@ -291,6 +292,7 @@ public class Vista extends JFrame {
         if (!modoJuego) {
             panelControles.add(btnAnterior);
             panelControles.add(btnSiguiente);
+            panelControles.add(btnAnalizar);
         } else {
             panelControles.add(btnGuardarPartida);
         }
@@ -298,7 +300,7 @@ public class Vista extends JFrame {
         add(panelControles, BorderLayout.SOUTH);
 
         if (!modoJuego) {
-            JScrollPane scrollMovimientos = new JScrollPane(areaMovimientos);
+            JScrollPane scrollMovimientos = new JScrollPane(listaMovimientos);
             scrollMovimientos.setBorder(BorderFactory.createTitledBorder(
                     BorderFactory.createLineBorder(Color.WHITE),
                     "Movimientos",
@@ -308,9 +310,14 @@ public class Vista extends JFrame {
                     Color.WHITE
             ));
             scrollMovimientos.setBackground(BACKGROUND_COLOR);
-            areaMovimientos.setBackground(new Color(45, 45, 112));
-            areaMovimientos.setForeground(Color.WHITE);
-            add(scrollMovimientos, BorderLayout.EAST);
+            listaMovimientos.setBackground(new Color(45, 45, 112));
+            listaMovimientos.setForeground(Color.WHITE);
+
+            JPanel panelLateral = new JPanel(new BorderLayout());
+            panelLateral.setBackground(BACKGROUND_COLOR);
+            panelLateral.add(scrollMovimientos, BorderLayout.CENTER);
+            panelLateral.add(panelEstadisticas, BorderLayout.SOUTH);
+            add(panelLateral, BorderLayout.EAST);
         }
 
         revalidate();
@@ -319,26 +326,19 @@ public class Vista extends JFrame {
 
     /**
      * Actualiza la visualización del tablero con el estado actual de las piezas.
-     * @param estadoTablero matriz que representa la posición actual de las piezas
+     * Sólo se repintan las casillas que han cambiado desde la última actualización.
+     * @param estadoTablero instantánea con la posición actual de las piezas
      */
 
-    public void actualizarTablero(Pieza[][] estadoTablero) {
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                if (estadoTablero[i][j] != null) {
-                    Pieza pieza = estadoTablero[i][j];
-                    String clave = pieza.getNombre() + "-" + pieza.getColor();
-                    String simbolo = SIMBOLOS_UNICODE.get(clave);
-
-                    casillas[i][j].setText(simbolo != null ? simbolo :
-                            pieza.getNombre().substring(0, 1));
-                    casillas[i][j].setForeground(pieza.getColor() == 'B' ?
-                            new Color(255, 250, 240) : Color.BLACK);
-                } else {
-                    casillas[i][j].setText("");
-                }
-                casillas[i][j].resetColor();
-            }
+    public void actualizarTablero(TableroEstado estadoTablero) {
+        EventoActualizarTablero evento = new EventoActualizarTablero();
+        evento.begin();
+        int repintadas = panelTablero.actualizar(estadoTablero);
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.clavePosicion = estadoTablero.hashCode();
+            evento.casillasRepintadas = repintadas;
+            evento.commit();
         }
     }
 
@@ -360,18 +360,56 @@ public class Vista extends JFrame {
         btnVolverMenu.setActionCommand("VOLVER_MENU");
         btnGuardarPartida.addActionListener(controlador);
         btnGuardarPartida.setActionCommand("GUARDAR_PARTIDA");
+        btnAnalizar.addActionListener(controlador);
+        btnAnalizar.setActionCommand("ANALIZAR");
+    }
 
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                final int fila = i;
-                final int columna = j;
-                casillas[i][j].addActionListener(e -> {
-                    if (modoJuego) {
-                        firePropertyChange("CLICK_CASILLA", null, new Point(fila, columna));
-                    }
-                });
-            }
-        }
+    /**
+     * Muestra u oculta el panel de estadísticas del análisis del visor.
+     * @param activo true si el motor está analizando la posición mostrada
+     */
+    public void setAnalisisActivo(boolean activo) {
+        btnAnalizar.setText(activo ? "Detener Análisis" : "Analizar");
+        panelEstadisticas.limpiar();
+        panelEstadisticas.setVisible(activo);
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Muestra el resultado de la última iteración del análisis.
+     * @param variantes Evaluación y variante de cada línea ya formateadas, de mejor a peor
+     * @param estadisticas Estadísticas de la búsqueda
+     */
+    public void mostrarEstadisticas(List<String> variantes, EstadisticasBusqueda estadisticas) {
+        panelEstadisticas.mostrar(variantes, estadisticas);
+    }
+
+    /**
+     * Vacía la gráfica de evaluación al cargar una partida en el visor.
+     * @param posiciones Número de posiciones de la partida, incluida la inicial
+     */
+    public void reiniciarEvaluaciones(int posiciones) {
+        panelEvaluacion.reiniciar(posiciones);
+    }
+
+    /**
+     * Añade a la gráfica la evaluación de una posición y anota como errores
+     * los movimientos que llevan a ella y que salen de ella, si procede.
+     * @param evaluacion Evaluación recibida del análisis de la partida
+     */
+    public void mostrarEvaluacion(EvaluacionPosicion evaluacion) {
+        panelEvaluacion.setEvaluacion(evaluacion);
+        int ply = evaluacion.getPly();
+        modeloMovimientos.setMarca(ply - 1, panelEvaluacion.getMarca(ply - 1));
+        modeloMovimientos.setMarca(ply, panelEvaluacion.getMarca(ply));
+    }
+
+    /**
+     * Borra el panel de estadísticas al empezar a analizar otra posición.
+     */
+    public void limpiarEstadisticas() {
+        panelEstadisticas.limpiar();
     }
 
     public void addPropertyChangeListener(PropertyChangeListener listener) {
@@ -390,7 +428,28 @@ public class Vista extends JFrame {
      * @param color color con el que se resaltará la casilla
      */
     public void resaltarCasilla(int fila, int columna, Color color) {
-        casillas[fila][columna].setBackground(color);
+        panelTablero.resaltarCasilla(fila, columna, color);
+    }
+
+    /**
+     * Resalta una pieza seleccionada y todos sus destinos legales en una sola
+     * pasada de repintado, eliminando cualquier otro resaltado.
+     * @param fila fila de la pieza (0-7)
+     * @param columna columna de la pieza (0-7)
+     * @param destinos máscara de bits de las casillas de destino (bit fila * 8 + columna)
+     * @param colorOrigen color de la casilla de la pieza
+     * @param colorDestino color de las casillas de destino
+     */
+    public void resaltarMovimientosLegales(int fila, int columna, long destinos,
+                                           Color colorOrigen, Color colorDestino) {
+        panelTablero.resaltarCasillas(fila * 8 + columna, destinos, colorOrigen, colorDestino);
+    }
+
+    /**
+     * Elimina todos los resaltados del tablero.
+     */
+    public void quitarResaltados() {
+        panelTablero.resaltarCasillas(-1, 0L, null, null);
     }
 
     public void mostrarMenu() {
@@ -403,20 +462,25 @@ public class Vista extends JFrame {
 
     /**
      * Muestra la lista de movimientos realizados en notación algebraica.
+     * Si la lista es la misma que la mostrada anteriormente sólo se añaden
+     * los movimientos nuevos.
      * @param movimientos lista de movimientos en notación algebraica
      */
     public void mostrarMovimientos(List<String> movimientos) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < movimientos.size(); i++) {
-            if (i % 2 == 0) {
-                sb.append((i / 2 + 1)).append(". ");
-            }
-            sb.append(movimientos.get(i)).append(" ");
-            if (i % 2 == 1) {
-                sb.append("\n");
-            }
+        modeloMovimientos.sincronizar(movimientos);
+    }
+
+    /**
+     * Resalta en la lista el último movimiento jugado hasta la posición mostrada.
+     * @param movimientosJugados número de medios movimientos jugados (0 = posición inicial)
+     */
+    public void resaltarMovimiento(int movimientosJugados) {
+        int ply = movimientosJugados - 1;
+        modeloMovimientos.setPlyActual(ply);
+        panelEvaluacion.setPlyActual(movimientosJugados);
+        if (ply >= 0) {
+            listaMovimientos.ensureIndexIsVisible(ply / 2);
         }
-        areaMovimientos.setText(sb.toString());
     }
 
 
@@ -446,6 +510,31 @@ public class Vista extends JFrame {
         }
     }
 
+    /**
+     * Prepara el reloj para una partida en red, cuyo tiempo oficial lleva el servidor.
+     * @param nombreBlancas Nombre del jugador con piezas blancas
+     * @param nombreNegras Nombre del jugador con piezas negras
+     * @param tiempoInicial Tiempo inicial de cada jugador en milisegundos
+     * @param incremento Incremento Fischer por jugada en milisegundos
+     */
+    public void configurarRelojRed(String nombreBlancas, String nombreNegras, int tiempoInicial, int incremento) {
+        relojAjedrez.setNombres(nombreBlancas, nombreNegras);
+        relojAjedrez.configurarTiempo(tiempoInicial, incremento,
+                incremento > 0 ? ModoTiempo.FISCHER : ModoTiempo.SIN_INCREMENTO);
+        relojAjedrez.setRelojExterno(true);
+    }
+
+    /**
+     * Muestra en el reloj el tiempo que indica el servidor.
+     * @param blancas Milisegundos restantes de las blancas
+     * @param negras Milisegundos restantes de las negras
+     */
+    public void sincronizarReloj(int blancas, int negras) {
+        if (modoJuego) {
+            relojAjedrez.sincronizar(blancas, negras);
+        }
+    }
+
     /**
      * Establece el modo de juego actual.
      * @param modoJuego true para modo juego, false para modo visor